@@ -1,6 +1,8 @@
 package com.eventos;
 
 import com.eventos.config.HibernateUtil;
+import com.eventos.config.Serializacion;
+import com.eventos.services.InstantaneaCatalogoService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -65,6 +67,16 @@ public class Main extends Application {
             HibernateUtil.getEntityManagerFactory();
             logger.info("✓ Conexión a base de datos establecida correctamente");
             
+            // Jackson y JAXB se inicializan en segundo plano para que la primera
+            // exportación no pague la introspección de las clases
+            Thread precalentado = new Thread(Serializacion::precalentar, "precalentar-serializacion");
+            precalentado.setDaemon(true);
+            precalentado.start();
+            
+            // La instantánea del catálogo se refresca mientras se muestra el login,
+            // así las pantallas de eventos se abren sin esperar a la base de datos
+            InstantaneaCatalogoService.getInstance().refrescar();
+            
         } catch (Exception e) {
             logger.error("✗ Error al inicializar la base de datos", e);
             throw e; // Re-lanzar excepción para que JavaFX maneje el error
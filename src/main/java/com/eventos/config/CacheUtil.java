@@ -0,0 +1,118 @@
+package com.eventos.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utilidad para la caché de segundo nivel de Hibernate.
+ * Permite invalidar las regiones de las entidades de referencia (Sede, TipoEvento,
+ * TipoEntrada, Rol) y consultar los aciertos/fallos de cada región.
+ */
+public final class CacheUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheUtil.class);
+
+    /**
+     * Región donde se guardan los resultados de las consultas cacheables de referencia
+     */
+    public static final String REGION_CONSULTAS = "consultas-referencia";
+
+    private CacheUtil() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Invalida todas las instancias cacheadas de una entidad y las consultas de referencia
+     * @param entityClass Clase de la entidad modificada
+     */
+    public static void evictar(Class<?> entityClass) {
+        SessionFactory sf = getSessionFactory();
+        sf.getCache().evictEntityData(entityClass);
+        sf.getCache().evictQueryRegion(REGION_CONSULTAS);
+        logger.debug("Caché invalidada para {}", entityClass.getSimpleName());
+    }
+
+    /**
+     * Invalida toda la caché de segundo nivel y de consultas
+     */
+    public static void evictarTodo() {
+        SessionFactory sf = getSessionFactory();
+        sf.getCache().evictAllRegions();
+        logger.debug("Caché de segundo nivel invalidada por completo");
+    }
+
+    /**
+     * Obtiene los contadores de cada región de caché
+     * @return Lista con las estadísticas de cada región
+     */
+    public static List<EstadisticasRegion> getEstadisticas() {
+        Statistics stats = getSessionFactory().getStatistics();
+        String[] regiones = stats.getSecondLevelCacheRegionNames();
+        Arrays.sort(regiones);
+
+        List<EstadisticasRegion> resultado = new ArrayList<>();
+        for (String region : regiones) {
+            CacheRegionStatistics r = stats.getCacheRegionStatistics(region);
+            if (r != null) {
+                resultado.add(new EstadisticasRegion(region, r.getHitCount(), r.getMissCount(),
+                    r.getPutCount(), r.getElementCountInMemory()));
+            }
+        }
+        return resultado;
+    }
+
+    private static SessionFactory getSessionFactory() {
+        return HibernateUtil.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Contadores de una región de caché
+     */
+    public static class EstadisticasRegion {
+        private final String region;
+        private final long aciertos;
+        private final long fallos;
+        private final long inserciones;
+        private final long elementos;
+
+        EstadisticasRegion(String region, long aciertos, long fallos, long inserciones, long elementos) {
+            this.region = region;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.inserciones = inserciones;
+            this.elementos = elementos;
+        }
+
+        public String getRegion() { return region; }
+        public long getAciertos() { return aciertos; }
+        public long getFallos() { return fallos; }
+        public long getInserciones() { return inserciones; }
+
+        /**
+         * Elementos en memoria (-1 si el proveedor no lo informa)
+         */
+        public long getElementos() { return elementos; }
+
+        /**
+         * Porcentaje de aciertos sobre el total de lecturas
+         */
+        public double getRatioAciertos() {
+            long total = aciertos + fallos;
+            return total > 0 ? aciertos * 100.0 / total : 0;
+        }
+
+        @Override
+        public String toString() {
+            return region + ": aciertos=" + aciertos + ", fallos=" + fallos
+                + ", inserciones=" + inserciones + ", elementos=" + elementos
+                + String.format(", ratio=%.1f%%", getRatioAciertos());
+        }
+    }
+}
@@ -36,6 +36,36 @@ public class ConfigManager {
         return properties.getProperty(key, defaultValue);
     }
     
+    /**
+     * Obtiene el valor entero de una propiedad o un valor por defecto
+     */
+    public static int getInt(String key, int defaultValue) {
+        String valor = properties.getProperty(key);
+        if (valor == null || valor.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Obtiene el valor long de una propiedad o un valor por defecto
+     */
+    public static long getLong(String key, long defaultValue) {
+        String valor = properties.getProperty(key);
+        if (valor == null || valor.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
     // Métodos de conveniencia para propiedades comunes
     
     public static String getDbUrl() {
@@ -50,6 +80,34 @@ public class ConfigManager {
         return get("db.password");
     }
     
+    public static int getPoolMaxSize() {
+        return getInt("db.pool.maxSize", 10);
+    }
+    
+    public static int getPoolMinIdle() {
+        return getInt("db.pool.minIdle", 2);
+    }
+    
+    public static long getPoolConnectionTimeoutMs() {
+        return getLong("db.pool.connectionTimeoutMs", 30000);
+    }
+    
+    public static long getPoolIdleTimeoutMs() {
+        return getLong("db.pool.idleTimeoutMs", 600000);
+    }
+    
+    public static long getPoolMaxLifetimeMs() {
+        return getLong("db.pool.maxLifetimeMs", 1800000);
+    }
+    
+    public static int getPrepStmtCacheSize() {
+        return getInt("db.prepStmtCacheSize", 250);
+    }
+    
+    public static int getPrepStmtCacheSqlLimit() {
+        return getInt("db.prepStmtCacheSqlLimit", 2048);
+    }
+    
     public static String getExportPath() {
         return get("app.export.path");
     }
@@ -62,6 +120,10 @@ public class ConfigManager {
         return get("app.imports.path");
     }
     
+    public static long getEstadisticasTtlMs() {
+        return getLong("app.estadisticas.ttlMs", 30000);
+    }
+    
     public static String getAppName() {
         return get("app.name");
     }
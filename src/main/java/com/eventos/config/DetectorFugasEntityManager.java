@@ -0,0 +1,108 @@
+package com.eventos.config;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detector de EntityManager que se quedan abiertos.
+ * Cada EntityManager creado por HibernateUtil se registra aquí; una tarea periódica
+ * descarta los ya cerrados y avisa en el log de los que llevan abiertos más tiempo
+ * del umbral configurado (db.em.leakThresholdMs), indicando dónde se crearon.
+ */
+public final class DetectorFugasEntityManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectorFugasEntityManager.class);
+
+    private static final long UMBRAL_MS = ConfigManager.getLong("db.em.leakThresholdMs", 60000);
+    private static final long INTERVALO_MS = Math.max(1000, UMBRAL_MS / 2);
+
+    private static final Map<EntityManager, Registro> ABIERTOS = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService revisor;
+
+    private DetectorFugasEntityManager() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Registra un EntityManager recién creado
+     */
+    static void registrar(EntityManager em) {
+        if (UMBRAL_MS <= 0) {
+            return;
+        }
+        ABIERTOS.put(em, new Registro(System.currentTimeMillis(), Thread.currentThread().getName(),
+            new Throwable("EntityManager creado aquí")));
+        iniciarRevisor();
+    }
+
+    private static synchronized void iniciarRevisor() {
+        if (revisor != null) {
+            return;
+        }
+        revisor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "detector-fugas-em");
+            t.setDaemon(true);
+            return t;
+        });
+        revisor.scheduleWithFixedDelay(DetectorFugasEntityManager::revisar,
+            INTERVALO_MS, INTERVALO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Revisa los EntityManager registrados: elimina los cerrados y avisa de los que superan el umbral
+     */
+    static void revisar() {
+        long ahora = System.currentTimeMillis();
+        Iterator<Map.Entry<EntityManager, Registro>> it = ABIERTOS.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<EntityManager, Registro> entrada = it.next();
+            Registro registro = entrada.getValue();
+            if (!entrada.getKey().isOpen()) {
+                it.remove();
+            } else if (!registro.avisado && ahora - registro.creado > UMBRAL_MS) {
+                registro.avisado = true;
+                logger.warn("Posible fuga: EntityManager abierto desde hace {} ms (hilo '{}')",
+                    ahora - registro.creado, registro.hilo, registro.origen);
+            }
+        }
+    }
+
+    /**
+     * Número de EntityManager registrados que siguen abiertos
+     */
+    public static long getAbiertos() {
+        return ABIERTOS.keySet().stream().filter(EntityManager::isOpen).count();
+    }
+
+    /**
+     * Detiene la revisión periódica
+     */
+    static synchronized void detener() {
+        if (revisor != null) {
+            revisor.shutdownNow();
+            revisor = null;
+        }
+        ABIERTOS.clear();
+    }
+
+    private static final class Registro {
+        private final long creado;
+        private final String hilo;
+        private final Throwable origen;
+        private volatile boolean avisado;
+
+        private Registro(long creado, String hilo, Throwable origen) {
+            this.creado = creado;
+            this.hilo = hilo;
+            this.origen = origen;
+        }
+    }
+}
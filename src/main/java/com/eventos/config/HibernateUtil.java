@@ -1,31 +1,67 @@
 package com.eventos.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Utilidad para gestionar la conexión con Hibernate/JPA.
  * Implementa el patrón Singleton para la EntityManagerFactory.
+ * Las conexiones se obtienen de un pool HikariCP configurado desde config.properties.
  */
 public class HibernateUtil {
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
-    private static EntityManagerFactory entityManagerFactory;
-    
+    private static volatile EntityManagerFactory entityManagerFactory;
+    private static volatile HikariDataSource dataSource;
+    private static final MetricasPool metricasPool = new MetricasPool();
+
+    /**
+     * Tablas de secuencia (y tabla a la que dan ids) de las entidades con ids por bloques
+     */
+    private static final String[][] SECUENCIAS = {
+        {"compras_seq", "compras"},
+        {"entradas_seq", "entradas"}
+    };
+
     private HibernateUtil() {
         // Constructor privado para evitar instanciación
     }
-    
+
     /**
      * Obtiene la EntityManagerFactory
      */
     public static EntityManagerFactory getEntityManagerFactory() {
+        EntityManagerFactory emf = entityManagerFactory;
+        if (emf != null && emf.isOpen()) {
+            return emf;
+        }
+        return inicializar();
+    }
+    
+    private static synchronized EntityManagerFactory inicializar() {
         if (entityManagerFactory == null || !entityManagerFactory.isOpen()) {
             try {
                 logger.info("Inicializando EntityManagerFactory...");
-                entityManagerFactory = Persistence.createEntityManagerFactory("EventosPU");
+                if (dataSource == null || dataSource.isClosed()) {
+                    dataSource = crearDataSource();
+                }
+                Map<String, Object> propiedades = new HashMap<>();
+                propiedades.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+                entityManagerFactory = Persistence.createEntityManagerFactory("EventosPU", propiedades);
+                alinearSecuencias();
+                migrarCodigosQR();
                 logger.info("EntityManagerFactory inicializado correctamente");
             } catch (Exception e) {
                 logger.error("Error al inicializar EntityManagerFactory", e);
@@ -34,22 +70,131 @@ public class HibernateUtil {
         }
         return entityManagerFactory;
     }
-    
+
+    /**
+     * Crea el pool de conexiones HikariCP.
+     * Activa la caché de sentencias preparadas del driver y la reescritura de lotes
+     * para que los inserts por lotes de Hibernate viajen en una sola sentencia.
+     */
+    private static HikariDataSource crearDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("EventosPool");
+        config.setJdbcUrl(ConfigManager.getDbUrl());
+        config.setUsername(ConfigManager.getDbUsername());
+        config.setPassword(ConfigManager.getDbPassword());
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+
+        config.setMaximumPoolSize(ConfigManager.getPoolMaxSize());
+        config.setMinimumIdle(ConfigManager.getPoolMinIdle());
+        config.setConnectionTimeout(ConfigManager.getPoolConnectionTimeoutMs());
+        config.setIdleTimeout(ConfigManager.getPoolIdleTimeoutMs());
+        config.setMaxLifetime(ConfigManager.getPoolMaxLifetimeMs());
+        config.setMetricsTrackerFactory(metricasPool);
+
+        // Optimizaciones del driver MySQL
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(ConfigManager.getPrepStmtCacheSize()));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(ConfigManager.getPrepStmtCacheSqlLimit()));
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+
+        // Configuración de caracteres UTF-8
+        config.addDataSourceProperty("characterEncoding", "UTF-8");
+        config.addDataSourceProperty("useUnicode", "true");
+
+        logger.info("Creando pool de conexiones (máx. {}, mín. ociosas {})",
+            config.getMaximumPoolSize(), config.getMinimumIdle());
+        return new HikariDataSource(config);
+    }
+
     /**
-     * Crea un nuevo EntityManager
+     * Asegura que cada tabla de secuencia quede por encima del mayor id existente.
+     * Necesario al migrar desde ids AUTO_INCREMENT o si hbm2ddl crea la tabla
+     * de secuencia con su valor inicial sobre una tabla que ya tiene filas.
+     */
+    private static void alinearSecuencias() {
+        try (Connection conexion = dataSource.getConnection();
+             Statement st = conexion.createStatement()) {
+            for (String[] secuencia : SECUENCIAS) {
+                st.executeUpdate("UPDATE " + secuencia[0] + " SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + secuencia[1] + "))");
+            }
+        } catch (SQLException e) {
+            logger.warn("No se pudieron alinear las secuencias de ids", e);
+        }
+    }
+
+    /**
+     * Convierte la columna entradas.codigo_qr de las bases antiguas, que guardaban el
+     * PNG del QR en Base64 (TEXT), al token corto actual. Las entradas antiguas reciben
+     * un token nuevo con el mismo formato que QRService.generarToken() y la columna pasa
+     * a VARCHAR(32) con índice único. No hace nada si la columna ya está migrada.
+     */
+    private static void migrarCodigosQR() {
+        try (Connection conexion = dataSource.getConnection();
+             Statement st = conexion.createStatement()) {
+            String tipo = null;
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                    "AND TABLE_NAME = 'entradas' AND COLUMN_NAME = 'codigo_qr'")) {
+                if (rs.next()) {
+                    tipo = rs.getString(1);
+                }
+            }
+            if (tipo == null || !tipo.toLowerCase().endsWith("text")) {
+                return;
+            }
+            logger.info("Migrando entradas.codigo_qr de imagen Base64 a token...");
+            int filas = st.executeUpdate("UPDATE entradas SET codigo_qr = " +
+                "REPLACE(REPLACE(TRIM(TRAILING '=' FROM TO_BASE64(RANDOM_BYTES(16))), '+', '-'), '/', '_')");
+            st.executeUpdate("ALTER TABLE entradas MODIFY codigo_qr VARCHAR(32) NULL, " +
+                "ADD CONSTRAINT uk_entradas_codigo_qr UNIQUE (codigo_qr)");
+            logger.info("Columna codigo_qr migrada ({} entradas con token nuevo)", filas);
+        } catch (SQLException e) {
+            logger.warn("No se pudo migrar la columna entradas.codigo_qr", e);
+        }
+    }
+
+    /**
+     * Crea un nuevo EntityManager.
+     * Quien lo crea es responsable de cerrarlo; para compartir uno entre varias
+     * llamadas a repositorios usar {@link UnidadDeTrabajo}.
      */
     public static EntityManager getEntityManager() {
-        return getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManagerFactory().createEntityManager();
+        DetectorFugasEntityManager.registrar(em);
+        return em;
     }
-    
+
+    /**
+     * Obtiene las estadísticas en vivo del pool de conexiones
+     * (conexiones activas/ociosas, hilos esperando e histograma de adquisición)
+     */
+    public static MetricasPool.EstadisticasPool getEstadisticasPool() {
+        HikariDataSource ds = dataSource;
+        return metricasPool.instantanea(ds != null && !ds.isClosed() ? ds.getHikariPoolMXBean() : null);
+    }
+
     /**
      * Cierra la EntityManagerFactory
      */
-    public static void shutdown() {
+    public static synchronized void shutdown() {
+        DetectorFugasEntityManager.detener();
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
+            CacheUtil.getEstadisticas().forEach(r -> logger.info("Caché {}", r));
             logger.info("Cerrando EntityManagerFactory...");
             entityManagerFactory.close();
             logger.info("EntityManagerFactory cerrado");
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("Estadísticas finales del pool: {}", getEstadisticasPool());
+            dataSource.close();
+            logger.info("Pool de conexiones cerrado");
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.eventos.config;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pool de conexiones HikariCP.
+ * Registra un histograma del tiempo de adquisición de conexiones y los timeouts,
+ * y combina esos datos con el estado en vivo del pool (activas, ociosas, hilos en espera).
+ */
+public class MetricasPool implements MetricsTrackerFactory {
+
+    /**
+     * Límites superiores (en milisegundos) de cada cubeta del histograma.
+     * La última cubeta acumula todo lo que supere el último límite.
+     */
+    private static final long[] LIMITES_MS = {1, 5, 10, 50, 100, 500, 1000};
+
+    private final LongAdder[] cubetas = new LongAdder[LIMITES_MS.length + 1];
+    private final LongAdder adquisiciones = new LongAdder();
+    private final LongAdder nanosAdquisicion = new LongAdder();
+    private final LongAccumulator maxNanosAdquisicion = new LongAccumulator(Long::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+
+    public MetricasPool() {
+        for (int i = 0; i < cubetas.length; i++) {
+            cubetas[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                registrarAdquisicion(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    private void registrarAdquisicion(long nanos) {
+        adquisiciones.increment();
+        nanosAdquisicion.add(nanos);
+        maxNanosAdquisicion.accumulate(nanos);
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < LIMITES_MS.length && ms >= LIMITES_MS[i]) {
+            i++;
+        }
+        cubetas[i].increment();
+    }
+
+    /**
+     * Toma una instantánea de las métricas combinada con el estado actual del pool
+     * @param pool MXBean del pool (puede ser null si el pool aún no se ha iniciado)
+     * @return Estadísticas del pool en este instante
+     */
+    public EstadisticasPool instantanea(HikariPoolMXBean pool) {
+        long[] histograma = new long[cubetas.length];
+        for (int i = 0; i < cubetas.length; i++) {
+            histograma[i] = cubetas[i].sum();
+        }
+        long total = adquisiciones.sum();
+        return new EstadisticasPool(
+            pool != null ? pool.getActiveConnections() : 0,
+            pool != null ? pool.getIdleConnections() : 0,
+            pool != null ? pool.getTotalConnections() : 0,
+            pool != null ? pool.getThreadsAwaitingConnection() : 0,
+            total,
+            total > 0 ? nanosAdquisicion.sum() / total : 0,
+            maxNanosAdquisicion.get(),
+            timeouts.sum(),
+            histograma
+        );
+    }
+
+    /**
+     * Estadísticas inmutables del pool de conexiones
+     */
+    public static class EstadisticasPool {
+        private final int conexionesActivas;
+        private final int conexionesOciosas;
+        private final int conexionesTotales;
+        private final int hilosEsperando;
+        private final long adquisiciones;
+        private final long mediaNanosAdquisicion;
+        private final long maxNanosAdquisicion;
+        private final long timeouts;
+        private final long[] histograma;
+
+        EstadisticasPool(int conexionesActivas, int conexionesOciosas, int conexionesTotales,
+                         int hilosEsperando, long adquisiciones, long mediaNanosAdquisicion,
+                         long maxNanosAdquisicion, long timeouts, long[] histograma) {
+            this.conexionesActivas = conexionesActivas;
+            this.conexionesOciosas = conexionesOciosas;
+            this.conexionesTotales = conexionesTotales;
+            this.hilosEsperando = hilosEsperando;
+            this.adquisiciones = adquisiciones;
+            this.mediaNanosAdquisicion = mediaNanosAdquisicion;
+            this.maxNanosAdquisicion = maxNanosAdquisicion;
+            this.timeouts = timeouts;
+            this.histograma = histograma;
+        }
+
+        public int getConexionesActivas() { return conexionesActivas; }
+        public int getConexionesOciosas() { return conexionesOciosas; }
+        public int getConexionesTotales() { return conexionesTotales; }
+        public int getHilosEsperando() { return hilosEsperando; }
+        public long getAdquisiciones() { return adquisiciones; }
+        public long getMediaNanosAdquisicion() { return mediaNanosAdquisicion; }
+        public long getMaxNanosAdquisicion() { return maxNanosAdquisicion; }
+        public long getTimeouts() { return timeouts; }
+
+        /**
+         * Histograma de tiempos de adquisición.
+         * La posición i cuenta las adquisiciones por debajo de {@link #getLimitesMs()}[i];
+         * la última posición cuenta las que superan el último límite.
+         */
+        public long[] getHistograma() { return histograma.clone(); }
+
+        public static long[] getLimitesMs() { return LIMITES_MS.clone(); }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("activas=").append(conexionesActivas)
+              .append(", ociosas=").append(conexionesOciosas)
+              .append(", totales=").append(conexionesTotales)
+              .append(", esperando=").append(hilosEsperando)
+              .append(", adquisiciones=").append(adquisiciones)
+              .append(", mediaMs=").append(String.format("%.3f", mediaNanosAdquisicion / 1_000_000.0))
+              .append(", maxMs=").append(String.format("%.3f", maxNanosAdquisicion / 1_000_000.0))
+              .append(", timeouts=").append(timeouts)
+              .append(", histograma(ms)=");
+            for (int i = 0; i < histograma.length; i++) {
+                sb.append(i < LIMITES_MS.length ? "<" + LIMITES_MS[i] : ">=" + LIMITES_MS[LIMITES_MS.length - 1])
+                  .append(':').append(histograma[i]);
+                if (i < histograma.length - 1) sb.append(' ');
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.eventos.config;
+
+import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.xml.EventoXML;
+import com.eventos.dto.xml.EventosXML;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Infraestructura de serialización compartida por toda la aplicación.
+ *
+ * Crear un ObjectMapper o un JAXBContext es caro (introspección de clases, caché de
+ * serializadores), así que hay uno solo para todo el proceso. Los ObjectWriter y
+ * ObjectReader de Jackson son inmutables y se pueden compartir entre hilos; los
+ * Marshaller y Unmarshaller de JAXB no, así que cada hilo reutiliza los suyos.
+ */
+public final class Serializacion {
+
+    private static final Logger logger = LoggerFactory.getLogger(Serializacion.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final ObjectWriter ESCRITOR_JSON = MAPPER.writer();
+    private static final ObjectWriter ESCRITOR_JSON_LEGIBLE = MAPPER.writerWithDefaultPrettyPrinter();
+
+    private static final Map<Class<?>, ObjectReader> LECTORES = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Marshaller> MARSHALLER =
+        ThreadLocal.withInitial(() -> crearMarshaller(false));
+    private static final ThreadLocal<Marshaller> MARSHALLER_FRAGMENTO =
+        ThreadLocal.withInitial(() -> crearMarshaller(true));
+    private static final ThreadLocal<Unmarshaller> UNMARSHALLER =
+        ThreadLocal.withInitial(Serializacion::crearUnmarshaller);
+
+    private static final XMLOutputFactory FABRICA_XML = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory FABRICA_LECTURA_XML = crearFabricaLectura();
+
+    private Serializacion() {
+        // Clase de utilidad
+    }
+
+    /**
+     * El contexto JAXB se crea la primera vez que se usa XML
+     */
+    private static final class ContextoXml {
+        static final JAXBContext CONTEXTO = crearContexto();
+    }
+
+    /**
+     * Escritor JSON compacto (fechas ISO-8601)
+     */
+    public static ObjectWriter escritorJson() {
+        return ESCRITOR_JSON;
+    }
+
+    /**
+     * Escritor JSON con sangría, para los ficheros que se exportan
+     */
+    public static ObjectWriter escritorJsonLegible() {
+        return ESCRITOR_JSON_LEGIBLE;
+    }
+
+    /**
+     * Lector JSON para un tipo, creado una sola vez
+     * @param tipo Clase a leer (p. ej. EventoJSON[].class)
+     */
+    public static ObjectReader lectorJson(Class<?> tipo) {
+        return LECTORES.computeIfAbsent(tipo, MAPPER::readerFor);
+    }
+
+    /**
+     * ObjectMapper compartido, para crear generadores o parsers de streaming.
+     * No se debe reconfigurar.
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Contexto JAXB de los DTO de eventos
+     */
+    public static JAXBContext contextoXml() {
+        return ContextoXml.CONTEXTO;
+    }
+
+    /**
+     * Marshaller de documentos completos (con sangría y UTF-8) del hilo actual.
+     * No se debe cambiar su configuración ni pasar a otro hilo.
+     */
+    public static Marshaller marshaller() {
+        return MARSHALLER.get();
+    }
+
+    /**
+     * Marshaller del hilo actual para escribir elementos sueltos dentro de un
+     * documento que se va escribiendo por partes (sin declaración XML)
+     */
+    public static Marshaller marshallerFragmento() {
+        return MARSHALLER_FRAGMENTO.get();
+    }
+
+    /**
+     * Unmarshaller del hilo actual
+     */
+    public static Unmarshaller unmarshaller() {
+        return UNMARSHALLER.get();
+    }
+
+    /**
+     * Fábrica StAX para escribir XML por partes (es segura entre hilos una vez creada)
+     */
+    public static XMLOutputFactory fabricaXml() {
+        return FABRICA_XML;
+    }
+
+    /**
+     * Fábrica StAX para leer XML por partes, sin DTD ni entidades externas
+     */
+    public static XMLInputFactory fabricaLecturaXml() {
+        return FABRICA_LECTURA_XML;
+    }
+
+    /**
+     * Inicializa Jackson y JAXB y serializa un evento de prueba en cada formato, para
+     * que la primera exportación real no pague la introspección de las clases
+     */
+    public static void precalentar() {
+        long inicio = System.nanoTime();
+        try {
+            EventoJSON json = eventoJsonDePrueba(0);
+            byte[] bytes = ESCRITOR_JSON_LEGIBLE.writeValueAsBytes(new EventoJSON[]{json});
+            lectorJson(EventoJSON[].class).readValue(bytes);
+
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            marshaller().marshal(new EventosXML(List.of(eventoXmlDePrueba(0))), salida);
+            unmarshaller().unmarshal(new ByteArrayInputStream(salida.toByteArray()));
+            logger.debug("Serialización precalentada en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("No se pudo precalentar la serialización: {}", e.getMessage());
+        }
+    }
+
+    private static JAXBContext crearContexto() {
+        try {
+            return JAXBContext.newInstance(EventosXML.class, EventoXML.class);
+        } catch (JAXBException e) {
+            throw new RuntimeException("No se pudo crear el contexto JAXB", e);
+        }
+    }
+
+    private static XMLInputFactory crearFabricaLectura() {
+        XMLInputFactory fabrica = XMLInputFactory.newFactory();
+        fabrica.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        fabrica.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return fabrica;
+    }
+
+    private static Marshaller crearMarshaller(boolean fragmento) {
+        try {
+            Marshaller marshaller = contextoXml().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragmento);
+            return marshaller;
+        } catch (JAXBException e) {
+            throw new RuntimeException("No se pudo crear el marshaller JAXB", e);
+        }
+    }
+
+    private static Unmarshaller crearUnmarshaller() {
+        try {
+            return contextoXml().createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new RuntimeException("No se pudo crear el unmarshaller JAXB", e);
+        }
+    }
+
+    private static EventoJSON eventoJsonDePrueba(long id) {
+        return new EventoJSON(id, "Evento " + id, "Descripción del evento " + id,
+            "2025-06-01 20:00:00", "2025-06-01 23:00:00", 500, 120, "PLANIFICADO", 25.0,
+            "Sede " + (id % 50), "Concierto");
+    }
+
+    private static EventoXML eventoXmlDePrueba(long id) {
+        return new EventoXML(id, "Evento " + id, "Descripción del evento " + id,
+            "2025-06-01 20:00:00", "2025-06-01 23:00:00", 500, 120, "PLANIFICADO", 25.0,
+            "Sede " + (id % 50), "Concierto");
+    }
+}
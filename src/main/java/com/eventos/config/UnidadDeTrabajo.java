@@ -0,0 +1,134 @@
+package com.eventos.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.function.Function;
+
+/**
+ * Unidad de trabajo ligada al hilo actual.
+ * Abre un único EntityManager por caso de uso, lo comparte entre todas las llamadas
+ * a repositorios que se hagan dentro de ella y lo cierra de forma determinista al terminar.
+ *
+ * Uso típico:
+ * <pre>
+ * try (UnidadDeTrabajo uow = UnidadDeTrabajo.iniciar()) {
+ *     List&lt;Compra&gt; compras = compraRepo.findByUsuario(id);
+ *     for (Compra c : compras) {
+ *         entradaRepo.findByCompra(c.getId());   // mismo EntityManager
+ *     }
+ * }   // aquí se cierra el EntityManager
+ * </pre>
+ *
+ * Las unidades se pueden anidar: una unidad iniciada dentro de otra reutiliza
+ * el EntityManager de la exterior y solo la más externa lo cierra.
+ */
+public final class UnidadDeTrabajo implements AutoCloseable {
+
+    private static final ThreadLocal<UnidadDeTrabajo> ACTUAL = new ThreadLocal<>();
+
+    private final EntityManager entityManager;
+    private final Thread hilo;
+    private int profundidad;
+
+    private UnidadDeTrabajo(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.hilo = Thread.currentThread();
+        this.profundidad = 1;
+    }
+
+    /**
+     * Inicia una unidad de trabajo en el hilo actual o se une a la que ya esté abierta
+     * @return Unidad de trabajo que debe cerrarse (try-with-resources)
+     */
+    public static UnidadDeTrabajo iniciar() {
+        UnidadDeTrabajo actual = ACTUAL.get();
+        if (actual != null) {
+            actual.profundidad++;
+            return actual;
+        }
+        UnidadDeTrabajo nueva = new UnidadDeTrabajo(HibernateUtil.getEntityManager());
+        ACTUAL.set(nueva);
+        return nueva;
+    }
+
+    /**
+     * Obtiene la unidad de trabajo activa en el hilo actual
+     * @return Unidad activa o null si no hay ninguna
+     */
+    public static UnidadDeTrabajo actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Ejecuta una operación dentro de una unidad de trabajo (nueva o la ya abierta)
+     * @param operacion Operación que recibe el EntityManager compartido
+     * @return Resultado de la operación
+     */
+    public static <R> R ejecutar(Function<EntityManager, R> operacion) {
+        try (UnidadDeTrabajo uow = iniciar()) {
+            return operacion.apply(uow.getEntityManager());
+        }
+    }
+
+    /**
+     * Ejecuta una operación dentro de una transacción de la unidad de trabajo.
+     * Si ya hay una transacción activa se une a ella; si no, la abre y la confirma.
+     * @param operacion Operación que recibe el EntityManager compartido
+     * @return Resultado de la operación
+     */
+    public static <R> R ejecutarEnTransaccion(Function<EntityManager, R> operacion) {
+        try (UnidadDeTrabajo uow = iniciar()) {
+            EntityManager em = uow.getEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            boolean propia = !tx.isActive();
+            if (propia) {
+                tx.begin();
+            }
+            try {
+                R resultado = operacion.apply(em);
+                if (propia) {
+                    tx.commit();
+                }
+                return resultado;
+            } catch (RuntimeException e) {
+                if (propia && tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Obtiene el EntityManager compartido de esta unidad de trabajo
+     */
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    /**
+     * Cierra la unidad de trabajo.
+     * Solo la unidad más externa cierra el EntityManager (deshaciendo cualquier
+     * transacción que haya quedado abierta).
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() != hilo) {
+            throw new IllegalStateException("La unidad de trabajo debe cerrarse en el hilo que la inició");
+        }
+        if (--profundidad > 0) {
+            return;
+        }
+        ACTUAL.remove();
+        try {
+            if (entityManager.isOpen() && entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+        } finally {
+            if (entityManager.isOpen()) {
+                entityManager.close();
+            }
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package com.eventos.controllers;
 
+import com.eventos.dto.vista.EstadisticasEvento;
+import com.eventos.dto.vista.EstadisticasSede;
+import com.eventos.dto.vista.EstadisticasSistema;
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.dto.vista.UsuarioBusqueda;
 import com.eventos.models.Evento;
 import com.eventos.models.EstadoEvento;
 import com.eventos.models.Sede;
 import com.eventos.models.TipoEvento;
 import com.eventos.models.Usuario;
-import com.eventos.models.Compra;
-import com.eventos.models.Entrada;
 import com.eventos.repositories.SedeRepository;
 import com.eventos.repositories.TipoEventoRepository;
 import com.eventos.repositories.UsuarioRepository;
-import com.eventos.repositories.CompraRepository;
-import com.eventos.repositories.EntradaRepository;
+import com.eventos.repositories.FiltroEventos;
+import com.eventos.repositories.GenericRepository;
+import com.eventos.repositories.Pagina;
 import com.eventos.services.AutenticacionService;
+import com.eventos.services.EstadisticasService;
 import com.eventos.services.EventoService;
+import com.eventos.services.InstantaneaCatalogo;
+import com.eventos.services.InstantaneaCatalogoService;
+import com.eventos.services.ReemisionQRService;
 import com.eventos.utils.HotReloadManager;
+import com.eventos.utils.IndiceTrigramas;
 import com.eventos.utils.DialogStyler;
+import com.eventos.utils.ScrollInfinito;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -35,7 +45,11 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la vista de gestión de eventos (Administrador).
@@ -65,25 +79,25 @@ public class EventosAdminController {
     private ComboBox<String> filtroEstadoCombo;
     
     @FXML
-    private TableView<Evento> eventosTable;
+    private TableView<EventoResumen> eventosTable;
     
     @FXML
-    private TableColumn<Evento, String> idColumn;
+    private TableColumn<EventoResumen, String> idColumn;
     
     @FXML
-    private TableColumn<Evento, String> nombreColumn;
+    private TableColumn<EventoResumen, String> nombreColumn;
     
     @FXML
-    private TableColumn<Evento, String> tipoColumn;
+    private TableColumn<EventoResumen, String> tipoColumn;
     
     @FXML
-    private TableColumn<Evento, String> fechaColumn;
+    private TableColumn<EventoResumen, String> fechaColumn;
     
     @FXML
-    private TableColumn<Evento, String> sedeColumn;
+    private TableColumn<EventoResumen, String> sedeColumn;
     
     @FXML
-    private TableColumn<Evento, String> estadoColumn;
+    private TableColumn<EventoResumen, String> estadoColumn;
     
     @FXML
     private Label infoLabel;
@@ -95,11 +109,14 @@ public class EventosAdminController {
     private final SedeRepository sedeRepository;
     private final TipoEventoRepository tipoEventoRepository;
     private final UsuarioRepository usuarioRepository;
-    private final CompraRepository compraRepository;
-    private final EntradaRepository entradaRepository;
+    private final EstadisticasService estadisticasService;
     private final AutenticacionService autenticacionService;
-    private ObservableList<Evento> eventosObservable;
-    private List<Evento> eventosActuales = new ArrayList<>();
+    private ObservableList<EventoResumen> eventosObservable;
+    private List<EventoResumen> eventosActuales = new ArrayList<>();
+    private FiltroEventos filtroActual = new FiltroEventos();
+    private Pagina<EventoResumen> ultimaPagina;
+    private long totalEventos;
+    private boolean mostrandoInstantanea;
     private WebEngine webEngine;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
@@ -111,8 +128,7 @@ public class EventosAdminController {
         this.sedeRepository = new SedeRepository();
         this.tipoEventoRepository = new TipoEventoRepository();
         this.usuarioRepository = new UsuarioRepository();
-        this.compraRepository = new CompraRepository();
-        this.entradaRepository = new EntradaRepository();
+        this.estadisticasService = new EstadisticasService();
         this.autenticacionService = AutenticacionService.getInstance();
     }
 
@@ -124,7 +140,11 @@ public class EventosAdminController {
         configurarTabla();
         configurarFiltros();
         inicializarMapa();
-        cargarEventos();
+        if (!cargarDesdeInstantanea()) {
+            cargarEventos();
+        }
+        ScrollInfinito.instalar(eventosTable, () -> ultimaPagina != null && ultimaPagina.hayMas(),
+            this::cargarMasEventos);
         
         // Listener para selección en tabla
         eventosTable.getSelectionModel().selectedItemProperty().addListener(
@@ -206,7 +226,7 @@ public class EventosAdminController {
 
         tipoColumn.setCellValueFactory(cellData ->
             new SimpleStringProperty(nullSafe(cellData.getValue() != null && cellData.getValue().getTipoEvento() != null
-                ? cellData.getValue().getTipoEvento().getNombre()
+                ? cellData.getValue().getTipoEvento()
                 : "Sin tipo"))
         );
 
@@ -216,7 +236,7 @@ public class EventosAdminController {
 
         sedeColumn.setCellValueFactory(cellData ->
             new SimpleStringProperty(nullSafe(cellData.getValue() != null && cellData.getValue().getSede() != null
-                ? cellData.getValue().getSede().getNombre()
+                ? cellData.getValue().getSede()
                 : "Sin sede"))
         );
 
@@ -240,7 +260,7 @@ public class EventosAdminController {
     /**
      * Fuerza color de texto y evita celdas en blanco por estilos.
      */
-    private void aplicarEstiloColumna(TableColumn<Evento, String> columna) {
+    private void aplicarEstiloColumna(TableColumn<EventoResumen, String> columna) {
         columna.setCellFactory(col -> new TableCell<>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -262,13 +282,13 @@ public class EventosAdminController {
         return (value == null || value.isBlank()) ? "-" : value;
     }
 
-    private String formatId(Evento evento) {
+    private String formatId(EventoResumen evento) {
         return (evento != null && evento.getId() != null)
             ? evento.getId().toString()
             : "-";
     }
 
-    private String formatFecha(Evento evento) {
+    private String formatFecha(EventoResumen evento) {
         if (evento == null || evento.getFechaInicio() == null) {
             return "-";
         }
@@ -279,7 +299,7 @@ public class EventosAdminController {
         }
     }
 
-    private String formatEstado(Evento evento) {
+    private String formatEstado(EventoResumen evento) {
         if (evento == null || evento.getEstado() == null) {
             return "Sin estado";
         }
@@ -296,12 +316,14 @@ public class EventosAdminController {
      * Configura los filtros (ComboBox).
      */
     private void configurarFiltros() {
-        // Cargar tipos de eventos dinámicamente desde la base de datos
+        // Cargar tipos de eventos de la instantánea del catálogo o, si no hay, de la base de datos
         try {
-            List<String> tiposEventos = tipoEventoRepository.findAll().stream()
-                .map(TipoEvento::getNombre)
-                .sorted()
-                .toList();
+            InstantaneaCatalogo instantanea = InstantaneaCatalogoService.getInstance().getActual();
+            List<String> tiposEventos = instantanea != null ? instantanea.getTiposEvento()
+                : tipoEventoRepository.findAll().stream()
+                    .map(TipoEvento::getNombre)
+                    .sorted()
+                    .toList();
             List<String> tiposConTodos = new ArrayList<>();
             tiposConTodos.add("Todos");
             tiposConTodos.addAll(tiposEventos);
@@ -327,22 +349,108 @@ public class EventosAdminController {
     }
 
     /**
-     * Carga todos los eventos desde la base de datos.
+     * Carga la primera página de eventos que cumplen los filtros actuales.
+     * El resto se carga al hacer scroll (ver {@link #cargarMasEventos()}).
      */
     private void cargarEventos() {
         try {
-            List<Evento> eventos = eventoService.listarTodos();
-            actualizarTablaYMapa(eventos, eventos.size() + " eventos encontrados");
+            filtroActual = construirFiltro();
+            mostrandoInstantanea = false;
+            totalEventos = filtroActual.estaVacio() ? eventoService.contarEstimado() : -1;
+            ultimaPagina = eventoService.listarPagina(filtroActual, null);
+            List<EventoResumen> eventos = new ArrayList<>(ultimaPagina.getElementos());
+            actualizarTablaYMapa(eventos, textoInfoEventos(eventos.size()));
         } catch (Exception e) {
             mostrarError("Error al cargar eventos: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Al abrir la vista, pinta la primera página desde la instantánea del catálogo sin
+     * esperar a la base de datos y la sustituye cuando termina el refresco en segundo plano.
+     * Después de crear, editar o borrar se recarga siempre de la base de datos.
+     * @return false si todavía no hay instantánea
+     */
+    private boolean cargarDesdeInstantanea() {
+        InstantaneaCatalogoService catalogo = InstantaneaCatalogoService.getInstance();
+        InstantaneaCatalogo instantanea = catalogo.getActual();
+        if (instantanea == null) {
+            return false;
+        }
+        mostrandoInstantanea = true;
+        mostrarInstantanea(instantanea);
+        catalogo.refrescar().thenAccept(nueva -> javafx.application.Platform.runLater(() -> {
+            if (nueva != null && mostrandoInstantanea
+                    && eventosObservable.size() <= GenericRepository.TAMANO_PAGINA) {
+                mostrarInstantanea(nueva);
+            }
+        }));
+        return true;
+    }
+
+    private void mostrarInstantanea(InstantaneaCatalogo instantanea) {
+        totalEventos = instantanea.getEventos().size();
+        ultimaPagina = instantanea.primeraPagina(GenericRepository.TAMANO_PAGINA);
+        List<EventoResumen> eventos = new ArrayList<>(ultimaPagina.getElementos());
+        actualizarTablaYMapa(eventos, textoInfoEventos(eventos.size()));
+    }
+
+    /**
+     * Añade a la tabla la página siguiente de eventos, si la hay.
+     */
+    private void cargarMasEventos() {
+        if (ultimaPagina == null || !ultimaPagina.hayMas()) {
+            return;
+        }
+        try {
+            ultimaPagina = eventoService.listarPagina(filtroActual, ultimaPagina.getUltimo());
+            eventosObservable.addAll(ultimaPagina.getElementos());
+            infoLabel.setText(textoInfoEventos(eventosObservable.size()));
+            actualizarMapaConLista(new ArrayList<>(eventosObservable));
+        } catch (Exception e) {
+            mostrarError("Error al cargar más eventos: " + e.getMessage());
+        }
+    }
+
+    private String textoInfoEventos(int cargados) {
+        if (totalEventos >= 0) {
+            return cargados + " de " + totalEventos + " eventos";
+        }
+        return cargados + (ultimaPagina.hayMas() ? "+" : "") + " eventos encontrados";
+    }
+
+    /**
+     * Construye el filtro a partir del texto de búsqueda y los combos de tipo y estado.
+     */
+    private FiltroEventos construirFiltro() {
+        FiltroEventos filtro = new FiltroEventos();
+        String texto = busquedaField.getText();
+        if (texto != null && !texto.isBlank()) {
+            filtro.setTexto(texto.trim());
+            filtro.setIncluirDescripcion(true);
+        }
+        String tipo = filtroTipoCombo.getValue();
+        if (tipo != null && !tipo.equals("Todos")) {
+            filtro.setTipoEvento(tipo);
+        }
+        String estado = filtroEstadoCombo.getValue();
+        if (estado != null) {
+            switch (estado) {
+                case "Planificados" -> filtro.setEstado(EstadoEvento.PLANIFICADO);
+                case "Activos" -> filtro.setEstado(EstadoEvento.ACTIVO);
+                case "Cancelados" -> filtro.setEstado(EstadoEvento.CANCELADO);
+                case "Finalizados" -> filtro.setEstado(EstadoEvento.FINALIZADO);
+                default -> { }
+            }
+        }
+        return filtro;
+    }
+
     /**
      * Carga los marcadores de los eventos en el mapa.
      */
-    private void cargarMarcadoresEnMapa(List<Evento> eventos) {
+    private void cargarMarcadoresEnMapa(List<EventoResumen> eventos) {
         if (webEngine == null) {
             return;
         }
@@ -350,17 +458,15 @@ public class EventosAdminController {
         webEngine.executeScript("if (window.limpiarMarcadores) window.limpiarMarcadores();");
 
         int agregados = 0;
-        for (Evento evento : eventos) {
-            if (evento.getSede() != null &&
-                evento.getSede().getLatitud() != null &&
-                evento.getSede().getLongitud() != null) {
+        for (EventoResumen evento : eventos) {
+            if (evento.tieneUbicacion()) {
 
-                double lat = evento.getSede().getLatitud();
-                double lng = evento.getSede().getLongitud();
+                double lat = evento.getLatitud();
+                double lng = evento.getLongitud();
                 String nombre = escaparJS(evento.getNombre());
-                String sede = escaparJS(evento.getSede().getNombre());
+                String sede = escaparJS(evento.getSede());
                 String fecha = escaparJS(evento.getFechaInicio().format(dateFormatter));
-                String tipo = escaparJS(evento.getTipoEvento().getNombre());
+                String tipo = escaparJS(evento.getTipoEvento());
                 Long id = evento.getId();
 
                 String script = String.format(Locale.US,
@@ -381,7 +487,7 @@ public class EventosAdminController {
         System.out.println("Marcadores cargados en admin: " + agregados);
     }
 
-    private void actualizarMapaConLista(List<Evento> eventos) {
+    private void actualizarMapaConLista(List<EventoResumen> eventos) {
         eventosActuales = eventos;
         if (webEngine != null) {
             javafx.application.Platform.runLater(() -> {
@@ -398,7 +504,7 @@ public class EventosAdminController {
     /**
      * Actualiza la información del evento seleccionado.
      */
-    private void actualizarInfoEvento(Evento evento) {
+    private void actualizarInfoEvento(EventoResumen evento) {
         if (evento == null) {
             infoLabel.setText("Selecciona un evento para ver detalles");
             return;
@@ -407,8 +513,8 @@ public class EventosAdminController {
         infoLabel.setText(String.format("📍 %s | 📅 %s | 🏬 %s | Capacidad: %d",
             evento.getNombre(),
             evento.getFechaInicio().format(dateFormatter),
-            evento.getSede().getNombre(),
-            evento.getSede().getCapacidad()
+            evento.getSede(),
+            evento.getCapacidadSede()
         ));
     }
 
@@ -421,15 +527,21 @@ public class EventosAdminController {
 
     @FXML
     private void handleModificarEvento() {
-        Evento eventoSeleccionado = eventosTable.getSelectionModel().getSelectedItem();
+        EventoResumen eventoSeleccionado = eventosTable.getSelectionModel().getSelectedItem();
         
         if (eventoSeleccionado == null) {
             mostrarAdvertencia("Por favor, selecciona un evento de la tabla");
             return;
         }
         
-        // TODO: Abrir diálogo de modificación de evento
-        mostrarFormularioEvento(eventoSeleccionado);
+        // La tabla solo tiene el resumen: el formulario necesita la entidad completa
+        Optional<Evento> evento = eventoService.buscarPorId(eventoSeleccionado.getId());
+        if (evento.isEmpty()) {
+            mostrarAdvertencia("El evento ya no existe");
+            cargarEventos();
+            return;
+        }
+        mostrarFormularioEvento(evento.get());
     }
 
     private void mostrarFormularioEvento(Evento existente) {
@@ -610,7 +722,7 @@ public class EventosAdminController {
 
     @FXML
     private void handleEliminarEvento() {
-        Evento eventoSeleccionado = eventosTable.getSelectionModel().getSelectedItem();
+        EventoResumen eventoSeleccionado = eventosTable.getSelectionModel().getSelectedItem();
         
         if (eventoSeleccionado == null) {
             mostrarAdvertencia("Por favor, selecciona un evento de la tabla");
@@ -638,72 +750,113 @@ public class EventosAdminController {
         });
     }
 
+    /**
+     * Da un QR nuevo a todas las entradas sin validar del evento seleccionado
+     * (p. ej. tras cambiarlo de fecha) y deja las imágenes en la carpeta de QR.
+     * Se ejecuta en segundo plano, se puede cancelar y se reanuda donde se quedó.
+     */
     @FXML
-    private void handleBuscar() {
-        String textoBusqueda = busquedaField.getText().trim().toLowerCase();
+    private void handleReemitirEntradas() {
+        EventoResumen eventoSeleccionado = eventosTable.getSelectionModel().getSelectedItem();
         
-        if (textoBusqueda.isEmpty()) {
-            cargarEventos();
+        if (eventoSeleccionado == null) {
+            mostrarAdvertencia("Por favor, selecciona un evento de la tabla");
             return;
         }
         
-        try {
-            List<Evento> todosEventos = eventoService.listarTodos();
-            List<Evento> eventosFiltrados = todosEventos.stream()
-                .filter(e -> e.getNombre().toLowerCase().contains(textoBusqueda) ||
-                            e.getDescripcion().toLowerCase().contains(textoBusqueda))
-                .toList();
-            actualizarTablaYMapa(eventosFiltrados, eventosFiltrados.size() + " eventos encontrados");
-        } catch (Exception e) {
-            mostrarError("Error al buscar: " + e.getMessage());
+        boolean pendiente = ReemisionQRService.hayReemisionPendiente(eventoSeleccionado.getId());
+        Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmacion.setTitle("Reemitir entradas");
+        confirmacion.setHeaderText(pendiente ? "¿Reanudar la reemisión?" : "¿Reemitir las entradas?");
+        confirmacion.setContentText((pendiente
+                ? "Hay una reemisión a medias de:\n"
+                : "Se generará un QR nuevo para cada entrada sin validar de:\n")
+            + eventoSeleccionado.getNombre() + "\n\nLos QR anteriores dejarán de ser válidos.");
+        DialogStyler.styleAlert(confirmacion);
+        if (confirmacion.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
         }
+        
+        ReemisionQRService reemision = new ReemisionQRService(eventoSeleccionado.getId());
+        
+        Dialog<Void> progresoDialog = new Dialog<>();
+        progresoDialog.setTitle("Reemitiendo entradas");
+        progresoDialog.setHeaderText(eventoSeleccionado.getNombre());
+        DialogStyler.styleDialog(progresoDialog);
+        ProgressBar barra = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        barra.setPrefWidth(350);
+        Label estadoLabel = new Label("Preparando...");
+        VBox contenido = new VBox(10, barra, estadoLabel);
+        contenido.setPadding(new javafx.geometry.Insets(20));
+        progresoDialog.getDialogPane().setContent(contenido);
+        progresoDialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        Button cancelarBtn = (Button) progresoDialog.getDialogPane().lookupButton(ButtonType.CANCEL);
+        cancelarBtn.addEventFilter(javafx.event.ActionEvent.ACTION, e -> {
+            // El diálogo se cierra cuando el bloque en curso termina
+            e.consume();
+            reemision.cancelar();
+            cancelarBtn.setDisable(true);
+            estadoLabel.setText("Cancelando al terminar el bloque actual...");
+        });
+        // Cerrar la ventana también detiene la reemisión; se podrá reanudar más tarde
+        progresoDialog.setOnCloseRequest(e -> reemision.cancelar());
+        progresoDialog.show();
+        
+        Thread hilo = new Thread(() -> {
+            try {
+                ReemisionQRService.Resultado resultado = reemision.ejecutar((procesadas, total) ->
+                    javafx.application.Platform.runLater(() -> {
+                        barra.setProgress(total == 0 ? 1 : (double) procesadas / total);
+                        estadoLabel.setText(procesadas + " de " + total + " entradas");
+                    }));
+                javafx.application.Platform.runLater(() -> {
+                    cerrarDialogo(progresoDialog);
+                    if (resultado.isCompletada()) {
+                        mostrarExito(resultado.getProcesadas() + " entrada(s) reemitidas.\n"
+                            + "Imágenes en: " + resultado.getDirectorio().toAbsolutePath());
+                    } else {
+                        mostrarInfo("Reemisión detenida tras " + resultado.getProcesadas() + " de "
+                            + resultado.getTotal() + " entradas.\nVuelve a lanzarla para continuar.");
+                    }
+                });
+            } catch (Exception e) {
+                javafx.application.Platform.runLater(() -> {
+                    cerrarDialogo(progresoDialog);
+                    mostrarError("Error al reemitir las entradas: " + e.getMessage());
+                });
+            }
+        }, "reemision-qr-" + eventoSeleccionado.getId());
+        // No impide cerrar la aplicación: el progreso guardado permite reanudarla
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Cierra un diálogo cuyo único botón es Cancelar (sin botón Cancelar no se puede cerrar)
+     */
+    private void cerrarDialogo(Dialog<?> dialog) {
+        dialog.setResult(null);
+        dialog.close();
     }
 
+    /**
+     * Búsqueda, tipo y estado se combinan en un único filtro que se resuelve página a
+     * página en el catálogo en memoria (la búsqueda, por relevancia), o en la base de
+     * datos mientras el catálogo no está cargado.
+     */
     @FXML
-    private void handleFiltrarTipo() {
-        String tipoSeleccionado = filtroTipoCombo.getValue();
-        if (tipoSeleccionado == null || tipoSeleccionado.equals("Todos")) {
-            cargarEventos();
-            return;
-        }
+    private void handleBuscar() {
+        cargarEventos();
+    }
 
-        try {
-            List<Evento> filtrados = eventoService.listarTodos().stream()
-                .filter(e -> e.getTipoEvento().getNombre().equalsIgnoreCase(tipoSeleccionado))
-                .toList();
-            actualizarTablaYMapa(filtrados, filtrados.size() + " eventos del tipo " + tipoSeleccionado);
-        } catch (Exception e) {
-            mostrarError("Error al filtrar por tipo: " + e.getMessage());
-        }
+    @FXML
+    private void handleFiltrarTipo() {
+        cargarEventos();
     }
 
     @FXML
     private void handleFiltrarEstado() {
-        String estadoSeleccionado = filtroEstadoCombo.getValue();
-        
-        if (estadoSeleccionado == null || estadoSeleccionado.equals("Todos")) {
-            cargarEventos();
-            return;
-        }
-        
-        try {
-            EstadoEvento estado;
-            switch (estadoSeleccionado) {
-                case "Planificados" -> estado = EstadoEvento.PLANIFICADO;
-                case "Activos" -> estado = EstadoEvento.ACTIVO;
-                case "Cancelados" -> estado = EstadoEvento.CANCELADO;
-                case "Finalizados" -> estado = EstadoEvento.FINALIZADO;
-                default -> {
-                    cargarEventos();
-                    return;
-                }
-            }
-            
-            List<Evento> eventosFiltrados = eventoService.filtrarPorEstado(estado);
-            actualizarTablaYMapa(eventosFiltrados, eventosFiltrados.size() + " eventos " + estadoSeleccionado.toLowerCase());
-        } catch (Exception e) {
-            mostrarError("Error al filtrar: " + e.getMessage());
-        }
+        cargarEventos();
     }
 
     @FXML
@@ -714,7 +867,7 @@ public class EventosAdminController {
         cargarEventos();
     }
 
-    private void actualizarTablaYMapa(List<Evento> eventos, String infoTexto) {
+    private void actualizarTablaYMapa(List<EventoResumen> eventos, String infoTexto) {
         eventosObservable = FXCollections.observableArrayList(eventos);
         if (eventosTable != null) {
             eventosTable.setItems(eventosObservable);
@@ -803,71 +956,38 @@ public class EventosAdminController {
         toggleMenu();
         
         try {
-            List<Evento> eventos = eventoService.listarTodos();
+            AtomicReference<Pagina<EventoResumen>> pagina = new AtomicReference<>(eventoService.listarPagina(null, null));
             
-            if (eventos.isEmpty()) {
+            if (pagina.get().isEmpty()) {
                 mostrarInfo("No hay eventos registrados");
                 return;
             }
             
             Dialog<Void> dialog = new Dialog<>();
             dialog.setTitle("Mis Eventos");
-            dialog.setHeaderText("🎭 Eventos del Sistema (" + eventos.size() + ")");
+            dialog.setHeaderText("🎭 Eventos del Sistema (" + eventoService.contarEstimado() + ")");
             
             VBox content = new VBox(10);
             content.setStyle("-fx-padding: 20;");
             
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-            
-            for (Evento evento : eventos) {
-                VBox eventoCard = new VBox(5);
-                String borderColor;
-                switch (evento.getEstado()) {
-                    case PLANIFICADO -> borderColor = "#3498db";
-                    case ACTIVO -> borderColor = "#27ae60";
-                    case CANCELADO -> borderColor = "#e74c3c";
-                    case FINALIZADO -> borderColor = "#95a5a6";
-                    default -> borderColor = "#95a5a6";
-                }
-                
-                eventoCard.setStyle("-fx-border-color: " + borderColor + "; -fx-border-width: 2; -fx-border-radius: 5; " +
-                                   "-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 15;");
-                
-                Label nombreLabel = new Label("🎭 " + evento.getNombre());
-                nombreLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-                
-                Label tipoLabel = new Label("📋 " + evento.getTipoEvento().getNombre());
-                Label sedeLabel = new Label("📍 " + evento.getSede().getNombre() + " - " + evento.getSede().getCiudad());
-                Label fechaLabel = new Label("📅 " + evento.getFechaInicio().format(formatter) + " - " + evento.getFechaFin().format(formatter));
-                Label aforoLabel = new Label("👥 Aforo: " + evento.getAforoActual() + "/" + evento.getAforoMaximo());
-                
-                String estadoTexto;
-                switch (evento.getEstado()) {
-                    case PLANIFICADO -> estadoTexto = "📅 Planificado";
-                    case ACTIVO -> estadoTexto = "✅ Activo";
-                    case CANCELADO -> estadoTexto = "❌ Cancelado";
-                    case FINALIZADO -> estadoTexto = "✔️ Finalizado";
-                    default -> estadoTexto = "❓ Desconocido";
-                }
-                Label estadoLabel = new Label(estadoTexto);
-                estadoLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: " + borderColor + ";");
-                
-                eventoCard.getChildren().addAll(nombreLabel, tipoLabel, sedeLabel, fechaLabel, aforoLabel, estadoLabel);
-                
-                if (evento.getPrecioBase() != null) {
-                    Label precioLabel = new Label("💰 Precio base: $" + evento.getPrecioBase());
-                    precioLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold;");
-                    eventoCard.getChildren().add(precioLabel);
-                }
-                
-                content.getChildren().add(eventoCard);
-            }
+            pagina.get().getElementos().forEach(evento -> content.getChildren().add(crearTarjetaEvento(evento, formatter)));
             
             ScrollPane scrollPane = new ScrollPane(content);
             scrollPane.setFitToWidth(true);
             scrollPane.setPrefHeight(450);
             scrollPane.setPrefWidth(600);
             
+            // Las páginas siguientes se piden al llegar al final del scroll
+            ScrollInfinito.instalar(scrollPane, () -> pagina.get().hayMas(), () -> {
+                try {
+                    pagina.set(eventoService.listarPagina(null, pagina.get().getUltimo()));
+                    pagina.get().getElementos().forEach(evento -> content.getChildren().add(crearTarjetaEvento(evento, formatter)));
+                } catch (Exception e) {
+                    mostrarError("Error al cargar más eventos: " + e.getMessage());
+                }
+            });
+            
             dialog.getDialogPane().setContent(scrollPane);
             dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
             dialog.showAndWait();
@@ -877,80 +997,129 @@ public class EventosAdminController {
         }
     }
 
+    /**
+     * Crea la tarjeta de un evento para el diálogo "Mis Eventos".
+     */
+    private VBox crearTarjetaEvento(EventoResumen evento, DateTimeFormatter formatter) {
+        VBox eventoCard = new VBox(5);
+        String borderColor;
+        switch (evento.getEstado()) {
+            case PLANIFICADO -> borderColor = "#3498db";
+            case ACTIVO -> borderColor = "#27ae60";
+            case CANCELADO -> borderColor = "#e74c3c";
+            case FINALIZADO -> borderColor = "#95a5a6";
+            default -> borderColor = "#95a5a6";
+        }
+        
+        eventoCard.setStyle("-fx-border-color: " + borderColor + "; -fx-border-width: 2; -fx-border-radius: 5; " +
+                           "-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 15;");
+        
+        Label nombreLabel = new Label("🎭 " + evento.getNombre());
+        nombreLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+        
+        Label tipoLabel = new Label("📋 " + evento.getTipoEvento());
+        Label sedeLabel = new Label("📍 " + evento.getSede() + " - " + evento.getCiudad());
+        Label fechaLabel = new Label("📅 " + evento.getFechaInicio().format(formatter) + " - " + evento.getFechaFin().format(formatter));
+        Label aforoLabel = new Label("👥 Aforo: " + evento.getAforoActual() + "/" + evento.getAforoMaximo());
+        
+        String estadoTexto;
+        switch (evento.getEstado()) {
+            case PLANIFICADO -> estadoTexto = "📅 Planificado";
+            case ACTIVO -> estadoTexto = "✅ Activo";
+            case CANCELADO -> estadoTexto = "❌ Cancelado";
+            case FINALIZADO -> estadoTexto = "✔️ Finalizado";
+            default -> estadoTexto = "❓ Desconocido";
+        }
+        Label estadoLabel = new Label(estadoTexto);
+        estadoLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: " + borderColor + ";");
+        
+        eventoCard.getChildren().addAll(nombreLabel, tipoLabel, sedeLabel, fechaLabel, aforoLabel, estadoLabel);
+        
+        if (evento.getPrecioBase() != null) {
+            Label precioLabel = new Label("💰 Precio base: $" + evento.getPrecioBase());
+            precioLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold;");
+            eventoCard.getChildren().add(precioLabel);
+        }
+        
+        return eventoCard;
+    }
+
     @FXML
     private void handleGestionarUsuarios() {
         toggleMenu();
         
         try {
-            List<Usuario> usuarios = usuarioRepository.findAll().stream()
-                .filter(u -> !u.getRol().getNombre().equalsIgnoreCase("ADMIN"))
-                .toList();
+            AtomicReference<Pagina<Usuario>> pagina = new AtomicReference<>(
+                usuarioRepository.findPaginaSinRol("ADMIN", null, GenericRepository.TAMANO_PAGINA));
             
-            if (usuarios.isEmpty()) {
+            if (pagina.get().isEmpty()) {
                 mostrarInfo("No hay usuarios registrados");
                 return;
             }
             
             Dialog<Void> dialog = new Dialog<>();
             dialog.setTitle("Gestionar Usuarios");
-            dialog.setHeaderText("👥 Usuarios del Sistema (" + usuarios.size() + ")");
             
             VBox content = new VBox(10);
             content.setStyle("-fx-padding: 20;");
             
-            for (Usuario usuario : usuarios) {
-                HBox usuarioCard = new HBox(15);
-                usuarioCard.setStyle("-fx-border-color: #bdc3c7; -fx-border-width: 1; -fx-border-radius: 5; " +
-                                    "-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 10; -fx-alignment: center-left;");
-                
-                VBox infoBox = new VBox(3);
-                infoBox.setStyle("-fx-flex-grow: 1;");
-                
-                Label nombreLabel = new Label("👤 " + usuario.getNombre());
-                nombreLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
-                
-                Label emailLabel = new Label("📧 " + usuario.getEmail());
-                Label dniLabel = new Label("🆔 " + usuario.getDni());
-                Label telefonoLabel = new Label("📞 " + (usuario.getTelefono() != null ? usuario.getTelefono() : "N/A"));
-                
-                infoBox.getChildren().addAll(nombreLabel, emailLabel, dniLabel, telefonoLabel);
-                
-                VBox botonesBox = new VBox(5);
-                
-                Button btnEliminar = new Button("🗑️ Eliminar");
-                btnEliminar.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand;");
-                btnEliminar.setOnAction(e -> {
-                    Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                    confirmAlert.setTitle("Confirmar Eliminación");
-                    confirmAlert.setHeaderText("¿Eliminar usuario?");
-                    confirmAlert.setContentText("¿Estás seguro de eliminar a " + usuario.getNombre() + "?");
-                    
-                    confirmAlert.showAndWait().ifPresent(response -> {
-                        if (response == ButtonType.OK) {
-                            try {
-                                usuarioRepository.delete(usuario.getId());
-                                mostrarExito("Usuario eliminado correctamente");
-                                dialog.close();
-                                handleGestionarUsuarios();
-                            } catch (Exception ex) {
-                                mostrarError("Error al eliminar usuario: " + ex.getMessage());
-                            }
-                        }
-                    });
-                });
-                
-                botonesBox.getChildren().add(btnEliminar);
-                
-                usuarioCard.getChildren().addAll(infoBox, botonesBox);
-                content.getChildren().add(usuarioCard);
-            }
+            // Cabecera con los usuarios cargados hasta ahora ("+" si quedan más por cargar)
+            Runnable actualizarCabecera = () -> dialog.setHeaderText("👥 Usuarios del Sistema ("
+                + content.getChildren().size() + (pagina.get().hayMas() ? "+" : "") + ")");
+            pagina.get().getElementos().forEach(usuario -> content.getChildren().add(crearTarjetaUsuario(usuario, dialog)));
+            actualizarCabecera.run();
             
             ScrollPane scrollPane = new ScrollPane(content);
             scrollPane.setFitToWidth(true);
             scrollPane.setPrefHeight(450);
             scrollPane.setPrefWidth(600);
             
-            dialog.getDialogPane().setContent(scrollPane);
+            // Mientras se busca no se cargan más páginas: se muestran solo los encontrados
+            AtomicReference<IndiceTrigramas<UsuarioBusqueda>> indice = new AtomicReference<>();
+            TextField busquedaField = new TextField();
+            busquedaField.setPromptText("🔍 Buscar por nombre, apellidos o email (tolera erratas)");
+            busquedaField.textProperty().addListener((obs, anterior, texto) -> {
+                try {
+                    content.getChildren().clear();
+                    if (texto.isBlank()) {
+                        pagina.set(usuarioRepository.findPaginaSinRol("ADMIN", null, GenericRepository.TAMANO_PAGINA));
+                        pagina.get().getElementos().forEach(usuario -> content.getChildren().add(crearTarjetaUsuario(usuario, dialog)));
+                        actualizarCabecera.run();
+                        return;
+                    }
+                    // El índice se construye la primera vez que se busca
+                    if (indice.get() == null) {
+                        indice.set(new IndiceTrigramas<>(usuarioRepository.findBusquedaSinRol("ADMIN"),
+                            UsuarioBusqueda::getTextoBusqueda));
+                    }
+                    List<Long> ids = indice.get().buscar(texto, GenericRepository.TAMANO_PAGINA).stream()
+                        .map(UsuarioBusqueda::getId)
+                        .toList();
+                    Map<Long, Usuario> encontrados = usuarioRepository.findByIds(ids).stream()
+                        .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+                    ids.stream()
+                        .map(encontrados::get)
+                        .filter(usuario -> usuario != null)
+                        .forEach(usuario -> content.getChildren().add(crearTarjetaUsuario(usuario, dialog)));
+                    dialog.setHeaderText("👥 Usuarios encontrados (" + content.getChildren().size() + ")");
+                } catch (Exception e) {
+                    mostrarError("Error al buscar usuarios: " + e.getMessage());
+                }
+            });
+            
+            ScrollInfinito.instalar(scrollPane, () -> busquedaField.getText().isBlank() && pagina.get().hayMas(), () -> {
+                try {
+                    pagina.set(usuarioRepository.findPaginaSinRol("ADMIN", pagina.get().getUltimo(),
+                        GenericRepository.TAMANO_PAGINA));
+                    pagina.get().getElementos().forEach(usuario -> content.getChildren().add(crearTarjetaUsuario(usuario, dialog)));
+                    actualizarCabecera.run();
+                } catch (Exception e) {
+                    mostrarError("Error al cargar más usuarios: " + e.getMessage());
+                }
+            });
+            
+            VBox contenedor = new VBox(10, busquedaField, scrollPane);
+            dialog.getDialogPane().setContent(contenedor);
             dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
             dialog.showAndWait();
             
@@ -959,29 +1128,63 @@ public class EventosAdminController {
         }
     }
 
+    /**
+     * Crea la tarjeta de un usuario con su botón de eliminar para "Gestionar Usuarios".
+     */
+    private HBox crearTarjetaUsuario(Usuario usuario, Dialog<Void> dialog) {
+        HBox usuarioCard = new HBox(15);
+        usuarioCard.setStyle("-fx-border-color: #bdc3c7; -fx-border-width: 1; -fx-border-radius: 5; " +
+                            "-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 10; -fx-alignment: center-left;");
+        
+        VBox infoBox = new VBox(3);
+        infoBox.setStyle("-fx-flex-grow: 1;");
+        
+        Label nombreLabel = new Label("👤 " + usuario.getNombre());
+        nombreLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
+        
+        Label emailLabel = new Label("📧 " + usuario.getEmail());
+        Label dniLabel = new Label("🆔 " + usuario.getDni());
+        Label telefonoLabel = new Label("📞 " + (usuario.getTelefono() != null ? usuario.getTelefono() : "N/A"));
+        
+        infoBox.getChildren().addAll(nombreLabel, emailLabel, dniLabel, telefonoLabel);
+        
+        VBox botonesBox = new VBox(5);
+        
+        Button btnEliminar = new Button("🗑️ Eliminar");
+        btnEliminar.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand;");
+        btnEliminar.setOnAction(e -> {
+            Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+            confirmAlert.setTitle("Confirmar Eliminación");
+            confirmAlert.setHeaderText("¿Eliminar usuario?");
+            confirmAlert.setContentText("¿Estás seguro de eliminar a " + usuario.getNombre() + "?");
+            
+            confirmAlert.showAndWait().ifPresent(response -> {
+                if (response == ButtonType.OK) {
+                    try {
+                        usuarioRepository.delete(usuario.getId());
+                        mostrarExito("Usuario eliminado correctamente");
+                        dialog.close();
+                        handleGestionarUsuarios();
+                    } catch (Exception ex) {
+                        mostrarError("Error al eliminar usuario: " + ex.getMessage());
+                    }
+                }
+            });
+        });
+        
+        botonesBox.getChildren().add(btnEliminar);
+        
+        usuarioCard.getChildren().addAll(infoBox, botonesBox);
+        return usuarioCard;
+    }
+
     @FXML
     private void handleEstadisticas() {
         toggleMenu();
         
         try {
-            // Obtener estadísticas
-            List<Evento> todosEventos = eventoService.listarTodos();
-            List<Compra> todasCompras = compraRepository.findAll();
-            List<Entrada> todasEntradas = entradaRepository.findAll();
-            List<Usuario> todosUsuarios = usuarioRepository.findAll();
-            
-            long eventosActivos = todosEventos.stream().filter(e -> e.getEstado() == EstadoEvento.ACTIVO).count();
-            long eventosCancelados = todosEventos.stream().filter(e -> e.getEstado() == EstadoEvento.CANCELADO).count();
-            long eventosFinalizados = todosEventos.stream().filter(e -> e.getEstado() == EstadoEvento.FINALIZADO).count();
-            
-            long totalEntradas = todasEntradas.size();
-            long entradasValidadas = todasEntradas.stream().filter(e -> e.getValidada() != null && e.getValidada()).count();
-            
-            java.math.BigDecimal dineroTotal = todasCompras.stream()
-                .map(Compra::getTotal)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            
-            int usuariosRegistrados = todosUsuarios.size() - 1; // Sin contar admin
+            // Cifras agregadas en la base de datos (reutilizadas durante unos segundos)
+            EstadisticasSistema estadisticas = estadisticasService.obtener();
             
             Dialog<Void> dialog = new Dialog<>();
             dialog.setTitle("Estadísticas del Sistema");
@@ -1000,22 +1203,22 @@ public class EventosAdminController {
             grid.add(eventosHeader, 0, row++, 2, 1);
             
             grid.add(new Label("Total de eventos:"), 0, row);
-            Label totalEventosLabel = new Label(String.valueOf(todosEventos.size()));
+            Label totalEventosLabel = new Label(String.valueOf(estadisticas.getTotalEventos()));
             totalEventosLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
             grid.add(totalEventosLabel, 1, row++);
             
             grid.add(new Label("✅ Eventos activos:"), 0, row);
-            Label activosLabel = new Label(String.valueOf(eventosActivos));
+            Label activosLabel = new Label(String.valueOf(estadisticas.getEventos(EstadoEvento.ACTIVO)));
             activosLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold;");
             grid.add(activosLabel, 1, row++);
             
             grid.add(new Label("❌ Eventos cancelados:"), 0, row);
-            Label canceladosLabel = new Label(String.valueOf(eventosCancelados));
+            Label canceladosLabel = new Label(String.valueOf(estadisticas.getEventos(EstadoEvento.CANCELADO)));
             canceladosLabel.setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
             grid.add(canceladosLabel, 1, row++);
             
             grid.add(new Label("✔️ Eventos finalizados:"), 0, row);
-            Label finalizadosLabel = new Label(String.valueOf(eventosFinalizados));
+            Label finalizadosLabel = new Label(String.valueOf(estadisticas.getEventos(EstadoEvento.FINALIZADO)));
             finalizadosLabel.setStyle("-fx-text-fill: #95a5a6; -fx-font-weight: bold;");
             grid.add(finalizadosLabel, 1, row++);
             
@@ -1027,12 +1230,12 @@ public class EventosAdminController {
             grid.add(entradasHeader, 0, row++, 2, 1);
             
             grid.add(new Label("Total vendidas:"), 0, row);
-            Label totalEntradasLabel = new Label(String.valueOf(totalEntradas));
+            Label totalEntradasLabel = new Label(String.valueOf(estadisticas.getEntradasVendidas()));
             totalEntradasLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
             grid.add(totalEntradasLabel, 1, row++);
             
             grid.add(new Label("✅ Validadas:"), 0, row);
-            Label validadasLabel = new Label(String.valueOf(entradasValidadas));
+            Label validadasLabel = new Label(String.valueOf(estadisticas.getEntradasValidadas()));
             validadasLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold;");
             grid.add(validadasLabel, 1, row++);
             
@@ -1044,12 +1247,12 @@ public class EventosAdminController {
             grid.add(ingresosHeader, 0, row++, 2, 1);
             
             grid.add(new Label("Total compras:"), 0, row);
-            Label totalComprasLabel = new Label(String.valueOf(todasCompras.size()));
+            Label totalComprasLabel = new Label(String.valueOf(estadisticas.getCompras()));
             totalComprasLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
             grid.add(totalComprasLabel, 1, row++);
             
             grid.add(new Label("Dinero generado:"), 0, row);
-            Label dineroLabel = new Label("$" + dineroTotal.toString());
+            Label dineroLabel = new Label("$" + estadisticas.getIngresos().toString());
             dineroLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold; -fx-font-size: 18px;");
             grid.add(dineroLabel, 1, row++);
             
@@ -1061,11 +1264,49 @@ public class EventosAdminController {
             grid.add(usuariosHeader, 0, row++, 2, 1);
             
             grid.add(new Label("Usuarios registrados:"), 0, row);
-            Label usuariosLabel = new Label(String.valueOf(usuariosRegistrados));
+            Label usuariosLabel = new Label(String.valueOf(estadisticas.getUsuariosRegistrados()));
             usuariosLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
             grid.add(usuariosLabel, 1, row++);
             
-            dialog.getDialogPane().setContent(grid);
+            // Desgloses por evento y por sede
+            if (!estadisticas.getEventosMasVendidos().isEmpty()) {
+                grid.add(new Separator(), 0, row++, 2, 1);
+                Label rankingHeader = new Label("🏆 EVENTOS MÁS VENDIDOS");
+                rankingHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #2c3e50;");
+                grid.add(rankingHeader, 0, row++, 2, 1);
+                
+                for (EstadisticasEvento ev : estadisticas.getEventosMasVendidos()) {
+                    grid.add(new Label(ev.getEvento()), 0, row);
+                    grid.add(new Label(ev.getVendidas() + " entradas (" + ev.getValidadas() + " validadas) - $"
+                        + ev.getIngresos()), 1, row++);
+                }
+            }
+            
+            if (!estadisticas.getSedes().isEmpty()) {
+                grid.add(new Separator(), 0, row++, 2, 1);
+                Label sedesHeader = new Label("🏢 OCUPACIÓN POR SEDE");
+                sedesHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #2c3e50;");
+                grid.add(sedesHeader, 0, row++, 2, 1);
+                
+                for (EstadisticasSede sede : estadisticas.getSedes()) {
+                    grid.add(new Label(sede.getSede()), 0, row);
+                    grid.add(new Label(String.format("%d eventos - %d/%d plazas (%.1f%%)",
+                        sede.getEventos(), sede.getPlazasVendidas(), sede.getPlazasTotales(),
+                        sede.getOcupacion())), 1, row++);
+                }
+            }
+            
+            Label calculadoLabel = new Label("Calculado a las "
+                + estadisticas.getFechaCalculo().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+            calculadoLabel.setStyle("-fx-text-fill: #95a5a6; -fx-font-size: 11px;");
+            grid.add(calculadoLabel, 0, row++, 2, 1);
+            
+            ScrollPane scrollPane = new ScrollPane(grid);
+            scrollPane.setFitToWidth(true);
+            scrollPane.setPrefHeight(550);
+            scrollPane.setPrefWidth(550);
+            
+            dialog.getDialogPane().setContent(scrollPane);
             dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
             dialog.showAndWait();
             
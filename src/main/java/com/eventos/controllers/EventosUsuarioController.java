@@ -1,19 +1,29 @@
 package com.eventos.controllers;
 
-import com.eventos.models.Evento;
+import com.eventos.dto.vista.EventoCercano;
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.dto.vista.SedeUbicacion;
 import com.eventos.models.Usuario;
 import com.eventos.models.Compra;
 import com.eventos.models.Entrada;
 import com.eventos.models.EstadoCompra;
-import com.eventos.repositories.EventoRepository;
 import com.eventos.repositories.TipoEntradaRepository;
 import com.eventos.repositories.EntradaRepository;
 import com.eventos.repositories.CompraRepository;
+import com.eventos.repositories.FiltroEventos;
+import com.eventos.repositories.GenericRepository;
+import com.eventos.repositories.Pagina;
 import com.eventos.services.AutenticacionService;
 import com.eventos.services.CompraService;
+import com.eventos.services.EventoService;
+import com.eventos.services.FacetasEventos;
+import com.eventos.services.InstantaneaCatalogo;
+import com.eventos.services.InstantaneaCatalogoService;
 import com.eventos.services.PagoService;
 import com.eventos.models.TipoEntrada;
 import com.eventos.utils.HotReloadManager;
+import com.eventos.utils.QRService;
+import com.eventos.utils.ScrollInfinito;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -40,7 +50,10 @@ import javafx.stage.Popup;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.text.FontWeight;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Locale;
@@ -48,9 +61,9 @@ import java.math.BigDecimal;
 
 import java.io.IOException;
 import java.io.ByteArrayInputStream;
-import java.util.Base64;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Controlador para la vista de búsqueda y visualización de eventos (Usuario).
@@ -79,31 +92,43 @@ public class EventosUsuarioController {
     @FXML
     private VBox eventosListContainer;
     
+    @FXML
+    private ScrollPane eventosScroll;
+    
     @FXML
     private StackPane mapaContainer;
     
     private javafx.scene.web.WebView mapaWebView;
     private javafx.scene.web.WebEngine webEngine;
 
-    private final EventoRepository eventoRepository;
+    private final EventoService eventoService;
     private final AutenticacionService autenticacionService;
     private final CompraService compraService;
     private final TipoEntradaRepository tipoEntradaRepository;
     private final EntradaRepository entradaRepository;
     private final CompraRepository compraRepository;
+    private final QRService qrService;
     private Usuario usuarioActual;
-    private List<Evento> eventosActuales;
+    private List<EventoResumen> eventosActuales;
+    private FiltroEventos filtroActual = new FiltroEventos();
+    private final Map<FacetasEventos.Faceta, Set<String>> seleccionFacetas = new EnumMap<>(FacetasEventos.Faceta.class);
+    private FacetasEventos.Resultado resultadoFacetas;
+    private List<EventoResumen> eventosCercanos;
+    private Map<Long, Double> distancias = Map.of();
+    private Pagina<EventoResumen> ultimaPagina;
+    private boolean mostrandoInstantanea;
 
     /**
      * Constructor del controlador.
      */
     public EventosUsuarioController() {
-        this.eventoRepository = new EventoRepository();
+        this.eventoService = new EventoService();
         this.autenticacionService = AutenticacionService.getInstance();
         this.compraService = new CompraService();
         this.tipoEntradaRepository = new TipoEntradaRepository();
         this.entradaRepository = new EntradaRepository();
         this.compraRepository = new CompraRepository();
+        this.qrService = new QRService();
     }
 
     /**
@@ -113,7 +138,13 @@ public class EventosUsuarioController {
     private void initialize() {
         usuarioActual = autenticacionService.getUsuarioActual();
         inicializarMapa();
-        cargarEventos();
+        if (!cargarDesdeInstantanea()) {
+            cargarEventos();
+        }
+        if (eventosScroll != null) {
+            ScrollInfinito.instalar(eventosScroll, () -> ultimaPagina != null && ultimaPagina.hayMas(),
+                this::cargarMasEventos);
+        }
         
         // Configurar búsqueda en tiempo real
         busquedaField.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -194,29 +225,115 @@ public class EventosUsuarioController {
     }
     
     /**
-     * Carga todos los eventos disponibles.
+     * Recarga la primera página de eventos con el filtro o las facetas actuales.
      */
     private void cargarEventos() {
+        FacetasEventos facetas = resultadoFacetas != null ? eventoService.facetas() : null;
+        if (facetas != null) {
+            aplicarFacetas(facetas);
+        } else {
+            cargarEventos(filtroActual);
+        }
+    }
+    
+    /**
+     * Carga la primera página de eventos que cumplen el filtro (y deja de aplicar las facetas).
+     * El resto se pide al hacer scroll (ver {@link #cargarMasEventos()}).
+     */
+    private void cargarEventos(FiltroEventos filtro) {
         try {
-            eventosActuales = eventoRepository.findAll();
-            System.out.println("Eventos cargados: " + eventosActuales.size());
-            mostrarEventos(eventosActuales);
-            
-            // Cargar marcadores en el mapa si ya está inicializado
+            filtroActual = filtro;
+            seleccionFacetas.clear();
+            resultadoFacetas = null;
+            eventosCercanos = null;
+            distancias = Map.of();
+            mostrandoInstantanea = false;
+            mostrarPrimeraPagina(eventoService.listarPagina(filtro, null));
+        } catch (Exception e) {
+            mostrarError("Error al cargar eventos: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Al abrir la vista, pinta la primera página desde la instantánea del catálogo sin
+     * esperar a la base de datos y la sustituye cuando termina el refresco en segundo plano
+     * (si el usuario no ha filtrado ni pedido más páginas entretanto).
+     * @return false si todavía no hay instantánea
+     */
+    private boolean cargarDesdeInstantanea() {
+        InstantaneaCatalogoService catalogo = InstantaneaCatalogoService.getInstance();
+        InstantaneaCatalogo instantanea = catalogo.getActual();
+        if (instantanea == null) {
+            return false;
+        }
+        mostrandoInstantanea = true;
+        mostrarPrimeraPagina(instantanea.primeraPagina(GenericRepository.TAMANO_PAGINA));
+        catalogo.refrescar().thenAccept(nueva -> javafx.application.Platform.runLater(() -> {
+            if (nueva != null && mostrandoInstantanea && eventosActuales.size() <= GenericRepository.TAMANO_PAGINA) {
+                mostrarPrimeraPagina(nueva.primeraPagina(GenericRepository.TAMANO_PAGINA));
+            }
+        }));
+        return true;
+    }
+    
+    /**
+     * Sustituye la lista y los marcadores por la primera página de resultados.
+     */
+    private void mostrarPrimeraPagina(Pagina<EventoResumen> pagina) {
+        ultimaPagina = pagina;
+        eventosActuales = new ArrayList<>(ultimaPagina.getElementos());
+        System.out.println("Eventos cargados: " + eventosActuales.size());
+        mostrarEventos(eventosActuales);
+        if (eventosScroll != null) {
+            eventosScroll.setVvalue(0);
+        }
+        
+        // Cargar marcadores en el mapa si ya está inicializado
+        if (webEngine != null) {
+            System.out.println("Cargando marcadores desde cargarEventos()...");
+            cargarMarcadoresEnMapa(eventosActuales);
+        }
+    }
+    
+    /**
+     * Añade la página siguiente de eventos a la lista, si la hay.
+     */
+    private void cargarMasEventos() {
+        if (ultimaPagina == null || !ultimaPagina.hayMas()) {
+            return;
+        }
+        try {
+            if (eventosCercanos != null) {
+                ultimaPagina = paginaCercanos(eventosActuales.size());
+            } else if (resultadoFacetas != null) {
+                ultimaPagina = resultadoFacetas.pagina(ultimaPagina.getUltimo(), GenericRepository.TAMANO_PAGINA);
+            } else {
+                ultimaPagina = eventoService.listarPagina(filtroActual, ultimaPagina.getUltimo());
+            }
+            for (EventoResumen evento : ultimaPagina.getElementos()) {
+                eventosActuales.add(evento);
+                eventosListContainer.getChildren().add(crearEventoCard(evento));
+            }
             if (webEngine != null) {
-                System.out.println("Cargando marcadores desde cargarEventos()...");
                 cargarMarcadoresEnMapa(eventosActuales);
             }
         } catch (Exception e) {
-            mostrarError("Error al cargar eventos: " + e.getMessage());
-            e.printStackTrace();
+            mostrarError("Error al cargar más eventos: " + e.getMessage());
         }
     }
     
+    /**
+     * Número de eventos cargados, con "+" si quedan más páginas.
+     */
+    private String totalCargados() {
+        return eventosActuales.size() + (ultimaPagina != null && ultimaPagina.hayMas() ? "+" : "");
+    }
+    
     /**
      * Carga los marcadores de eventos en el mapa usando JavaScript/Leaflet.
      */
-    private void cargarMarcadoresEnMapa(List<Evento> eventos) {
+    private void cargarMarcadoresEnMapa(List<EventoResumen> eventos) {
         if (webEngine == null) {
             System.out.println("WebEngine es null, no se pueden cargar marcadores");
             return;
@@ -229,17 +346,15 @@ public class EventosUsuarioController {
         
         // Agregar cada evento al mapa
         int marcadoresAgregados = 0;
-        for (Evento evento : eventos) {
-            if (evento.getSede() != null && 
-                evento.getSede().getLatitud() != null && 
-                evento.getSede().getLongitud() != null) {
+        for (EventoResumen evento : eventos) {
+            if (evento.tieneUbicacion()) {
                 
-                double lat = evento.getSede().getLatitud();
-                double lng = evento.getSede().getLongitud();
+                double lat = evento.getLatitud();
+                double lng = evento.getLongitud();
                 String nombre = escaparJS(evento.getNombre());
-                String sede = escaparJS(evento.getSede().getNombre());
+                String sede = escaparJS(evento.getSede());
                 String fecha = escaparJS(evento.getFechaInicio().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
-                String categoria = escaparJS(evento.getTipoEvento().getNombre());
+                String categoria = escaparJS(evento.getTipoEvento());
                 Long id = evento.getId();
                 
                 String script = String.format(Locale.US,
@@ -282,7 +397,7 @@ public class EventosUsuarioController {
      */
     public void seleccionarEvento(int eventoId) {
         // Encontrar el evento y mostrarlo
-        Evento evento = eventosActuales.stream()
+        EventoResumen evento = eventosActuales.stream()
             .filter(e -> e.getId().equals((long) eventoId))
             .findFirst()
             .orElse(null);
@@ -295,7 +410,7 @@ public class EventosUsuarioController {
     /**
      * Muestra los eventos en la lista.
      */
-    private void mostrarEventos(List<Evento> eventos) {
+    private void mostrarEventos(List<EventoResumen> eventos) {
         eventosListContainer.getChildren().clear();
         
         if (eventos.isEmpty()) {
@@ -305,7 +420,7 @@ public class EventosUsuarioController {
             return;
         }
 
-        for (Evento evento : eventos) {
+        for (EventoResumen evento : eventos) {
             VBox eventoCard = crearEventoCard(evento);
             eventosListContainer.getChildren().add(eventoCard);
         }
@@ -314,7 +429,7 @@ public class EventosUsuarioController {
     /**
      * Crea una tarjeta visual para un evento.
      */
-    private VBox crearEventoCard(Evento evento) {
+    private VBox crearEventoCard(EventoResumen evento) {
         VBox card = new VBox(8);
         card.setStyle("-fx-background-color: white; -fx-border-color: #bdc3c7; " +
                      "-fx-border-width: 1; -fx-border-radius: 8; -fx-background-radius: 8; " +
@@ -327,7 +442,7 @@ public class EventosUsuarioController {
         nombreLabel.setStyle("-fx-text-fill: #2c3e50;");
 
         // Tipo de evento
-        Label tipoLabel = new Label("📍 " + evento.getTipoEvento().getNombre());
+        Label tipoLabel = new Label("📍 " + evento.getTipoEvento());
         tipoLabel.setStyle("-fx-text-fill: #3498db; -fx-font-size: 12px;");
 
         // Fecha y hora
@@ -336,15 +451,14 @@ public class EventosUsuarioController {
         fechaLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 12px;");
 
         // Sede
-        Label sedeLabel = new Label("🏢 " + evento.getSede().getNombre());
+        Double distancia = distancias.get(evento.getId());
+        Label sedeLabel = new Label("🏢 " + evento.getSede()
+            + (distancia != null ? String.format(Locale.ROOT, " · a %.1f km", distancia) : ""));
         sedeLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 12px;");
 
-        // Descripción (resumida)
-        if (evento.getDescripcion() != null && !evento.getDescripcion().isEmpty()) {
-            String descripcionCorta = evento.getDescripcion().length() > 100 
-                ? evento.getDescripcion().substring(0, 100) + "..." 
-                : evento.getDescripcion();
-            Label descripcionLabel = new Label(descripcionCorta);
+        // Descripción (ya viene resumida de la consulta)
+        if (evento.getDescripcionCorta() != null && !evento.getDescripcionCorta().isEmpty()) {
+            Label descripcionLabel = new Label(evento.getDescripcionCorta());
             descripcionLabel.setWrapText(true);
             descripcionLabel.setStyle("-fx-text-fill: #555; -fx-font-size: 11px;");
             card.getChildren().add(descripcionLabel);
@@ -367,7 +481,7 @@ public class EventosUsuarioController {
     /**
      * Maneja el clic en "Ver Detalles" de un evento.
      */
-    private void handleVerDetalles(Evento evento) {
+    private void handleVerDetalles(EventoResumen evento) {
         if (usuarioActual == null) {
             mostrarError("Debes iniciar sesión para comprar");
             return;
@@ -461,7 +575,7 @@ public class EventosUsuarioController {
         // Información del evento
         Label eventoInfo = new Label("📅 " + evento.getFechaInicio().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
         eventoInfo.setStyle("-fx-font-size: 13px; -fx-text-fill: #34495e;");
-        Label sedeInfo = new Label("📍 " + evento.getSede().getNombre() + " - " + evento.getSede().getCiudad());
+        Label sedeInfo = new Label("📍 " + evento.getSede() + " - " + evento.getCiudad());
         sedeInfo.setStyle("-fx-font-size: 13px; -fx-text-fill: #34495e;");
         
         grid.add(eventoInfo, 0, 0, 2, 1);
@@ -512,7 +626,7 @@ public class EventosUsuarioController {
     /**
      * Muestra el diálogo de pago con validación de tarjeta.
      */
-    private void mostrarDialogoPago(Evento evento, TipoEntrada tipoEntrada, int cantidad, BigDecimal total) {
+    private void mostrarDialogoPago(EventoResumen evento, TipoEntrada tipoEntrada, int cantidad, BigDecimal total) {
         Dialog<ButtonType> pagoDialog = new Dialog<>();
         pagoDialog.setTitle("Procesamiento de Pago");
         pagoDialog.setHeaderText("💳 Ingresa los datos de tu tarjeta");
@@ -627,7 +741,7 @@ public class EventosUsuarioController {
      * Procesa el pago mostrando una animación de carga.
      */
     private void procesarPagoConAnimacion(String numeroTarjeta, String expiracion, String cvv, 
-                                          String nombre, BigDecimal monto, Evento evento, 
+                                          String nombre, BigDecimal monto, EventoResumen evento, 
                                           TipoEntrada tipoEntrada, int cantidad) {
         // Crear ventana de procesamiento
         Dialog<Void> processingDialog = new Dialog<>();
@@ -749,19 +863,16 @@ public class EventosUsuarioController {
      */
     private void buscarEventos(String textoBusqueda) {
         if (textoBusqueda == null || textoBusqueda.trim().isEmpty()) {
-            mostrarEventos(eventosActuales);
+            cargarEventos(new FiltroEventos());
             return;
         }
 
-        String busqueda = textoBusqueda.toLowerCase().trim();
-        List<Evento> eventosFiltrados = eventosActuales.stream()
-            .filter(e -> e.getNombre().toLowerCase().contains(busqueda))
-            .toList();
-
-        mostrarEventos(eventosFiltrados);
+        FiltroEventos filtro = new FiltroEventos();
+        filtro.setTexto(textoBusqueda.trim());
+        cargarEventos(filtro);
         
-        if (eventosFiltrados.isEmpty()) {
-            mostrarInfo("No se encontraron eventos con el nombre: \"" + textoBusqueda + "\"");
+        if (eventosActuales.isEmpty()) {
+            mostrarInfo("No se encontraron eventos para: \"" + textoBusqueda + "\"");
         }
     }
 
@@ -781,174 +892,202 @@ public class EventosUsuarioController {
 
     @FXML
     private void handleFiltrarEventos() {
-        // Obtener tipos de eventos únicos
-        List<String> tiposUnicos = eventosActuales.stream()
-            .filter(e -> e.getTipoEvento() != null)
-            .map(e -> e.getTipoEvento().getNombre())
-            .distinct()
-            .sorted()
-            .toList();
-        
-        if (tiposUnicos.isEmpty()) {
-            mostrarInfo("No hay tipos de eventos disponibles");
+        mostrarFacetas(FacetasEventos.Faceta.TIPO);
+    }
+
+    @FXML
+    private void handleFiltrarFechas() {
+        mostrarFacetas(FacetasEventos.Faceta.FECHA);
+    }
+
+    @FXML
+    private void handleFiltrarPrecio() {
+        mostrarFacetas(FacetasEventos.Faceta.PRECIO);
+    }
+
+    @FXML
+    private void handleLocalizacion() {
+        mostrarFacetas(FacetasEventos.Faceta.CIUDAD);
+    }
+
+    /**
+     * Diálogo con todos los filtros (tipo, ciudad, precio, fecha y disponibilidad) que se
+     * combinan entre sí. Cada opción muestra cuántos eventos quedarían al marcarla y la
+     * lista se actualiza al momento con cada cambio.
+     * @param abierta Faceta que se muestra desplegada
+     */
+    private void mostrarFacetas(FacetasEventos.Faceta abierta) {
+        FacetasEventos facetas = eventoService.facetas();
+        if (facetas == null) {
+            mostrarInfo("Los filtros estarán disponibles en cuanto termine de cargarse el catálogo de eventos");
             return;
         }
         
-        // Crear diálogo de selección
-        ChoiceDialog<String> dialog = new ChoiceDialog<>("Todos", tiposUnicos);
-        dialog.setTitle("Filtrar por Tipo de Evento");
-        dialog.setHeaderText("Selecciona un tipo de evento");
-        dialog.setContentText("Tipo:");
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Filtrar Eventos");
+        
+        Map<FacetasEventos.Faceta, Map<String, CheckBox>> casillas = new EnumMap<>(FacetasEventos.Faceta.class);
+        java.util.function.Consumer<FacetasEventos.Resultado> pintarCuentas = resultado -> {
+            casillas.forEach((faceta, porValor) -> porValor.forEach((valor, casilla) -> {
+                int cuenta = resultado.getCuenta(faceta, valor);
+                casilla.setText(valor + " (" + cuenta + ")");
+                casilla.setDisable(cuenta == 0 && !casilla.isSelected());
+            }));
+            dialog.setHeaderText("🔎 " + resultado.getTotal() + " evento(s) con los filtros elegidos");
+        };
         
-        dialog.showAndWait().ifPresent(tipoSeleccionado -> {
-            if ("Todos".equals(tipoSeleccionado)) {
-                mostrarEventos(eventosActuales);
-            } else {
-                List<Evento> eventosFiltrados = eventosActuales.stream()
-                    .filter(e -> e.getTipoEvento() != null && 
-                                e.getTipoEvento().getNombre().equals(tipoSeleccionado))
-                    .toList();
-                mostrarEventos(eventosFiltrados);
-                mostrarInfo("Mostrando " + eventosFiltrados.size() + " evento(s) de tipo: " + tipoSeleccionado);
+        Accordion acordeon = new Accordion();
+        for (FacetasEventos.Faceta faceta : FacetasEventos.Faceta.values()) {
+            VBox opciones = new VBox(6);
+            opciones.setStyle("-fx-padding: 10;");
+            Map<String, CheckBox> porValor = new LinkedHashMap<>();
+            for (String valor : facetas.getValores(faceta)) {
+                CheckBox casilla = new CheckBox(valor);
+                casilla.setSelected(seleccionFacetas.getOrDefault(faceta, Set.of()).contains(valor));
+                casilla.selectedProperty().addListener((obs, antes, marcada) -> {
+                    Set<String> elegidos = seleccionFacetas.computeIfAbsent(faceta, f -> new HashSet<>());
+                    if (marcada) {
+                        elegidos.add(valor);
+                    } else {
+                        elegidos.remove(valor);
+                    }
+                    aplicarFacetas(facetas);
+                    pintarCuentas.accept(resultadoFacetas);
+                });
+                porValor.put(valor, casilla);
+                opciones.getChildren().add(casilla);
             }
-        });
+            casillas.put(faceta, porValor);
+            
+            ScrollPane desplazable = new ScrollPane(opciones);
+            desplazable.setFitToWidth(true);
+            desplazable.setMaxHeight(260);
+            TitledPane panel = new TitledPane(faceta.getEtiqueta(), desplazable);
+            acordeon.getPanes().add(panel);
+            if (faceta == abierta) {
+                acordeon.setExpandedPane(panel);
+            }
+        }
+        // Solo cuentas al abrir: la lista cambia con la primera casilla que se toque
+        pintarCuentas.accept(facetas.filtrar(seleccionFacetas));
+        
+        Button quitarFiltros = new Button("Quitar filtros");
+        quitarFiltros.setOnAction(e -> casillas.values().forEach(porValor ->
+            porValor.values().forEach(casilla -> casilla.setSelected(false))));
+        
+        VBox content = new VBox(10, acordeon, quitarFiltros);
+        content.setPrefWidth(380);
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.showAndWait();
+    }
+
+    /**
+     * Muestra la primera página de los eventos que cumplen los filtros elegidos
+     */
+    private void aplicarFacetas(FacetasEventos facetas) {
+        resultadoFacetas = facetas.filtrar(seleccionFacetas);
+        eventosCercanos = null;
+        distancias = Map.of();
+        mostrandoInstantanea = false;
+        mostrarPrimeraPagina(resultadoFacetas.pagina(null, GenericRepository.TAMANO_PAGINA));
     }
 
+    /**
+     * "Cerca de mí": el usuario elige dónde está (una ciudad con sedes) y hasta dónde buscar,
+     * y se listan los eventos próximos con entradas de la sede más cercana a la más lejana.
+     */
     @FXML
-    private void handleFiltrarFechas() {
-        // Crear diálogo con DatePicker
-        Dialog<java.time.LocalDate> dialog = new Dialog<>();
-        dialog.setTitle("Filtrar por Fecha");
-        dialog.setHeaderText("Selecciona la fecha máxima para los eventos");
+    private void handleCercaDeMi() {
+        // Centro de cada ciudad: media de las posiciones de sus sedes activas
+        Map<String, double[]> centros = new java.util.TreeMap<>();
+        for (SedeUbicacion sede : eventoService.listarUbicacionesSedes()) {
+            if (sede.getCiudad() != null) {
+                double[] suma = centros.computeIfAbsent(sede.getCiudad(), c -> new double[3]);
+                suma[0] += sede.getLatitud();
+                suma[1] += sede.getLongitud();
+                suma[2]++;
+            }
+        }
+        if (centros.isEmpty()) {
+            mostrarInfo("No hay sedes con ubicación disponibles");
+            return;
+        }
         
-        // Configurar botones
-        ButtonType filtrarButtonType = new ButtonType("Filtrar", ButtonBar.ButtonData.OK_DONE);
-        dialog.getDialogPane().getButtonTypes().addAll(filtrarButtonType, ButtonType.CANCEL);
+        Dialog<Boolean> dialog = new Dialog<>();
+        dialog.setTitle("Cerca de Mí");
+        dialog.setHeaderText("📍 Busca eventos con entradas cerca de ti");
+        ButtonType buscarButtonType = new ButtonType("Buscar", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(buscarButtonType, ButtonType.CANCEL);
         
-        // Crear DatePicker
-        DatePicker datePicker = new DatePicker();
-        datePicker.setValue(java.time.LocalDate.now().plusDays(30)); // Por defecto 30 días
-        datePicker.setPromptText("dd/MM/yyyy");
+        ComboBox<String> ciudadCombo = new ComboBox<>();
+        ciudadCombo.getItems().addAll(centros.keySet());
+        ciudadCombo.setValue(ciudadCombo.getItems().get(0));
+        
+        // Radios en km y, después, número de sedes más cercanas
+        String[] alcances = {"5 km", "10 km", "25 km", "50 km", "100 km",
+            "Las 3 sedes más cercanas", "Las 10 sedes más cercanas"};
+        double[] radios = {5, 10, 25, 50, 100};
+        int[] numerosSedes = {3, 10};
+        ComboBox<String> alcanceCombo = new ComboBox<>();
+        alcanceCombo.getItems().addAll(alcances);
+        alcanceCombo.setValue("25 km");
         
-        // Layout
         GridPane grid = new GridPane();
         grid.setHgap(10);
         grid.setVgap(10);
-        grid.setPadding(new javafx.geometry.Insets(20, 150, 10, 10));
-        
-        Label instruccion = new Label("Los eventos se mostrarán desde hoy hasta la fecha seleccionada:");
-        instruccion.setWrapText(true);
-        
-        grid.add(instruccion, 0, 0);
-        grid.add(new Label("Fecha máxima:"), 0, 1);
-        grid.add(datePicker, 1, 1);
-        
+        grid.setPadding(new javafx.geometry.Insets(20, 20, 10, 10));
+        grid.add(new Label("Estoy en:"), 0, 0);
+        grid.add(ciudadCombo, 1, 0);
+        grid.add(new Label("Buscar en:"), 0, 1);
+        grid.add(alcanceCombo, 1, 1);
         dialog.getDialogPane().setContent(grid);
         
-        // Convertir resultado
-        dialog.setResultConverter(dialogButton -> {
-            if (dialogButton == filtrarButtonType) {
-                return datePicker.getValue();
-            }
-            return null;
-        });
-        
-        // Procesar resultado
-        dialog.showAndWait().ifPresent(fechaMaxima -> {
-            java.time.LocalDateTime ahora = java.time.LocalDateTime.now();
-            java.time.LocalDateTime fechaLimite = fechaMaxima.atTime(23, 59, 59);
-            
-            if (fechaLimite.isBefore(ahora)) {
-                mostrarError("La fecha seleccionada debe ser igual o posterior a hoy");
-                return;
-            }
-            
-            List<Evento> eventosFiltrados = eventosActuales.stream()
-                .filter(e -> e.getFechaInicio() != null && 
-                            !e.getFechaInicio().isBefore(ahora) &&
-                            !e.getFechaInicio().isAfter(fechaLimite))
-                .toList();
-            
-            mostrarEventos(eventosFiltrados);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            mostrarInfo("Mostrando " + eventosFiltrados.size() + 
-                       " evento(s) hasta el " + fechaMaxima.format(formatter));
-        });
-    }
-
-    @FXML
-    private void handleFiltrarPrecio() {
-        TextInputDialog dialog = new TextInputDialog("1000");
-        dialog.setTitle("Filtrar por Precio");
-        dialog.setHeaderText("Precio máximo");
-        dialog.setContentText("Ingrese el precio máximo que desea pagar:");
-        
-        dialog.showAndWait().ifPresent(precioTexto -> {
+        dialog.setResultConverter(boton -> boton == buscarButtonType);
+        dialog.showAndWait().filter(Boolean::booleanValue).ifPresent(buscar -> {
             try {
-                // Validar que sea un número válido
-                java.math.BigDecimal precioMaximo = new java.math.BigDecimal(precioTexto.trim());
-                
-                if (precioMaximo.compareTo(java.math.BigDecimal.ZERO) < 0) {
-                    mostrarError("El precio debe ser mayor o igual a 0");
-                    return;
-                }
-                
-                // Filtrar eventos por precio
-                List<Evento> eventosFiltrados = eventosActuales.stream()
-                    .filter(e -> e.getPrecioBase() != null && 
-                                e.getPrecioBase().compareTo(precioMaximo) <= 0)
-                    .toList();
-                
-                mostrarEventos(eventosFiltrados);
-                mostrarInfo("Mostrando " + eventosFiltrados.size() + 
-                           " evento(s) con precio hasta $" + precioMaximo);
-                           
-            } catch (NumberFormatException e) {
-                mostrarError("Por favor, ingrese un número válido");
+                double[] suma = centros.get(ciudadCombo.getValue());
+                double latitud = suma[0] / suma[2];
+                double longitud = suma[1] / suma[2];
+                int alcance = alcanceCombo.getItems().indexOf(alcanceCombo.getValue());
+                List<EventoCercano> encontrados = alcance < radios.length
+                    ? eventoService.buscarCercanos(latitud, longitud, radios[alcance])
+                    : eventoService.buscarEnSedesMasCercanas(latitud, longitud, numerosSedes[alcance - radios.length]);
+                mostrarCercanos(encontrados);
+                mostrarInfo("Mostrando " + encontrados.size() + " evento(s) con entradas cerca de "
+                    + ciudadCombo.getValue());
+            } catch (Exception e) {
+                mostrarError("Error al buscar eventos cercanos: " + e.getMessage());
             }
         });
     }
 
-    @FXML
-    private void handleLocalizacion() {
-        // Obtener ciudades únicas
-        List<String> ciudadesUnicas = eventosActuales.stream()
-            .filter(e -> e.getSede() != null && e.getSede().getCiudad() != null)
-            .map(e -> e.getSede().getCiudad())
-            .distinct()
-            .sorted()
-            .toList();
-        
-        if (ciudadesUnicas.isEmpty()) {
-            mostrarInfo("No hay ciudades disponibles");
-            return;
+    /**
+     * Sustituye la lista por los eventos cercanos (ya ordenados por distancia), con la
+     * distancia en cada tarjeta. El resto se pagina al hacer scroll.
+     */
+    private void mostrarCercanos(List<EventoCercano> encontrados) {
+        seleccionFacetas.clear();
+        resultadoFacetas = null;
+        mostrandoInstantanea = false;
+        eventosCercanos = new ArrayList<>(encontrados.size());
+        Map<Long, Double> porId = new HashMap<>();
+        for (EventoCercano cercano : encontrados) {
+            eventosCercanos.add(cercano.getEvento());
+            porId.put(cercano.getEvento().getId(), cercano.getDistanciaKm());
         }
-        
-        // Crear diálogo de selección
-        ChoiceDialog<String> dialog = new ChoiceDialog<>("Todas", ciudadesUnicas);
-        dialog.setTitle("Filtrar por Localización");
-        dialog.setHeaderText("Selecciona una ciudad");
-        dialog.setContentText("Ciudad:");
-        
-        dialog.showAndWait().ifPresent(ciudadSeleccionada -> {
-            if ("Todas".equals(ciudadSeleccionada)) {
-                mostrarEventos(eventosActuales);
-            } else {
-                List<Evento> eventosFiltrados = eventosActuales.stream()
-                    .filter(e -> e.getSede() != null && 
-                                e.getSede().getCiudad() != null &&
-                                e.getSede().getCiudad().equals(ciudadSeleccionada))
-                    .toList();
-                mostrarEventos(eventosFiltrados);
-                mostrarInfo("Mostrando " + eventosFiltrados.size() + " evento(s) en: " + ciudadSeleccionada);
-            }
-        });
+        distancias = porId;
+        mostrarPrimeraPagina(paginaCercanos(0));
+    }
+
+    private Pagina<EventoResumen> paginaCercanos(int desde) {
+        int hasta = Math.min(eventosCercanos.size(), desde + GenericRepository.TAMANO_PAGINA);
+        return new Pagina<>(new ArrayList<>(eventosCercanos.subList(desde, hasta)), hasta < eventosCercanos.size());
     }
 
     @FXML
     private void handleInicio() {
-        cargarEventos();
+        cargarEventos(new FiltroEventos());
         toggleMenu();
     }
 
@@ -959,20 +1098,19 @@ public class EventosUsuarioController {
             return;
         }
 
-        List<com.eventos.models.Compra> compras = compraRepository.findByUsuario(usuarioActual.getId());
         VBox lista = new VBox(12);
         lista.setStyle("-fx-padding: 10;");
 
+        List<Compra> compras = compraRepository.findByUsuario(usuarioActual.getId());
         if (compras.isEmpty()) {
             lista.getChildren().add(new Label("No tienes compras todavía."));
         } else {
-            for (com.eventos.models.Compra compra : compras) {
+            Map<Long, List<Entrada>> entradasPorCompra = entradasPorCompra();
+            for (Compra compra : compras) {
                 Label cabecera = new Label("Compra " + compra.getCodigoConfirmacion() + " - " + compra.getFechaCompra());
                 cabecera.setStyle("-fx-font-weight: bold;");
                 lista.getChildren().add(cabecera);
-
-                List<com.eventos.models.Entrada> entradas = entradaRepository.findByCompra(compra.getId());
-                for (com.eventos.models.Entrada entrada : entradas) {
+                for (Entrada entrada : entradasPorCompra.getOrDefault(compra.getId(), List.of())) {
                     lista.getChildren().add(crearTarjetaEntrada(entrada));
                 }
             }
@@ -989,6 +1127,17 @@ public class EventosUsuarioController {
         toggleMenu();
     }
 
+    /**
+     * Entradas del usuario actual por ID de compra, cargadas con una sola consulta
+     */
+    private Map<Long, List<Entrada>> entradasPorCompra() {
+        Map<Long, List<Entrada>> porCompra = new HashMap<>();
+        for (Entrada entrada : entradaRepository.findByUsuario(usuarioActual.getId())) {
+            porCompra.computeIfAbsent(entrada.getCompra().getId(), id -> new ArrayList<>()).add(entrada);
+        }
+        return porCompra;
+    }
+
     @FXML
     private void handleHistorial() {
         toggleMenu();
@@ -999,16 +1148,14 @@ public class EventosUsuarioController {
         }
         
         try {
-            List<Compra> compras = compraRepository.findAll().stream()
-                .filter(c -> c.getUsuario().getId().equals(usuarioActual.getId()))
-                .sorted((c1, c2) -> c2.getFechaCompra().compareTo(c1.getFechaCompra()))
-                .toList();
+            List<Compra> compras = compraRepository.findByUsuario(usuarioActual.getId());
             
             if (compras.isEmpty()) {
                 mostrarInfo("No tienes compras registradas");
                 return;
             }
             
+            Map<Long, List<Entrada>> entradasPorCompra = entradasPorCompra();
             Dialog<Void> dialog = new Dialog<>();
             dialog.setTitle("Historial de Compras");
             dialog.setHeaderText("🎫 Mis Compras (" + compras.size() + ")");
@@ -1041,9 +1188,7 @@ public class EventosUsuarioController {
                 
                 // Detalles de entradas
                 VBox entradasBox = new VBox(5);
-                List<Entrada> entradas = entradaRepository.findAll().stream()
-                    .filter(e -> e.getCompra().getId().equals(compra.getId()))
-                    .toList();
+                List<Entrada> entradas = entradasPorCompra.getOrDefault(compra.getId(), List.of());
                 
                 for (Entrada entrada : entradas) {
                     HBox entradaRow = new HBox(10);
@@ -1109,20 +1254,13 @@ public class EventosUsuarioController {
             VBox content = new VBox(10);
             content.setStyle("-fx-alignment: center; -fx-padding: 20;");
             
-            // Decodificar base64 y mostrar imagen
-            String base64Data = entrada.getCodigoQR();
-            if (base64Data.contains(",")) {
-                base64Data = base64Data.split(",")[1];
-            }
-            
-            byte[] imageBytes = java.util.Base64.getDecoder().decode(base64Data);
-            java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(imageBytes);
-            javafx.scene.image.Image qrImage = new javafx.scene.image.Image(bis);
-            
-            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(qrImage);
-            imageView.setFitWidth(300);
-            imageView.setFitHeight(300);
+            // La entrada solo guarda el token: la imagen se genera en segundo plano
+            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView();
+            imageView.setFitWidth(QRService.TAMANO_DETALLE);
+            imageView.setFitHeight(QRService.TAMANO_DETALLE);
             imageView.setPreserveRatio(true);
+            Label estadoQR = new Label();
+            cargarQR(imageView, estadoQR, entrada.getCodigoQR(), QRService.TAMANO_DETALLE);
             
             Label infoLabel = new Label("Número: " + entrada.getNumeroEntrada());
             infoLabel.setStyle("-fx-font-size: 12px; -fx-font-family: monospace;");
@@ -1130,7 +1268,7 @@ public class EventosUsuarioController {
             Label tipoLabel = new Label(entrada.getTipoEntrada().getNombre());
             tipoLabel.setStyle("-fx-font-weight: bold;");
             
-            content.getChildren().addAll(imageView, infoLabel, tipoLabel);
+            content.getChildren().addAll(imageView, estadoQR, infoLabel, tipoLabel);
             
             qrDialog.getDialogPane().setContent(content);
             qrDialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
@@ -1152,22 +1290,41 @@ public class EventosUsuarioController {
         info.getChildren().add(new Label("Estado: " + (Boolean.TRUE.equals(entrada.getValidada()) ? "Validada" : "Pendiente")));
 
         ImageView qrView = new ImageView();
-        qrView.setFitWidth(100);
-        qrView.setFitHeight(100);
+        qrView.setFitWidth(QRService.TAMANO_MINIATURA);
+        qrView.setFitHeight(QRService.TAMANO_MINIATURA);
         qrView.setPreserveRatio(true);
+        Label estadoQR = new Label();
+        estadoQR.setStyle("-fx-font-size: 11px; -fx-text-fill: #757575;");
         if (entrada.getCodigoQR() != null) {
-            try {
-                byte[] bytes = Base64.getDecoder().decode(entrada.getCodigoQR());
-                qrView.setImage(new Image(new ByteArrayInputStream(bytes)));
-            } catch (IllegalArgumentException ignored) {
-                // Si el QR no es válido, dejar vacío
-            }
+            cargarQR(qrView, estadoQR, entrada.getCodigoQR(), QRService.TAMANO_MINIATURA);
         }
 
-        card.getChildren().addAll(qrView, info);
+        card.getChildren().addAll(new VBox(4, qrView, estadoQR), info);
         return card;
     }
 
+    /**
+     * Muestra el QR de un token en un ImageView. Si la imagen aún no está en la caché
+     * se pide al pool de QRService y se coloca cuando llega, sin bloquear la interfaz.
+     */
+    private void cargarQR(ImageView destino, Label estado, String token, int size) {
+        if (qrService.estado(token, size) == QRService.EstadoQR.LISTO) {
+            destino.setImage(new Image(new ByteArrayInputStream(qrService.generarQRPng(token, size))));
+            estado.setText("");
+            return;
+        }
+        estado.setText("Generando QR...");
+        qrService.generarQRPngAsync(token, size).whenComplete((png, error) -> javafx.application.Platform.runLater(() -> {
+            if (error != null) {
+                System.err.println("No se pudo generar el QR: " + error.getMessage());
+                estado.setText("QR no disponible");
+            } else {
+                destino.setImage(new Image(new ByteArrayInputStream(png)));
+                estado.setText("");
+            }
+        }));
+    }
+
     @FXML
     private void togglePerfilMenu() {
         if (perfilMenu == null) return;
@@ -1,8 +1,11 @@
 package com.eventos.controllers;
 
+import com.eventos.config.CacheUtil;
+import com.eventos.dto.vista.SedeResumen;
 import com.eventos.models.Sede;
 import com.eventos.repositories.SedeRepository;
 import com.eventos.utils.DialogStyler;
+import com.eventos.utils.IndiceTrigramas;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -43,32 +46,33 @@ public class SedesAdminController {
     private ComboBox<String> filtroActivaCombo;
     
     @FXML
-    private TableView<Sede> sedesTable;
+    private TableView<SedeResumen> sedesTable;
     
     @FXML
-    private TableColumn<Sede, String> idColumn;
+    private TableColumn<SedeResumen, String> idColumn;
     
     @FXML
-    private TableColumn<Sede, String> nombreColumn;
+    private TableColumn<SedeResumen, String> nombreColumn;
     
     @FXML
-    private TableColumn<Sede, String> direccionColumn;
+    private TableColumn<SedeResumen, String> direccionColumn;
     
     @FXML
-    private TableColumn<Sede, String> ciudadColumn;
+    private TableColumn<SedeResumen, String> ciudadColumn;
     
     @FXML
-    private TableColumn<Sede, String> capacidadColumn;
+    private TableColumn<SedeResumen, String> capacidadColumn;
     
     @FXML
-    private TableColumn<Sede, String> activaColumn;
+    private TableColumn<SedeResumen, String> activaColumn;
     
     @FXML
     private Label infoLabel;
     
     private SedeRepository sedeRepository;
-    private ObservableList<Sede> sedesData;
-    private ObservableList<Sede> todasLasSedes;
+    private ObservableList<SedeResumen> sedesData;
+    private ObservableList<SedeResumen> todasLasSedes;
+    private IndiceTrigramas<SedeResumen> indiceSedes;
 
     /**
      * Inicializa el controlador después de cargar el FXML
@@ -138,19 +142,21 @@ public class SedesAdminController {
     }
     
     /**
-     * Carga todas las sedes desde la base de datos
+     * Carga el resumen de todas las sedes desde la base de datos
      */
     private void cargarSedes() {
         try {
-            List<Sede> sedes = sedeRepository.findAll();
+            List<SedeResumen> sedes = sedeRepository.findAllResumen();
             todasLasSedes.clear();
             todasLasSedes.addAll(sedes);
+            indiceSedes = new IndiceTrigramas<>(List.copyOf(sedes),
+                sede -> sede.getNombre() + " " + sede.getDireccion() + " " + sede.getCiudad());
             sedesData.clear();
             sedesData.addAll(sedes);
             
             // Actualizar filtro de ciudades
             List<String> ciudades = sedes.stream()
-                .map(Sede::getCiudad)
+                .map(SedeResumen::getCiudad)
                 .distinct()
                 .sorted()
                 .toList();
@@ -169,7 +175,7 @@ public class SedesAdminController {
     /**
      * Muestra información de la sede seleccionada
      */
-    private void mostrarInfoSede(Sede sede) {
+    private void mostrarInfoSede(SedeResumen sede) {
         String info = String.format("Sede: %s | Ciudad: %s | Capacidad: %d | Estado: %s",
             sede.getNombre(),
             sede.getCiudad(),
@@ -204,6 +210,7 @@ public class SedesAdminController {
         resultado.ifPresent(sede -> {
             try {
                 sedeRepository.save(sede);
+                CacheUtil.evictar(Sede.class);
                 cargarSedes();
                 mostrarInfo("Sede creada", "La sede ha sido creada exitosamente");
             } catch (Exception e) {
@@ -217,19 +224,28 @@ public class SedesAdminController {
      */
     @FXML
     private void handleModificarSede() {
-        Sede sedeSeleccionada = sedesTable.getSelectionModel().getSelectedItem();
+        SedeResumen sedeSeleccionada = sedesTable.getSelectionModel().getSelectedItem();
         
         if (sedeSeleccionada == null) {
             mostrarAdvertencia("Selección requerida", "Por favor selecciona una sede para modificar");
             return;
         }
         
-        Dialog<Sede> dialog = crearDialogoSede(sedeSeleccionada);
+        // La tabla solo tiene el resumen: el diálogo edita la entidad completa
+        Optional<Sede> sedeExistente = sedeRepository.findById(sedeSeleccionada.getId());
+        if (sedeExistente.isEmpty()) {
+            mostrarAdvertencia("Sede no encontrada", "La sede seleccionada ya no existe");
+            cargarSedes();
+            return;
+        }
+        
+        Dialog<Sede> dialog = crearDialogoSede(sedeExistente.get());
         Optional<Sede> resultado = dialog.showAndWait();
         
         resultado.ifPresent(sede -> {
             try {
                 sedeRepository.update(sede);
+                CacheUtil.evictar(Sede.class);
                 cargarSedes();
                 mostrarInfo("Sede modificada", "La sede ha sido modificada exitosamente");
             } catch (Exception e) {
@@ -243,7 +259,7 @@ public class SedesAdminController {
      */
     @FXML
     private void handleEliminarSede() {
-        Sede sedeSeleccionada = sedesTable.getSelectionModel().getSelectedItem();
+        SedeResumen sedeSeleccionada = sedesTable.getSelectionModel().getSelectedItem();
         
         if (sedeSeleccionada == null) {
             mostrarAdvertencia("Selección requerida", "Por favor selecciona una sede para eliminar");
@@ -262,6 +278,7 @@ public class SedesAdminController {
         if (resultado.isPresent() && resultado.get() == ButtonType.OK) {
             try {
                 sedeRepository.delete(sedeSeleccionada.getId());
+                CacheUtil.evictar(Sede.class);
                 cargarSedes();
                 mostrarInfo("Sede eliminada", "La sede ha sido eliminada exitosamente");
             } catch (Exception e) {
@@ -453,19 +470,16 @@ public class SedesAdminController {
      * Aplica todos los filtros activos
      */
     private void aplicarFiltros() {
-        String busqueda = busquedaField.getText().toLowerCase();
+        String busqueda = busquedaField.getText().trim();
         String ciudadSeleccionada = filtroCiudadCombo.getValue();
         String estadoSeleccionado = filtroActivaCombo.getValue();
         
-        List<Sede> sedesFiltradas = todasLasSedes.stream()
-            .filter(sede -> {
-                // Filtro por búsqueda
-                if (!busqueda.isEmpty()) {
-                    return sede.getNombre().toLowerCase().contains(busqueda) ||
-                           sede.getDireccion().toLowerCase().contains(busqueda);
-                }
-                return true;
-            })
+        // Con búsqueda, las sedes parecidas (tolera erratas) de la más a la menos parecida
+        List<SedeResumen> candidatas = busqueda.isEmpty() || indiceSedes == null
+            ? todasLasSedes
+            : indiceSedes.buscar(busqueda, indiceSedes.size());
+        
+        List<SedeResumen> sedesFiltradas = candidatas.stream()
             .filter(sede -> {
                 // Filtro por ciudad
                 if (ciudadSeleccionada != null && !ciudadSeleccionada.equals("Todas")) {
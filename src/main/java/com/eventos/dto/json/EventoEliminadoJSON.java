@@ -0,0 +1,40 @@
+package com.eventos.dto.json;
+
+/**
+ * Baja de un evento en una exportación de cambios: la clave con la que se identifica
+ * (nombre, sede y fecha de inicio) y cuándo dejó de existir
+ */
+public class EventoEliminadoJSON {
+
+    private Long id;
+    private String nombre;
+    private String sede;
+    private String fechaInicio;
+    private String fechaEliminacion;
+
+    public EventoEliminadoJSON() {
+    }
+
+    public EventoEliminadoJSON(Long id, String nombre, String sede, String fechaInicio, String fechaEliminacion) {
+        this.id = id;
+        this.nombre = nombre;
+        this.sede = sede;
+        this.fechaInicio = fechaInicio;
+        this.fechaEliminacion = fechaEliminacion;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getSede() { return sede; }
+    public void setSede(String sede) { this.sede = sede; }
+
+    public String getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(String fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public String getFechaEliminacion() { return fechaEliminacion; }
+    public void setFechaEliminacion(String fechaEliminacion) { this.fechaEliminacion = fechaEliminacion; }
+}
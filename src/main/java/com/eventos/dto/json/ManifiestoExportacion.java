@@ -0,0 +1,99 @@
+package com.eventos.dto.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifiesto de una exportación particionada (manifiesto.json): qué archivos hay,
+ * qué parte del catálogo contiene cada uno, cuántas filas y su SHA-256
+ */
+public class ManifiestoExportacion {
+
+    private String generado;
+    private String particion;
+    private String formato;
+    private boolean comprimido;
+    private long totalFilas;
+    private long milisegundos;
+    private List<Fragmento> fragmentos = new ArrayList<>();
+
+    public ManifiestoExportacion() {
+    }
+
+    /**
+     * Archivo con los eventos de una sede o de un mes
+     */
+    public static class Fragmento {
+
+        private String archivo;
+        private String clave;
+        private String descripcion;
+        private long filas;
+        private long bytes;
+        private String sha256;
+
+        public Fragmento() {
+        }
+
+        public Fragmento(String archivo, String clave, String descripcion, long filas, long bytes, String sha256) {
+            this.archivo = archivo;
+            this.clave = clave;
+            this.descripcion = descripcion;
+            this.filas = filas;
+            this.bytes = bytes;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * Nombre del archivo, relativo a la carpeta del manifiesto
+         */
+        public String getArchivo() { return archivo; }
+        public void setArchivo(String archivo) { this.archivo = archivo; }
+
+        /**
+         * Id de la sede o mes (yyyy-MM) del fragmento
+         */
+        public String getClave() { return clave; }
+        public void setClave(String clave) { this.clave = clave; }
+
+        /**
+         * Nombre de la sede (vacío en los fragmentos por mes)
+         */
+        public String getDescripcion() { return descripcion; }
+        public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+
+        public long getFilas() { return filas; }
+        public void setFilas(long filas) { this.filas = filas; }
+        public long getBytes() { return bytes; }
+        public void setBytes(long bytes) { this.bytes = bytes; }
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
+    }
+
+    /**
+     * Fecha y hora de la exportación (ISO-8601)
+     */
+    public String getGenerado() { return generado; }
+    public void setGenerado(String generado) { this.generado = generado; }
+
+    /**
+     * SEDE o MES
+     */
+    public String getParticion() { return particion; }
+    public void setParticion(String particion) { this.particion = particion; }
+
+    /**
+     * JSON o XML
+     */
+    public String getFormato() { return formato; }
+    public void setFormato(String formato) { this.formato = formato; }
+
+    public boolean isComprimido() { return comprimido; }
+    public void setComprimido(boolean comprimido) { this.comprimido = comprimido; }
+    public long getTotalFilas() { return totalFilas; }
+    public void setTotalFilas(long totalFilas) { this.totalFilas = totalFilas; }
+    public long getMilisegundos() { return milisegundos; }
+    public void setMilisegundos(long milisegundos) { this.milisegundos = milisegundos; }
+    public List<Fragmento> getFragmentos() { return fragmentos; }
+    public void setFragmentos(List<Fragmento> fragmentos) { this.fragmentos = fragmentos; }
+}
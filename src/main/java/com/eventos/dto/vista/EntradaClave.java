@@ -0,0 +1,19 @@
+package com.eventos.dto.vista;
+
+/**
+ * Identificación mínima de una entrada para los procesos masivos (reemisión de QR),
+ * sin cargar el evento, el tipo de entrada ni la compra.
+ */
+public class EntradaClave {
+
+    private final Long id;
+    private final String numeroEntrada;
+
+    public EntradaClave(Long id, String numeroEntrada) {
+        this.id = id;
+        this.numeroEntrada = numeroEntrada;
+    }
+
+    public Long getId() { return id; }
+    public String getNumeroEntrada() { return numeroEntrada; }
+}
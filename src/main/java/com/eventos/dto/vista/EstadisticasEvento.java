@@ -0,0 +1,33 @@
+package com.eventos.dto.vista;
+
+import java.math.BigDecimal;
+
+/**
+ * Entradas vendidas, validadas e ingresos de un evento, agregados en la base de datos
+ */
+public class EstadisticasEvento {
+
+    private final Long eventoId;
+    private final String evento;
+    private final long vendidas;
+    private final long validadas;
+    private final BigDecimal ingresos;
+
+    public EstadisticasEvento(Long eventoId, String evento, Long vendidas, Long validadas, BigDecimal ingresos) {
+        this.eventoId = eventoId;
+        this.evento = evento;
+        this.vendidas = vendidas != null ? vendidas : 0;
+        this.validadas = validadas != null ? validadas : 0;
+        this.ingresos = ingresos != null ? ingresos : BigDecimal.ZERO;
+    }
+
+    public Long getEventoId() { return eventoId; }
+    public String getEvento() { return evento; }
+    public long getVendidas() { return vendidas; }
+    public long getValidadas() { return validadas; }
+
+    /**
+     * Suma del precio del tipo de entrada de cada entrada vendida
+     */
+    public BigDecimal getIngresos() { return ingresos; }
+}
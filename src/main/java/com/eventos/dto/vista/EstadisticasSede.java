@@ -0,0 +1,42 @@
+package com.eventos.dto.vista;
+
+/**
+ * Número de eventos y ocupación de una sede, agregados en la base de datos
+ */
+public class EstadisticasSede {
+
+    private final Long sedeId;
+    private final String sede;
+    private final long eventos;
+    private final long plazasVendidas;
+    private final long plazasTotales;
+
+    public EstadisticasSede(Long sedeId, String sede, Long eventos, Long plazasVendidas, Long plazasTotales) {
+        this.sedeId = sedeId;
+        this.sede = sede;
+        this.eventos = eventos != null ? eventos : 0;
+        this.plazasVendidas = plazasVendidas != null ? plazasVendidas : 0;
+        this.plazasTotales = plazasTotales != null ? plazasTotales : 0;
+    }
+
+    public Long getSedeId() { return sedeId; }
+    public String getSede() { return sede; }
+    public long getEventos() { return eventos; }
+
+    /**
+     * Suma del aforo actual de sus eventos
+     */
+    public long getPlazasVendidas() { return plazasVendidas; }
+
+    /**
+     * Suma del aforo máximo de sus eventos
+     */
+    public long getPlazasTotales() { return plazasTotales; }
+
+    /**
+     * Porcentaje de ocupación de la sede
+     */
+    public double getOcupacion() {
+        return plazasTotales > 0 ? plazasVendidas * 100.0 / plazasTotales : 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.eventos.dto.vista;
+
+import com.eventos.models.EstadoEvento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cifras del panel de estadísticas del administrador.
+ * Todas se calculan con consultas agregadas (COUNT/SUM/GROUP BY), de modo que su
+ * tamaño no depende del número de eventos, compras o entradas.
+ */
+public class EstadisticasSistema {
+
+    private final Map<EstadoEvento, Long> eventosPorEstado;
+    private final long entradasVendidas;
+    private final long entradasValidadas;
+    private final long compras;
+    private final BigDecimal ingresos;
+    private final long usuariosRegistrados;
+    private final List<EstadisticasEvento> eventosMasVendidos;
+    private final List<EstadisticasSede> sedes;
+    private final LocalDateTime fechaCalculo;
+
+    public EstadisticasSistema(Map<EstadoEvento, Long> eventosPorEstado, long entradasVendidas,
+                               long entradasValidadas, long compras, BigDecimal ingresos,
+                               long usuariosRegistrados, List<EstadisticasEvento> eventosMasVendidos,
+                               List<EstadisticasSede> sedes) {
+        this.eventosPorEstado = Collections.unmodifiableMap(new EnumMap<>(eventosPorEstado));
+        this.entradasVendidas = entradasVendidas;
+        this.entradasValidadas = entradasValidadas;
+        this.compras = compras;
+        this.ingresos = ingresos;
+        this.usuariosRegistrados = usuariosRegistrados;
+        this.eventosMasVendidos = List.copyOf(eventosMasVendidos);
+        this.sedes = List.copyOf(sedes);
+        this.fechaCalculo = LocalDateTime.now();
+    }
+
+    /**
+     * Número de eventos en un estado (0 si no hay ninguno)
+     */
+    public long getEventos(EstadoEvento estado) {
+        return eventosPorEstado.getOrDefault(estado, 0L);
+    }
+
+    public long getTotalEventos() {
+        return eventosPorEstado.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Map<EstadoEvento, Long> getEventosPorEstado() { return eventosPorEstado; }
+    public long getEntradasVendidas() { return entradasVendidas; }
+    public long getEntradasValidadas() { return entradasValidadas; }
+    public long getCompras() { return compras; }
+    public BigDecimal getIngresos() { return ingresos; }
+
+    /**
+     * Usuarios que no son administradores
+     */
+    public long getUsuariosRegistrados() { return usuariosRegistrados; }
+
+    /**
+     * Eventos con más entradas vendidas, de mayor a menor
+     */
+    public List<EstadisticasEvento> getEventosMasVendidos() { return eventosMasVendidos; }
+
+    /**
+     * Ocupación por sede, ordenadas por nombre
+     */
+    public List<EstadisticasSede> getSedes() { return sedes; }
+
+    /**
+     * Momento en que se calcularon las cifras
+     */
+    public LocalDateTime getFechaCalculo() { return fechaCalculo; }
+}
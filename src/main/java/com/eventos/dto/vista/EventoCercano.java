@@ -0,0 +1,18 @@
+package com.eventos.dto.vista;
+
+/**
+ * Evento próximo con entradas en una sede cercana y la distancia a esa sede.
+ */
+public class EventoCercano {
+
+    private final EventoResumen evento;
+    private final double distanciaKm;
+
+    public EventoCercano(EventoResumen evento, double distanciaKm) {
+        this.evento = evento;
+        this.distanciaKm = distanciaKm;
+    }
+
+    public EventoResumen getEvento() { return evento; }
+    public double getDistanciaKm() { return distanciaKm; }
+}
@@ -0,0 +1,36 @@
+package com.eventos.dto.vista;
+
+import com.eventos.models.EstadoEvento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clave natural de un evento ya guardado (nombre, sede y fecha de inicio) con lo
+ * mínimo que necesita la importación masiva para decidir si actualizarlo.
+ */
+public class EventoClave {
+
+    private final Long id;
+    private final String nombre;
+    private final Long sedeId;
+    private final LocalDateTime fechaInicio;
+    private final Integer aforoActual;
+    private final EstadoEvento estado;
+
+    public EventoClave(Long id, String nombre, Long sedeId, LocalDateTime fechaInicio, Integer aforoActual,
+                       EstadoEvento estado) {
+        this.id = id;
+        this.nombre = nombre;
+        this.sedeId = sedeId;
+        this.fechaInicio = fechaInicio;
+        this.aforoActual = aforoActual;
+        this.estado = estado;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+    public Long getSedeId() { return sedeId; }
+    public LocalDateTime getFechaInicio() { return fechaInicio; }
+    public Integer getAforoActual() { return aforoActual; }
+    public EstadoEvento getEstado() { return estado; }
+}
@@ -0,0 +1,53 @@
+package com.eventos.dto.vista;
+
+import com.eventos.models.EstadoEvento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de evento para las exportaciones a JSON y XML: los campos propios del evento
+ * y los nombres de su sede y tipo, leídos en una sola consulta sin cargar entidades.
+ */
+public class EventoExportacion {
+
+    private final Long id;
+    private final String nombre;
+    private final String descripcion;
+    private final LocalDateTime fechaInicio;
+    private final LocalDateTime fechaFin;
+    private final Integer aforoMaximo;
+    private final Integer aforoActual;
+    private final EstadoEvento estado;
+    private final BigDecimal precioBase;
+    private final String sede;
+    private final String tipoEvento;
+
+    public EventoExportacion(Long id, String nombre, String descripcion, LocalDateTime fechaInicio,
+                             LocalDateTime fechaFin, Integer aforoMaximo, Integer aforoActual,
+                             EstadoEvento estado, BigDecimal precioBase, String sede, String tipoEvento) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.aforoMaximo = aforoMaximo;
+        this.aforoActual = aforoActual;
+        this.estado = estado;
+        this.precioBase = precioBase;
+        this.sede = sede;
+        this.tipoEvento = tipoEvento;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getDescripcion() { return descripcion; }
+    public LocalDateTime getFechaInicio() { return fechaInicio; }
+    public LocalDateTime getFechaFin() { return fechaFin; }
+    public Integer getAforoMaximo() { return aforoMaximo; }
+    public Integer getAforoActual() { return aforoActual; }
+    public EstadoEvento getEstado() { return estado; }
+    public BigDecimal getPrecioBase() { return precioBase; }
+    public String getSede() { return sede; }
+    public String getTipoEvento() { return tipoEvento; }
+}
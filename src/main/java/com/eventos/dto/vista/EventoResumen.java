@@ -0,0 +1,112 @@
+package com.eventos.dto.vista;
+
+import com.eventos.models.EstadoEvento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vista de solo lectura de un evento para las pantallas de listado (tabla de
+ * administración, tarjetas del catálogo y mapa).
+ * Se construye directamente en la consulta JPQL (SELECT new ...), así que no
+ * carga la entidad, su sede y tipo completos ni la descripción TEXT entera.
+ */
+public class EventoResumen {
+
+    /**
+     * Caracteres de la descripción que se muestran en las tarjetas
+     */
+    public static final int LONGITUD_DESCRIPCION = 100;
+
+    private final Long id;
+    private final String nombre;
+    private final String descripcionCorta;
+    private final String tipoEvento;
+    private final LocalDateTime fechaInicio;
+    private final LocalDateTime fechaFin;
+    private final EstadoEvento estado;
+    private final Integer aforoActual;
+    private final Integer aforoMaximo;
+    private final BigDecimal precioBase;
+    private final Long sedeId;
+    private final String sede;
+    private final String ciudad;
+    private final Integer capacidadSede;
+    private final Double latitud;
+    private final Double longitud;
+
+    /**
+     * Constructor usado por la expresión de constructor de EventoRepository.
+     * La descripción llega cortada a LONGITUD_DESCRIPCION + 1 caracteres para
+     * saber si hay que añadir "...".
+     */
+    public EventoResumen(Long id, String nombre, String descripcion, String tipoEvento,
+                         LocalDateTime fechaInicio, LocalDateTime fechaFin, EstadoEvento estado,
+                         Integer aforoActual, Integer aforoMaximo, BigDecimal precioBase,
+                         Long sedeId, String sede, String ciudad, Integer capacidadSede,
+                         Double latitud, Double longitud) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcionCorta = descripcion != null && descripcion.length() > LONGITUD_DESCRIPCION
+            ? descripcion.substring(0, LONGITUD_DESCRIPCION) + "..."
+            : descripcion;
+        this.tipoEvento = tipoEvento;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.estado = estado;
+        this.aforoActual = aforoActual;
+        this.aforoMaximo = aforoMaximo;
+        this.precioBase = precioBase;
+        this.sedeId = sedeId;
+        this.sede = sede;
+        this.ciudad = ciudad;
+        this.capacidadSede = capacidadSede;
+        this.latitud = latitud;
+        this.longitud = longitud;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+
+    /**
+     * Descripción resumida (como máximo LONGITUD_DESCRIPCION caracteres más "...")
+     */
+    public String getDescripcionCorta() { return descripcionCorta; }
+
+    public String getTipoEvento() { return tipoEvento; }
+    public LocalDateTime getFechaInicio() { return fechaInicio; }
+    public LocalDateTime getFechaFin() { return fechaFin; }
+    public EstadoEvento getEstado() { return estado; }
+    public Integer getAforoActual() { return aforoActual; }
+    public Integer getAforoMaximo() { return aforoMaximo; }
+    public BigDecimal getPrecioBase() { return precioBase; }
+    public Long getSedeId() { return sedeId; }
+
+    /**
+     * Nombre de la sede
+     */
+    public String getSede() { return sede; }
+
+    /**
+     * Ciudad de la sede
+     */
+    public String getCiudad() { return ciudad; }
+
+    public Integer getCapacidadSede() { return capacidadSede; }
+    public Double getLatitud() { return latitud; }
+    public Double getLongitud() { return longitud; }
+
+    /**
+     * Indica si la sede tiene coordenadas para pintarla en el mapa
+     */
+    public boolean tieneUbicacion() {
+        return latitud != null && longitud != null;
+    }
+
+    /**
+     * Misma regla que Evento.hayDisponibilidad()
+     */
+    public boolean hayDisponibilidad() {
+        return aforoActual < aforoMaximo;
+    }
+}
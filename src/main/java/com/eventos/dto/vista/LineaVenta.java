@@ -0,0 +1,102 @@
+package com.eventos.dto.vista;
+
+import com.eventos.models.EstadoCompra;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Línea del libro de ventas: una entrada con los datos de su compra, evento y tipo.
+ * No incluye el código QR ni el JSON de confirmación.
+ */
+public class LineaVenta {
+
+    /**
+     * Columnas en el orden del CSV
+     */
+    public static final String[] COLUMNAS = {
+        "compraId", "fechaCompra", "codigoConfirmacion", "estadoCompra", "metodoPago", "totalCompra",
+        "usuarioId", "entradaId", "numeroEntrada", "validada", "fechaValidacion",
+        "eventoId", "evento", "tipoEntradaId", "tipoEntrada", "precio"
+    };
+
+    private final Long compraId;
+    private final LocalDateTime fechaCompra;
+    private final String codigoConfirmacion;
+    private final EstadoCompra estadoCompra;
+    private final String metodoPago;
+    private final BigDecimal totalCompra;
+    private final Long usuarioId;
+    private final Long entradaId;
+    private final String numeroEntrada;
+    private final Boolean validada;
+    private final LocalDateTime fechaValidacion;
+    private final Long eventoId;
+    private final String evento;
+    private final Long tipoEntradaId;
+    private final String tipoEntrada;
+    private final BigDecimal precio;
+
+    public LineaVenta(Long compraId, LocalDateTime fechaCompra, String codigoConfirmacion,
+                      EstadoCompra estadoCompra, String metodoPago, BigDecimal totalCompra, Long usuarioId,
+                      Long entradaId, String numeroEntrada, Boolean validada, LocalDateTime fechaValidacion,
+                      Long eventoId, String evento, Long tipoEntradaId, String tipoEntrada, BigDecimal precio) {
+        this.compraId = compraId;
+        this.fechaCompra = fechaCompra;
+        this.codigoConfirmacion = codigoConfirmacion;
+        this.estadoCompra = estadoCompra;
+        this.metodoPago = metodoPago;
+        this.totalCompra = totalCompra;
+        this.usuarioId = usuarioId;
+        this.entradaId = entradaId;
+        this.numeroEntrada = numeroEntrada;
+        this.validada = validada;
+        this.fechaValidacion = fechaValidacion;
+        this.eventoId = eventoId;
+        this.evento = evento;
+        this.tipoEntradaId = tipoEntradaId;
+        this.tipoEntrada = tipoEntrada;
+        this.precio = precio;
+    }
+
+    public Long getCompraId() { return compraId; }
+    public LocalDateTime getFechaCompra() { return fechaCompra; }
+    public String getCodigoConfirmacion() { return codigoConfirmacion; }
+    public EstadoCompra getEstadoCompra() { return estadoCompra; }
+    public String getMetodoPago() { return metodoPago; }
+
+    /**
+     * Total de la compra entera (se repite en cada entrada de la compra)
+     */
+    public BigDecimal getTotalCompra() { return totalCompra; }
+    public Long getUsuarioId() { return usuarioId; }
+    public Long getEntradaId() { return entradaId; }
+    public String getNumeroEntrada() { return numeroEntrada; }
+    public Boolean getValidada() { return validada; }
+    public LocalDateTime getFechaValidacion() { return fechaValidacion; }
+    public Long getEventoId() { return eventoId; }
+    public String getEvento() { return evento; }
+    public Long getTipoEntradaId() { return tipoEntradaId; }
+    public String getTipoEntrada() { return tipoEntrada; }
+
+    /**
+     * Precio del tipo de entrada (las entradas no guardan el precio al que se vendieron)
+     */
+    public BigDecimal getPrecio() { return precio; }
+
+    /**
+     * Valores en el orden de {@link #COLUMNAS}, como texto (null si no hay valor)
+     */
+    public String[] valores() {
+        return new String[]{
+            texto(compraId), texto(fechaCompra), codigoConfirmacion, texto(estadoCompra), metodoPago,
+            totalCompra != null ? totalCompra.toPlainString() : null, texto(usuarioId), texto(entradaId),
+            numeroEntrada, texto(validada), texto(fechaValidacion), texto(eventoId), evento,
+            texto(tipoEntradaId), tipoEntrada, precio != null ? precio.toPlainString() : null
+        };
+    }
+
+    private static String texto(Object valor) {
+        return valor != null ? valor.toString() : null;
+    }
+}
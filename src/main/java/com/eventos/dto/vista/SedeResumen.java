@@ -0,0 +1,32 @@
+package com.eventos.dto.vista;
+
+/**
+ * Vista de solo lectura de una sede para la tabla de administración.
+ * Omite la descripción TEXT, los datos de contacto y las colecciones de la entidad.
+ */
+public class SedeResumen {
+
+    private final Long id;
+    private final String nombre;
+    private final String direccion;
+    private final String ciudad;
+    private final Integer capacidad;
+    private final Boolean activa;
+
+    public SedeResumen(Long id, String nombre, String direccion, String ciudad,
+                       Integer capacidad, Boolean activa) {
+        this.id = id;
+        this.nombre = nombre;
+        this.direccion = direccion;
+        this.ciudad = ciudad;
+        this.capacidad = capacidad;
+        this.activa = activa;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getDireccion() { return direccion; }
+    public String getCiudad() { return ciudad; }
+    public Integer getCapacidad() { return capacidad; }
+    public Boolean getActiva() { return activa; }
+}
@@ -0,0 +1,27 @@
+package com.eventos.dto.vista;
+
+/**
+ * Posición de una sede activa para el índice geográfico de "Cerca de mí".
+ */
+public class SedeUbicacion {
+
+    private final Long id;
+    private final String nombre;
+    private final String ciudad;
+    private final Double latitud;
+    private final Double longitud;
+
+    public SedeUbicacion(Long id, String nombre, String ciudad, Double latitud, Double longitud) {
+        this.id = id;
+        this.nombre = nombre;
+        this.ciudad = ciudad;
+        this.latitud = latitud;
+        this.longitud = longitud;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getCiudad() { return ciudad; }
+    public Double getLatitud() { return latitud; }
+    public Double getLongitud() { return longitud; }
+}
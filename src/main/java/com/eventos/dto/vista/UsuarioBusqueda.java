@@ -0,0 +1,32 @@
+package com.eventos.dto.vista;
+
+/**
+ * Lo mínimo de un usuario para buscarlo por nombre, apellidos o email en
+ * "Gestionar Usuarios"; la tarjeta se carga después solo para los encontrados.
+ */
+public class UsuarioBusqueda {
+
+    private final Long id;
+    private final String nombre;
+    private final String apellidos;
+    private final String email;
+
+    public UsuarioBusqueda(Long id, String nombre, String apellidos, String email) {
+        this.id = id;
+        this.nombre = nombre;
+        this.apellidos = apellidos;
+        this.email = email;
+    }
+
+    public Long getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getApellidos() { return apellidos; }
+    public String getEmail() { return email; }
+
+    /**
+     * Texto por el que se busca: nombre, apellidos y email
+     */
+    public String getTextoBusqueda() {
+        return nombre + " " + (apellidos != null ? apellidos : "") + " " + email;
+    }
+}
@@ -1,5 +1,6 @@
 package com.eventos.models;
 
+import com.eventos.utils.GeneradorIds;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,11 +11,19 @@ import java.util.List;
  * Entidad que representa una Compra de entradas
  */
 @Entity
-@Table(name = "compras")
+@Table(name = "compras", indexes = {
+    // Rango de fechas del libro de ventas (el id va implícito en el índice)
+    @Index(name = "idx_fecha_compra", columnList = "fecha_compra")
+})
 public class Compra {
     
+    /**
+     * Id asignado por bloques (allocationSize) en lugar de IDENTITY para que
+     * Hibernate pueda agrupar los INSERT en lotes JDBC
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compra_seq")
+    @SequenceGenerator(name = "compra_seq", sequenceName = "compras_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.EAGER)
@@ -61,7 +70,7 @@ public class Compra {
     }
     
     private String generarCodigoConfirmacion() {
-        return "COMP-" + System.currentTimeMillis();
+        return GeneradorIds.codigoConfirmacion();
     }
     
     // Getters y Setters
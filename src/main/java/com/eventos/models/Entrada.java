@@ -1,5 +1,7 @@
 package com.eventos.models;
 
+import com.eventos.utils.GeneradorIds;
+import com.eventos.utils.QRService;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,11 +9,21 @@ import java.time.LocalDateTime;
  * Entidad que representa una Entrada a un evento
  */
 @Entity
-@Table(name = "entradas")
+@Table(name = "entradas", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_entradas_codigo_qr", columnNames = "codigo_qr")
+}, indexes = {
+    // Cubre las estadísticas por evento (entradas vendidas y validadas) sin leer las filas
+    @Index(name = "idx_evento_validada", columnList = "evento_id, validada, tipo_entrada_id")
+})
 public class Entrada {
     
+    /**
+     * Id asignado por bloques (allocationSize) en lugar de IDENTITY para que
+     * Hibernate pueda agrupar los INSERT en lotes JDBC
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entrada_seq")
+    @SequenceGenerator(name = "entrada_seq", sequenceName = "entradas_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.EAGER)
@@ -35,7 +47,10 @@ public class Entrada {
     @Column(name = "fecha_validacion")
     private LocalDateTime fechaValidacion;
     
-    @Column(name = "codigo_qr", columnDefinition = "TEXT")
+    /**
+     * Token aleatorio que codifica el QR (la imagen se genera al mostrarla)
+     */
+    @Column(name = "codigo_qr", length = 32)
     private String codigoQR;
     
     // Constructores
@@ -47,10 +62,13 @@ public class Entrada {
         if (numeroEntrada == null) {
             numeroEntrada = generarNumeroEntrada();
         }
+        if (codigoQR == null) {
+            codigoQR = QRService.generarToken();
+        }
     }
     
     private String generarNumeroEntrada() {
-        return "ENT-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
+        return GeneradorIds.numeroEntrada();
     }
     
     // Getters y Setters
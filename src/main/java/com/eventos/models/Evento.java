@@ -10,7 +10,12 @@ import java.util.List;
  * Entidad que representa un Evento
  */
 @Entity
-@Table(name = "eventos")
+@Table(name = "eventos", indexes = {
+    // Soporta la paginación por clave (fecha_inicio, id) de EventoRepository
+    @Index(name = "idx_fecha_inicio", columnList = "fecha_inicio"),
+    // Exportación de cambios desde una marca de tiempo
+    @Index(name = "idx_fecha_modificacion", columnList = "fecha_modificacion")
+})
 public class Evento {
     
     @Id
@@ -59,6 +64,19 @@ public class Evento {
     @Column(name = "fecha_creacion")
     private LocalDateTime fechaCreacion;
     
+    /**
+     * Último cambio del evento (alta, edición o venta); null en los eventos anteriores a esta columna
+     */
+    @Column(name = "fecha_modificacion")
+    private LocalDateTime fechaModificacion;
+    
+    /**
+     * Versión para el bloqueo optimista; la incrementan también las reservas de aforo
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     // Constructores
     public Evento() {
     }
@@ -71,6 +89,12 @@ public class Evento {
         if (estado == null) {
             estado = EstadoEvento.PLANIFICADO;
         }
+        fechaModificacion = fechaCreacion;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        fechaModificacion = LocalDateTime.now();
     }
     
     // Getters y Setters
@@ -186,6 +210,22 @@ public class Evento {
         this.fechaCreacion = fechaCreacion;
     }
     
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+    
+    public void setFechaModificacion(LocalDateTime fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Métodos de utilidad
     public boolean hayDisponibilidad() {
         return aforoActual < aforoMaximo;
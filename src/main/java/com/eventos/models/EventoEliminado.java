@@ -0,0 +1,105 @@
+package com.eventos.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de un evento que ya no existe con esa clave (nombre, sede y fecha de inicio):
+ * se borró o se le cambió alguno de esos datos. La exportación de cambios la envía
+ * para que los sistemas sincronizados también lo quiten.
+ */
+@Entity
+@Table(name = "eventos_eliminados", indexes = {
+    @Index(name = "idx_fecha_eliminacion", columnList = "fecha_eliminacion")
+})
+public class EventoEliminado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "evento_id", nullable = false)
+    private Long eventoId;
+
+    @Column(nullable = false, length = 200)
+    private String nombre;
+
+    @Column(nullable = false, length = 200)
+    private String sede;
+
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_eliminacion", nullable = false)
+    private LocalDateTime fechaEliminacion;
+
+    // Constructores
+    public EventoEliminado() {
+    }
+
+    public EventoEliminado(Long eventoId, String nombre, String sede, LocalDateTime fechaInicio) {
+        this.eventoId = eventoId;
+        this.nombre = nombre;
+        this.sede = sede;
+        this.fechaInicio = fechaInicio;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaEliminacion == null) {
+            fechaEliminacion = LocalDateTime.now();
+        }
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getEventoId() {
+        return eventoId;
+    }
+
+    public void setEventoId(Long eventoId) {
+        this.eventoId = eventoId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Nombre de la sede (los ids no coinciden entre bases de datos)
+     */
+    public String getSede() {
+        return sede;
+    }
+
+    public void setSede(String sede) {
+        this.sede = sede;
+    }
+
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDateTime fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public LocalDateTime getFechaEliminacion() {
+        return fechaEliminacion;
+    }
+
+    public void setFechaEliminacion(LocalDateTime fechaEliminacion) {
+        this.fechaEliminacion = fechaEliminacion;
+    }
+}
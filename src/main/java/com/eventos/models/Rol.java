@@ -1,6 +1,8 @@
 package com.eventos.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,6 +11,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rol")
 public class Rol {
     
     @Id
@@ -24,6 +28,7 @@ public class Rol {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "permisos_rol", joinColumns = @JoinColumn(name = "rol_id"))
     @Column(name = "permiso")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rol-permisos")
     private List<String> permisos = new ArrayList<>();
     
     @OneToMany(mappedBy = "rol")
@@ -1,6 +1,8 @@
 package com.eventos.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 /**
@@ -8,6 +10,8 @@ import java.math.BigDecimal;
  */
 @Entity
 @Table(name = "tipos_entrada")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tipo-entrada")
 public class TipoEntrada {
     
     @Id
@@ -1,14 +1,21 @@
 package com.eventos.repositories;
 
 import com.eventos.config.HibernateUtil;
+import com.eventos.dto.vista.LineaVenta;
 import com.eventos.models.Compra;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repositorio para gestionar operaciones de Compra en la base de datos
@@ -30,12 +37,13 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Lista de compras del usuario ordenadas por fecha
      */
     public List<Compra> findByUsuario(Long usuarioId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Compra> query = em.createQuery(
-            "SELECT c FROM Compra c WHERE c.usuario.id = :usuarioId " +
-            "ORDER BY c.fechaCompra DESC", Compra.class);
-        query.setParameter("usuarioId", usuarioId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Compra> query = em.createQuery(
+                "SELECT c FROM Compra c WHERE c.usuario.id = :usuarioId " +
+                "ORDER BY c.fechaCompra DESC", Compra.class);
+            query.setParameter("usuarioId", usuarioId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -44,15 +52,16 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Optional con la compra si existe
      */
     public Optional<Compra> findByCodigoConfirmacion(String codigoConfirmacion) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<Compra> query = em.createQuery(
-                "SELECT c FROM Compra c WHERE c.codigoConfirmacion = :codigo", Compra.class);
-            query.setParameter("codigo", codigoConfirmacion);
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<Compra> query = em.createQuery(
+                    "SELECT c FROM Compra c WHERE c.codigoConfirmacion = :codigo", Compra.class);
+                query.setParameter("codigo", codigoConfirmacion);
+                return Optional.of(query.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
     
     /**
@@ -62,10 +71,11 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Lista de compras con ese estado
      */
     public List<Compra> findByEstado(String estado) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Compra> query = em.createQuery(
-            "SELECT c FROM Compra c WHERE c.estado = com.eventos.models.EstadoCompra." + estado, Compra.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Compra> query = em.createQuery(
+                "SELECT c FROM Compra c WHERE c.estado = com.eventos.models.EstadoCompra." + estado, Compra.class);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -75,13 +85,49 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Lista de compras en ese periodo
      */
     public List<Compra> findByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Compra> query = em.createQuery(
-            "SELECT c FROM Compra c WHERE c.fechaCompra >= :inicio " +
-            "AND c.fechaCompra <= :fin ORDER BY c.fechaCompra DESC", Compra.class);
-        query.setParameter("inicio", fechaInicio);
-        query.setParameter("fin", fechaFin);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Compra> query = em.createQuery(
+                "SELECT c FROM Compra c WHERE c.fechaCompra >= :inicio " +
+                "AND c.fechaCompra <= :fin ORDER BY c.fechaCompra DESC", Compra.class);
+            query.setParameter("inicio", fechaInicio);
+            query.setParameter("fin", fechaFin);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Recorre las entradas vendidas en un rango de fechas de compra (mismo criterio que
+     * {@link #findByFechaRange}) con un cursor de solo avance sobre una StatelessSession,
+     * sin cargar entidades ni las columnas pesadas (codigo_qr, confirmacion_json).
+     * El driver de MySQL entrega las filas en streaming, así que la memoria es constante.
+     * @param fechaInicio Fecha inicial del rango (incluida)
+     * @param fechaFin Fecha final del rango (incluida)
+     * @param consumidor Recibe cada línea, por fecha de compra y compra
+     * @return Número de líneas recorridas
+     */
+    public long recorrerLibroVentas(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                    Consumer<LineaVenta> consumidor) {
+        SessionFactory sf = HibernateUtil.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession sesion = sf.openStatelessSession();
+             ScrollableResults<LineaVenta> cursor = sesion.createSelectionQuery(
+                     "SELECT new com.eventos.dto.vista.LineaVenta(c.id, c.fechaCompra, c.codigoConfirmacion, " +
+                     "c.estado, c.metodoPago, c.total, c.usuario.id, en.id, en.numeroEntrada, en.validada, " +
+                     "en.fechaValidacion, ev.id, ev.nombre, te.id, te.nombre, te.precio) " +
+                     "FROM Entrada en JOIN en.compra c JOIN en.evento ev JOIN en.tipoEntrada te " +
+                     "WHERE c.fechaCompra >= :inicio AND c.fechaCompra <= :fin " +
+                     // Sin en.id: así MySQL sigue el índice de fecha_compra en lugar de ordenar todo el rango
+                     "ORDER BY c.fechaCompra, c.id", LineaVenta.class)
+                 .setParameter("inicio", fechaInicio)
+                 .setParameter("fin", fechaFin)
+                 .setFetchSize(Integer.MIN_VALUE)
+                 .scroll(ScrollMode.FORWARD_ONLY)) {
+            long filas = 0;
+            while (cursor.next()) {
+                consumidor.accept(cursor.get());
+                filas++;
+            }
+            return filas;
+        }
     }
     
     /**
@@ -90,13 +136,14 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Total gastado por el usuario
      */
     public Double getTotalGastadoPorUsuario(Long usuarioId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Double> query = em.createQuery(
-            "SELECT SUM(c.total) FROM Compra c WHERE c.usuario.id = :usuarioId " +
-            "AND c.estado = com.eventos.models.EstadoCompra.CONFIRMADA", Double.class);
-        query.setParameter("usuarioId", usuarioId);
-        Double total = query.getSingleResult();
-        return total != null ? total : 0.0;
+        return ejecutar(em -> {
+            TypedQuery<Double> query = em.createQuery(
+                "SELECT SUM(c.total) FROM Compra c WHERE c.usuario.id = :usuarioId " +
+                "AND c.estado = com.eventos.models.EstadoCompra.CONFIRMADA", Double.class);
+            query.setParameter("usuarioId", usuarioId);
+            Double total = query.getSingleResult();
+            return total != null ? total : 0.0;
+        });
     }
     
     /**
@@ -105,10 +152,21 @@ public class CompraRepository extends GenericRepository<Compra, Long> {
      * @return Lista de compras recientes
      */
     public List<Compra> findUltimasCompras(int limit) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Compra> query = em.createQuery(
-            "SELECT c FROM Compra c ORDER BY c.fechaCompra DESC", Compra.class);
-        query.setMaxResults(limit);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Compra> query = em.createQuery(
+                "SELECT c FROM Compra c ORDER BY c.fechaCompra DESC", Compra.class);
+            query.setMaxResults(limit);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Suma el importe de todas las compras
+     * @return Total facturado (0 si no hay compras)
+     */
+    public BigDecimal sumTotal() {
+        return ejecutar(em -> em.createQuery(
+                "SELECT COALESCE(SUM(c.total), 0) FROM Compra c", BigDecimal.class)
+            .getSingleResult());
     }
 }
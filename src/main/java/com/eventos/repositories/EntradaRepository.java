@@ -2,11 +2,18 @@ package com.eventos.repositories;
 
 import com.eventos.config.HibernateUtil;
 import com.eventos.models.Entrada;
+import com.eventos.dto.vista.EntradaClave;
+import com.eventos.dto.vista.EstadisticasEvento;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,11 +36,12 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Lista de entradas del evento
      */
     public List<Entrada> findByEvento(Long eventoId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Entrada> query = em.createQuery(
-            "SELECT e FROM Entrada e WHERE e.evento.id = :eventoId", Entrada.class);
-        query.setParameter("eventoId", eventoId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Entrada> query = em.createQuery(
+                "SELECT e FROM Entrada e WHERE e.evento.id = :eventoId", Entrada.class);
+            query.setParameter("eventoId", eventoId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -42,11 +50,28 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Lista de entradas de esa compra
      */
     public List<Entrada> findByCompra(Long compraId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Entrada> query = em.createQuery(
-            "SELECT e FROM Entrada e WHERE e.compra.id = :compraId", Entrada.class);
-        query.setParameter("compraId", compraId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Entrada> query = em.createQuery(
+                "SELECT e FROM Entrada e WHERE e.compra.id = :compraId", Entrada.class);
+            query.setParameter("compraId", compraId);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Busca todas las entradas compradas por un usuario, con su evento y su tipo de entrada,
+     * en una sola consulta en lugar de una por compra
+     * @param usuarioId ID del usuario
+     * @return Lista de entradas agrupadas por compra
+     */
+    public List<Entrada> findByUsuario(Long usuarioId) {
+        return ejecutar(em -> {
+            TypedQuery<Entrada> query = em.createQuery(
+                "SELECT e FROM Entrada e JOIN FETCH e.evento JOIN FETCH e.tipoEntrada " +
+                "WHERE e.compra.usuario.id = :usuarioId ORDER BY e.compra.id, e.id", Entrada.class);
+            query.setParameter("usuarioId", usuarioId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -55,32 +80,34 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Optional con la entrada si existe
      */
     public Optional<Entrada> findByNumero(String numeroEntrada) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<Entrada> query = em.createQuery(
-                "SELECT e FROM Entrada e WHERE e.numeroEntrada = :numero", Entrada.class);
-            query.setParameter("numero", numeroEntrada);
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<Entrada> query = em.createQuery(
+                    "SELECT e FROM Entrada e WHERE e.numeroEntrada = :numero", Entrada.class);
+                query.setParameter("numero", numeroEntrada);
+                return Optional.of(query.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
     
     /**
-     * Busca una entrada por su código QR
-     * @param codigoQR Código QR de la entrada
+     * Busca una entrada por el token de su código QR (columna indexada y única)
+     * @param codigoQR Token leído del QR de la entrada
      * @return Optional con la entrada si existe
      */
     public Optional<Entrada> findByCodigoQR(String codigoQR) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<Entrada> query = em.createQuery(
-                "SELECT e FROM Entrada e WHERE e.codigoQR = :codigo", Entrada.class);
-            query.setParameter("codigo", codigoQR);
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<Entrada> query = em.createQuery(
+                    "SELECT e FROM Entrada e WHERE e.codigoQR = :codigo", Entrada.class);
+                query.setParameter("codigo", codigoQR);
+                return Optional.of(query.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
     
     /**
@@ -89,11 +116,12 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Lista de entradas según el estado
      */
     public List<Entrada> findByValidada(boolean validada) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Entrada> query = em.createQuery(
-            "SELECT e FROM Entrada e WHERE e.validada = :validada", Entrada.class);
-        query.setParameter("validada", validada);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Entrada> query = em.createQuery(
+                "SELECT e FROM Entrada e WHERE e.validada = :validada", Entrada.class);
+            query.setParameter("validada", validada);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -102,11 +130,12 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Número de entradas vendidas
      */
     public long countByEvento(Long eventoId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Long> query = em.createQuery(
-            "SELECT COUNT(e) FROM Entrada e WHERE e.evento.id = :eventoId", Long.class);
-        query.setParameter("eventoId", eventoId);
-        return query.getSingleResult();
+        return ejecutar(em -> {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(e) FROM Entrada e WHERE e.evento.id = :eventoId", Long.class);
+            query.setParameter("eventoId", eventoId);
+            return query.getSingleResult();
+        });
     }
     
     /**
@@ -115,11 +144,106 @@ public class EntradaRepository extends GenericRepository<Entrada, Long> {
      * @return Número de entradas validadas
      */
     public long countValidadasByEvento(Long eventoId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Long> query = em.createQuery(
-            "SELECT COUNT(e) FROM Entrada e WHERE e.evento.id = :eventoId " +
-            "AND e.validada = true", Long.class);
-        query.setParameter("eventoId", eventoId);
-        return query.getSingleResult();
+        return ejecutar(em -> {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(e) FROM Entrada e WHERE e.evento.id = :eventoId " +
+                "AND e.validada = true", Long.class);
+            query.setParameter("eventoId", eventoId);
+            return query.getSingleResult();
+        });
+    }
+    
+    /**
+     * Cuenta las entradas ya validadas en el acceso
+     * @return Número de entradas validadas
+     */
+    public long countValidadas() {
+        return ejecutar(em -> em.createQuery(
+                "SELECT COUNT(e) FROM Entrada e WHERE e.validada = true", Long.class)
+            .getSingleResult());
+    }
+    
+    /**
+     * Eventos con más entradas vendidas, agregados con GROUP BY sobre las entradas.
+     * Se apoya en el índice idx_evento_validada de la tabla entradas.
+     * @param limite Número máximo de eventos
+     * @return Estadísticas por evento de mayor a menor número de entradas
+     */
+    public List<EstadisticasEvento> estadisticasPorEvento(int limite) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT new com.eventos.dto.vista.EstadisticasEvento(" +
+                "ev.id, ev.nombre, COUNT(e), " +
+                "SUM(CASE WHEN e.validada = true THEN 1L ELSE 0L END), SUM(t.precio)) " +
+                "FROM Entrada e JOIN e.evento ev JOIN e.tipoEntrada t " +
+                "GROUP BY ev.id, ev.nombre ORDER BY COUNT(e) DESC",
+                EstadisticasEvento.class)
+            .setMaxResults(limite)
+            .getResultList());
+    }
+    
+    /**
+     * Siguiente bloque de entradas sin validar de un evento, por clave (id ascendente).
+     * Solo trae id y número, así que se puede recorrer un evento entero por bloques.
+     * @param eventoId ID del evento
+     * @param despuesDeId Último id del bloque anterior (null para empezar)
+     * @param limite Tamaño del bloque
+     * @return Entradas del bloque
+     */
+    public List<EntradaClave> findPendientesPorEvento(Long eventoId, Long despuesDeId, int limite) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT new com.eventos.dto.vista.EntradaClave(e.id, e.numeroEntrada) " +
+                "FROM Entrada e WHERE e.evento.id = :eventoId AND e.validada = false " +
+                "AND e.id > :despuesDeId ORDER BY e.id",
+                EntradaClave.class)
+            .setParameter("eventoId", eventoId)
+            .setParameter("despuesDeId", despuesDeId == null ? 0L : despuesDeId)
+            .setMaxResults(limite)
+            .getResultList());
+    }
+    
+    /**
+     * Cuenta las entradas sin validar de un evento a partir de un id
+     * @param eventoId ID del evento
+     * @param despuesDeId Id a partir del cual contar (null para todas)
+     * @return Número de entradas pendientes
+     */
+    public long countPendientesPorEvento(Long eventoId, Long despuesDeId) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT COUNT(e) FROM Entrada e WHERE e.evento.id = :eventoId " +
+                "AND e.validada = false AND e.id > :despuesDeId", Long.class)
+            .setParameter("eventoId", eventoId)
+            .setParameter("despuesDeId", despuesDeId == null ? 0L : despuesDeId)
+            .getSingleResult());
+    }
+    
+    /**
+     * Sustituye el token QR de varias entradas en una sola transacción y con un único
+     * lote JDBC. Las entradas que se hayan validado entretanto no se tocan.
+     * @param codigos Nuevo token por id de entrada
+     * @return Número de entradas actualizadas
+     */
+    public int actualizarCodigosQR(Map<Long, String> codigos) {
+        return ejecutarEnTransaccion(em -> {
+            em.flush();
+            return em.unwrap(Session.class).doReturningWork(conexion -> {
+                try (PreparedStatement ps = conexion.prepareStatement(
+                        "UPDATE entradas SET codigo_qr = ? WHERE id = ? AND validada = false")) {
+                    List<Map.Entry<Long, String>> orden = new ArrayList<>(codigos.entrySet());
+                    for (Map.Entry<Long, String> codigo : orden) {
+                        ps.setString(1, codigo.getValue());
+                        ps.setLong(2, codigo.getKey());
+                        ps.addBatch();
+                    }
+                    // Las validadas entretanto no se tocan: las posiciones sin información se
+                    // cuentan por si ya tienen el token nuevo
+                    int[] filas = EventoRepository.filasConocidas(conexion, ps.executeBatch(),
+                        "SELECT COUNT(*) FROM entradas WHERE id = ? AND codigo_qr = ?", (comprobacion, i) -> {
+                            comprobacion.setLong(1, orden.get(i).getKey());
+                            comprobacion.setString(2, orden.get(i).getValue());
+                        });
+                    return Arrays.stream(filas).sum();
+                }
+            });
+        }, "Error al actualizar los códigos QR");
     }
 }
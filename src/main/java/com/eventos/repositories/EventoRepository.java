@@ -1,18 +1,54 @@
 package com.eventos.repositories;
 
 import com.eventos.config.HibernateUtil;
+import com.eventos.dto.vista.EventoClave;
+import com.eventos.dto.vista.EventoExportacion;
+import com.eventos.dto.vista.EventoResumen;
 import com.eventos.models.Evento;
+import com.eventos.models.EventoEliminado;
+import com.eventos.dto.vista.EstadisticasSede;
+import com.eventos.models.EstadoEvento;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repositorio para gestionar operaciones de Evento en la base de datos
  */
 public class EventoRepository extends GenericRepository<Evento, Long> {
     
+    private static final String ORDEN_PAGINA = " ORDER BY e.fechaInicio DESC, e.id DESC";
+    
+    private static final String SELECT_RESUMEN = "SELECT new com.eventos.dto.vista.EventoResumen(" +
+        "e.id, e.nombre, SUBSTRING(e.descripcion, 1, " + (EventoResumen.LONGITUD_DESCRIPCION + 1) + "), " +
+        "t.nombre, e.fechaInicio, e.fechaFin, e.estado, e.aforoActual, e.aforoMaximo, " +
+        "e.precioBase, s.id, s.nombre, s.ciudad, s.capacidad, s.latitud, s.longitud) " +
+        "FROM Evento e JOIN e.tipoEvento t JOIN e.sede s";
+    
     public EventoRepository() {
         super(Evento.class);
     }
@@ -22,19 +58,294 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
         return HibernateUtil.getEntityManager();
     }
     
+    /**
+     * Actualiza un evento. Si cambia su nombre, sede o fecha de inicio se deja además una
+     * marca de eliminación con los datos anteriores, porque los sistemas sincronizados
+     * identifican los eventos por ellos.
+     */
+    @Override
+    public Evento update(Evento evento) {
+        return ejecutarEnTransaccion(em -> {
+            List<Object[]> anterior = em.createQuery(
+                    "SELECT e.nombre, s.id, s.nombre, e.fechaInicio FROM Evento e JOIN e.sede s WHERE e.id = :id",
+                    Object[].class)
+                .setParameter("id", evento.getId())
+                .getResultList();
+            if (!anterior.isEmpty()) {
+                Object[] fila = anterior.get(0);
+                Long sedeId = evento.getSede() != null ? evento.getSede().getId() : null;
+                if (!Objects.equals(fila[0], evento.getNombre()) || !Objects.equals(fila[1], sedeId)
+                        || !Objects.equals(fila[3], evento.getFechaInicio())) {
+                    em.persist(new EventoEliminado(evento.getId(), (String) fila[0], (String) fila[2],
+                        (LocalDateTime) fila[3]));
+                }
+            }
+            return em.merge(evento);
+        }, "Error al actualizar la entidad");
+    }
+    
+    /**
+     * Borra un evento dejando su marca de eliminación en la misma transacción
+     */
+    @Override
+    public boolean delete(Long id) {
+        return ejecutarEnTransaccion(em -> {
+            Evento evento = em.find(Evento.class, id);
+            if (evento == null) {
+                return false;
+            }
+            em.persist(new EventoEliminado(evento.getId(), evento.getNombre(), evento.getSede().getNombre(),
+                evento.getFechaInicio()));
+            em.remove(evento);
+            return true;
+        }, "Error al eliminar la entidad");
+    }
+    
+    /**
+     * Ids de los eventos con marca de eliminación en un intervalo (borrados o con la clave
+     * cambiada), incluidos los que se volvieron a crear con la misma clave
+     * @param desde Instante excluido
+     * @param hasta Instante incluido
+     */
+    public List<Long> findIdsEliminados(LocalDateTime desde, LocalDateTime hasta) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT DISTINCT x.eventoId FROM EventoEliminado x " +
+                "WHERE x.fechaEliminacion > :desde AND x.fechaEliminacion <= :hasta", Long.class)
+            .setParameter("desde", desde)
+            .setParameter("hasta", hasta)
+            .getResultList());
+    }
+    
+    /**
+     * Marcas de eliminación de un intervalo, sin las de eventos que se han vuelto a crear
+     * con la misma clave (esos llegan como cambios normales)
+     * @param desde Instante excluido (null para todas)
+     * @param hasta Instante incluido
+     * @return Marcas en el orden en que se crearon
+     */
+    public List<EventoEliminado> findEliminados(LocalDateTime desde, LocalDateTime hasta) {
+        return ejecutar(em -> {
+            TypedQuery<EventoEliminado> query = em.createQuery(
+                "SELECT x FROM EventoEliminado x WHERE x.fechaEliminacion <= :hasta " +
+                (desde != null ? "AND x.fechaEliminacion > :desde " : "") +
+                "AND NOT EXISTS (SELECT 1 FROM Evento e WHERE e.nombre = x.nombre " +
+                "AND e.sede.nombre = x.sede AND e.fechaInicio = x.fechaInicio) ORDER BY x.id",
+                EventoEliminado.class);
+            query.setParameter("hasta", hasta);
+            if (desde != null) {
+                query.setParameter("desde", desde);
+            }
+            return query.getResultList();
+        });
+    }
+    
     /**
      * Sobrescribe findAll para cargar las relaciones con JOIN FETCH
      * @return Lista de todos los eventos con sus relaciones cargadas
      */
     @Override
     public List<Evento> findAll() {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT DISTINCT e FROM Evento e " +
-            "LEFT JOIN FETCH e.tipoEvento " +
-            "LEFT JOIN FETCH e.sede " +
-            "ORDER BY e.fechaInicio DESC", Evento.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT DISTINCT e FROM Evento e " +
+                "LEFT JOIN FETCH e.tipoEvento " +
+                "LEFT JOIN FETCH e.sede " +
+                "ORDER BY e.fechaInicio DESC", Evento.class);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Página de eventos en el mismo orden que findAll (fecha de inicio descendente)
+     * @param ultimo Último evento de la página anterior (null para la primera)
+     * @param tamano Número máximo de eventos
+     * @return Página de eventos con tipo y sede cargados
+     */
+    @Override
+    public Pagina<Evento> findPagina(Evento ultimo, int tamano) {
+        return findPagina(null, ultimo, tamano);
+    }
+    
+    /**
+     * Página de eventos que cumplen un filtro, ordenados por fecha de inicio descendente.
+     * Usa paginación por clave sobre (fechaInicio, id): la página siguiente empieza
+     * justo después del último evento recibido, apoyándose en el índice de fecha_inicio.
+     * @param filtro Criterios de búsqueda (null o vacío para todos)
+     * @param ultimo Último evento de la página anterior (null para la primera)
+     * @param tamano Número máximo de eventos
+     * @return Página de eventos con tipo y sede cargados
+     */
+    public Pagina<Evento> findPagina(FiltroEventos filtro, Evento ultimo, int tamano) {
+        return ejecutar(em -> {
+            Map<String, Object> parametros = new HashMap<>();
+            String jpql = "SELECT e FROM Evento e " +
+                "JOIN FETCH e.tipoEvento t " +
+                "JOIN FETCH e.sede s" +
+                condiciones(filtro, ultimo != null ? ultimo.getFechaInicio() : null,
+                    ultimo != null ? ultimo.getId() : null, parametros) +
+                ORDEN_PAGINA;
+            
+            TypedQuery<Evento> query = em.createQuery(jpql, Evento.class);
+            parametros.forEach(query::setParameter);
+            query.setMaxResults(tamano + 1);
+            return Pagina.desde(query.getResultList(), tamano);
+        });
+    }
+    
+    /**
+     * Igual que {@link #findPagina(FiltroEventos, Evento, int)} pero devuelve solo las
+     * columnas que usan los listados, construidas con una expresión de constructor.
+     * No hidrata entidades ni arrastra la descripción completa.
+     * @param filtro Criterios de búsqueda (null o vacío para todos)
+     * @param ultimo Último resumen de la página anterior (null para la primera)
+     * @param tamano Número máximo de eventos
+     * @return Página de resúmenes de evento
+     */
+    public Pagina<EventoResumen> findPaginaResumen(FiltroEventos filtro, EventoResumen ultimo, int tamano) {
+        return ejecutar(em -> {
+            Map<String, Object> parametros = new HashMap<>();
+            String jpql = SELECT_RESUMEN +
+                condiciones(filtro, ultimo != null ? ultimo.getFechaInicio() : null,
+                    ultimo != null ? ultimo.getId() : null, parametros) +
+                ORDEN_PAGINA;
+            
+            TypedQuery<EventoResumen> query = em.createQuery(jpql, EventoResumen.class);
+            parametros.forEach(query::setParameter);
+            query.setMaxResults(tamano + 1);
+            return Pagina.desde(query.getResultList(), tamano);
+        });
+    }
+    
+    /**
+     * Todos los resúmenes que cumplen el filtro, en el orden de las páginas. Pensado para
+     * la instantánea del catálogo y sus refrescos (filtro por fecha de modificación);
+     * para las pantallas se usa {@link #findPaginaResumen}.
+     * @param filtro Criterios (null para todos)
+     */
+    public List<EventoResumen> findResumen(FiltroEventos filtro) {
+        return ejecutar(em -> {
+            Map<String, Object> parametros = new HashMap<>();
+            TypedQuery<EventoResumen> query = em.createQuery(
+                SELECT_RESUMEN + condiciones(filtro, null, null, parametros) + ORDEN_PAGINA, EventoResumen.class);
+            parametros.forEach(query::setParameter);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Resumen de un evento, para actualizar las copias del catálogo en memoria
+     */
+    public Optional<EventoResumen> findResumenPorId(Long id) {
+        return ejecutar(em -> em.createQuery(SELECT_RESUMEN + " WHERE e.id = :id", EventoResumen.class)
+            .setParameter("id", id)
+            .getResultStream()
+            .findFirst());
+    }
+    
+    /**
+     * Resúmenes de los eventos próximos (como findProximosEventos) con entradas a la venta
+     * en unas sedes, por fecha de inicio. A la venta con la regla de reservarAforo: ni
+     * cancelados ni finalizados
+     * @param sedeIds IDs de las sedes
+     */
+    public List<EventoResumen> findResumenProximosPorSedes(Collection<Long> sedeIds) {
+        if (sedeIds.isEmpty()) {
+            return List.of();
+        }
+        return ejecutar(em -> em.createQuery(SELECT_RESUMEN +
+                " WHERE s.id IN :sedes AND e.fechaInicio >= :ahora " +
+                "AND e.estado NOT IN (:cancelado, :finalizado) AND e.aforoActual < e.aforoMaximo " +
+                "ORDER BY e.fechaInicio", EventoResumen.class)
+            .setParameter("sedes", sedeIds)
+            .setParameter("ahora", LocalDateTime.now())
+            .setParameter("cancelado", EstadoEvento.CANCELADO)
+            .setParameter("finalizado", EstadoEvento.FINALIZADO)
+            .getResultList());
+    }
+    
+    /**
+     * Cláusula WHERE común a las consultas paginadas: criterios del filtro y
+     * condición de clave respecto al último elemento de la página anterior.
+     * Espera los alias e (evento), t (tipo) y s (sede).
+     */
+    private String condiciones(FiltroEventos filtro, LocalDateTime ultimaFecha, Long ultimoId,
+                               Map<String, Object> parametros) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        
+        if (filtro != null) {
+            if (filtro.getTexto() != null && !filtro.getTexto().isBlank()) {
+                where.append(filtro.isIncluirDescripcion()
+                    ? " AND (LOWER(e.nombre) LIKE :texto OR LOWER(e.descripcion) LIKE :texto)"
+                    : " AND LOWER(e.nombre) LIKE :texto");
+                parametros.put("texto", "%" + filtro.getTexto().trim().toLowerCase() + "%");
+            }
+            if (filtro.getTipoEvento() != null) {
+                where.append(" AND t.nombre = :tipo");
+                parametros.put("tipo", filtro.getTipoEvento());
+            }
+            if (filtro.getCiudad() != null) {
+                where.append(" AND s.ciudad = :ciudad");
+                parametros.put("ciudad", filtro.getCiudad());
+            }
+            if (filtro.getSedeId() != null) {
+                where.append(" AND s.id = :sedeId");
+                parametros.put("sedeId", filtro.getSedeId());
+            }
+            if (filtro.getEstado() != null) {
+                where.append(" AND e.estado = :estado");
+                parametros.put("estado", filtro.getEstado());
+            }
+            if (filtro.getDesde() != null) {
+                where.append(" AND e.fechaInicio >= :desde");
+                parametros.put("desde", filtro.getDesde());
+            }
+            if (filtro.getHasta() != null) {
+                where.append(" AND e.fechaInicio <= :hasta");
+                parametros.put("hasta", filtro.getHasta());
+            }
+            if (filtro.getPrecioMaximo() != null) {
+                where.append(" AND e.precioBase <= :precio");
+                parametros.put("precio", filtro.getPrecioMaximo());
+            }
+            if (filtro.getModificadoDesde() != null) {
+                where.append(" AND e.fechaModificacion > :modificadoDesde");
+                parametros.put("modificadoDesde", filtro.getModificadoDesde());
+            }
+            if (filtro.getModificadoHasta() != null) {
+                where.append(" AND e.fechaModificacion <= :modificadoHasta");
+                parametros.put("modificadoHasta", filtro.getModificadoHasta());
+            }
+        }
+        if (ultimaFecha != null) {
+            where.append(" AND (e.fechaInicio < :ultimaFecha " +
+                         "OR (e.fechaInicio = :ultimaFecha AND e.id < :ultimoId))");
+            parametros.put("ultimaFecha", ultimaFecha);
+            parametros.put("ultimoId", ultimoId);
+        }
+        return where.toString();
+    }
+    
+    /**
+     * Reserva plazas de un evento con un único UPDATE condicional: solo suma la cantidad
+     * si cabe en el aforo y el evento sigue a la venta, e incrementa la versión para que
+     * las ediciones con datos anteriores fallen en lugar de pisar el aforo.
+     * El bloqueo de la fila dura solo hasta el final de la transacción en curso.
+     * @param eventoId ID del evento
+     * @param cantidad Número de plazas a reservar
+     * @return true si se reservaron, false si no hay aforo o el evento no está a la venta
+     */
+    public boolean reservarAforo(Long eventoId, int cantidad) {
+        return ejecutarEnTransaccion(em -> em.createQuery(
+                "UPDATE Evento e SET e.aforoActual = e.aforoActual + :cantidad, e.version = e.version + 1, " +
+                "e.fechaModificacion = :ahora " +
+                "WHERE e.id = :id AND e.aforoActual + :cantidad <= e.aforoMaximo " +
+                "AND e.estado NOT IN (:cancelado, :finalizado)")
+            .setParameter("cantidad", cantidad)
+            .setParameter("ahora", LocalDateTime.now())
+            .setParameter("id", eventoId)
+            .setParameter("cancelado", EstadoEvento.CANCELADO)
+            .setParameter("finalizado", EstadoEvento.FINALIZADO)
+            .executeUpdate() == 1, "Error al reservar aforo");
     }
     
     /**
@@ -43,11 +354,12 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos de ese tipo
      */
     public List<Evento> findByTipoEvento(Long tipoEventoId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.tipoEvento.id = :tipoId", Evento.class);
-        query.setParameter("tipoId", tipoEventoId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.tipoEvento.id = :tipoId", Evento.class);
+            query.setParameter("tipoId", tipoEventoId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -56,11 +368,12 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos en esa sede
      */
     public List<Evento> findBySede(Long sedeId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.sede.id = :sedeId", Evento.class);
-        query.setParameter("sedeId", sedeId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.sede.id = :sedeId", Evento.class);
+            query.setParameter("sedeId", sedeId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -70,10 +383,11 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos con ese estado
      */
     public List<Evento> findByEstado(String estado) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.estado = com.eventos.models.EstadoEvento." + estado, Evento.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.estado = com.eventos.models.EstadoEvento." + estado, Evento.class);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -83,13 +397,14 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos en ese rango
      */
     public List<Evento> findByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.fechaInicio >= :inicio AND e.fechaInicio <= :fin " +
-            "ORDER BY e.fechaInicio", Evento.class);
-        query.setParameter("inicio", fechaInicio);
-        query.setParameter("fin", fechaFin);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.fechaInicio >= :inicio AND e.fechaInicio <= :fin " +
+                "ORDER BY e.fechaInicio", Evento.class);
+            query.setParameter("inicio", fechaInicio);
+            query.setParameter("fin", fechaFin);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -97,12 +412,13 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos futuros ordenados por fecha
      */
     public List<Evento> findProximosEventos() {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.fechaInicio >= :ahora " +
-            "ORDER BY e.fechaInicio", Evento.class);
-        query.setParameter("ahora", LocalDateTime.now());
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.fechaInicio >= :ahora " +
+                "ORDER BY e.fechaInicio", Evento.class);
+            query.setParameter("ahora", LocalDateTime.now());
+            return query.getResultList();
+        });
     }
     
     /**
@@ -110,11 +426,12 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos que aún tienen plazas
      */
     public List<Evento> findConEntradasDisponibles() {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE e.aforoActual < e.aforoMaximo " +
-            "AND e.estado = com.eventos.models.EstadoEvento.PROGRAMADO ORDER BY e.fechaInicio", Evento.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE e.aforoActual < e.aforoMaximo " +
+                "AND e.estado = com.eventos.models.EstadoEvento.PROGRAMADO ORDER BY e.fechaInicio", Evento.class);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -123,10 +440,333 @@ public class EventoRepository extends GenericRepository<Evento, Long> {
      * @return Lista de eventos que coinciden
      */
     public List<Evento> searchByNombre(String nombre) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Evento> query = em.createQuery(
-            "SELECT e FROM Evento e WHERE LOWER(e.nombre) LIKE LOWER(:nombre)", Evento.class);
-        query.setParameter("nombre", "%" + nombre + "%");
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Evento> query = em.createQuery(
+                "SELECT e FROM Evento e WHERE LOWER(e.nombre) LIKE LOWER(:nombre)", Evento.class);
+            query.setParameter("nombre", "%" + nombre + "%");
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Cuenta los eventos de cada estado con una sola consulta agrupada
+     * @return Número de eventos por estado (0 para los estados sin eventos)
+     */
+    public Map<EstadoEvento, Long> contarPorEstado() {
+        return ejecutar(em -> {
+            Map<EstadoEvento, Long> resultado = new EnumMap<>(EstadoEvento.class);
+            for (EstadoEvento estado : EstadoEvento.values()) {
+                resultado.put(estado, 0L);
+            }
+            em.createQuery(
+                    "SELECT e.estado, COUNT(e) FROM Evento e GROUP BY e.estado", Object[].class)
+                .getResultList()
+                .forEach(fila -> resultado.put((EstadoEvento) fila[0], (Long) fila[1]));
+            return resultado;
+        });
+    }
+    
+    /**
+     * Eventos y ocupación de cada sede, agregados sobre la tabla de eventos
+     * @return Estadísticas por sede ordenadas por nombre
+     */
+    public List<EstadisticasSede> estadisticasPorSede() {
+        return ejecutar(em -> em.createQuery(
+                "SELECT new com.eventos.dto.vista.EstadisticasSede(" +
+                "s.id, s.nombre, COUNT(e), COALESCE(SUM(e.aforoActual), 0L), COALESCE(SUM(e.aforoMaximo), 0L)) " +
+                "FROM Evento e JOIN e.sede s GROUP BY s.id, s.nombre ORDER BY s.nombre",
+                EstadisticasSede.class)
+            .getResultList());
+    }
+    
+    /**
+     * Recorre los eventos que cumplen un filtro con un cursor de solo avance,
+     * entregándolos uno a uno en orden de id.
+     * Usa una StatelessSession (sin contexto de persistencia) y un fetch size de
+     * Integer.MIN_VALUE, con el que el driver de MySQL trae las filas de una en una
+     * en lugar de cargar el resultado entero: la memoria no depende del catálogo.
+     * @param filtro Criterios de búsqueda (null para todos)
+     * @param consumidor Recibe cada evento
+     * @return Número de eventos recorridos
+     */
+    public long recorrerParaExportar(FiltroEventos filtro, Consumer<EventoExportacion> consumidor) {
+        Map<String, Object> parametros = new HashMap<>();
+        String hql = "SELECT new com.eventos.dto.vista.EventoExportacion(" +
+            "e.id, e.nombre, e.descripcion, e.fechaInicio, e.fechaFin, e.aforoMaximo, " +
+            "e.aforoActual, e.estado, e.precioBase, s.nombre, t.nombre) " +
+            "FROM Evento e JOIN e.tipoEvento t JOIN e.sede s" +
+            condiciones(filtro, null, null, parametros) +
+            " ORDER BY e.id";
+        SessionFactory sf = HibernateUtil.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession sesion = sf.openStatelessSession()) {
+            SelectionQuery<EventoExportacion> query = sesion.createSelectionQuery(hql, EventoExportacion.class);
+            parametros.forEach(query::setParameter);
+            try (ScrollableResults<EventoExportacion> cursor = query
+                     .setFetchSize(Integer.MIN_VALUE)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+                long filas = 0;
+                while (cursor.next()) {
+                    consumidor.accept(cursor.get());
+                    filas++;
+                }
+                return filas;
+            }
+        }
+    }
+    
+    /**
+     * Sedes que tienen algún evento, para repartir exportaciones por sede
+     * @return Nombre de cada sede por id, en orden de id
+     */
+    public Map<Long, String> sedesConEventos() {
+        return ejecutar(em -> {
+            Map<Long, String> sedes = new LinkedHashMap<>();
+            em.createQuery(
+                    "SELECT DISTINCT s.id, s.nombre FROM Evento e JOIN e.sede s ORDER BY s.id", Object[].class)
+                .getResultList()
+                .forEach(fila -> sedes.put((Long) fila[0], (String) fila[1]));
+            return sedes;
+        });
+    }
+    
+    /**
+     * Meses (por fecha de inicio) que tienen algún evento, para repartir exportaciones por mes
+     * @return Meses en orden cronológico
+     */
+    public List<YearMonth> mesesConEventos() {
+        return ejecutar(em -> em.createQuery(
+                "SELECT DISTINCT year(e.fechaInicio), month(e.fechaInicio) FROM Evento e", Object[].class)
+            .getResultList()
+            .stream()
+            .map(fila -> YearMonth.of(((Number) fila[0]).intValue(), ((Number) fila[1]).intValue()))
+            .sorted()
+            .toList());
+    }
+    
+    /**
+     * Eventos guardados con alguno de los nombres dados, para que la importación
+     * distinga por clave natural (nombre, sede, fecha de inicio) qué filas ya existen
+     * @param nombres Nombres de un bloque de la importación
+     * @return Clave e id de cada evento encontrado
+     */
+    public List<EventoClave> findClavesPorNombre(Collection<String> nombres) {
+        if (nombres.isEmpty()) {
+            return List.of();
+        }
+        return ejecutar(em -> em.createQuery(
+                "SELECT new com.eventos.dto.vista.EventoClave(e.id, e.nombre, e.sede.id, e.fechaInicio, e.aforoActual, e.estado) " +
+                "FROM Evento e WHERE e.nombre IN :nombres", EventoClave.class)
+            .setParameter("nombres", nombres)
+            .getResultList());
+    }
+    
+    /**
+     * Guarda un bloque de eventos importados en una sola transacción de una StatelessSession:
+     * las altas con un lote de INSERT y las modificaciones con un lote de UPDATE, sin pasar
+     * por el contexto de persistencia (los ids IDENTITY impiden a Hibernate agrupar los persist).
+     * Las altas empiezan sin entradas vendidas; las modificaciones conservan las vendidas y
+     * no se aplican si el nuevo aforo máximo es menor.
+     * @param nuevos Eventos sin id, con sede y tipo (basta el id)
+     * @param existentes Eventos con el id del registro que sustituyen
+     * @return Filas afectadas por cada modificación, en el mismo orden (0 si no se aplicó)
+     */
+    public int[] guardarImportados(List<Evento> nuevos, List<Evento> existentes) {
+        SessionFactory sf = HibernateUtil.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession sesion = sf.openStatelessSession()) {
+            Transaction tx = sesion.beginTransaction();
+            try {
+                int[] actualizadas = sesion.doReturningWork(conexion -> {
+                    insertarLote(conexion, nuevos);
+                    return actualizarLote(conexion, existentes);
+                });
+                tx.commit();
+                return actualizadas;
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw new RuntimeException("Error al guardar los eventos importados", e);
+            }
+        }
+    }
+    
+    private static void insertarLote(Connection conexion, List<Evento> eventos) throws SQLException {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = conexion.prepareStatement(
+                "INSERT INTO eventos (tipo_evento_id, sede_id, nombre, descripcion, fecha_inicio, fecha_fin, " +
+                "aforo_maximo, aforo_actual, estado, precio_base, fecha_creacion, fecha_modificacion, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?, 0)")) {
+            for (Evento evento : eventos) {
+                ps.setLong(1, evento.getTipoEvento().getId());
+                ps.setLong(2, evento.getSede().getId());
+                ps.setString(3, evento.getNombre());
+                ps.setString(4, evento.getDescripcion());
+                ps.setTimestamp(5, Timestamp.valueOf(evento.getFechaInicio()));
+                ps.setTimestamp(6, Timestamp.valueOf(evento.getFechaFin()));
+                ps.setInt(7, evento.getAforoMaximo());
+                ps.setString(8, evento.getEstado().name());
+                ps.setBigDecimal(9, evento.getPrecioBase());
+                ps.setTimestamp(10, ahora);
+                ps.setTimestamp(11, ahora);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+    
+    private static int[] actualizarLote(Connection conexion, List<Evento> eventos) throws SQLException {
+        if (eventos.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = conexion.prepareStatement(
+                "UPDATE eventos SET tipo_evento_id = ?, descripcion = ?, fecha_fin = ?, aforo_maximo = ?, " +
+                "estado = ?, precio_base = ?, fecha_modificacion = ?, version = version + 1 " +
+                "WHERE id = ? AND aforo_actual <= ?")) {
+            for (Evento evento : eventos) {
+                ps.setLong(1, evento.getTipoEvento().getId());
+                ps.setString(2, evento.getDescripcion());
+                ps.setTimestamp(3, Timestamp.valueOf(evento.getFechaFin()));
+                ps.setInt(4, evento.getAforoMaximo());
+                ps.setString(5, evento.getEstado().name());
+                ps.setBigDecimal(6, evento.getPrecioBase());
+                ps.setTimestamp(7, ahora);
+                ps.setLong(8, evento.getId());
+                ps.setInt(9, evento.getAforoMaximo());
+                ps.addBatch();
+            }
+            // Las filas bloqueadas por el UPDATE: se aplicó si ya tiene el aforo nuevo y le caben las vendidas
+            return filasConocidas(conexion, ps.executeBatch(),
+                "SELECT COUNT(*) FROM eventos WHERE id = ? AND aforo_maximo = ? AND aforo_actual <= ?",
+                (comprobacion, i) -> {
+                    comprobacion.setLong(1, eventos.get(i).getId());
+                    comprobacion.setInt(2, eventos.get(i).getAforoMaximo());
+                    comprobacion.setInt(3, eventos.get(i).getAforoMaximo());
+                });
+        }
+    }
+
+    /**
+     * Parámetros de la consulta de comprobación de una posición del lote
+     */
+    @FunctionalInterface
+    interface ParametrosComprobacion {
+        void poner(PreparedStatement comprobacion, int posicion) throws SQLException;
+    }
+
+    /**
+     * Filas afectadas por cada sentencia de un lote. Al reescribir el lote el driver puede
+     * devolver SUCCESS_NO_INFO (-2), que no dice si la condición de la sentencia se cumplió:
+     * esas posiciones se cuentan de nuevo con una consulta (SELECT COUNT(*)) en la misma
+     * transacción, que ve lo que el lote ha dejado.
+     * @param filas Resultado de executeBatch (se modifica y se devuelve)
+     * @param comprobacion Consulta que cuenta las filas afectadas por la sentencia de una posición
+     */
+    static int[] filasConocidas(Connection conexion, int[] filas, String comprobacion,
+                                ParametrosComprobacion parametros) throws SQLException {
+        if (Arrays.stream(filas).noneMatch(f -> f == Statement.SUCCESS_NO_INFO)) {
+            return filas;
+        }
+        try (PreparedStatement ps = conexion.prepareStatement(comprobacion)) {
+            for (int i = 0; i < filas.length; i++) {
+                if (filas[i] == Statement.SUCCESS_NO_INFO) {
+                    parametros.poner(ps, i);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        filas[i] = rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            }
+        }
+        return filas;
+    }
+    
+    /**
+     * Aplica las bajas de una importación de cambios, buscando cada evento por su clave
+     * (nombre, sede, fecha de inicio). Los que no tienen entradas se borran dejando su marca
+     * de eliminación; los que las tienen no se pueden borrar y se cancelan. Repetir una baja
+     * ya aplicada no hace nada.
+     * @param claves Eventos con nombre, sede (basta el id) y fecha de inicio
+     * @return Eventos borrados o cancelados por cada clave, en el mismo orden
+     */
+    public int[] eliminarImportados(List<Evento> claves) {
+        if (claves.isEmpty()) {
+            return new int[0];
+        }
+        SessionFactory sf = HibernateUtil.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession sesion = sf.openStatelessSession()) {
+            Transaction tx = sesion.beginTransaction();
+            try {
+                int[] afectados = sesion.doReturningWork(conexion -> {
+                    // Sin fracción de segundo, como la guardan las columnas DATETIME: las
+                    // comprobaciones buscan las filas que llevan este instante
+                    Timestamp ahora = Timestamp.valueOf(LocalDateTime.now().withNano(0));
+                    ejecutarPorClave(conexion, claves, ahora,
+                        "INSERT INTO eventos_eliminados (fecha_eliminacion, evento_id, nombre, sede, fecha_inicio) " +
+                        "SELECT ?, e.id, e.nombre, s.nombre, e.fecha_inicio FROM eventos e JOIN sedes s ON s.id = e.sede_id " +
+                        "WHERE e.nombre = ? AND e.sede_id = ? AND e.fecha_inicio = ? " +
+                        "AND NOT EXISTS (SELECT 1 FROM entradas en WHERE en.evento_id = e.id)", null);
+                    int[] canceladas = ejecutarPorClave(conexion, claves, ahora,
+                        "UPDATE eventos e SET e.fecha_modificacion = ?, e.estado = 'CANCELADO', e.version = e.version + 1 " +
+                        "WHERE e.nombre = ? AND e.sede_id = ? AND e.fecha_inicio = ? AND e.estado <> 'CANCELADO' " +
+                        "AND EXISTS (SELECT 1 FROM entradas en WHERE en.evento_id = e.id)",
+                        "SELECT COUNT(*) FROM eventos e WHERE e.fecha_modificacion = ? " +
+                        "AND e.nombre = ? AND e.sede_id = ? AND e.fecha_inicio = ? AND e.estado = 'CANCELADO' " +
+                        "AND EXISTS (SELECT 1 FROM entradas en WHERE en.evento_id = e.id)");
+                    // Los borrados son los que el INSERT anterior dejó marcados con este instante
+                    int[] borradas = ejecutarPorClave(conexion, claves, null,
+                        "DELETE FROM eventos WHERE nombre = ? AND sede_id = ? AND fecha_inicio = ? " +
+                        "AND NOT EXISTS (SELECT 1 FROM entradas en WHERE en.evento_id = eventos.id)", null);
+                    filasConocidas(conexion, borradas,
+                        "SELECT COUNT(*) FROM eventos_eliminados ee WHERE ee.fecha_eliminacion = ? " +
+                        "AND ee.nombre = ? AND ee.sede = (SELECT s.nombre FROM sedes s WHERE s.id = ?) " +
+                        "AND ee.fecha_inicio = ?",
+                        (comprobacion, i) -> ponerClave(comprobacion, claves.get(i), ahora));
+                    int[] total = new int[claves.size()];
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] = canceladas[i] + borradas[i];
+                    }
+                    return total;
+                });
+                tx.commit();
+                return afectados;
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw new RuntimeException("Error al aplicar las bajas importadas", e);
+            }
+        }
+    }
+    
+    /**
+     * Ejecuta en lote una sentencia cuyos últimos parámetros son nombre, sede y fecha de inicio,
+     * precedidos por el instante indicado si no es null
+     * @param comprobacion Consulta con los mismos parámetros que cuenta las filas afectadas
+     * (ver filasConocidas), o null si no importan
+     */
+    private static int[] ejecutarPorClave(Connection conexion, List<Evento> claves, Timestamp instante, String sql,
+                                          String comprobacion) throws SQLException {
+        try (PreparedStatement ps = conexion.prepareStatement(sql)) {
+            for (Evento clave : claves) {
+                ponerClave(ps, clave, instante);
+                ps.addBatch();
+            }
+            int[] filas = ps.executeBatch();
+            return comprobacion == null ? filas : filasConocidas(conexion, filas, comprobacion,
+                (consulta, i) -> ponerClave(consulta, claves.get(i), instante));
+        }
+    }
+
+    private static void ponerClave(PreparedStatement ps, Evento clave, Timestamp instante) throws SQLException {
+        int i = 1;
+        if (instante != null) {
+            ps.setTimestamp(i++, instante);
+        }
+        ps.setString(i++, clave.getNombre());
+        ps.setLong(i++, clave.getSede().getId());
+        ps.setTimestamp(i, Timestamp.valueOf(clave.getFechaInicio()));
     }
 }
@@ -0,0 +1,155 @@
+package com.eventos.repositories;
+
+import com.eventos.models.EstadoEvento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Criterios opcionales para consultar eventos.
+ * Los campos a null no filtran; los que tienen valor se combinan con AND.
+ */
+public class FiltroEventos {
+
+    private String texto;
+    private boolean incluirDescripcion;
+    private String tipoEvento;
+    private String ciudad;
+    private Long sedeId;
+    private EstadoEvento estado;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private BigDecimal precioMaximo;
+    private LocalDateTime modificadoDesde;
+    private LocalDateTime modificadoHasta;
+
+    public FiltroEventos() {
+    }
+
+    /**
+     * Indica si el filtro no tiene ningún criterio
+     */
+    public boolean estaVacio() {
+        return (texto == null || texto.isBlank()) && tipoEvento == null && ciudad == null
+            && sedeId == null && estado == null && desde == null && hasta == null && precioMaximo == null
+            && modificadoDesde == null && modificadoHasta == null;
+    }
+
+    /**
+     * Texto a buscar (parcial, sin distinguir mayúsculas) en el nombre del evento
+     */
+    public String getTexto() {
+        return texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Si es true el texto también se busca en la descripción
+     */
+    public boolean isIncluirDescripcion() {
+        return incluirDescripcion;
+    }
+
+    public void setIncluirDescripcion(boolean incluirDescripcion) {
+        this.incluirDescripcion = incluirDescripcion;
+    }
+
+    /**
+     * Nombre exacto del tipo de evento
+     */
+    public String getTipoEvento() {
+        return tipoEvento;
+    }
+
+    public void setTipoEvento(String tipoEvento) {
+        this.tipoEvento = tipoEvento;
+    }
+
+    /**
+     * Ciudad de la sede
+     */
+    public String getCiudad() {
+        return ciudad;
+    }
+
+    public void setCiudad(String ciudad) {
+        this.ciudad = ciudad;
+    }
+
+    /**
+     * Id de la sede
+     */
+    public Long getSedeId() {
+        return sedeId;
+    }
+
+    public void setSedeId(Long sedeId) {
+        this.sedeId = sedeId;
+    }
+
+    public EstadoEvento getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoEvento estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * Fecha de inicio mínima (incluida)
+     */
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    /**
+     * Fecha de inicio máxima (incluida)
+     */
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    /**
+     * Precio base máximo (incluido)
+     */
+    public BigDecimal getPrecioMaximo() {
+        return precioMaximo;
+    }
+
+    public void setPrecioMaximo(BigDecimal precioMaximo) {
+        this.precioMaximo = precioMaximo;
+    }
+
+    /**
+     * Solo eventos modificados después de este instante (excluido)
+     */
+    public LocalDateTime getModificadoDesde() {
+        return modificadoDesde;
+    }
+
+    public void setModificadoDesde(LocalDateTime modificadoDesde) {
+        this.modificadoDesde = modificadoDesde;
+    }
+
+    /**
+     * Solo eventos modificados hasta este instante (incluido)
+     */
+    public LocalDateTime getModificadoHasta() {
+        return modificadoHasta;
+    }
+
+    public void setModificadoHasta(LocalDateTime modificadoHasta) {
+        this.modificadoHasta = modificadoHasta;
+    }
+}
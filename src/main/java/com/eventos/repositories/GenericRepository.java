@@ -1,23 +1,41 @@
 package com.eventos.repositories;
 
+import com.eventos.config.UnidadDeTrabajo;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Table;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Repositorio genérico que proporciona operaciones CRUD básicas
  * Todos los repositorios específicos heredarán de esta clase
  * 
+ * Cada operación usa el EntityManager de la {@link UnidadDeTrabajo} activa en el hilo;
+ * si no hay ninguna, abre uno propio y lo cierra al terminar la operación.
+ * 
  * @param <T> Tipo de entidad (Usuario, Evento, etc.)
  * @param <ID> Tipo del ID de la entidad (Long, Integer, etc.)
  */
 public abstract class GenericRepository<T, ID> {
     
+    /**
+     * Tamaño de página por defecto para la paginación por clave
+     */
+    public static final int TAMANO_PAGINA = 50;
+    
+    /**
+     * Por debajo de este número estimado de filas se hace un COUNT exacto
+     */
+    private static final long UMBRAL_CONTEO_EXACTO = 10_000;
+    
     protected final Class<T> entityClass;
     
     /**
@@ -34,24 +52,86 @@ public abstract class GenericRepository<T, ID> {
      */
     protected abstract EntityManager getEntityManager();
     
+    /**
+     * Región de la caché de consultas donde guardar los resultados de este repositorio.
+     * Por defecto null (sin caché); los repositorios de entidades de referencia la sobrescriben.
+     */
+    protected String getRegionConsultas() {
+        return null;
+    }
+    
+    /**
+     * Marca una consulta como cacheable si el repositorio tiene región de consultas
+     * @param query Consulta a marcar
+     * @return La misma consulta
+     */
+    protected <X> TypedQuery<X> cacheable(TypedQuery<X> query) {
+        String region = getRegionConsultas();
+        if (region != null) {
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, region);
+        }
+        return query;
+    }
+    
+    /**
+     * Ejecuta una operación de lectura con el EntityManager adecuado.
+     * Reutiliza el de la unidad de trabajo activa o abre uno y lo cierra al acabar.
+     * @param operacion Operación a ejecutar
+     * @return Resultado de la operación
+     */
+    protected <R> R ejecutar(Function<EntityManager, R> operacion) {
+        UnidadDeTrabajo uow = UnidadDeTrabajo.actual();
+        if (uow != null) {
+            return operacion.apply(uow.getEntityManager());
+        }
+        EntityManager em = getEntityManager();
+        try {
+            return operacion.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+    
+    /**
+     * Ejecuta una operación de escritura dentro de una transacción.
+     * Si la unidad de trabajo activa ya tiene una transacción abierta, se une a ella.
+     * @param operacion Operación a ejecutar
+     * @param mensajeError Mensaje de la excepción en caso de fallo
+     * @return Resultado de la operación
+     */
+    protected <R> R ejecutarEnTransaccion(Function<EntityManager, R> operacion, String mensajeError) {
+        return ejecutar(em -> {
+            EntityTransaction tx = em.getTransaction();
+            boolean propia = !tx.isActive();
+            try {
+                if (propia) {
+                    tx.begin();
+                }
+                R resultado = operacion.apply(em);
+                if (propia) {
+                    tx.commit();
+                }
+                return resultado;
+            } catch (Exception e) {
+                if (propia && tx.isActive()) {
+                    tx.rollback();
+                }
+                throw new RuntimeException(mensajeError, e);
+            }
+        });
+    }
+    
     /**
      * Guarda una nueva entidad en la base de datos
      * @param entity Entidad a guardar
      * @return Entidad guardada con ID generado
      */
     public T save(T entity) {
-        EntityManager em = getEntityManager();
-        try {
-            em.getTransaction().begin();
+        return ejecutarEnTransaccion(em -> {
             em.persist(entity);
-            em.getTransaction().commit();
             return entity;
-        } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw new RuntimeException("Error al guardar la entidad", e);
-        }
+        }, "Error al guardar la entidad");
     }
     
     /**
@@ -60,18 +140,7 @@ public abstract class GenericRepository<T, ID> {
      * @return Entidad actualizada
      */
     public T update(T entity) {
-        EntityManager em = getEntityManager();
-        try {
-            em.getTransaction().begin();
-            T updated = em.merge(entity);
-            em.getTransaction().commit();
-            return updated;
-        } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw new RuntimeException("Error al actualizar la entidad", e);
-        }
+        return ejecutarEnTransaccion(em -> em.merge(entity), "Error al actualizar la entidad");
     }
     
     /**
@@ -80,9 +149,7 @@ public abstract class GenericRepository<T, ID> {
      * @return Optional con la entidad si existe, vacío si no
      */
     public Optional<T> findById(ID id) {
-        EntityManager em = getEntityManager();
-        T entity = em.find(entityClass, id);
-        return Optional.ofNullable(entity);
+        return ejecutar(em -> Optional.ofNullable(em.find(entityClass, id)));
     }
     
     /**
@@ -90,14 +157,70 @@ public abstract class GenericRepository<T, ID> {
      * @return Lista con todas las entidades
      */
     public List<T> findAll() {
-        EntityManager em = getEntityManager();
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<T> cq = cb.createQuery(entityClass);
-        Root<T> root = cq.from(entityClass);
-        cq.select(root);
-        
-        TypedQuery<T> query = em.createQuery(cq);
-        return query.getResultList();
+        return ejecutar(em -> {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<T> cq = cb.createQuery(entityClass);
+            Root<T> root = cq.from(entityClass);
+            cq.select(root);
+            
+            TypedQuery<T> query = cacheable(em.createQuery(cq));
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Obtiene una página de entidades ordenadas por ID usando paginación por clave.
+     * La consulta filtra por "id &gt; último id", de modo que el coste es el mismo
+     * para la primera página que para la página mil.
+     * @param ultimo Último elemento de la página anterior (null para la primera)
+     * @param tamano Número máximo de elementos
+     * @return Página de entidades
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Pagina<T> findPagina(T ultimo, int tamano) {
+        return ejecutar(em -> {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<T> cq = cb.createQuery(entityClass);
+            Root<T> root = cq.from(entityClass);
+            cq.select(root);
+            if (ultimo != null) {
+                Comparable ultimoId = (Comparable) em.getEntityManagerFactory()
+                    .getPersistenceUnitUtil().getIdentifier(ultimo);
+                cq.where(cb.greaterThan(root.<Comparable>get("id"), ultimoId));
+            }
+            cq.orderBy(cb.asc(root.get("id")));
+            
+            List<T> filas = em.createQuery(cq)
+                .setMaxResults(tamano + 1)
+                .getResultList();
+            return Pagina.desde(filas, tamano);
+        });
+    }
+    
+    /**
+     * Cuenta aproximada de entidades sin recorrer la tabla.
+     * Usa la estimación de filas de information_schema; si la tabla es pequeña
+     * (o no hay estimación) hace un COUNT exacto, que en ese caso es barato.
+     * @return Número de registros (aproximado en tablas grandes)
+     */
+    public long countEstimado() {
+        Long estimado = ejecutar(em -> {
+            List<?> filas = em.createNativeQuery(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :tabla")
+                .setParameter("tabla", getNombreTabla())
+                .getResultList();
+            return !filas.isEmpty() && filas.get(0) instanceof Number n ? n.longValue() : null;
+        });
+        if (estimado == null || estimado < UMBRAL_CONTEO_EXACTO) {
+            return count();
+        }
+        return estimado;
+    }
+    
+    private String getNombreTabla() {
+        Table tabla = entityClass.getAnnotation(Table.class);
+        return tabla != null && !tabla.name().isEmpty() ? tabla.name() : entityClass.getSimpleName();
     }
     
     /**
@@ -106,23 +229,14 @@ public abstract class GenericRepository<T, ID> {
      * @return true si se eliminó, false si no existía
      */
     public boolean delete(ID id) {
-        EntityManager em = getEntityManager();
-        try {
-            em.getTransaction().begin();
+        return ejecutarEnTransaccion(em -> {
             T entity = em.find(entityClass, id);
             if (entity != null) {
                 em.remove(entity);
-                em.getTransaction().commit();
                 return true;
             }
-            em.getTransaction().rollback();
             return false;
-        } catch (Exception e) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw new RuntimeException("Error al eliminar la entidad", e);
-        }
+        }, "Error al eliminar la entidad");
     }
     
     /**
@@ -130,13 +244,14 @@ public abstract class GenericRepository<T, ID> {
      * @return Número total de registros
      */
     public long count() {
-        EntityManager em = getEntityManager();
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
-        Root<T> root = cq.from(entityClass);
-        cq.select(cb.count(root));
-        
-        return em.createQuery(cq).getSingleResult();
+        return ejecutar(em -> {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+            Root<T> root = cq.from(entityClass);
+            cq.select(cb.count(root));
+            
+            return em.createQuery(cq).getSingleResult();
+        });
     }
     
     /**
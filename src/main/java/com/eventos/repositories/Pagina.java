@@ -0,0 +1,63 @@
+package com.eventos.repositories;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por clave (keyset).
+ * En lugar de un número de página guarda el último elemento devuelto: la página
+ * siguiente se pide a partir de él, así el coste no crece con la profundidad.
+ *
+ * @param <T> Tipo de los elementos
+ */
+public class Pagina<T> {
+
+    private final List<T> elementos;
+    private final boolean hayMas;
+
+    public Pagina(List<T> elementos, boolean hayMas) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.hayMas = hayMas;
+    }
+
+    /**
+     * Crea una página a partir de una consulta que pidió tamano + 1 filas.
+     * La fila extra solo indica que hay más resultados y se descarta.
+     */
+    static <T> Pagina<T> desde(List<T> filas, int tamano) {
+        if (filas.size() > tamano) {
+            return new Pagina<>(filas.subList(0, tamano), true);
+        }
+        return new Pagina<>(filas, false);
+    }
+
+    /**
+     * Página vacía sin más resultados
+     */
+    public static <T> Pagina<T> vacia() {
+        return new Pagina<>(List.of(), false);
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Indica si existen más resultados después de esta página
+     */
+    public boolean hayMas() {
+        return hayMas;
+    }
+
+    /**
+     * Último elemento de la página; es el cursor para pedir la siguiente
+     * @return Último elemento o null si la página está vacía
+     */
+    public T getUltimo() {
+        return elementos.isEmpty() ? null : elementos.get(elementos.size() - 1);
+    }
+
+    public boolean isEmpty() {
+        return elementos.isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package com.eventos.repositories;
 
+import com.eventos.config.CacheUtil;
 import com.eventos.config.HibernateUtil;
 import com.eventos.models.Rol;
 import jakarta.persistence.EntityManager;
@@ -22,20 +23,26 @@ public class RolRepository extends GenericRepository<Rol, Long> {
         return HibernateUtil.getEntityManager();
     }
     
+    @Override
+    protected String getRegionConsultas() {
+        return CacheUtil.REGION_CONSULTAS;
+    }
+    
     /**
      * Busca un rol por su nombre (ADMIN, USUARIO, EMPLEADO)
      * @param nombre Nombre del rol
      * @return Optional con el rol si existe
      */
     public Optional<Rol> findByNombre(String nombre) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<Rol> query = em.createQuery(
-                "SELECT r FROM Rol r WHERE r.nombre = :nombre", Rol.class);
-            query.setParameter("nombre", nombre);
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<Rol> query = cacheable(em.createQuery(
+                    "SELECT r FROM Rol r WHERE r.nombre = :nombre", Rol.class));
+                query.setParameter("nombre", nombre);
+                return Optional.of(query.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
 }
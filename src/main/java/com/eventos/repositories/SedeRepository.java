@@ -1,6 +1,9 @@
 package com.eventos.repositories;
 
+import com.eventos.config.CacheUtil;
 import com.eventos.config.HibernateUtil;
+import com.eventos.dto.vista.SedeResumen;
+import com.eventos.dto.vista.SedeUbicacion;
 import com.eventos.models.Sede;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
@@ -21,15 +24,51 @@ public class SedeRepository extends GenericRepository<Sede, Long> {
         return HibernateUtil.getEntityManager();
     }
     
+    @Override
+    protected String getRegionConsultas() {
+        return CacheUtil.REGION_CONSULTAS;
+    }
+    
+    /**
+     * Resumen de todas las sedes para la tabla de administración, sin hidratar entidades.
+     * El resultado se guarda en la región de consultas de referencia.
+     * @return Lista de sedes ordenadas por nombre
+     */
+    public List<SedeResumen> findAllResumen() {
+        return ejecutar(em -> {
+            TypedQuery<SedeResumen> query = cacheable(em.createQuery(
+                "SELECT new com.eventos.dto.vista.SedeResumen(" +
+                "s.id, s.nombre, s.direccion, s.ciudad, s.capacidad, s.activa) " +
+                "FROM Sede s ORDER BY s.nombre", SedeResumen.class));
+            return query.getResultList();
+        });
+    }
+    
     /**
      * Busca sedes activas
      * @return Lista de sedes disponibles
      */
     public List<Sede> findActivas() {
-        EntityManager em = getEntityManager();
-        TypedQuery<Sede> query = em.createQuery(
-            "SELECT s FROM Sede s WHERE s.activa = true", Sede.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Sede> query = cacheable(em.createQuery(
+                "SELECT s FROM Sede s WHERE s.activa = true", Sede.class));
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Posición de las sedes activas con coordenadas, para el índice geográfico.
+     * El resultado se guarda en la región de consultas de referencia.
+     * @return Lista de sedes ordenadas por id
+     */
+    public List<SedeUbicacion> findUbicacionesActivas() {
+        return ejecutar(em -> {
+            TypedQuery<SedeUbicacion> query = cacheable(em.createQuery(
+                "SELECT new com.eventos.dto.vista.SedeUbicacion(s.id, s.nombre, s.ciudad, s.latitud, s.longitud) " +
+                "FROM Sede s WHERE s.activa = true AND s.latitud IS NOT NULL AND s.longitud IS NOT NULL " +
+                "ORDER BY s.id", SedeUbicacion.class));
+            return query.getResultList();
+        });
     }
     
     /**
@@ -38,11 +77,12 @@ public class SedeRepository extends GenericRepository<Sede, Long> {
      * @return Lista de sedes en esa ciudad
      */
     public List<Sede> findByCiudad(String ciudad) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Sede> query = em.createQuery(
-            "SELECT s FROM Sede s WHERE LOWER(s.ciudad) = LOWER(:ciudad)", Sede.class);
-        query.setParameter("ciudad", ciudad);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Sede> query = em.createQuery(
+                "SELECT s FROM Sede s WHERE LOWER(s.ciudad) = LOWER(:ciudad)", Sede.class);
+            query.setParameter("ciudad", ciudad);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -51,11 +91,12 @@ public class SedeRepository extends GenericRepository<Sede, Long> {
      * @return Lista de sedes en esa provincia
      */
     public List<Sede> findByProvincia(String provincia) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Sede> query = em.createQuery(
-            "SELECT s FROM Sede s WHERE LOWER(s.provincia) = LOWER(:provincia)", Sede.class);
-        query.setParameter("provincia", provincia);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Sede> query = em.createQuery(
+                "SELECT s FROM Sede s WHERE LOWER(s.provincia) = LOWER(:provincia)", Sede.class);
+            query.setParameter("provincia", provincia);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -64,12 +105,13 @@ public class SedeRepository extends GenericRepository<Sede, Long> {
      * @return Lista de sedes con esa capacidad o mayor
      */
     public List<Sede> findByCapacidadMinima(int capacidadMinima) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Sede> query = em.createQuery(
-            "SELECT s FROM Sede s WHERE s.capacidad >= :capacidad " +
-            "AND s.activa = true ORDER BY s.capacidad", Sede.class);
-        query.setParameter("capacidad", capacidadMinima);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Sede> query = em.createQuery(
+                "SELECT s FROM Sede s WHERE s.capacidad >= :capacidad " +
+                "AND s.activa = true ORDER BY s.capacidad", Sede.class);
+            query.setParameter("capacidad", capacidadMinima);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -78,10 +120,11 @@ public class SedeRepository extends GenericRepository<Sede, Long> {
      * @return Lista de sedes que coinciden
      */
     public List<Sede> searchByNombre(String nombre) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Sede> query = em.createQuery(
-            "SELECT s FROM Sede s WHERE LOWER(s.nombre) LIKE LOWER(:nombre)", Sede.class);
-        query.setParameter("nombre", "%" + nombre + "%");
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Sede> query = em.createQuery(
+                "SELECT s FROM Sede s WHERE LOWER(s.nombre) LIKE LOWER(:nombre)", Sede.class);
+            query.setParameter("nombre", "%" + nombre + "%");
+            return query.getResultList();
+        });
     }
 }
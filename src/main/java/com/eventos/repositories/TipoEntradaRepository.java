@@ -1,5 +1,6 @@
 package com.eventos.repositories;
 
+import com.eventos.config.CacheUtil;
 import com.eventos.config.HibernateUtil;
 import com.eventos.models.TipoEntrada;
 import jakarta.persistence.EntityManager;
@@ -19,15 +20,21 @@ public class TipoEntradaRepository extends GenericRepository<TipoEntrada, Long>
         return HibernateUtil.getEntityManager();
     }
 
+    @Override
+    protected String getRegionConsultas() {
+        return CacheUtil.REGION_CONSULTAS;
+    }
+
     public Optional<TipoEntrada> findByNombre(String nombre) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<TipoEntrada> q = em.createQuery(
-                    "SELECT t FROM TipoEntrada t WHERE LOWER(t.nombre) = LOWER(:n)", TipoEntrada.class);
-            q.setParameter("n", nombre);
-            return Optional.of(q.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<TipoEntrada> q = cacheable(em.createQuery(
+                        "SELECT t FROM TipoEntrada t WHERE LOWER(t.nombre) = LOWER(:n)", TipoEntrada.class));
+                q.setParameter("n", nombre);
+                return Optional.of(q.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
 }
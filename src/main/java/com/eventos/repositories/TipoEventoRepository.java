@@ -1,5 +1,6 @@
 package com.eventos.repositories;
 
+import com.eventos.config.CacheUtil;
 import com.eventos.config.HibernateUtil;
 import com.eventos.models.TipoEvento;
 import jakarta.persistence.EntityManager;
@@ -21,17 +22,23 @@ public class TipoEventoRepository extends GenericRepository<TipoEvento, Long> {
         return HibernateUtil.getEntityManager();
     }
     
+    @Override
+    protected String getRegionConsultas() {
+        return CacheUtil.REGION_CONSULTAS;
+    }
+    
     /**
      * Busca tipos de evento por categoría (CULTURAL, DEPORTIVO, CORPORATIVO, ENTRETENIMIENTO)
      * @param categoria Categoría del tipo de evento
      * @return Lista de tipos de evento en esa categoría
      */
     public List<TipoEvento> findByCategoria(String categoria) {
-        EntityManager em = getEntityManager();
-        TypedQuery<TipoEvento> query = em.createQuery(
-            "SELECT t FROM TipoEvento t WHERE t.categoria = :categoria", TipoEvento.class);
-        query.setParameter("categoria", categoria);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<TipoEvento> query = cacheable(em.createQuery(
+                "SELECT t FROM TipoEvento t WHERE t.categoria = :categoria", TipoEvento.class));
+            query.setParameter("categoria", categoria);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -40,10 +47,11 @@ public class TipoEventoRepository extends GenericRepository<TipoEvento, Long> {
      * @return Lista de tipos de evento que coinciden
      */
     public List<TipoEvento> searchByNombre(String nombre) {
-        EntityManager em = getEntityManager();
-        TypedQuery<TipoEvento> query = em.createQuery(
-            "SELECT t FROM TipoEvento t WHERE LOWER(t.nombre) LIKE LOWER(:nombre)", TipoEvento.class);
-        query.setParameter("nombre", "%" + nombre + "%");
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<TipoEvento> query = em.createQuery(
+                "SELECT t FROM TipoEvento t WHERE LOWER(t.nombre) LIKE LOWER(:nombre)", TipoEvento.class);
+            query.setParameter("nombre", "%" + nombre + "%");
+            return query.getResultList();
+        });
     }
 }
@@ -1,11 +1,13 @@
 package com.eventos.repositories;
 
 import com.eventos.config.HibernateUtil;
+import com.eventos.dto.vista.UsuarioBusqueda;
 import com.eventos.models.Usuario;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,15 +38,16 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return Optional con el usuario si existe
      */
     public Optional<Usuario> findByEmail(String email) {
-        EntityManager em = getEntityManager();
-        try {
-            TypedQuery<Usuario> query = em.createQuery(
-                "SELECT u FROM Usuario u WHERE u.email = :email", Usuario.class);
-            query.setParameter("email", email);
-            return Optional.of(query.getSingleResult());
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        return ejecutar(em -> {
+            try {
+                TypedQuery<Usuario> query = em.createQuery(
+                    "SELECT u FROM Usuario u WHERE u.email = :email", Usuario.class);
+                query.setParameter("email", email);
+                return Optional.of(query.getSingleResult());
+            } catch (NoResultException e) {
+                return Optional.empty();
+            }
+        });
     }
     
     /**
@@ -53,11 +56,12 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return Lista de usuarios con ese rol
      */
     public List<Usuario> findByRol(Long rolId) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Usuario> query = em.createQuery(
-            "SELECT u FROM Usuario u WHERE u.rol.id = :rolId", Usuario.class);
-        query.setParameter("rolId", rolId);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Usuario> query = em.createQuery(
+                "SELECT u FROM Usuario u WHERE u.rol.id = :rolId", Usuario.class);
+            query.setParameter("rolId", rolId);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -65,10 +69,61 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return Lista de usuarios con estado activo
      */
     public List<Usuario> findActivos() {
-        EntityManager em = getEntityManager();
-        TypedQuery<Usuario> query = em.createQuery(
-            "SELECT u FROM Usuario u WHERE u.activo = true", Usuario.class);
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Usuario> query = em.createQuery(
+                "SELECT u FROM Usuario u WHERE u.activo = true", Usuario.class);
+            return query.getResultList();
+        });
+    }
+    
+    /**
+     * Página de usuarios (ordenados por id) excluyendo los de un rol
+     * @param rolExcluido Nombre del rol a excluir (p. ej. ADMIN)
+     * @param ultimo Último usuario de la página anterior (null para la primera)
+     * @param tamano Número máximo de usuarios
+     * @return Página de usuarios
+     */
+    public Pagina<Usuario> findPaginaSinRol(String rolExcluido, Usuario ultimo, int tamano) {
+        return ejecutar(em -> {
+            TypedQuery<Usuario> query = em.createQuery(
+                "SELECT u FROM Usuario u JOIN FETCH u.rol r " +
+                "WHERE UPPER(r.nombre) <> UPPER(:rol) AND u.id > :ultimoId " +
+                "ORDER BY u.id", Usuario.class);
+            query.setParameter("rol", rolExcluido);
+            query.setParameter("ultimoId", ultimo != null ? ultimo.getId() : 0L);
+            query.setMaxResults(tamano + 1);
+            return Pagina.desde(query.getResultList(), tamano);
+        });
+    }
+    
+    /**
+     * Nombre, apellidos y email de todos los usuarios que no tienen un rol, para la
+     * búsqueda aproximada en memoria
+     * @param rolExcluido Nombre del rol a excluir (p. ej. ADMIN)
+     * @return Usuarios ordenados por id
+     */
+    public List<UsuarioBusqueda> findBusquedaSinRol(String rolExcluido) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT new com.eventos.dto.vista.UsuarioBusqueda(u.id, u.nombre, u.apellidos, u.email) " +
+                "FROM Usuario u JOIN u.rol r WHERE UPPER(r.nombre) <> UPPER(:rol) ORDER BY u.id",
+                UsuarioBusqueda.class)
+            .setParameter("rol", rolExcluido)
+            .getResultList());
+    }
+    
+    /**
+     * Busca usuarios por id
+     * @param ids IDs de los usuarios
+     * @return Usuarios encontrados (en cualquier orden)
+     */
+    public List<Usuario> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return ejecutar(em -> em.createQuery(
+                "SELECT u FROM Usuario u WHERE u.id IN :ids", Usuario.class)
+            .setParameter("ids", ids)
+            .getResultList());
     }
     
     /**
@@ -77,12 +132,13 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return Lista de usuarios que coinciden
      */
     public List<Usuario> searchByName(String searchTerm) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Usuario> query = em.createQuery(
-            "SELECT u FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(:search) " +
-            "OR LOWER(u.apellidos) LIKE LOWER(:search)", Usuario.class);
-        query.setParameter("search", "%" + searchTerm + "%");
-        return query.getResultList();
+        return ejecutar(em -> {
+            TypedQuery<Usuario> query = em.createQuery(
+                "SELECT u FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(:search) " +
+                "OR LOWER(u.apellidos) LIKE LOWER(:search)", Usuario.class);
+            query.setParameter("search", "%" + searchTerm + "%");
+            return query.getResultList();
+        });
     }
     
     /**
@@ -91,11 +147,12 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return true si existe, false si no
      */
     public boolean existsByEmail(String email) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Long> query = em.createQuery(
-            "SELECT COUNT(u) FROM Usuario u WHERE u.email = :email", Long.class);
-        query.setParameter("email", email);
-        return query.getSingleResult() > 0;
+        return ejecutar(em -> {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(u) FROM Usuario u WHERE u.email = :email", Long.class);
+            query.setParameter("email", email);
+            return query.getSingleResult() > 0;
+        });
     }
     
     /**
@@ -104,10 +161,23 @@ public class UsuarioRepository extends GenericRepository<Usuario, Long> {
      * @return true si existe, false si no
      */
     public boolean existsByDni(String dni) {
-        EntityManager em = getEntityManager();
-        TypedQuery<Long> query = em.createQuery(
-            "SELECT COUNT(u) FROM Usuario u WHERE u.dni = :dni", Long.class);
-        query.setParameter("dni", dni);
-        return query.getSingleResult() > 0;
+        return ejecutar(em -> {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(u) FROM Usuario u WHERE u.dni = :dni", Long.class);
+            query.setParameter("dni", dni);
+            return query.getSingleResult() > 0;
+        });
+    }
+    
+    /**
+     * Cuenta los usuarios que no tienen un rol
+     * @param rolExcluido Nombre del rol a excluir (p. ej. ADMIN)
+     * @return Número de usuarios
+     */
+    public long countSinRol(String rolExcluido) {
+        return ejecutar(em -> em.createQuery(
+                "SELECT COUNT(u) FROM Usuario u JOIN u.rol r WHERE UPPER(r.nombre) <> UPPER(:rol)", Long.class)
+            .setParameter("rol", rolExcluido)
+            .getSingleResult());
     }
 }
@@ -0,0 +1,110 @@
+package com.eventos.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritura de los archivos de las exportaciones en streaming y formato de sus celdas CSV
+ */
+final class ArchivosExportacion {
+
+    private static final int BUFER = 64 * 1024;
+
+    private ArchivosExportacion() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Contenido de un archivo de exportación
+     * @param <E> Excepción propia del formato (además de IOException)
+     */
+    @FunctionalInterface
+    interface Contenido<E extends Exception> {
+        /**
+         * Escribe el contenido en la salida, sin cerrarla
+         * @return Filas escritas
+         */
+        long escribir(OutputStream salida) throws IOException, E;
+    }
+
+    /**
+     * Crea el archivo (ver {@link #ruta} y {@link #abrir}), escribe su contenido y lo cierra.
+     * Con el archivo ya cerrado (y el gzip terminado) el tamaño y el digest son los definitivos.
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @return Filas escritas, tamaño, tiempo y SHA-256 del archivo
+     */
+    static <E extends Exception> ResultadoExportacion escribir(String rutaArchivo, boolean comprimir,
+                                                               Contenido<E> contenido) throws IOException, E {
+        Path archivo = ruta(rutaArchivo, comprimir);
+        MessageDigest digest = sha256();
+        long inicio = System.nanoTime();
+        long filas;
+        try (OutputStream salida = abrir(archivo, comprimir, digest)) {
+            filas = contenido.escribir(salida);
+        }
+        return new ResultadoExportacion(archivo, filas, Files.size(archivo),
+            (System.nanoTime() - inicio) / 1_000_000, hex(digest));
+    }
+
+    /**
+     * Nuevo digest SHA-256 para {@link #abrir(Path, boolean, MessageDigest)}
+     */
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Digest en hexadecimal (minúsculas)
+     */
+    static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ruta final del archivo: con gzip se añade la extensión .gz si no la tiene
+     */
+    static Path ruta(String rutaArchivo, boolean comprimir) {
+        return Paths.get(comprimir && !rutaArchivo.endsWith(".gz") ? rutaArchivo + ".gz" : rutaArchivo);
+    }
+
+    /**
+     * Abre el archivo para escritura (creando las carpetas), con búfer y opcionalmente gzip.
+     * Los bytes que llegan al disco pasan por el digest, que queda con el SHA-256 del archivo.
+     */
+    static OutputStream abrir(Path archivo, boolean comprimir, MessageDigest digest) throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        OutputStream salida = new DigestOutputStream(Files.newOutputStream(archivo), digest);
+        return comprimir
+            ? new GZIPOutputStream(salida, BUFER)
+            : new BufferedOutputStream(salida, BUFER);
+    }
+
+    /**
+     * Valor de una celda CSV: entre comillas (duplicándolas) si lleva comas, comillas o saltos de línea
+     */
+    static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+}
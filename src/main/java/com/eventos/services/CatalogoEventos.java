@@ -0,0 +1,312 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import com.eventos.repositories.FiltroEventos;
+import com.eventos.repositories.Pagina;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo de eventos en memoria que usa EventoService para paginar y filtrar sin ir a
+ * la base de datos. La lista y el índice por id son inmutables: cada cambio devuelve una
+ * copia, así que quien los está recorriendo nunca ve una mezcla.
+ *
+ * La búsqueda de texto usa un {@link IndiceBusqueda} que comparten todas las copias y que
+ * se actualiza evento a evento; las búsquedas se ordenan por relevancia. Las facetas
+ * ({@link FacetasEventos}) y los eventos próximos por sede se calculan la primera vez
+ * que se piden en cada copia.
+ */
+final class CatalogoEventos {
+
+    private static final Comparator<Coincidencia> RELEVANCIA = Comparator
+        .comparingInt((Coincidencia c) -> -c.puntos)
+        .thenComparing(c -> c.evento, InstantaneaCatalogo.ORDEN);
+
+    private final InstantaneaCatalogo instantanea;
+    private final Map<Long, EventoResumen> porId;
+    private final IndiceBusqueda indice;
+    private final long cargadoEn;
+    private volatile FacetasEventos facetas;
+    private volatile Map<Long, List<EventoResumen>> proximosPorSede;
+
+    /**
+     * Evento encontrado por una búsqueda de texto y su puntuación
+     */
+    private static final class Coincidencia {
+        private final EventoResumen evento;
+        private final int puntos;
+
+        private Coincidencia(EventoResumen evento, int puntos) {
+            this.evento = evento;
+            this.puntos = puntos;
+        }
+    }
+
+    CatalogoEventos(InstantaneaCatalogo instantanea) {
+        List<EventoResumen> eventos = instantanea.getEventos();
+        this.instantanea = instantanea;
+        this.porId = new HashMap<>(eventos.size() * 4 / 3 + 1);
+        for (EventoResumen evento : eventos) {
+            porId.put(evento.getId(), evento);
+        }
+        this.indice = new IndiceBusqueda(eventos);
+        this.cargadoEn = System.currentTimeMillis();
+    }
+
+    private CatalogoEventos(InstantaneaCatalogo instantanea, Map<Long, EventoResumen> porId, IndiceBusqueda indice,
+                            long cargadoEn) {
+        this.instantanea = instantanea;
+        this.porId = porId;
+        this.indice = indice;
+        this.cargadoEn = cargadoEn;
+    }
+
+    /**
+     * Indica si el filtro se puede evaluar en memoria. La fecha de modificación no está
+     * en los resúmenes.
+     */
+    static boolean admite(FiltroEventos filtro) {
+        return filtro == null || (filtro.getModificadoDesde() == null && filtro.getModificadoHasta() == null);
+    }
+
+    InstantaneaCatalogo getInstantanea() {
+        return instantanea;
+    }
+
+    int size() {
+        return porId.size();
+    }
+
+    /**
+     * Facetas de esta copia del catálogo; se vuelven a calcular si ha cambiado el día
+     * (los tramos de fecha van respecto a hoy)
+     */
+    FacetasEventos facetas() {
+        FacetasEventos actuales = facetas;
+        LocalDate hoy = LocalDate.now();
+        if (actuales == null || !actuales.getHoy().equals(hoy)) {
+            actuales = new FacetasEventos(instantanea.getEventos(), hoy);
+            facetas = actuales;
+        }
+        return actuales;
+    }
+
+    /**
+     * Eventos próximos (fecha de inicio a partir de ahora, como
+     * EventoRepository.findProximosEventos) con entradas a la venta de una sede, por fecha
+     * @return Lista vacía si la sede no tiene ninguno
+     */
+    List<EventoResumen> proximos(Long sedeId, LocalDateTime ahora) {
+        Map<Long, List<EventoResumen>> porSede = proximosPorSede;
+        if (porSede == null) {
+            porSede = agruparProximos(ahora);
+            proximosPorSede = porSede;
+        }
+        List<EventoResumen> deSede = porSede.getOrDefault(sedeId, List.of());
+        // Las listas se calcularon en otro momento: se saltan los que ya han empezado
+        int desde = 0;
+        while (desde < deSede.size() && deSede.get(desde).getFechaInicio().isBefore(ahora)) {
+            desde++;
+        }
+        return deSede.subList(desde, deSede.size());
+    }
+
+    private Map<Long, List<EventoResumen>> agruparProximos(LocalDateTime ahora) {
+        Map<Long, List<EventoResumen>> porSede = new HashMap<>();
+        List<EventoResumen> eventos = instantanea.getEventos();
+        // El catálogo va por fecha descendente: al revés salen ya en orden de fecha
+        for (int i = eventos.size() - 1; i >= 0; i--) {
+            EventoResumen evento = eventos.get(i);
+            if (evento.getSedeId() != null && evento.getFechaInicio() != null
+                    && !evento.getFechaInicio().isBefore(ahora) && evento.getEstado() != null
+                    && evento.getEstado() != EstadoEvento.CANCELADO && evento.getEstado() != EstadoEvento.FINALIZADO
+                    && evento.getAforoActual() != null && evento.getAforoMaximo() != null
+                    && evento.hayDisponibilidad()) {
+                porSede.computeIfAbsent(evento.getSedeId(), id -> new ArrayList<>()).add(evento);
+            }
+        }
+        return porSede;
+    }
+
+    /**
+     * Indica si se cargó o refrescó hace más de ttlMs
+     */
+    boolean caducado(long ttlMs) {
+        return System.currentTimeMillis() - cargadoEn > ttlMs;
+    }
+
+    /**
+     * Copia marcada como caducada, para que la siguiente lectura la refresque
+     */
+    CatalogoEventos caducar() {
+        return conDerivados(new CatalogoEventos(instantanea, porId, indice, 0));
+    }
+
+    /**
+     * La copia con las mismas facetas y eventos por sede, si tiene la misma lista de eventos
+     */
+    private CatalogoEventos conDerivados(CatalogoEventos copia) {
+        copia.facetas = facetas;
+        copia.proximosPorSede = proximosPorSede;
+        return copia;
+    }
+
+    /**
+     * Catálogo para una instantánea refrescada. Reutiliza el índice de búsqueda y solo
+     * reindexa los eventos que no son los mismos objetos que antes (los que han cambiado);
+     * si han cambiado muchos (una recarga completa) es más rápido construirlo de nuevo.
+     */
+    CatalogoEventos refrescado(InstantaneaCatalogo nueva) {
+        if (nueva.getEventos() == instantanea.getEventos()) {
+            return conDerivados(new CatalogoEventos(nueva, porId, indice, System.currentTimeMillis()));
+        }
+        int cambiados = 0;
+        for (EventoResumen evento : nueva.getEventos()) {
+            if (porId.get(evento.getId()) != evento) {
+                cambiados++;
+            }
+        }
+        if (cambiados > nueva.getEventos().size() / 10 + 100) {
+            return new CatalogoEventos(nueva);
+        }
+        Map<Long, EventoResumen> idsNuevos = new HashMap<>(nueva.getEventos().size() * 4 / 3 + 1);
+        for (EventoResumen evento : nueva.getEventos()) {
+            idsNuevos.put(evento.getId(), evento);
+            EventoResumen anterior = porId.get(evento.getId());
+            if (anterior != evento) {
+                indice.actualizar(anterior, evento);
+            }
+        }
+        for (EventoResumen anterior : porId.values()) {
+            if (!idsNuevos.containsKey(anterior.getId())) {
+                indice.actualizar(anterior, null);
+            }
+        }
+        return new CatalogoEventos(nueva, idsNuevos, indice, System.currentTimeMillis());
+    }
+
+    /**
+     * Página de eventos que cumplen el filtro, con la misma semántica que
+     * EventoRepository.findPaginaResumen salvo la búsqueda de texto (ver paginaBusqueda)
+     * @param filtro Criterios (null para todos); tiene que cumplir {@link #admite(FiltroEventos)}
+     * @param ultimo Último resumen de la página anterior (null para la primera)
+     */
+    Pagina<EventoResumen> pagina(FiltroEventos filtro, EventoResumen ultimo, int tamano) {
+        if (filtro != null && filtro.getTexto() != null && !filtro.getTexto().isBlank()) {
+            return paginaBusqueda(filtro, ultimo, tamano);
+        }
+        List<EventoResumen> eventos = instantanea.getEventos();
+        int inicio = 0;
+        if (ultimo != null) {
+            int posicion = Collections.binarySearch(eventos, ultimo, InstantaneaCatalogo.ORDEN);
+            inicio = posicion >= 0 ? posicion + 1 : -posicion - 1;
+        }
+
+        List<EventoResumen> filas = new ArrayList<>(tamano + 1);
+        for (int i = inicio; i < eventos.size() && filas.size() <= tamano; i++) {
+            if (cumple(eventos.get(i), filtro)) {
+                filas.add(eventos.get(i));
+            }
+        }
+        return filas.size() > tamano
+            ? new Pagina<>(filas.subList(0, tamano), true)
+            : new Pagina<>(filas, false);
+    }
+
+    /**
+     * Página de una búsqueda de texto, por relevancia y después por fecha. A diferencia de
+     * la base de datos, el texto se busca como palabras (o principios de palabra) en el
+     * nombre, la descripción, la sede, la ciudad y el tipo.
+     */
+    private Pagina<EventoResumen> paginaBusqueda(FiltroEventos filtro, EventoResumen ultimo, int tamano) {
+        IndiceBusqueda.Resultado resultado = indice.buscar(filtro.getTexto());
+        List<Coincidencia> coincidencias = new ArrayList<>(resultado.size());
+        for (int i = 0; i < resultado.size(); i++) {
+            EventoResumen evento = porId.get(resultado.getId(i));
+            // El índice puede ir por delante de esta copia: se ignora lo que aún no está en ella
+            if (evento != null && cumple(evento, filtro)) {
+                coincidencias.add(new Coincidencia(evento, resultado.getPuntos(i)));
+            }
+        }
+        coincidencias.sort(RELEVANCIA);
+
+        int inicio = 0;
+        if (ultimo != null) {
+            inicio = coincidencias.size();
+            for (int i = 0; i < coincidencias.size(); i++) {
+                if (coincidencias.get(i).evento.getId().equals(ultimo.getId())) {
+                    inicio = i + 1;
+                    break;
+                }
+            }
+        }
+        int fin = Math.min(coincidencias.size(), inicio + tamano);
+        List<EventoResumen> filas = new ArrayList<>(fin - inicio);
+        for (int i = inicio; i < fin; i++) {
+            filas.add(coincidencias.get(i).evento);
+        }
+        return new Pagina<>(filas, fin < coincidencias.size());
+    }
+
+    private static boolean cumple(EventoResumen evento, FiltroEventos filtro) {
+        if (filtro == null) {
+            return true;
+        }
+        if (filtro.getSedeId() != null && !filtro.getSedeId().equals(evento.getSedeId())) {
+            return false;
+        }
+        if (filtro.getTipoEvento() != null && !filtro.getTipoEvento().equalsIgnoreCase(evento.getTipoEvento())) {
+            return false;
+        }
+        if (filtro.getCiudad() != null && !filtro.getCiudad().equalsIgnoreCase(evento.getCiudad())) {
+            return false;
+        }
+        if (filtro.getEstado() != null && filtro.getEstado() != evento.getEstado()) {
+            return false;
+        }
+        if (filtro.getDesde() != null
+                && (evento.getFechaInicio() == null || evento.getFechaInicio().isBefore(filtro.getDesde()))) {
+            return false;
+        }
+        if (filtro.getHasta() != null
+                && (evento.getFechaInicio() == null || evento.getFechaInicio().isAfter(filtro.getHasta()))) {
+            return false;
+        }
+        return filtro.getPrecioMaximo() == null
+            || (evento.getPrecioBase() != null && evento.getPrecioBase().compareTo(filtro.getPrecioMaximo()) <= 0);
+    }
+
+    /**
+     * Copia con un evento nuevo o modificado
+     */
+    CatalogoEventos con(EventoResumen evento) {
+        indice.actualizar(porId.get(evento.getId()), evento);
+        Map<Long, EventoResumen> copia = new HashMap<>(porId);
+        copia.put(evento.getId(), evento);
+        return new CatalogoEventos(instantanea.conCambios(List.of(), List.of(evento), instantanea.getMarca()),
+            copia, indice, cargadoEn);
+    }
+
+    /**
+     * Copia sin el evento, si estaba
+     */
+    CatalogoEventos sin(Long id) {
+        EventoResumen anterior = porId.get(id);
+        if (anterior == null) {
+            return this;
+        }
+        indice.actualizar(anterior, null);
+        Map<Long, EventoResumen> copia = new HashMap<>(porId);
+        copia.remove(id);
+        return new CatalogoEventos(instantanea.conCambios(List.of(id), List.of(), instantanea.getMarca()),
+            copia, indice, cargadoEn);
+    }
+}
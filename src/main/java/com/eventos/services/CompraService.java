@@ -1,40 +1,52 @@
 package com.eventos.services;
 
+import com.eventos.config.ConfigManager;
+import com.eventos.config.Serializacion;
+import com.eventos.config.UnidadDeTrabajo;
+import com.eventos.exceptions.EventosException;
 import com.eventos.exceptions.ValidationException;
 import com.eventos.models.*;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.utils.GeneradorIds;
 import com.eventos.utils.QRService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.SQLTransientException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-
-import static com.eventos.config.HibernateUtil.getEntityManager;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Servicio de negocio para procesar compras y generar entradas con QR.
  */
 public class CompraService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CompraService.class);
+
+    private final EventoRepository eventoRepository;
     private final QRService qrService;
-    private final ObjectMapper objectMapper;
 
     public CompraService() {
+        this.eventoRepository = new EventoRepository();
         this.qrService = new QRService();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
     /**
-     * Procesa una compra completa: valida, crea compra, entradas, QR y actualiza aforo.
+     * Procesa una compra completa: valida, reserva el aforo, crea compra y entradas.
+     * Si la transacción choca con otra compra simultánea (bloqueo, deadlock o versión
+     * desactualizada) se reintenta hasta app.compra.maxIntentos veces con espera
+     * exponencial y aleatoria; quedarse sin aforo no se reintenta.
+     * Las imágenes de los QR se encargan al pool de QRService una vez confirmada
+     * la transacción, así que su duración no depende del número de entradas.
      */
     public Compra procesarCompra(Long usuarioId, Long eventoId, Long tipoEntradaId, int cantidad, String metodoPago) {
         if (usuarioId == null || eventoId == null || tipoEntradaId == null) {
@@ -44,87 +56,115 @@ public class CompraService {
             throw new ValidationException("La cantidad debe ser mayor que 0");
         }
 
-        EntityManager em = getEntityManager();
-        EntityTransaction tx = em.getTransaction();
+        int maxIntentos = ConfigManager.getInt("app.compra.maxIntentos", 3);
+        for (int intento = 1; ; intento++) {
+            try {
+                Compra compra = UnidadDeTrabajo.ejecutarEnTransaccion(em ->
+                    registrarCompra(em, usuarioId, eventoId, tipoEntradaId, cantidad, metodoPago));
+                EventoService.aforoReservado();
+                qrService.precalentar(compra.getEntradas().stream().map(Entrada::getCodigoQR).toList(),
+                    QRService.TAMANO_MINIATURA);
+                return compra;
+            } catch (RuntimeException e) {
+                if (!esConflictoConcurrencia(e)) {
+                    throw e;
+                }
+                if (intento >= maxIntentos) {
+                    throw new EventosException("No se pudo completar la compra por la alta demanda. Inténtalo de nuevo", e);
+                }
+                logger.debug("Conflicto de concurrencia en la compra del evento {} (intento {}/{})",
+                    eventoId, intento, maxIntentos);
+                esperarAntesDeReintentar(intento);
+            }
+        }
+    }
 
-        try {
-            tx.begin();
+    private Compra registrarCompra(EntityManager em, Long usuarioId, Long eventoId, Long tipoEntradaId,
+                                   int cantidad, String metodoPago) {
+        Usuario usuario = em.find(Usuario.class, usuarioId);
+        Evento evento = em.find(Evento.class, eventoId);
+        TipoEntrada tipoEntrada = em.find(TipoEntrada.class, tipoEntradaId);
 
-            Usuario usuario = em.find(Usuario.class, usuarioId);
-            Evento evento = em.find(Evento.class, eventoId);
-            TipoEntrada tipoEntrada = em.find(TipoEntrada.class, tipoEntradaId);
+        if (usuario == null) throw new ValidationException("Usuario no encontrado");
+        if (evento == null) throw new ValidationException("Evento no encontrado");
+        if (tipoEntrada == null) throw new ValidationException("Tipo de entrada no encontrado");
 
-            if (usuario == null) throw new ValidationException("Usuario no encontrado");
-            if (evento == null) throw new ValidationException("Evento no encontrado");
-            if (tipoEntrada == null) throw new ValidationException("Tipo de entrada no encontrado");
+        // Comprobaciones previas sin bloqueo, solo para fallar pronto
+        if (evento.getEstado() == EstadoEvento.CANCELADO || evento.getEstado() == EstadoEvento.FINALIZADO) {
+            throw new ValidationException("El evento no está disponible para comprar");
+        }
+        if (evento.getAforoActual() + cantidad > evento.getAforoMaximo()) {
+            throw new ValidationException("No hay aforo disponible para la cantidad solicitada");
+        }
 
-            // Validaciones de negocio
-            if (!evento.hayDisponibilidad() || evento.getAforoActual() + cantidad > evento.getAforoMaximo()) {
-                throw new ValidationException("No hay aforo disponible para la cantidad solicitada");
-            }
-            if (evento.getEstado() == EstadoEvento.CANCELADO || evento.getEstado() == EstadoEvento.FINALIZADO) {
-                throw new ValidationException("El evento no está disponible para comprar");
-            }
+        // La reserva real es el UPDATE condicional: va antes que los INSERT para que el
+        // bloqueo exclusivo de la fila del evento se tome primero (las claves ajenas de
+        // las entradas bloquean esa fila en modo compartido y provocarían deadlocks)
+        if (!eventoRepository.reservarAforo(eventoId, cantidad)) {
+            throw new ValidationException("No hay aforo disponible para la cantidad solicitada");
+        }
 
-            BigDecimal total = tipoEntrada.getPrecio().multiply(BigDecimal.valueOf(cantidad));
-
-            Compra compra = new Compra();
-            compra.setUsuario(usuario);
-            compra.setTotal(total);
-            compra.setMetodoPago(metodoPago);
-            compra.setEstado(EstadoCompra.COMPLETADA);
-            compra.setFechaCompra(LocalDateTime.now());
-            compra.setCodigoConfirmacion(UUID.randomUUID().toString());
-
-            em.persist(compra);
-
-            for (int i = 0; i < cantidad; i++) {
-                Entrada entrada = new Entrada();
-                entrada.setTipoEntrada(tipoEntrada);
-                entrada.setEvento(evento);
-                entrada.setCompra(compra);
-                
-                // Generar número de entrada único
-                String numeroEntrada = "ENT-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 10000);
-                entrada.setNumeroEntrada(numeroEntrada);
-
-                String payload = buildPayload(evento, compra, usuario, tipoEntrada);
-                String qrBase64 = qrService.generarQRBase64(payload, 250);
-                entrada.setCodigoQR(qrBase64);
-
-                em.persist(entrada);
-                compra.addEntrada(entrada);
-            }
+        BigDecimal total = tipoEntrada.getPrecio().multiply(BigDecimal.valueOf(cantidad));
 
-            // Actualizar aforo
-            evento.setAforoActual(evento.getAforoActual() + cantidad);
-            em.merge(evento);
+        Compra compra = new Compra();
+        compra.setUsuario(usuario);
+        compra.setTotal(total);
+        compra.setMetodoPago(metodoPago);
+        compra.setEstado(EstadoCompra.COMPLETADA);
+        compra.setFechaCompra(LocalDateTime.now());
+        compra.setCodigoConfirmacion(GeneradorIds.codigoConfirmacion());
 
-            // Confirmación JSON
-            compra.setConfirmacionJSON(buildConfirmacionJson(compra, evento, usuario));
-            em.merge(compra);
+        em.persist(compra);
 
-            tx.commit();
-            return compra;
-        } catch (RuntimeException e) {
-            if (tx.isActive()) tx.rollback();
-            throw e;
-        } catch (Exception e) {
-            if (tx.isActive()) tx.rollback();
-            throw new RuntimeException("Error al procesar la compra", e);
-        } finally {
-            if (em.isOpen()) em.close();
+        for (int i = 0; i < cantidad; i++) {
+            Entrada entrada = new Entrada();
+            entrada.setTipoEntrada(tipoEntrada);
+            entrada.setEvento(evento);
+            entrada.setCompra(compra);
+
+            // Número de entrada único y ordenado en el tiempo, sin bloqueos
+            entrada.setNumeroEntrada(GeneradorIds.numeroEntrada());
+
+            // Solo se guarda el token; la imagen del QR se genera al mostrar la entrada
+            entrada.setCodigoQR(QRService.generarToken());
+
+            // Sin IDENTITY el INSERT se difiere hasta el flush y se agrupa en lote
+            em.persist(entrada);
+            compra.addEntrada(entrada);
         }
+
+        // Confirmación JSON (el id de la compra ya está asignado al persistir)
+        compra.setConfirmacionJSON(buildConfirmacionJson(compra, evento, usuario));
+
+        // Al confirmar: un INSERT de compra y un lote con todas las entradas
+        return compra;
     }
 
-    private String buildPayload(Evento evento, Compra compra, Usuario usuario, TipoEntrada tipoEntrada) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("evento", evento.getNombre());
-        payload.put("compra", compra.getCodigoConfirmacion());
-        payload.put("usuario", usuario.getEmail());
-        payload.put("tipoEntrada", tipoEntrada.getNombre());
-        payload.put("fecha", compra.getFechaCompra());
-        return payload.toString();
+    /**
+     * Indica si el error se debe a otra transacción concurrente y merece reintentarse
+     */
+    private boolean esConflictoConcurrencia(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof LockAcquisitionException
+                    || t instanceof SQLTransientException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void esperarAntesDeReintentar(int intento) {
+        long base = ConfigManager.getLong("app.compra.esperaBaseMs", 20);
+        long espera = base * (1L << (intento - 1)) + ThreadLocalRandom.current().nextLong(base + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new EventosException("Compra interrumpida", ie);
+        }
     }
 
     private String buildConfirmacionJson(Compra compra, Evento evento, Usuario usuario) {
@@ -136,7 +176,7 @@ public class CompraService {
             data.put("evento", evento.getNombre());
             data.put("fechaEvento", evento.getFechaInicio().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             data.put("total", compra.getTotal().toString());
-            return objectMapper.writeValueAsString(data);
+            return Serializacion.escritorJson().writeValueAsString(data);
         } catch (Exception e) {
             throw new RuntimeException("No se pudo generar JSON de confirmación", e);
         }
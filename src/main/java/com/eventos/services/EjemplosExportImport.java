@@ -1,8 +1,10 @@
 package com.eventos.services;
 
 import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.json.ManifiestoExportacion;
 import com.eventos.dto.xml.EventoXML;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -48,6 +50,47 @@ public class EjemplosExportImport {
             System.out.println("- " + evento.getNombre() + " (" + evento.getFechaInicio() + ")");
         }
         
+        // ============================================
+        // EJEMPLO 4b: EXPORTAR EN STREAMING (catálogos grandes, memoria constante)
+        // ============================================
+        ResultadoExportacion resultadoJSON = jsonService.exportarEventosStreaming("exports/json/eventos_completo.json", true);
+        System.out.println("JSON: " + resultadoJSON.getFilasPorSegundo() + " filas/s");
+        ResultadoExportacion resultadoXML = xmlService.exportarEventosStreaming("exports/xml/eventos_completo.xml", false);
+        System.out.println("XML: " + resultadoXML.getFilas() + " eventos en " + resultadoXML.getMilisegundos() + " ms");
+        
+        // ============================================
+        // EJEMPLO 4c: EXPORTAR REPARTIDO POR SEDE (un archivo por sede + manifiesto.json)
+        // ============================================
+        ManifiestoExportacion manifiesto = new ExportacionParticionadaService().exportar(
+            ExportacionParticionadaService.Particion.SEDE, ExportacionParticionadaService.Formato.JSON, true);
+        System.out.println("Fragmentos: " + manifiesto.getFragmentos().size() + ", eventos: " + manifiesto.getTotalFilas());
+        
+        // ============================================
+        // EJEMPLO 4d: IMPORTAR A LA BASE DE DATOS (JSON o XML, también .gz)
+        // ============================================
+        ResultadoImportacion importacion = new ImportacionEventosService().importar("imports/json/eventos.json");
+        System.out.println("Nuevos: " + importacion.getInsertadas() + ", actualizados: " + importacion.getActualizadas());
+        if (importacion.getErrores() > 0) {
+            System.out.println("Filas rechazadas en " + importacion.getInforme());
+            importacion.getPrimerosErrores().forEach(error -> System.out.println("- " + error));
+        }
+        
+        // ============================================
+        // EJEMPLO 4e: SINCRONIZACIÓN (solo lo que cambió desde la última vez, p. ej. cada hora)
+        // ============================================
+        ResultadoExportacion cambios = new SincronizacionService().exportarCambios();
+        // En el sistema de destino se aplica con la importación normal; repetirla no tiene efecto
+        ResultadoImportacion aplicados = new ImportacionEventosService().importar(cambios.getArchivo().toString());
+        System.out.println("Bajas aplicadas: " + aplicados.getEliminadas());
+        
+        // ============================================
+        // EJEMPLO 4f: LIBRO DE VENTAS DEL MES PASADO PARA CONTABILIDAD (CSV comprimido)
+        // ============================================
+        LocalDate mesPasado = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+        ResultadoExportacion ventas = new LibroVentasService().exportar(mesPasado.atStartOfDay(),
+            mesPasado.plusMonths(1).atStartOfDay().minusNanos(1000), LibroVentasService.Formato.CSV, true);
+        System.out.println("Entradas vendidas: " + ventas.getFilas());
+        
         // ============================================
         // EJEMPLO 5: USO EN UN BOTÓN DE EXPORTACIÓN
         // ============================================
@@ -0,0 +1,90 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.config.UnidadDeTrabajo;
+import com.eventos.dto.vista.EstadisticasSistema;
+import com.eventos.repositories.CompraRepository;
+import com.eventos.repositories.EntradaRepository;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Servicio que calcula las cifras del panel de estadísticas del administrador.
+ * Cada cifra sale de una consulta agregada en la base de datos, sin cargar
+ * entidades en memoria. El resultado se reutiliza durante app.estadisticas.ttlMs
+ * para que abrir el panel varias veces seguidas no repita las consultas.
+ */
+public class EstadisticasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasService.class);
+
+    /**
+     * Número de eventos que se muestran en el ranking de ventas
+     */
+    public static final int EVENTOS_RANKING = 10;
+
+    private static final Object BLOQUEO = new Object();
+    private static volatile EstadisticasSistema cache;
+    private static volatile long caducaEn;
+
+    private final EventoRepository eventoRepository;
+    private final EntradaRepository entradaRepository;
+    private final CompraRepository compraRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    public EstadisticasService() {
+        this.eventoRepository = new EventoRepository();
+        this.entradaRepository = new EntradaRepository();
+        this.compraRepository = new CompraRepository();
+        this.usuarioRepository = new UsuarioRepository();
+    }
+
+    /**
+     * Devuelve las estadísticas, recalculándolas solo si han caducado.
+     * Si varios hilos llegan a la vez con la caché caducada, solo uno consulta.
+     * @return Estadísticas del sistema
+     */
+    public EstadisticasSistema obtener() {
+        EstadisticasSistema actual = cache;
+        if (actual != null && System.currentTimeMillis() < caducaEn) {
+            return actual;
+        }
+        synchronized (BLOQUEO) {
+            if (cache != null && System.currentTimeMillis() < caducaEn) {
+                return cache;
+            }
+            return refrescar();
+        }
+    }
+
+    /**
+     * Recalcula las estadísticas ignorando la caché
+     * @return Estadísticas recién calculadas
+     */
+    public EstadisticasSistema refrescar() {
+        long inicio = System.nanoTime();
+        // Todas las consultas comparten un EntityManager (y una conexión del pool)
+        EstadisticasSistema nuevas = UnidadDeTrabajo.ejecutar(em -> new EstadisticasSistema(
+            eventoRepository.contarPorEstado(),
+            entradaRepository.count(),
+            entradaRepository.countValidadas(),
+            compraRepository.count(),
+            compraRepository.sumTotal(),
+            usuarioRepository.countSinRol("ADMIN"),
+            entradaRepository.estadisticasPorEvento(EVENTOS_RANKING),
+            eventoRepository.estadisticasPorSede()));
+        cache = nuevas;
+        caducaEn = System.currentTimeMillis() + ConfigManager.getEstadisticasTtlMs();
+        logger.debug("Estadísticas calculadas en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        return nuevas;
+    }
+
+    /**
+     * Descarta las estadísticas guardadas; la siguiente llamada a obtener() las recalcula
+     */
+    public static void invalidar() {
+        caducaEn = 0;
+    }
+}
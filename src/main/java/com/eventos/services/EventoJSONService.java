@@ -1,32 +1,40 @@
 package com.eventos.services;
 
+import com.eventos.config.Serializacion;
+import com.eventos.dto.json.EventoEliminadoJSON;
 import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.vista.EventoExportacion;
+import com.eventos.exceptions.EventosException;
 import com.eventos.models.Evento;
+import com.eventos.models.EventoEliminado;
 import com.eventos.repositories.EventoRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.eventos.repositories.FiltroEventos;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Servicio para exportar e importar eventos en formato JSON
- * Usa Jackson para la serialización
+ * Usa Jackson para la serialización (escritores y lectores compartidos de {@link Serializacion})
  */
 public class EventoJSONService {
     
     private final EventoRepository eventoRepo;
-    private final ObjectMapper objectMapper;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public EventoJSONService() {
-        this.eventoRepo = new EventoRepository();
-        this.objectMapper = new ObjectMapper();
-        // Configurar formato legible
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this(new EventoRepository());
+    }
+    
+    EventoJSONService(EventoRepository eventoRepo) {
+        this.eventoRepo = eventoRepo;
     }
     
     /**
@@ -48,7 +56,7 @@ public class EventoJSONService {
             
             // Exportar a archivo
             File archivo = new File(rutaArchivo);
-            objectMapper.writeValue(archivo, eventosJSON);
+            Serializacion.escritorJsonLegible().writeValue(archivo, eventosJSON);
             
             System.out.println("✓ Eventos exportados correctamente a: " + rutaArchivo);
             return true;
@@ -59,6 +67,110 @@ public class EventoJSONService {
         }
     }
     
+    /**
+     * Exporta todos los eventos a JSON en streaming: se leen con un cursor de solo avance
+     * y cada uno se convierte y se escribe en el archivo en cuanto llega, así que la
+     * memoria no depende del número de eventos. Produce el mismo JSON que
+     * {@link #exportarEventos(String)}.
+     * @param rutaArchivo Ruta donde guardar el JSON
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @return Filas escritas, tiempo y filas por segundo
+     */
+    public ResultadoExportacion exportarEventosStreaming(String rutaArchivo, boolean comprimir) {
+        return exportarEventosStreaming(rutaArchivo, comprimir, null);
+    }
+    
+    /**
+     * Exporta en streaming solo los eventos que cumplen un filtro (p. ej. una sede o un mes)
+     * @param rutaArchivo Ruta donde guardar el JSON
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @param filtro Criterios de los eventos a exportar (null para todos)
+     * @return Filas escritas, tiempo, filas por segundo y SHA-256 del archivo
+     */
+    public ResultadoExportacion exportarEventosStreaming(String rutaArchivo, boolean comprimir, FiltroEventos filtro) {
+        try {
+            ResultadoExportacion resultado = ArchivosExportacion.escribir(rutaArchivo, comprimir, salida -> {
+                try (JsonGenerator generador = Serializacion.mapper().getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+                    generador.useDefaultPrettyPrinter();
+                    generador.writeStartArray();
+                    long filas = eventoRepo.recorrerParaExportar(filtro, evento -> {
+                        try {
+                            generador.writeObject(convertirAEventoJSON(evento));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    generador.writeEndArray();
+                    return filas;
+                }
+            });
+            System.out.println("✓ Eventos exportados a JSON: " + resultado);
+            return resultado;
+            
+        } catch (IOException | UncheckedIOException e) {
+            throw new EventosException("Error al exportar eventos a JSON: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Exporta en streaming solo los cambios de un intervalo: los eventos creados o modificados
+     * (las cancelaciones incluidas, con su estado real) y las bajas. El documento es un objeto
+     * {desde, hasta, eliminados, eventos} que {@link ImportacionEventosService} aplica sin
+     * efecto si se repite.
+     * @param rutaArchivo Ruta donde guardar el JSON
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @param desde Instante excluido (null para todo el catálogo)
+     * @param hasta Instante incluido
+     * @return Filas escritas (eventos y bajas), tiempo y SHA-256 del archivo
+     */
+    public ResultadoExportacion exportarCambios(String rutaArchivo, boolean comprimir,
+                                                LocalDateTime desde, LocalDateTime hasta) {
+        FiltroEventos modificados = null;
+        if (desde != null) {
+            modificados = new FiltroEventos();
+            modificados.setModificadoDesde(desde);
+            modificados.setModificadoHasta(hasta);
+        }
+        FiltroEventos filtro = modificados;
+        try {
+            // Las bajas van primero: un evento borrado y vuelto a crear llega como alta
+            List<EventoEliminado> bajas = eventoRepo.findEliminados(desde, hasta);
+            ResultadoExportacion resultado = ArchivosExportacion.escribir(rutaArchivo, comprimir, salida -> {
+                try (JsonGenerator generador = Serializacion.mapper().getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+                    generador.useDefaultPrettyPrinter();
+                    generador.writeStartObject();
+                    generador.writeStringField("desde", desde != null ? desde.toString() : null);
+                    generador.writeStringField("hasta", hasta.toString());
+                    
+                    generador.writeArrayFieldStart("eliminados");
+                    for (EventoEliminado baja : bajas) {
+                        generador.writeObject(new EventoEliminadoJSON(baja.getEventoId(), baja.getNombre(), baja.getSede(),
+                            baja.getFechaInicio().format(FORMATTER), baja.getFechaEliminacion().format(FORMATTER)));
+                    }
+                    generador.writeEndArray();
+                    
+                    generador.writeArrayFieldStart("eventos");
+                    long filas = eventoRepo.recorrerParaExportar(filtro, evento -> {
+                        try {
+                            generador.writeObject(convertirAEventoJSON(evento));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    generador.writeEndArray();
+                    generador.writeEndObject();
+                    return filas + bajas.size();
+                }
+            });
+            System.out.println("✓ Cambios exportados a JSON (" + (resultado.getFilas() - bajas.size()) + " eventos, "
+                + bajas.size() + " bajas): " + resultado);
+            return resultado;
+            
+        } catch (IOException | UncheckedIOException e) {
+            throw new EventosException("Error al exportar los cambios a JSON: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Importa eventos desde un archivo JSON
      * @param rutaArchivo Ruta del archivo JSON
@@ -68,7 +180,7 @@ public class EventoJSONService {
         try {
             // Leer archivo JSON
             File archivo = new File(rutaArchivo);
-            EventoJSON[] eventosArray = objectMapper.readValue(archivo, EventoJSON[].class);
+            EventoJSON[] eventosArray = Serializacion.lectorJson(EventoJSON[].class).readValue(archivo);
             
             // Convertir array a lista
             List<EventoJSON> eventos = new ArrayList<>();
@@ -95,7 +207,7 @@ public class EventoJSONService {
         try {
             EventoJSON eventoJSON = convertirAEventoJSON(evento);
             File archivo = new File(rutaArchivo);
-            objectMapper.writeValue(archivo, eventoJSON);
+            Serializacion.escritorJsonLegible().writeValue(archivo, eventoJSON);
             
             System.out.println("✓ Evento exportado correctamente a: " + rutaArchivo);
             return true;
@@ -106,9 +218,27 @@ public class EventoJSONService {
         }
     }
     
+    /**
+     * Convierte una fila de exportación a EventoJSON, con las mismas reglas que la entidad
+     */
+    private EventoJSON convertirAEventoJSON(EventoExportacion evento) {
+        return new EventoJSON(
+            evento.getId(),
+            evento.getNombre(),
+            evento.getDescripcion(),
+            evento.getFechaInicio().format(FORMATTER),
+            evento.getFechaFin().format(FORMATTER),
+            evento.getAforoMaximo(),
+            evento.getAforoActual(),
+            evento.getEstado() != null ? evento.getEstado().name() : null,
+            evento.getPrecioBase() != null ? evento.getPrecioBase().doubleValue() : null,
+            evento.getSede(),
+            evento.getTipoEvento()
+        );
+    }
+    
     /**
      * Convierte una entidad Evento a EventoJSON
-     * Nota: El estado se exporta como texto descriptivo
      */
     private EventoJSON convertirAEventoJSON(Evento evento) {
         return new EventoJSON(
@@ -119,7 +249,7 @@ public class EventoJSONService {
             evento.getFechaFin().format(FORMATTER),
             evento.getAforoMaximo(),
             evento.getAforoActual(),
-            "PROGRAMADO", // Estado simplificado para exportación
+            evento.getEstado() != null ? evento.getEstado().name() : null,
             evento.getPrecioBase() != null ? evento.getPrecioBase().doubleValue() : null,
             evento.getSede() != null ? evento.getSede().getNombre() : null,
             evento.getTipoEvento() != null ? evento.getTipoEvento().getNombre() : null
@@ -1,30 +1,72 @@
 package com.eventos.services;
 
+import com.eventos.config.ConfigManager;
 import com.eventos.exceptions.ValidationException;
 import com.eventos.models.EstadoEvento;
+import com.eventos.dto.vista.EventoCercano;
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.dto.vista.SedeUbicacion;
 import com.eventos.models.Evento;
 import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.FiltroEventos;
+import com.eventos.repositories.GenericRepository;
+import com.eventos.repositories.Pagina;
+import com.eventos.repositories.SedeRepository;
+import com.eventos.utils.IndiceGeografico;
 import com.eventos.utils.Validator;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de negocio para gestionar eventos.
  * Encapsula validaciones y operaciones de alto nivel antes de tocar el repositorio.
+ *
+ * Las páginas de resúmenes se sirven de un catálogo en memoria compartido por todas las
+ * instancias. Las altas, ediciones y bajas hechas desde esta aplicación se aplican al
+ * momento; las compras y los cambios de otras instancias se recogen al refrescarlo, como
+ * mucho app.catalogo.cache.ttlMs después (0 desactiva el catálogo y todo va a la base de
+ * datos). El refresco se hace en segundo plano y mientras tanto se sirve la copia anterior:
+ * ninguna consulta a la base de datos se hace con el catálogo bloqueado.
+ * En el catálogo la búsqueda de texto usa un índice invertido: encuentra palabras o
+ * principios de palabra del nombre, la descripción, la sede, la ciudad o el tipo, sin
+ * tildes ni mayúsculas, y ordena por relevancia.
+ *
+ * Las búsquedas por cercanía usan un índice geográfico de las sedes activas (se recarga
+ * con la misma antigüedad máxima) y los eventos próximos de cada sede del catálogo.
  */
 public class EventoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EventoService.class);
+
+    private static final Object BLOQUEO_CATALOGO = new Object();
+    private static final Object BLOQUEO_SEDES = new Object();
+    private static volatile CatalogoEventos catalogo;
+    private static boolean refrescandoCatalogo;
+    private static volatile IndiceGeografico<SedeUbicacion> sedes;
+    private static volatile long sedesCargadas;
+
     private final EventoRepository eventoRepository;
+    private final SedeRepository sedeRepository;
 
     public EventoService() {
         this.eventoRepository = new EventoRepository();
+        this.sedeRepository = new SedeRepository();
     }
 
     public Evento crear(Evento evento) {
         validarEvento(evento, true);
-        return eventoRepository.save(evento);
+        Evento creado = eventoRepository.save(evento);
+        EstadisticasService.invalidar();
+        eventoCambiado(creado.getId());
+        return creado;
     }
 
     public Evento actualizar(Evento evento) {
@@ -32,20 +74,234 @@ public class EventoService {
             throw new ValidationException("El evento debe tener ID para actualizar");
         }
         validarEvento(evento, false);
-        return eventoRepository.update(evento);
+        Evento actualizado;
+        try {
+            actualizado = eventoRepository.update(evento);
+        } catch (RuntimeException e) {
+            // La versión cambia con cada venta: guardar datos antiguos pisaría el aforo
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof OptimisticLockException) {
+                    throw new ValidationException("El evento ha cambiado (por ejemplo, por nuevas ventas) " +
+                        "desde que se abrió. Vuelve a abrirlo y repite los cambios", e);
+                }
+            }
+            throw e;
+        }
+        EstadisticasService.invalidar();
+        eventoCambiado(actualizado.getId());
+        return actualizado;
     }
 
     public boolean eliminar(Long id) {
         if (id == null) {
             throw new ValidationException("ID de evento requerido");
         }
-        return eventoRepository.delete(id);
+        boolean eliminado = eventoRepository.delete(id);
+        EstadisticasService.invalidar();
+        if (eliminado) {
+            synchronized (BLOQUEO_CATALOGO) {
+                if (catalogo != null) {
+                    catalogo = catalogo.sin(id);
+                }
+            }
+        }
+        return eliminado;
     }
 
     public List<Evento> listarTodos() {
         return eventoRepository.findAll();
     }
 
+    /**
+     * Página de resúmenes de evento (fecha de inicio descendente) que cumplen el filtro.
+     * Para editar o borrar un evento de la lista hay que cargarlo con buscarPorId.
+     * @param filtro Criterios (null para todos)
+     * @param ultimo Último resumen de la página anterior (null para la primera)
+     */
+    public Pagina<EventoResumen> listarPagina(FiltroEventos filtro, EventoResumen ultimo) {
+        CatalogoEventos actual = CatalogoEventos.admite(filtro) ? catalogo() : null;
+        if (actual != null) {
+            return actual.pagina(filtro, ultimo, GenericRepository.TAMANO_PAGINA);
+        }
+        return eventoRepository.findPaginaResumen(filtro, ultimo, GenericRepository.TAMANO_PAGINA);
+    }
+
+    /**
+     * Número total de eventos sin recorrer la tabla (exacto si el catálogo está en memoria,
+     * aproximado si no y la tabla es grande)
+     */
+    public long contarEstimado() {
+        CatalogoEventos actual = catalogo();
+        return actual != null ? actual.size() : eventoRepository.countEstimado();
+    }
+
+    /**
+     * Facetas (tipo, ciudad, precio, fecha y disponibilidad) del catálogo en memoria, para
+     * combinar filtros y mostrar cuántos eventos deja cada opción
+     * @return Las facetas, o null si el catálogo en memoria no está disponible
+     */
+    public FacetasEventos facetas() {
+        CatalogoEventos actual = catalogo();
+        return actual != null ? actual.facetas() : null;
+    }
+
+    /**
+     * Sedes activas con coordenadas (para elegir desde dónde buscar eventos cercanos)
+     */
+    public List<SedeUbicacion> listarUbicacionesSedes() {
+        return sedeRepository.findUbicacionesActivas();
+    }
+
+    /**
+     * Eventos próximos con entradas a la venta en sedes a una distancia máxima del punto
+     * @return Eventos de la sede más cercana a la más lejana y, en cada sede, por fecha
+     */
+    public List<EventoCercano> buscarCercanos(double latitud, double longitud, double radioKm) {
+        return conEventos(indiceSedes().enRadio(latitud, longitud, radioKm));
+    }
+
+    /**
+     * Eventos próximos con entradas a la venta de las sedes más cercanas al punto que tienen alguno
+     * @param numeroSedes Número de sedes
+     * @return Eventos de la sede más cercana a la más lejana y, en cada sede, por fecha
+     */
+    public List<EventoCercano> buscarEnSedesMasCercanas(double latitud, double longitud, int numeroSedes) {
+        CatalogoEventos actual = catalogo();
+        LocalDateTime ahora = LocalDateTime.now();
+        // Sin catálogo en memoria no se sabe qué sedes tienen eventos: las más cercanas sin más
+        return conEventos(indiceSedes().masCercanos(latitud, longitud, numeroSedes, actual == null ? null
+            : sede -> !actual.proximos(sede.getId(), ahora).isEmpty()));
+    }
+
+    /**
+     * Une las sedes encontradas con sus eventos próximos, del catálogo en memoria o, si no
+     * está, de la base de datos en una sola consulta
+     */
+    private List<EventoCercano> conEventos(List<IndiceGeografico.Cercano<SedeUbicacion>> cercanas) {
+        List<EventoCercano> eventos = new ArrayList<>();
+        CatalogoEventos actual = catalogo();
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, List<EventoResumen>> deBaseDeDatos = actual != null ? null
+            : eventoRepository.findResumenProximosPorSedes(cercanas.stream()
+                    .map(cercana -> cercana.getElemento().getId())
+                    .toList())
+                .stream()
+                .collect(Collectors.groupingBy(EventoResumen::getSedeId));
+        for (IndiceGeografico.Cercano<SedeUbicacion> cercana : cercanas) {
+            Long sedeId = cercana.getElemento().getId();
+            List<EventoResumen> deSede = actual != null
+                ? actual.proximos(sedeId, ahora)
+                : deBaseDeDatos.getOrDefault(sedeId, List.of());
+            for (EventoResumen evento : deSede) {
+                eventos.add(new EventoCercano(evento, cercana.getDistanciaKm()));
+            }
+        }
+        return eventos;
+    }
+
+    /**
+     * Índice geográfico de las sedes activas con una antigüedad máxima de app.catalogo.cache.ttlMs
+     */
+    private IndiceGeografico<SedeUbicacion> indiceSedes() {
+        long ttl = ConfigManager.getLong("app.catalogo.cache.ttlMs", 30_000);
+        IndiceGeografico<SedeUbicacion> actual = sedes;
+        if (actual != null && System.currentTimeMillis() - sedesCargadas <= ttl) {
+            return actual;
+        }
+        synchronized (BLOQUEO_SEDES) {
+            if (sedes == null || System.currentTimeMillis() - sedesCargadas > ttl) {
+                sedes = new IndiceGeografico<>(sedeRepository.findUbicacionesActivas(),
+                    SedeUbicacion::getLatitud, SedeUbicacion::getLongitud);
+                sedesCargadas = System.currentTimeMillis();
+            }
+            return sedes;
+        }
+    }
+
+    /**
+     * Catálogo en memoria. Si tiene más de app.catalogo.cache.ttlMs se pide su refresco en
+     * segundo plano y entre tanto se sigue sirviendo la copia caducada.
+     * @return El catálogo, o null si está desactivado o todavía no se ha cargado (entonces
+     * se consulta la base de datos)
+     */
+    private static CatalogoEventos catalogo() {
+        long ttl = ConfigManager.getLong("app.catalogo.cache.ttlMs", 30_000);
+        if (ttl <= 0) {
+            return null;
+        }
+        CatalogoEventos actual = catalogo;
+        if (actual == null || actual.caducado(ttl)) {
+            refrescarCatalogo();
+        }
+        return actual;
+    }
+
+    /**
+     * Pone al día el catálogo con los cambios desde su marca (o lo carga) en el hilo de
+     * InstantaneaCatalogoService y cambia la copia al terminar. Si ya hay un refresco en
+     * curso no hace nada.
+     */
+    private static void refrescarCatalogo() {
+        synchronized (BLOQUEO_CATALOGO) {
+            if (refrescandoCatalogo) {
+                return;
+            }
+            refrescandoCatalogo = true;
+            InstantaneaCatalogo partida = catalogo != null ? catalogo.getInstantanea() : null;
+            InstantaneaCatalogoService.getInstance().actualizarEnSegundoPlano(partida)
+                .whenComplete((nueva, error) -> {
+                    synchronized (BLOQUEO_CATALOGO) {
+                        refrescandoCatalogo = false;
+                        if (error != null) {
+                            logger.warn("No se pudo refrescar el catálogo en memoria: {}", error.getMessage());
+                            return;
+                        }
+                        // Si entre tanto se aplicó un alta, edición o baja, la copia sigue
+                        // caducada y la siguiente lectura pide otro refresco desde ella
+                        InstantaneaCatalogo vigente = catalogo != null ? catalogo.getInstantanea() : null;
+                        if (nueva != null && vigente == partida) {
+                            catalogo = catalogo != null ? catalogo.refrescado(nueva) : new CatalogoEventos(nueva);
+                        }
+                    }
+                });
+        }
+    }
+
+    /**
+     * Aplica al catálogo en memoria un evento creado o modificado desde esta aplicación
+     */
+    private void eventoCambiado(Long id) {
+        if (catalogo == null) {
+            return;
+        }
+        Optional<EventoResumen> resumen = eventoRepository.findResumenPorId(id);
+        synchronized (BLOQUEO_CATALOGO) {
+            if (catalogo != null) {
+                catalogo = resumen.map(catalogo::con).orElseGet(() -> catalogo.sin(id));
+            }
+        }
+    }
+
+    /**
+     * Avisa de una venta confirmada: el catálogo en memoria se da por caducado y la siguiente
+     * consulta pide el refresco por cambios, que trae el aforo nuevo (la venta actualiza
+     * fecha_modificacion), sin copiar el catálogo en cada compra
+     */
+    static void aforoReservado() {
+        invalidarCatalogo();
+    }
+
+    /**
+     * Fuerza a refrescar el catálogo en memoria desde la siguiente consulta (tras cambios masivos)
+     */
+    static void invalidarCatalogo() {
+        synchronized (BLOQUEO_CATALOGO) {
+            if (catalogo != null) {
+                catalogo = catalogo.caducar();
+            }
+        }
+    }
+
     public Optional<Evento> buscarPorId(Long id) {
         return eventoRepository.findById(id);
     }
@@ -67,7 +323,10 @@ public class EventoService {
         return eventoRepository.findProximosEventos();
     }
 
-    private void validarEvento(Evento evento, boolean esNuevo) {
+    /**
+     * Reglas de un evento antes de guardarlo; también las aplica la importación masiva
+     */
+    void validarEvento(Evento evento, boolean esNuevo) {
         if (evento == null) {
             throw new ValidationException("El evento no puede ser nulo");
         }
@@ -1,22 +1,28 @@
 package com.eventos.services;
 
+import com.eventos.config.Serializacion;
+import com.eventos.dto.vista.EventoExportacion;
 import com.eventos.dto.xml.EventoXML;
 import com.eventos.dto.xml.EventosXML;
+import com.eventos.exceptions.EventosException;
 import com.eventos.models.Evento;
 import com.eventos.repositories.EventoRepository;
-import jakarta.xml.bind.JAXBContext;
+import com.eventos.repositories.FiltroEventos;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
-import jakarta.xml.bind.Unmarshaller;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 /**
  * Servicio para exportar e importar eventos en formato XML
- * Usa JAXB para la serialización
+ * Usa JAXB para la serialización (contexto compartido de {@link Serializacion})
  */
 public class EventoXMLService {
     
@@ -24,7 +30,11 @@ public class EventoXMLService {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public EventoXMLService() {
-        this.eventoRepo = new EventoRepository();
+        this(new EventoRepository());
+    }
+    
+    EventoXMLService(EventoRepository eventoRepo) {
+        this.eventoRepo = eventoRepo;
     }
     
     /**
@@ -47,15 +57,9 @@ public class EventoXMLService {
             // Crear wrapper con la lista
             EventosXML eventosWrapper = new EventosXML(eventosXML);
             
-            // Crear contexto JAXB y marshaller
-            JAXBContext context = JAXBContext.newInstance(EventosXML.class);
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            
-            // Exportar a archivo
+            // Exportar a archivo con el marshaller del hilo (contexto JAXB compartido)
             File archivo = new File(rutaArchivo);
-            marshaller.marshal(eventosWrapper, archivo);
+            Serializacion.marshaller().marshal(eventosWrapper, archivo);
             
             System.out.println("✓ Eventos exportados correctamente a: " + rutaArchivo);
             return true;
@@ -66,6 +70,57 @@ public class EventoXMLService {
         }
     }
     
+    /**
+     * Exporta todos los eventos a XML en streaming: el documento se escribe con StAX y
+     * cada evento se añade como fragmento JAXB en cuanto lo entrega el cursor, así que
+     * la memoria no depende del número de eventos. El XML es equivalente al de
+     * {@link #exportarEventos(String)}.
+     * @param rutaArchivo Ruta donde guardar el XML
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @return Filas escritas, tiempo y filas por segundo
+     */
+    public ResultadoExportacion exportarEventosStreaming(String rutaArchivo, boolean comprimir) {
+        return exportarEventosStreaming(rutaArchivo, comprimir, null);
+    }
+    
+    /**
+     * Exporta en streaming solo los eventos que cumplen un filtro (p. ej. una sede o un mes)
+     * @param rutaArchivo Ruta donde guardar el XML
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @param filtro Criterios de los eventos a exportar (null para todos)
+     * @return Filas escritas, tiempo, filas por segundo y SHA-256 del archivo
+     */
+    public ResultadoExportacion exportarEventosStreaming(String rutaArchivo, boolean comprimir, FiltroEventos filtro) {
+        try {
+            ResultadoExportacion resultado = ArchivosExportacion.escribir(rutaArchivo, comprimir, salida -> {
+                XMLStreamWriter xml = Serializacion.fabricaXml().createXMLStreamWriter(salida, "UTF-8");
+                Marshaller marshaller = Serializacion.marshallerFragmento();
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeCharacters("\n");
+                xml.writeStartElement("eventos");
+                long filas = eventoRepo.recorrerParaExportar(filtro, evento -> {
+                    try {
+                        xml.writeCharacters("\n    ");
+                        marshaller.marshal(convertirAEventoXML(evento), xml);
+                    } catch (XMLStreamException | JAXBException e) {
+                        throw new EventosException("Error al escribir el evento " + evento.getId(), e);
+                    }
+                });
+                xml.writeCharacters("\n");
+                xml.writeEndElement();
+                xml.writeEndDocument();
+                // El escritor StAX tiene su propio búfer: se vacía antes de que se cierre la salida
+                xml.flush();
+                return filas;
+            });
+            System.out.println("✓ Eventos exportados a XML: " + resultado);
+            return resultado;
+            
+        } catch (IOException | XMLStreamException e) {
+            throw new EventosException("Error al exportar eventos a XML: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Importa eventos desde un archivo XML
      * @param rutaArchivo Ruta del archivo XML
@@ -73,13 +128,9 @@ public class EventoXMLService {
      */
     public List<EventoXML> importarEventos(String rutaArchivo) {
         try {
-            // Crear contexto JAXB y unmarshaller
-            JAXBContext context = JAXBContext.newInstance(EventosXML.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            
             // Leer archivo XML
             File archivo = new File(rutaArchivo);
-            EventosXML eventosWrapper = (EventosXML) unmarshaller.unmarshal(archivo);
+            EventosXML eventosWrapper = (EventosXML) Serializacion.unmarshaller().unmarshal(archivo);
             
             System.out.println("✓ Eventos importados correctamente desde: " + rutaArchivo);
             return eventosWrapper.getEventos();
@@ -90,9 +141,27 @@ public class EventoXMLService {
         }
     }
     
+    /**
+     * Convierte una fila de exportación a EventoXML, con las mismas reglas que la entidad
+     */
+    private EventoXML convertirAEventoXML(EventoExportacion evento) {
+        return new EventoXML(
+            evento.getId(),
+            evento.getNombre(),
+            evento.getDescripcion(),
+            evento.getFechaInicio().format(FORMATTER),
+            evento.getFechaFin().format(FORMATTER),
+            evento.getAforoMaximo(),
+            evento.getAforoActual(),
+            evento.getEstado() != null ? evento.getEstado().name() : null,
+            evento.getPrecioBase() != null ? evento.getPrecioBase().doubleValue() : null,
+            evento.getSede(),
+            evento.getTipoEvento()
+        );
+    }
+    
     /**
      * Convierte una entidad Evento a EventoXML
-     * Nota: El estado se exporta como texto descriptivo
      */
     private EventoXML convertirAEventoXML(Evento evento) {
         return new EventoXML(
@@ -103,7 +172,7 @@ public class EventoXMLService {
             evento.getFechaFin().format(FORMATTER),
             evento.getAforoMaximo(),
             evento.getAforoActual(),
-            "PROGRAMADO", // Estado simplificado para exportación
+            evento.getEstado() != null ? evento.getEstado().name() : null,
             evento.getPrecioBase() != null ? evento.getPrecioBase().doubleValue() : null,
             evento.getSede() != null ? evento.getSede().getNombre() : null,
             evento.getTipoEvento() != null ? evento.getTipoEvento().getNombre() : null
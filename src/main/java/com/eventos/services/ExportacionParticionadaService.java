@@ -0,0 +1,194 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.config.Serializacion;
+import com.eventos.dto.json.ManifiestoExportacion;
+import com.eventos.exceptions.EventosException;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.FiltroEventos;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exportación del catálogo repartida en varios archivos, uno por sede o por mes.
+ *
+ * Cada fragmento se exporta en streaming (ver EventoJSONService / EventoXMLService)
+ * con su propio cursor y conexión, en un pool de hilos acotado (app.export.hilos,
+ * nunca más que las conexiones del pool de BD menos una). Al terminar se escribe
+ * manifiesto.json con las filas y el SHA-256 de cada archivo, para que quien lo
+ * consuma cargue solo los fragmentos que necesite y compruebe su integridad.
+ */
+public class ExportacionParticionadaService {
+
+    /**
+     * Criterio de reparto de los eventos entre archivos
+     */
+    public enum Particion {
+        SEDE, MES
+    }
+
+    /**
+     * Formato de los archivos
+     */
+    public enum Formato {
+        JSON, XML
+    }
+
+    public static final String MANIFIESTO = "manifiesto.json";
+
+    private static final DateTimeFormatter FORMATO_CARPETA = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    /**
+     * Último instante representable en MySQL DATETIME(6) de un día
+     */
+    private static final LocalTime FIN_DEL_DIA = LocalTime.of(23, 59, 59, 999_999_000);
+
+    private final EventoRepository eventoRepo;
+    private final EventoJSONService jsonService;
+    private final EventoXMLService xmlService;
+
+    public ExportacionParticionadaService() {
+        this.eventoRepo = new EventoRepository();
+        this.jsonService = new EventoJSONService();
+        this.xmlService = new EventoXMLService();
+    }
+
+    /**
+     * Exporta el catálogo repartido por sede o por mes en una carpeta nueva dentro de
+     * app.export.path (eventos-{particion}-{fecha})
+     * @param particion Por sede o por mes de inicio
+     * @param formato JSON o XML
+     * @param comprimir Si es true cada archivo se escribe con gzip
+     * @return Manifiesto, ya guardado en la carpeta de la exportación
+     */
+    public ManifiestoExportacion exportar(Particion particion, Formato formato, boolean comprimir) {
+        String base = ConfigManager.getExportPath();
+        LocalDateTime ahora = LocalDateTime.now();
+        Path carpeta = Paths.get(base != null ? base : "exports",
+            "eventos-" + particion.name().toLowerCase() + "-" + ahora.format(FORMATO_CARPETA));
+        return exportar(particion, formato, comprimir, carpeta);
+    }
+
+    /**
+     * Igual que {@link #exportar(Particion, Formato, boolean)} pero en la carpeta indicada
+     */
+    public ManifiestoExportacion exportar(Particion particion, Formato formato, boolean comprimir, Path carpeta) {
+        long inicio = System.nanoTime();
+        List<Fragmento> fragmentos = particion == Particion.SEDE ? fragmentosPorSede() : fragmentosPorMes();
+        String extension = formato == Formato.JSON ? ".json" : ".xml";
+
+        int hilos = Math.max(1, Math.min(fragmentos.size(), numeroHilos()));
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "exportacion-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<ResultadoExportacion>> pendientes = new ArrayList<>();
+            for (Fragmento fragmento : fragmentos) {
+                String ruta = carpeta.resolve(fragmento.archivo + extension).toString();
+                pendientes.add(pool.submit(() -> formato == Formato.JSON
+                    ? jsonService.exportarEventosStreaming(ruta, comprimir, fragmento.filtro)
+                    : xmlService.exportarEventosStreaming(ruta, comprimir, fragmento.filtro)));
+            }
+
+            ManifiestoExportacion manifiesto = new ManifiestoExportacion();
+            manifiesto.setGenerado(LocalDateTime.now().toString());
+            manifiesto.setParticion(particion.name());
+            manifiesto.setFormato(formato.name());
+            manifiesto.setComprimido(comprimir);
+            long totalFilas = 0;
+            for (int i = 0; i < fragmentos.size(); i++) {
+                ResultadoExportacion resultado = pendientes.get(i).get();
+                Fragmento fragmento = fragmentos.get(i);
+                manifiesto.getFragmentos().add(new ManifiestoExportacion.Fragmento(
+                    resultado.getArchivo().getFileName().toString(), fragmento.clave, fragmento.descripcion,
+                    resultado.getFilas(), resultado.getBytes(), resultado.getSha256()));
+                totalFilas += resultado.getFilas();
+            }
+            manifiesto.setTotalFilas(totalFilas);
+            manifiesto.setMilisegundos((System.nanoTime() - inicio) / 1_000_000);
+
+            Files.createDirectories(carpeta);
+            Serializacion.escritorJsonLegible().writeValue(carpeta.resolve(MANIFIESTO).toFile(), manifiesto);
+            System.out.println("✓ Exportación por " + particion.name().toLowerCase() + ": " + fragmentos.size()
+                + " archivos, " + totalFilas + " eventos en " + manifiesto.getMilisegundos() + " ms con "
+                + hilos + " hilos -> " + carpeta);
+            return manifiesto;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventosException("Exportación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new EventosException("Error al exportar un fragmento: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            throw new EventosException("Error al escribir el manifiesto: " + e.getMessage(), e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Hilos de exportación: app.export.hilos (por defecto los núcleos, hasta 4), dejando
+     * siempre una conexión libre en el pool para el resto de la aplicación
+     */
+    private int numeroHilos() {
+        int porDefecto = Math.min(4, Runtime.getRuntime().availableProcessors());
+        int configurados = ConfigManager.getInt("app.export.hilos", porDefecto);
+        return Math.min(configurados, Math.max(1, ConfigManager.getPoolMaxSize() - 1));
+    }
+
+    private List<Fragmento> fragmentosPorSede() {
+        List<Fragmento> fragmentos = new ArrayList<>();
+        for (Map.Entry<Long, String> sede : eventoRepo.sedesConEventos().entrySet()) {
+            FiltroEventos filtro = new FiltroEventos();
+            filtro.setSedeId(sede.getKey());
+            fragmentos.add(new Fragmento("sede-" + sede.getKey(), String.valueOf(sede.getKey()), sede.getValue(), filtro));
+        }
+        return fragmentos;
+    }
+
+    private List<Fragmento> fragmentosPorMes() {
+        List<Fragmento> fragmentos = new ArrayList<>();
+        for (YearMonth mes : eventoRepo.mesesConEventos()) {
+            FiltroEventos filtro = new FiltroEventos();
+            filtro.setDesde(mes.atDay(1).atStartOfDay());
+            filtro.setHasta(mes.atEndOfMonth().atTime(FIN_DEL_DIA));
+            fragmentos.add(new Fragmento("mes-" + mes, mes.toString(), "", filtro));
+        }
+        return fragmentos;
+    }
+
+    /**
+     * Parte del catálogo que va a un archivo
+     */
+    private static class Fragmento {
+        final String archivo;
+        final String clave;
+        final String descripcion;
+        final FiltroEventos filtro;
+
+        Fragmento(String archivo, String clave, String descripcion, FiltroEventos filtro) {
+            this.archivo = archivo;
+            this.clave = clave;
+            this.descripcion = descripcion;
+            this.filtro = filtro;
+        }
+    }
+}
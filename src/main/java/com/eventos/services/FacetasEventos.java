@@ -0,0 +1,300 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import com.eventos.repositories.Pagina;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Filtros combinables (facetas) sobre el catálogo en memoria: tipo, ciudad, tramo de
+ * precio, tramo de fecha y disponibilidad.
+ *
+ * Cada valor de cada faceta tiene un mapa de bits con una posición por evento del
+ * catálogo (en su orden). Dentro de una faceta los valores elegidos se suman (OR) y entre
+ * facetas se cruzan (AND), palabra a palabra. La cuenta de cada valor es cuántos eventos
+ * quedarían al elegirlo además de lo elegido en las demás facetas.
+ *
+ * Inmutable: se construye una vez por copia del catálogo (ver CatalogoEventos.facetas).
+ */
+public final class FacetasEventos {
+
+    /**
+     * Facetas por las que se puede filtrar
+     */
+    public enum Faceta {
+        TIPO("Tipo de evento"),
+        CIUDAD("Ciudad"),
+        PRECIO("Precio"),
+        FECHA("Fecha"),
+        DISPONIBILIDAD("Disponibilidad");
+
+        private final String etiqueta;
+
+        Faceta(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+
+    // Tramos de precio: límite superior incluido de cada uno (el último no tiene)
+    private static final String[] PRECIOS = {"Gratis", "Hasta $20", "$20 - $50", "$50 - $100", "Más de $100"};
+    private static final BigDecimal[] LIMITES_PRECIO = {
+        BigDecimal.ZERO, new BigDecimal("20"), new BigDecimal("50"), new BigDecimal("100")};
+
+    // Tramos de fecha consecutivos a partir de hoy
+    private static final String[] FECHAS = {"Ya celebrados", "Hoy", "Próximos 7 días", "Próximos 30 días", "Más adelante"};
+
+    private static final String[] DISPONIBILIDADES = {"Con entradas", "Agotados", "Sin venta"};
+
+    private final List<EventoResumen> eventos;
+    private final LocalDate hoy;
+    private final long[] todos;
+    private final Map<Faceta, Map<String, long[]>> bits = new EnumMap<>(Faceta.class);
+
+    /**
+     * @param eventos Eventos del catálogo en el orden en que se listan (no se copia)
+     * @param hoy Día respecto al que se calculan los tramos de fecha
+     */
+    FacetasEventos(List<EventoResumen> eventos, LocalDate hoy) {
+        this.eventos = eventos;
+        this.hoy = hoy;
+        int palabras = (eventos.size() + 63) >>> 6;
+        this.todos = new long[palabras];
+        for (int i = 0; i < eventos.size(); i++) {
+            todos[i >>> 6] |= 1L << i;
+        }
+
+        // Tipos y ciudades por orden alfabético; los tramos en su orden natural
+        Map<String, long[]> tipos = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, long[]> ciudades = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        bits.put(Faceta.TIPO, tipos);
+        bits.put(Faceta.CIUDAD, ciudades);
+        bits.put(Faceta.PRECIO, tramos(PRECIOS, palabras));
+        bits.put(Faceta.FECHA, tramos(FECHAS, palabras));
+        bits.put(Faceta.DISPONIBILIDAD, tramos(DISPONIBILIDADES, palabras));
+
+        for (int i = 0; i < eventos.size(); i++) {
+            EventoResumen evento = eventos.get(i);
+            marcar(tipos, evento.getTipoEvento(), palabras, i);
+            marcar(ciudades, evento.getCiudad(), palabras, i);
+            marcar(bits.get(Faceta.PRECIO), tramoPrecio(evento.getPrecioBase()), palabras, i);
+            marcar(bits.get(Faceta.FECHA), tramoFecha(evento), palabras, i);
+            marcar(bits.get(Faceta.DISPONIBILIDAD), disponibilidad(evento), palabras, i);
+        }
+    }
+
+    private static Map<String, long[]> tramos(String[] nombres, int palabras) {
+        Map<String, long[]> tramos = new LinkedHashMap<>();
+        for (String nombre : nombres) {
+            tramos.put(nombre, new long[palabras]);
+        }
+        return tramos;
+    }
+
+    private static void marcar(Map<String, long[]> valores, String valor, int palabras, int posicion) {
+        if (valor != null) {
+            valores.computeIfAbsent(valor, v -> new long[palabras])[posicion >>> 6] |= 1L << posicion;
+        }
+    }
+
+    private static String tramoPrecio(BigDecimal precio) {
+        if (precio == null) {
+            return null;
+        }
+        for (int i = 0; i < LIMITES_PRECIO.length; i++) {
+            if (precio.compareTo(LIMITES_PRECIO[i]) <= 0) {
+                return PRECIOS[i];
+            }
+        }
+        return PRECIOS[PRECIOS.length - 1];
+    }
+
+    private String tramoFecha(EventoResumen evento) {
+        if (evento.getFechaInicio() == null) {
+            return null;
+        }
+        LocalDate dia = evento.getFechaInicio().toLocalDate();
+        if (dia.isBefore(hoy)) {
+            return FECHAS[0];
+        } else if (dia.equals(hoy)) {
+            return FECHAS[1];
+        } else if (!dia.isAfter(hoy.plusDays(7))) {
+            return FECHAS[2];
+        } else if (!dia.isAfter(hoy.plusDays(30))) {
+            return FECHAS[3];
+        }
+        return FECHAS[4];
+    }
+
+    /**
+     * Misma regla que EventoRepository.reservarAforo: se vende todo lo que no esté
+     * cancelado ni finalizado (también los planificados)
+     */
+    private static String disponibilidad(EventoResumen evento) {
+        EstadoEvento estado = evento.getEstado();
+        if (estado == null || estado == EstadoEvento.CANCELADO || estado == EstadoEvento.FINALIZADO) {
+            return DISPONIBILIDADES[2];
+        }
+        int ocupado = evento.getAforoActual() != null ? evento.getAforoActual() : 0;
+        return evento.getAforoMaximo() != null && ocupado >= evento.getAforoMaximo()
+            ? DISPONIBILIDADES[1] : DISPONIBILIDADES[0];
+    }
+
+    /**
+     * Día respecto al que se calcularon los tramos de fecha
+     */
+    LocalDate getHoy() {
+        return hoy;
+    }
+
+    /**
+     * Valores posibles de una faceta, en el orden en que se muestran
+     */
+    public List<String> getValores(Faceta faceta) {
+        return new ArrayList<>(bits.get(faceta).keySet());
+    }
+
+    /**
+     * Eventos que cumplen una selección y cuentas de cada valor
+     * @param seleccion Valores elegidos por faceta (las facetas sin valores no filtran)
+     */
+    public Resultado filtrar(Map<Faceta, Set<String>> seleccion) {
+        // Unión de los valores elegidos de cada faceta (null = sin filtrar por ella)
+        Map<Faceta, long[]> mascaras = new EnumMap<>(Faceta.class);
+        for (Faceta faceta : Faceta.values()) {
+            Set<String> elegidos = seleccion.getOrDefault(faceta, Set.of());
+            if (elegidos.isEmpty()) {
+                continue;
+            }
+            long[] union = new long[todos.length];
+            for (String valor : elegidos) {
+                long[] valores = bits.get(faceta).get(valor);
+                if (valores != null) {
+                    for (int w = 0; w < union.length; w++) {
+                        union[w] |= valores[w];
+                    }
+                }
+            }
+            mascaras.put(faceta, union);
+        }
+
+        long[] resultado = cruzar(mascaras, null);
+        Map<Faceta, Map<String, Integer>> cuentas = new EnumMap<>(Faceta.class);
+        for (Faceta faceta : Faceta.values()) {
+            // Lo que dejan las demás facetas, para contar cada valor de esta
+            long[] base = mascaras.containsKey(faceta) ? cruzar(mascaras, faceta) : resultado;
+            Map<String, Integer> porValor = new LinkedHashMap<>();
+            for (Map.Entry<String, long[]> valor : bits.get(faceta).entrySet()) {
+                int cuenta = 0;
+                long[] valores = valor.getValue();
+                for (int w = 0; w < base.length; w++) {
+                    cuenta += Long.bitCount(base[w] & valores[w]);
+                }
+                porValor.put(valor.getKey(), cuenta);
+            }
+            cuentas.put(faceta, porValor);
+        }
+        return new Resultado(eventos, resultado, cuentas);
+    }
+
+    /**
+     * Intersección de las máscaras de todas las facetas salvo una (null para todas)
+     */
+    private long[] cruzar(Map<Faceta, long[]> mascaras, Faceta excepto) {
+        long[] cruce = todos.clone();
+        for (Map.Entry<Faceta, long[]> mascara : mascaras.entrySet()) {
+            if (mascara.getKey() != excepto) {
+                long[] valores = mascara.getValue();
+                for (int w = 0; w < cruce.length; w++) {
+                    cruce[w] &= valores[w];
+                }
+            }
+        }
+        return cruce;
+    }
+
+    /**
+     * Eventos que cumplen una selección de facetas, con las cuentas de cada valor
+     */
+    public static final class Resultado {
+        private final List<EventoResumen> eventos;
+        private final long[] bits;
+        private final Map<Faceta, Map<String, Integer>> cuentas;
+        private final int total;
+
+        private Resultado(List<EventoResumen> eventos, long[] bits, Map<Faceta, Map<String, Integer>> cuentas) {
+            this.eventos = eventos;
+            this.bits = bits;
+            this.cuentas = cuentas;
+            int suma = 0;
+            for (long palabra : bits) {
+                suma += Long.bitCount(palabra);
+            }
+            this.total = suma;
+        }
+
+        /**
+         * Número de eventos que cumplen la selección
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Eventos que habría al elegir además este valor (con lo elegido en las demás facetas)
+         */
+        public int getCuenta(Faceta faceta, String valor) {
+            return cuentas.get(faceta).getOrDefault(valor, 0);
+        }
+
+        /**
+         * Página de eventos que cumplen la selección, en el orden del catálogo
+         * @param ultimo Último evento de la página anterior (null para la primera)
+         */
+        public Pagina<EventoResumen> pagina(EventoResumen ultimo, int tamano) {
+            int inicio = 0;
+            if (ultimo != null) {
+                int posicion = Collections.binarySearch(eventos, ultimo, InstantaneaCatalogo.ORDEN);
+                inicio = posicion >= 0 ? posicion + 1 : -posicion - 1;
+            }
+            List<EventoResumen> filas = new ArrayList<>(tamano);
+            int i = siguiente(inicio);
+            while (i >= 0 && filas.size() < tamano) {
+                filas.add(eventos.get(i));
+                i = siguiente(i + 1);
+            }
+            return new Pagina<>(filas, i >= 0);
+        }
+
+        /**
+         * Primera posición marcada desde una dada, o -1
+         */
+        private int siguiente(int desde) {
+            int w = desde >>> 6;
+            if (w >= bits.length) {
+                return -1;
+            }
+            long palabra = bits[w] & (-1L << desde);
+            while (palabra == 0) {
+                if (++w == bits.length) {
+                    return -1;
+                }
+                palabra = bits[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(palabra);
+        }
+    }
+}
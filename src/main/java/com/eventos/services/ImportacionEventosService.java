@@ -0,0 +1,527 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.config.Serializacion;
+import com.eventos.dto.json.EventoEliminadoJSON;
+import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.vista.EventoClave;
+import com.eventos.dto.vista.SedeResumen;
+import com.eventos.dto.xml.EventoXML;
+import com.eventos.exceptions.EventosException;
+import com.eventos.exceptions.ValidationException;
+import com.eventos.models.EstadoEvento;
+import com.eventos.models.Evento;
+import com.eventos.models.Sede;
+import com.eventos.models.TipoEvento;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.SedeRepository;
+import com.eventos.repositories.TipoEventoRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Importación masiva de eventos a la base de datos desde los JSON o XML que genera la
+ * exportación (también comprimidos con gzip).
+ *
+ * El archivo se lee en streaming y se procesa por bloques de app.import.lote eventos:
+ * la sede y el tipo se resuelven por nombre con mapas cargados una sola vez, cada bloque
+ * se valida en paralelo con las reglas de EventoService y se guarda en una transacción
+ * con un lote de altas y otro de modificaciones. Un evento se considera el mismo que uno
+ * guardado si coinciden nombre, sede y fecha de inicio. Las filas rechazadas no detienen
+ * la importación: se escriben en {archivo}.errores.csv con el motivo.
+ *
+ * También aplica las exportaciones de cambios ({@link EventoJSONService#exportarCambios}):
+ * primero las bajas, que borran el evento con esa clave (o lo cancelan si ya tiene
+ * entradas), y después las altas y modificaciones. Aplicar dos veces el mismo archivo
+ * deja la base de datos igual.
+ */
+public class ImportacionEventosService {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Errores que se guardan en el resultado; el resto solo van al informe
+     */
+    private static final int MAX_ERRORES_EN_MEMORIA = 100;
+
+    private static final int BUFER = 64 * 1024;
+
+    private final EventoRepository eventoRepo;
+    private final SedeRepository sedeRepo;
+    private final TipoEventoRepository tipoEventoRepo;
+    private final EventoService eventoService;
+    private final int tamanoLote;
+
+    public ImportacionEventosService() {
+        this(new EventoRepository(), new SedeRepository(), new TipoEventoRepository(), new EventoService());
+    }
+
+    ImportacionEventosService(EventoRepository eventoRepo, SedeRepository sedeRepo,
+                              TipoEventoRepository tipoEventoRepo, EventoService eventoService) {
+        this.eventoRepo = eventoRepo;
+        this.sedeRepo = sedeRepo;
+        this.tipoEventoRepo = tipoEventoRepo;
+        this.eventoService = eventoService;
+        this.tamanoLote = Math.max(1, ConfigManager.getInt("app.import.lote", 1000));
+    }
+
+    /**
+     * Importa un archivo de eventos. El formato se deduce de la extensión
+     * (.json, .xml, .json.gz o .xml.gz).
+     * @param rutaArchivo Archivo a importar
+     * @return Resultado con los contadores y la ruta del informe de errores
+     */
+    public ResultadoImportacion importar(String rutaArchivo) {
+        Path archivo = Paths.get(rutaArchivo);
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean comprimido = nombre.endsWith(".gz");
+        boolean xml = (comprimido ? nombre.substring(0, nombre.length() - 3) : nombre).endsWith(".xml");
+
+        long inicio = System.nanoTime();
+        Importacion importacion = new Importacion(informeDe(archivo), cargarSedes(), cargarTiposEvento());
+        try (InputStream entrada = abrir(archivo, comprimido)) {
+            if (xml) {
+                leerXml(entrada, importacion::agregar);
+            } else {
+                leerJson(entrada, importacion::agregar, importacion::agregarBaja);
+            }
+            importacion.procesarBajas();
+            importacion.procesarLote();
+        } catch (IOException | XMLStreamException | JAXBException e) {
+            throw new EventosException("Error al leer " + archivo + " (tras " + importacion.leidas
+                + " eventos): " + e.getMessage(), e);
+        } finally {
+            importacion.cerrarInforme();
+            if (importacion.insertadas + importacion.actualizadas + importacion.eliminadas > 0) {
+                EstadisticasService.invalidar();
+                EventoService.invalidarCatalogo();
+            }
+        }
+
+        ResultadoImportacion resultado = new ResultadoImportacion(archivo, importacion.leidas,
+            importacion.insertadas, importacion.actualizadas, importacion.eliminadas, importacion.errores,
+            (System.nanoTime() - inicio) / 1_000_000, importacion.errores > 0 ? importacion.informe : null,
+            importacion.primerosErrores);
+        System.out.println("✓ Importación de eventos: " + resultado);
+        return resultado;
+    }
+
+    private static InputStream abrir(Path archivo, boolean comprimido) throws IOException {
+        InputStream entrada = new BufferedInputStream(Files.newInputStream(archivo), BUFER);
+        return comprimido ? new GZIPInputStream(entrada, BUFER) : entrada;
+    }
+
+    /**
+     * Informe junto al archivo: eventos.json.gz -> eventos.errores.csv
+     */
+    private static Path informeDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        String base = nombre.replaceFirst("(?i)(\\.(json|xml))?(\\.gz)?$", "");
+        return archivo.resolveSibling(base + ".errores.csv");
+    }
+
+    /**
+     * Lee de uno en uno, sin cargar el documento entero, los eventos de un array JSON o
+     * las bajas y eventos de una exportación de cambios
+     */
+    private static void leerJson(InputStream entrada, Consumer<EventoJSON> eventos,
+                                 Consumer<EventoEliminadoJSON> bajas) throws IOException {
+        try (JsonParser parser = Serializacion.mapper().getFactory().createParser(entrada)) {
+            JsonToken inicio = parser.nextToken();
+            if (inicio == JsonToken.START_ARRAY) {
+                leerArray(parser, EventoJSON.class, eventos);
+            } else if (inicio == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String campo = parser.getCurrentName();
+                    JsonToken valor = parser.nextToken();
+                    if ("eliminados".equals(campo) && valor == JsonToken.START_ARRAY) {
+                        leerArray(parser, EventoEliminadoJSON.class, bajas);
+                    } else if ("eventos".equals(campo) && valor == JsonToken.START_ARRAY) {
+                        leerArray(parser, EventoJSON.class, eventos);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                throw new EventosException(
+                    "El archivo JSON debe contener una lista de eventos o una exportación de cambios");
+            }
+        }
+    }
+
+    private static <T> void leerArray(JsonParser parser, Class<T> tipo, Consumer<T> consumidor) throws IOException {
+        ObjectReader lector = Serializacion.lectorJson(tipo);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumidor.accept(lector.readValue(parser, tipo));
+        }
+    }
+
+    /**
+     * Lee los elementos evento de un documento XML de uno en uno
+     */
+    private static void leerXml(InputStream entrada, Consumer<EventoJSON> consumidor)
+            throws XMLStreamException, JAXBException {
+        XMLStreamReader xml = Serializacion.fabricaLecturaXml().createXMLStreamReader(entrada);
+        try {
+            Unmarshaller unmarshaller = Serializacion.unmarshaller();
+            while (xml.hasNext()) {
+                if (xml.getEventType() == XMLStreamConstants.START_ELEMENT && "evento".equals(xml.getLocalName())) {
+                    // Deja el lector justo después del elemento, por eso no se avanza aquí
+                    consumidor.accept(aEventoJSON(unmarshaller.unmarshal(xml, EventoXML.class).getValue()));
+                } else {
+                    xml.next();
+                }
+            }
+        } finally {
+            xml.close();
+        }
+    }
+
+    private static EventoJSON aEventoJSON(EventoXML xml) {
+        return new EventoJSON(xml.getId(), xml.getNombre(), xml.getDescripcion(), xml.getFechaInicio(),
+            xml.getFechaFin(), xml.getAforoMaximo(), xml.getAforoActual(), xml.getEstado(),
+            xml.getPrecioBase(), xml.getSede(), xml.getTipoEvento());
+    }
+
+    private Map<String, Long> cargarSedes() {
+        Map<String, Long> sedes = new HashMap<>();
+        for (SedeResumen sede : sedeRepo.findAllResumen()) {
+            sedes.put(normalizar(sede.getNombre()), sede.getId());
+        }
+        return sedes;
+    }
+
+    private Map<String, Long> cargarTiposEvento() {
+        Map<String, Long> tipos = new HashMap<>();
+        for (TipoEvento tipo : tipoEventoRepo.findAll()) {
+            tipos.put(normalizar(tipo.getNombre()), tipo.getId());
+        }
+        return tipos;
+    }
+
+    private static String normalizar(String nombre) {
+        return nombre == null ? "" : nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String clave(String nombre, Long sedeId, LocalDateTime fechaInicio) {
+        return nombre + '\u0000' + sedeId + '\u0000' + fechaInicio;
+    }
+
+    /**
+     * Evento leído del archivo y lo que se decidió con él
+     */
+    private static class Fila {
+        final long numero;
+        final EventoJSON datos;
+        Evento evento;
+        String clave;
+        boolean existente;
+        String error;
+
+        Fila(long numero, EventoJSON datos) {
+            this.numero = numero;
+            this.datos = datos;
+        }
+    }
+
+    /**
+     * Estado de una importación en curso: el bloque pendiente, los contadores y el informe
+     */
+    private class Importacion {
+        final Path informe;
+        final Map<String, Long> sedes;
+        final Map<String, Long> tiposEvento;
+        final Map<String, Long> clavesVistas = new HashMap<>();
+        final List<ResultadoImportacion.ErrorImportacion> primerosErrores = new ArrayList<>();
+        final List<Fila> lote = new ArrayList<>(tamanoLote);
+        final List<EventoEliminadoJSON> bajas = new ArrayList<>();
+        BufferedWriter escritor;
+        long leidas;
+        long bajasLeidas;
+        long insertadas;
+        long actualizadas;
+        long eliminadas;
+        long errores;
+
+        Importacion(Path informe, Map<String, Long> sedes, Map<String, Long> tiposEvento) {
+            this.informe = informe;
+            this.sedes = sedes;
+            this.tiposEvento = tiposEvento;
+        }
+
+        void agregar(EventoJSON datos) {
+            procesarBajas();
+            lote.add(new Fila(++leidas, datos));
+            if (lote.size() >= tamanoLote) {
+                procesarLote();
+            }
+        }
+
+        void procesarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            Set<String> nombres = new LinkedHashSet<>();
+            for (Fila fila : lote) {
+                if (fila.datos.getNombre() != null && !fila.datos.getNombre().isBlank()) {
+                    nombres.add(fila.datos.getNombre().trim());
+                }
+            }
+            Map<String, EventoClave> guardados = new HashMap<>();
+            for (EventoClave existente : eventoRepo.findClavesPorNombre(nombres)) {
+                guardados.put(clave(existente.getNombre(), existente.getSedeId(), existente.getFechaInicio()), existente);
+            }
+
+            lote.parallelStream().forEach(fila -> convertir(fila, guardados));
+
+            List<Fila> nuevas = new ArrayList<>();
+            List<Fila> existentes = new ArrayList<>();
+            for (Fila fila : lote) {
+                if (fila.error != null) {
+                    continue;
+                }
+                Long anterior = clavesVistas.putIfAbsent(fila.clave, fila.numero);
+                if (anterior != null) {
+                    fila.error = "Evento repetido en el archivo (igual que la fila " + anterior + ")";
+                } else {
+                    (fila.existente ? existentes : nuevas).add(fila);
+                }
+            }
+            guardar(nuevas, existentes);
+
+            for (Fila fila : lote) {
+                if (fila.error != null) {
+                    registrarError(fila.numero, fila.datos.getId(), fila.datos.getNombre(), fila.error);
+                }
+            }
+            lote.clear();
+        }
+
+        void agregarBaja(EventoEliminadoJSON baja) {
+            bajas.add(baja);
+            if (bajas.size() >= tamanoLote) {
+                procesarBajas();
+            }
+        }
+
+        /**
+         * Aplica las bajas pendientes. Sus filas se numeran aparte de las de los eventos
+         */
+        void procesarBajas() {
+            if (bajas.isEmpty()) {
+                return;
+            }
+            List<Evento> claves = new ArrayList<>();
+            List<Long> numeros = new ArrayList<>();
+            for (EventoEliminadoJSON baja : bajas) {
+                long numero = ++bajasLeidas;
+                try {
+                    Long sedeId = sedes.get(normalizar(baja.getSede()));
+                    if (sedeId == null) {
+                        throw new ValidationException("Sede desconocida: " + baja.getSede());
+                    }
+                    LocalDateTime inicio = fecha(baja.getFechaInicio(), "inicio");
+                    if (baja.getNombre() == null || inicio == null) {
+                        throw new ValidationException("La baja debe indicar nombre, sede y fecha de inicio");
+                    }
+                    Evento clave = new Evento();
+                    clave.setNombre(baja.getNombre().trim());
+                    Sede sede = new Sede();
+                    sede.setId(sedeId);
+                    clave.setSede(sede);
+                    clave.setFechaInicio(inicio);
+                    claves.add(clave);
+                    numeros.add(numero);
+                } catch (ValidationException e) {
+                    registrarError(numero, baja.getId(), baja.getNombre(), "Baja: " + e.getMessage());
+                }
+            }
+            bajas.clear();
+
+            try {
+                for (int afectados : eventoRepo.eliminarImportados(claves)) {
+                    if (afectados > 0) {
+                        eliminadas++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                String motivo = "Baja: no se pudo aplicar el bloque: "
+                    + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                System.err.println("✗ " + motivo);
+                for (int i = 0; i < claves.size(); i++) {
+                    registrarError(numeros.get(i), null, claves.get(i).getNombre(), motivo);
+                }
+            }
+        }
+
+        /**
+         * Convierte y valida una fila; se ejecuta en paralelo y solo lee estado compartido
+         */
+        private void convertir(Fila fila, Map<String, EventoClave> guardados) {
+            EventoJSON datos = fila.datos;
+            try {
+                Evento evento = new Evento();
+                evento.setNombre(datos.getNombre() != null ? datos.getNombre().trim() : null);
+                evento.setDescripcion(datos.getDescripcion());
+                evento.setFechaInicio(fecha(datos.getFechaInicio(), "inicio"));
+                evento.setFechaFin(fecha(datos.getFechaFin(), "fin"));
+                evento.setAforoMaximo(datos.getAforoMaximo());
+                evento.setEstado(estado(datos.getEstado()));
+                evento.setPrecioBase(datos.getPrecioBase() != null ? BigDecimal.valueOf(datos.getPrecioBase()) : null);
+                if (datos.getSede() != null) {
+                    Long sedeId = sedes.get(normalizar(datos.getSede()));
+                    if (sedeId == null) {
+                        throw new ValidationException("Sede desconocida: " + datos.getSede());
+                    }
+                    Sede sede = new Sede();
+                    sede.setId(sedeId);
+                    evento.setSede(sede);
+                }
+                if (datos.getTipoEvento() != null) {
+                    Long tipoId = tiposEvento.get(normalizar(datos.getTipoEvento()));
+                    if (tipoId == null) {
+                        throw new ValidationException("Tipo de evento desconocido: " + datos.getTipoEvento());
+                    }
+                    TipoEvento tipo = new TipoEvento();
+                    tipo.setId(tipoId);
+                    evento.setTipoEvento(tipo);
+                }
+
+                Long sedeId = evento.getSede() != null ? evento.getSede().getId() : null;
+                fila.clave = clave(evento.getNombre(), sedeId, evento.getFechaInicio());
+                EventoClave existente = guardados.get(fila.clave);
+                if (existente != null) {
+                    // Las entradas vendidas se conservan: el aforo nuevo debe poder acogerlas
+                    evento.setId(existente.getId());
+                    evento.setAforoActual(existente.getAforoActual());
+                    if (evento.getEstado() == null) {
+                        evento.setEstado(existente.getEstado());
+                    }
+                    fila.existente = true;
+                }
+                eventoService.validarEvento(evento, existente == null);
+                fila.evento = evento;
+            } catch (ValidationException e) {
+                fila.error = e.getMessage();
+            }
+        }
+
+        private void guardar(List<Fila> nuevas, List<Fila> existentes) {
+            if (nuevas.isEmpty() && existentes.isEmpty()) {
+                return;
+            }
+            try {
+                int[] actualizadasPorFila = eventoRepo.guardarImportados(
+                    nuevas.stream().map(f -> f.evento).toList(),
+                    existentes.stream().map(f -> f.evento).toList());
+                insertadas += nuevas.size();
+                for (int i = 0; i < existentes.size(); i++) {
+                    if (actualizadasPorFila[i] > 0) {
+                        actualizadas++;
+                    } else {
+                        existentes.get(i).error = "El aforo máximo es menor que las entradas ya vendidas";
+                    }
+                }
+            } catch (RuntimeException e) {
+                // El bloque entero se deshace: se rechazan todas sus filas y se sigue con el siguiente
+                String motivo = "No se pudo guardar el bloque: "
+                    + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                System.err.println("✗ " + motivo);
+                nuevas.forEach(f -> f.error = motivo);
+                existentes.forEach(f -> f.error = motivo);
+            }
+        }
+
+        private void registrarError(long fila, Long id, String nombre, String mensaje) {
+            errores++;
+            ResultadoImportacion.ErrorImportacion error =
+                new ResultadoImportacion.ErrorImportacion(fila, id, nombre, mensaje);
+            if (primerosErrores.size() < MAX_ERRORES_EN_MEMORIA) {
+                primerosErrores.add(error);
+            }
+            try {
+                if (escritor == null) {
+                    escritor = Files.newBufferedWriter(informe, StandardCharsets.UTF_8);
+                    escritor.write("fila,id,nombre,error");
+                    escritor.newLine();
+                }
+                escritor.write(fila + "," + (error.getId() != null ? error.getId() : "") + ","
+                    + ArchivosExportacion.csv(error.getNombre()) + "," + ArchivosExportacion.csv(error.getMensaje()));
+                escritor.newLine();
+            } catch (IOException e) {
+                throw new EventosException("No se pudo escribir el informe de errores " + informe, e);
+            }
+        }
+
+        void cerrarInforme() {
+            if (escritor != null) {
+                try {
+                    escritor.close();
+                } catch (IOException e) {
+                    System.err.println("✗ Error al cerrar el informe de errores: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime fecha(String texto, String cual) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(texto.trim(), FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Fecha de " + cual + " no válida: " + texto);
+        }
+    }
+
+    /**
+     * Estado de una fila, o null si no trae ninguno: los eventos guardados conservan
+     * el suyo y los nuevos quedan planificados
+     */
+    private static EstadoEvento estado(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String estado = texto.trim().toUpperCase(Locale.ROOT);
+        // Las exportaciones anteriores escribían PROGRAMADO en todos los eventos, fuera
+        // cual fuera su estado, así que no dice nada del estado real
+        if ("PROGRAMADO".equals(estado)) {
+            return null;
+        }
+        try {
+            return EstadoEvento.valueOf(estado);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Estado desconocido: " + texto);
+        }
+    }
+}
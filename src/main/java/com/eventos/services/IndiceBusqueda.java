@@ -0,0 +1,399 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.utils.IndiceTrigramas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice invertido para buscar eventos por palabras del nombre, la descripción (la parte
+ * que llevan los resúmenes), la sede, la ciudad y el tipo, sin distinguir mayúsculas ni tildes.
+ *
+ * Cada término apunta a un array ordenado de ids de evento; cada posición empaqueta el id
+ * y el peso del campo donde aparece (id << 8 | peso). Los términos están ordenados, así que
+ * todos los que empiezan por un prefijo son un rango contiguo.
+ *
+ * Se actualiza evento a evento sustituyendo los arrays de los términos afectados, por lo
+ * que se puede consultar desde otros hilos mientras se modifica (las escrituras las
+ * serializa EventoService).
+ *
+ * Los trigramas de los términos (para las erratas) se construyen con el índice. Cuando
+ * aparecen o desaparecen términos se rehacen en un hilo aparte y mientras tanto se siguen
+ * usando los anteriores; los cambios que no tocan términos (las ventas) no los rehacen.
+ */
+final class IndiceBusqueda {
+
+    /**
+     * Palabras demasiado frecuentes para servir de búsqueda
+     */
+    private static final Set<String> VACIAS = Set.of(
+        "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por",
+        "se", "su", "un", "una", "y");
+
+    /**
+     * Términos parecidos que se prueban por cada palabra sin coincidencias
+     */
+    private static final int ALTERNATIVAS = 3;
+
+    private static final int PESO_NOMBRE = 8;
+    private static final int PESO_TIPO = 4;
+    private static final int PESO_LUGAR = 3;
+    private static final int PESO_DESCRIPCION = 1;
+
+    private static final ExecutorService VOCABULARIOS = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "vocabulario-busqueda");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ConcurrentSkipListMap<String, long[]> terminos = new ConcurrentSkipListMap<>();
+
+    /**
+     * Veces que han aparecido o desaparecido términos
+     */
+    private final AtomicLong cambios = new AtomicLong();
+    private final AtomicBoolean rehaciendo = new AtomicBoolean();
+
+    /**
+     * Trigramas de los términos, para las palabras mal escritas
+     */
+    private volatile Vocabulario vocabulario;
+
+    private static final class Vocabulario {
+        private final long version;
+        private final IndiceTrigramas<String> trigramas;
+
+        private Vocabulario(long version, IndiceTrigramas<String> trigramas) {
+            this.version = version;
+            this.trigramas = trigramas;
+        }
+    }
+
+    /**
+     * Resultado de una búsqueda: ids en orden ascendente y la puntuación de cada uno
+     */
+    static final class Resultado {
+        private final long[] ids;
+        private final int[] puntos;
+
+        private Resultado(long[] ids, int[] puntos) {
+            this.ids = ids;
+            this.puntos = puntos;
+        }
+
+        int size() { return ids.length; }
+        long getId(int i) { return ids[i]; }
+        int getPuntos(int i) { return puntos[i]; }
+    }
+
+    IndiceBusqueda(Collection<EventoResumen> eventos) {
+        Map<String, Lista> listas = new HashMap<>();
+        for (EventoResumen evento : eventos) {
+            terminosDe(evento).forEach((termino, peso) ->
+                listas.computeIfAbsent(termino, t -> new Lista()).agregar(empaquetar(evento.getId(), peso)));
+        }
+        listas.forEach((termino, lista) -> {
+            long[] ajustada = Arrays.copyOf(lista.posiciones, lista.n);
+            Arrays.sort(ajustada);
+            terminos.put(termino, ajustada);
+        });
+        vocabulario = new Vocabulario(0, new IndiceTrigramas<>(new ArrayList<>(terminos.keySet()), t -> t));
+    }
+
+    /**
+     * Array que crece al construir el índice
+     */
+    private static final class Lista {
+        private long[] posiciones = new long[4];
+        private int n;
+
+        void agregar(long posicion) {
+            if (n == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, n * 2);
+            }
+            posiciones[n++] = posicion;
+        }
+    }
+
+    /**
+     * Sustituye en el índice un evento por su versión nueva
+     * @param anterior Versión indexada (null si es nuevo)
+     * @param nuevo Versión nueva (null si se ha borrado)
+     */
+    void actualizar(EventoResumen anterior, EventoResumen nuevo) {
+        Map<String, Integer> viejos = anterior != null ? terminosDe(anterior) : Map.of();
+        Map<String, Integer> nuevos = nuevo != null ? terminosDe(nuevo) : Map.of();
+        if (anterior != null) {
+            long id = anterior.getId();
+            viejos.forEach((termino, peso) -> {
+                if (!peso.equals(nuevos.get(termino)) || nuevo.getId() != id) {
+                    if (terminos.computeIfPresent(termino, (t, lista) -> sin(lista, id)) == null) {
+                        cambios.incrementAndGet();
+                    }
+                }
+            });
+        }
+        if (nuevo != null) {
+            long id = nuevo.getId();
+            nuevos.forEach((termino, peso) -> {
+                if (!peso.equals(viejos.get(termino)) || anterior.getId() != id) {
+                    if (!terminos.containsKey(termino)) {
+                        cambios.incrementAndGet();
+                    }
+                    terminos.merge(termino, new long[]{empaquetar(id, peso)}, (lista, uno) -> con(lista, uno[0]));
+                }
+            });
+        }
+    }
+
+    /**
+     * Eventos que contienen todas las palabras de la consulta, cada una como palabra
+     * completa o como principio de una palabra. Una coincidencia exacta puntúa el doble
+     * que una por prefijo. Una palabra que no aparece en ningún evento se cambia por los
+     * términos más parecidos (por trigramas), para tolerar erratas.
+     * @return Resultado, vacío si la consulta no tiene palabras
+     */
+    Resultado buscar(String consulta) {
+        List<String> palabras = palabras(consulta);
+        long[] ids = null;
+        int[] puntos = null;
+        for (String palabra : palabras) {
+            long[] coincidencias = coincidencias(palabra);
+            if (coincidencias.length == 0) {
+                coincidencias = aproximadas(palabra);
+            }
+            if (ids == null) {
+                ids = new long[coincidencias.length];
+                puntos = new int[coincidencias.length];
+                for (int i = 0; i < coincidencias.length; i++) {
+                    ids[i] = coincidencias[i] >>> 8;
+                    puntos[i] = (int) (coincidencias[i] & 0xFF);
+                }
+            } else {
+                // Intersección de dos listas ordenadas por id
+                int n = 0;
+                for (int i = 0, j = 0; i < ids.length && j < coincidencias.length; ) {
+                    long id = coincidencias[j] >>> 8;
+                    if (ids[i] < id) {
+                        i++;
+                    } else if (ids[i] > id) {
+                        j++;
+                    } else {
+                        ids[n] = ids[i];
+                        puntos[n++] = puntos[i++] + (int) (coincidencias[j++] & 0xFF);
+                    }
+                }
+                ids = Arrays.copyOf(ids, n);
+                puntos = Arrays.copyOf(puntos, n);
+            }
+            if (ids.length == 0) {
+                break;
+            }
+        }
+        return ids != null ? new Resultado(ids, puntos) : new Resultado(new long[0], new int[0]);
+    }
+
+    /**
+     * Ids con la palabra (o una que empiece por ella) empaquetados con su mejor peso, sin repetir
+     */
+    private long[] coincidencias(String palabra) {
+        // Copia del rango: el índice puede cambiar mientras se recorre
+        return unir(new ArrayList<>(
+            terminos.subMap(palabra, true, palabra + Character.MAX_VALUE, false).entrySet()), palabra);
+    }
+
+    /**
+     * Ids de los términos más parecidos a una palabra que no está en el índice
+     */
+    private long[] aproximadas(String palabra) {
+        if (palabra.length() < 3) {
+            return new long[0];
+        }
+        Vocabulario actual = vocabulario;
+        if (actual.version != cambios.get()) {
+            rehacerVocabulario();
+        }
+        // Los términos que ya no están se saltan; los nuevos llegan con el vocabulario rehecho
+        List<Map.Entry<String, long[]>> parecidos = new ArrayList<>();
+        for (String termino : actual.trigramas.buscar(palabra, ALTERNATIVAS)) {
+            long[] lista = terminos.get(termino);
+            if (lista != null) {
+                parecidos.add(Map.entry(termino, lista));
+            }
+        }
+        return unir(parecidos, null);
+    }
+
+    /**
+     * Rehace los trigramas de los términos en el hilo de vocabularios, si no se está haciendo ya
+     */
+    private void rehacerVocabulario() {
+        if (!rehaciendo.compareAndSet(false, true)) {
+            return;
+        }
+        VOCABULARIOS.execute(() -> {
+            try {
+                // Lo que cambie mientras tanto deja la versión atrasada y se rehace en otra consulta
+                long version = cambios.get();
+                vocabulario = new Vocabulario(version,
+                    new IndiceTrigramas<>(new ArrayList<>(terminos.keySet()), t -> t));
+            } finally {
+                rehaciendo.set(false);
+            }
+        });
+    }
+
+    /**
+     * Une las listas de varios términos dejando cada id una vez con su mejor peso;
+     * el peso del término exacto (si está) cuenta el doble
+     */
+    private static long[] unir(List<Map.Entry<String, long[]>> listas, String exacta) {
+        if (listas.size() == 1 && listas.get(0).getKey().equals(exacta)) {
+            long[] dobles = listas.get(0).getValue().clone();
+            for (int i = 0; i < dobles.length; i++) {
+                dobles[i] += dobles[i] & 0xFF;
+            }
+            return dobles;
+        }
+
+        int total = 0;
+        for (Map.Entry<String, long[]> termino : listas) {
+            total += termino.getValue().length;
+        }
+        long[] todas = new long[total];
+        int n = 0;
+        for (Map.Entry<String, long[]> termino : listas) {
+            boolean esExacta = termino.getKey().equals(exacta);
+            for (long posicion : termino.getValue()) {
+                todas[n++] = esExacta ? posicion + (posicion & 0xFF) : posicion;
+            }
+        }
+        Arrays.sort(todas);
+        // Mismo id seguido: el último es el de más peso
+        int unicos = 0;
+        for (int i = 0; i < todas.length; i++) {
+            if (i + 1 < todas.length && todas[i + 1] >>> 8 == todas[i] >>> 8) {
+                continue;
+            }
+            todas[unicos++] = todas[i];
+        }
+        return Arrays.copyOf(todas, unicos);
+    }
+
+    /**
+     * Términos de un evento con el mayor peso de los campos donde aparecen
+     */
+    private static Map<String, Integer> terminosDe(EventoResumen evento) {
+        Map<String, Integer> resultado = new HashMap<>();
+        agregar(resultado, evento.getNombre(), PESO_NOMBRE);
+        agregar(resultado, evento.getTipoEvento(), PESO_TIPO);
+        agregar(resultado, evento.getSede(), PESO_LUGAR);
+        agregar(resultado, evento.getCiudad(), PESO_LUGAR);
+        agregar(resultado, evento.getDescripcionCorta(), PESO_DESCRIPCION);
+        return resultado;
+    }
+
+    private static void agregar(Map<String, Integer> terminos, String texto, int peso) {
+        for (String palabra : tokenizar(texto)) {
+            if (!VACIAS.contains(palabra)) {
+                terminos.merge(palabra, peso, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Palabras de una consulta, sin repetir y sin las vacías (salvo que no haya otras)
+     */
+    static List<String> palabras(String consulta) {
+        Set<String> palabras = new LinkedHashSet<>(tokenizar(consulta));
+        List<String> utiles = new ArrayList<>();
+        for (String palabra : palabras) {
+            if (!VACIAS.contains(palabra)) {
+                utiles.add(palabra);
+            }
+        }
+        return utiles.isEmpty() ? new ArrayList<>(palabras) : utiles;
+    }
+
+    /**
+     * Divide un texto en palabras en minúsculas y sin tildes (letras y dígitos)
+     */
+    static List<String> tokenizar(String texto) {
+        List<String> palabras = new ArrayList<>();
+        if (texto == null) {
+            return palabras;
+        }
+        String plegado = IndiceTrigramas.plegar(texto);
+        int inicio = -1;
+        for (int i = 0; i <= plegado.length(); i++) {
+            boolean valido = i < plegado.length() && Character.isLetterOrDigit(plegado.charAt(i));
+            if (valido && inicio < 0) {
+                inicio = i;
+            } else if (!valido && inicio >= 0) {
+                palabras.add(plegado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return palabras;
+    }
+
+    private static long empaquetar(long id, int peso) {
+        return id << 8 | peso;
+    }
+
+    /**
+     * Copia de la lista con la posición del id sustituida o insertada en su sitio
+     */
+    private static long[] con(long[] lista, long posicion) {
+        int i = buscarId(lista, posicion >>> 8);
+        if (i >= 0) {
+            long[] copia = lista.clone();
+            copia[i] = posicion;
+            return copia;
+        }
+        int hueco = -i - 1;
+        long[] copia = new long[lista.length + 1];
+        System.arraycopy(lista, 0, copia, 0, hueco);
+        copia[hueco] = posicion;
+        System.arraycopy(lista, hueco, copia, hueco + 1, lista.length - hueco);
+        return copia;
+    }
+
+    /**
+     * Copia de la lista sin el id, o null si queda vacía (el término desaparece)
+     */
+    private static long[] sin(long[] lista, long id) {
+        int i = buscarId(lista, id);
+        if (i < 0) {
+            return lista;
+        }
+        if (lista.length == 1) {
+            return null;
+        }
+        long[] copia = new long[lista.length - 1];
+        System.arraycopy(lista, 0, copia, 0, i);
+        System.arraycopy(lista, i + 1, copia, i, lista.length - i - 1);
+        return copia;
+    }
+
+    /**
+     * Posición del id en la lista, o (-punto de inserción - 1) si no está
+     */
+    private static int buscarId(long[] lista, long id) {
+        int i = Arrays.binarySearch(lista, empaquetar(id, 0));
+        int hueco = i >= 0 ? i : -i - 1;
+        return hueco < lista.length && lista[hueco] >>> 8 == id ? hueco : -hueco - 1;
+    }
+}
@@ -0,0 +1,365 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import com.eventos.repositories.Pagina;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Copia local del catálogo (resúmenes de todos los eventos y nombres de los tipos) para
+ * pintar las pantallas al abrirlas sin esperar a la base de datos.
+ *
+ * Formato binario (big-endian), escrito y leído de una vez a través de un ByteBuffer en
+ * memoria (sin mapear el archivo, que en Windows impediría reemplazarlo mientras siga mapeado):
+ * <pre>
+ * int magia, int versión, long generada, long marca      (fechas en microsegundos UTC)
+ * int n, n x texto                                         diccionario (tipo, sede, ciudad, estado)
+ * int n, n x int                                           tipos de evento (índices del diccionario)
+ * int n, n x evento                                       (la sede va por id y por nombre)
+ * long CRC32 de todo lo anterior
+ * </pre>
+ * Un texto es un int con la longitud en bytes UTF-8 (-1 si es null) seguido de los bytes.
+ * Cada evento guarda id, nombre y descripción como texto, los campos repetidos como índices
+ * del diccionario y los números con valores centinela para null (Integer.MIN_VALUE,
+ * Long.MIN_VALUE, NaN). Si el archivo está dañado o es de otra versión se descarta.
+ */
+public class InstantaneaCatalogo {
+
+    /**
+     * Orden de las páginas de eventos: fecha de inicio e id descendentes, como ORDEN_PAGINA
+     * de EventoRepository
+     */
+    public static final Comparator<EventoResumen> ORDEN = Comparator
+        .comparing(EventoResumen::getFechaInicio, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+        .thenComparing(EventoResumen::getId, Comparator.reverseOrder());
+
+    private static final int MAGIA = 0x45564331; // "EVC1"
+    private static final int VERSION = 2;
+
+    /**
+     * Bytes fijos de un evento, sin contar el contenido de nombre y descripción
+     */
+    private static final int BYTES_EVENTO = 8 + 4 + 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8 + 8;
+
+    private final LocalDateTime generada;
+    private final LocalDateTime marca;
+    private final List<EventoResumen> eventos;
+    private final List<String> tiposEvento;
+
+    /**
+     * @param generada Cuándo se leyó el catálogo entero por última vez
+     * @param marca Hasta cuándo están incluidos los cambios (para el siguiente refresco)
+     * @param eventos Resúmenes en el orden de las páginas (fecha de inicio e id descendentes)
+     * @param tiposEvento Nombres de los tipos de evento, ordenados
+     */
+    public InstantaneaCatalogo(LocalDateTime generada, LocalDateTime marca,
+                               List<EventoResumen> eventos, List<String> tiposEvento) {
+        this.generada = generada;
+        this.marca = marca;
+        this.eventos = Collections.unmodifiableList(eventos);
+        this.tiposEvento = Collections.unmodifiableList(tiposEvento);
+    }
+
+    private InstantaneaCatalogo(InstantaneaCatalogo base, LocalDateTime marca) {
+        this.generada = base.generada;
+        this.marca = marca;
+        this.eventos = base.eventos;
+        this.tiposEvento = base.tiposEvento;
+    }
+
+    public LocalDateTime getGenerada() { return generada; }
+    public LocalDateTime getMarca() { return marca; }
+    public List<EventoResumen> getEventos() { return eventos; }
+    public List<String> getTiposEvento() { return tiposEvento; }
+
+    /**
+     * Primera página del catálogo sin filtros; la siguiente se pide a la base de datos
+     * a partir de su último elemento, igual que si viniera de EventoRepository
+     */
+    public Pagina<EventoResumen> primeraPagina(int tamano) {
+        return new Pagina<>(eventos.subList(0, Math.min(tamano, eventos.size())), eventos.size() > tamano);
+    }
+
+    /**
+     * Copia con otra marca y los mismos eventos (la misma lista)
+     */
+    public InstantaneaCatalogo conMarca(LocalDateTime marca) {
+        return new InstantaneaCatalogo(this, marca);
+    }
+
+    /**
+     * Copia con los eventos quitados y los cambios añadidos, conservando el orden.
+     * Un cambio sustituye al evento con el mismo id.
+     * @param quitar Ids de eventos borrados
+     * @param cambios Resúmenes nuevos o modificados
+     * @param marca Marca de la copia
+     */
+    public InstantaneaCatalogo conCambios(Collection<Long> quitar, List<EventoResumen> cambios, LocalDateTime marca) {
+        Set<Long> ids = new HashSet<>(quitar);
+        cambios.forEach(cambio -> ids.add(cambio.getId()));
+        List<EventoResumen> nuevos = new ArrayList<>(cambios);
+        nuevos.sort(ORDEN);
+
+        // Mezcla de dos listas ordenadas: no hace falta reordenar el catálogo entero
+        List<EventoResumen> resultado = new ArrayList<>(eventos.size() + nuevos.size());
+        int j = 0;
+        for (EventoResumen evento : eventos) {
+            if (ids.contains(evento.getId())) {
+                continue;
+            }
+            while (j < nuevos.size() && ORDEN.compare(nuevos.get(j), evento) < 0) {
+                resultado.add(nuevos.get(j++));
+            }
+            resultado.add(evento);
+        }
+        resultado.addAll(nuevos.subList(j, nuevos.size()));
+        return new InstantaneaCatalogo(generada, marca, resultado, tiposEvento);
+    }
+
+    /**
+     * Escribe la instantánea en un temporal y lo renombra sobre el archivo, para que quien
+     * la lea nunca encuentre una a medias
+     */
+    public void guardar(Path archivo) throws IOException {
+        Map<String, Integer> indices = new HashMap<>();
+        List<byte[]> diccionario = new ArrayList<>();
+        List<byte[]> textos = new ArrayList<>(eventos.size() * 2);
+        long tamano = 4 + 4 + 8 + 8 + 4 + 4 + 4L * tiposEvento.size() + 4 + 8;
+        for (String tipo : tiposEvento) {
+            indice(tipo, indices, diccionario);
+        }
+        for (EventoResumen evento : eventos) {
+            indice(evento.getTipoEvento(), indices, diccionario);
+            indice(evento.getEstado() != null ? evento.getEstado().name() : null, indices, diccionario);
+            indice(evento.getSede(), indices, diccionario);
+            indice(evento.getCiudad(), indices, diccionario);
+            byte[] nombre = utf8(evento.getNombre());
+            byte[] descripcion = utf8(evento.getDescripcionCorta());
+            textos.add(nombre);
+            textos.add(descripcion);
+            tamano += BYTES_EVENTO + longitud(nombre) + longitud(descripcion);
+        }
+        for (byte[] texto : diccionario) {
+            tamano += 4 + texto.length;
+        }
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IOException("La instantánea ocupa demasiado: " + tamano + " bytes");
+        }
+
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamano);
+            buffer.putInt(MAGIA).putInt(VERSION).putLong(micros(generada)).putLong(micros(marca));
+            buffer.putInt(diccionario.size());
+            for (byte[] texto : diccionario) {
+                putTexto(buffer, texto);
+            }
+            buffer.putInt(tiposEvento.size());
+            for (String tipo : tiposEvento) {
+                buffer.putInt(indices.get(tipo));
+            }
+            buffer.putInt(eventos.size());
+            for (int i = 0; i < eventos.size(); i++) {
+                EventoResumen evento = eventos.get(i);
+                buffer.putLong(evento.getId());
+                putTexto(buffer, textos.get(2 * i));
+                putTexto(buffer, textos.get(2 * i + 1));
+                buffer.putInt(indiceDe(evento.getTipoEvento(), indices));
+                buffer.putLong(micros(evento.getFechaInicio()));
+                buffer.putLong(micros(evento.getFechaFin()));
+                buffer.putInt(indiceDe(evento.getEstado() != null ? evento.getEstado().name() : null, indices));
+                buffer.putInt(entero(evento.getAforoActual()));
+                buffer.putInt(entero(evento.getAforoMaximo()));
+                buffer.putLong(evento.getPrecioBase() != null
+                    ? evento.getPrecioBase().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                    : Long.MIN_VALUE);
+                buffer.putLong(evento.getSedeId() != null ? evento.getSedeId() : Long.MIN_VALUE);
+                buffer.putInt(indiceDe(evento.getSede(), indices));
+                buffer.putInt(indiceDe(evento.getCiudad(), indices));
+                buffer.putInt(entero(evento.getCapacidadSede()));
+                buffer.putDouble(evento.getLatitud() != null ? evento.getLatitud() : Double.NaN);
+                buffer.putDouble(evento.getLongitud() != null ? evento.getLongitud() : Double.NaN);
+            }
+            buffer.putLong(crc(buffer, (int) tamano - 8));
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee una instantánea guardada con {@link #guardar(Path)}
+     * @return La instantánea, o null si el archivo no existe, está dañado o es de otra versión
+     */
+    public static InstantaneaCatalogo leer(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return null;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8 || tamano > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamano);
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIA || buffer.getInt() != VERSION
+                    || buffer.getLong((int) tamano - 8) != crc(buffer, (int) tamano - 8)) {
+                return null;
+            }
+            LocalDateTime generada = fecha(buffer.getLong());
+            LocalDateTime marca = fecha(buffer.getLong());
+
+            byte[] auxiliar = new byte[256];
+            String[] diccionario = new String[buffer.getInt()];
+            for (int i = 0; i < diccionario.length; i++) {
+                auxiliar = crecer(auxiliar, buffer);
+                diccionario[i] = getTexto(buffer, auxiliar);
+            }
+            int numeroTipos = buffer.getInt();
+            List<String> tipos = new ArrayList<>(numeroTipos);
+            for (int i = 0; i < numeroTipos; i++) {
+                tipos.add(diccionario[buffer.getInt()]);
+            }
+            int numeroEventos = buffer.getInt();
+            List<EventoResumen> eventos = new ArrayList<>(numeroEventos);
+            for (int i = 0; i < numeroEventos; i++) {
+                long id = buffer.getLong();
+                auxiliar = crecer(auxiliar, buffer);
+                String nombre = getTexto(buffer, auxiliar);
+                auxiliar = crecer(auxiliar, buffer);
+                String descripcion = getTexto(buffer, auxiliar);
+                String tipo = deDiccionario(diccionario, buffer.getInt());
+                LocalDateTime inicio = fecha(buffer.getLong());
+                LocalDateTime fin = fecha(buffer.getLong());
+                String estado = deDiccionario(diccionario, buffer.getInt());
+                Integer aforoActual = entero(buffer.getInt());
+                Integer aforoMaximo = entero(buffer.getInt());
+                long centimos = buffer.getLong();
+                long sedeId = buffer.getLong();
+                String sede = deDiccionario(diccionario, buffer.getInt());
+                String ciudad = deDiccionario(diccionario, buffer.getInt());
+                Integer capacidad = entero(buffer.getInt());
+                double latitud = buffer.getDouble();
+                double longitud = buffer.getDouble();
+                eventos.add(new EventoResumen(id, nombre, descripcion, tipo, inicio, fin,
+                    estado != null ? EstadoEvento.valueOf(estado) : null, aforoActual, aforoMaximo,
+                    centimos != Long.MIN_VALUE ? BigDecimal.valueOf(centimos, 2) : null,
+                    sedeId != Long.MIN_VALUE ? sedeId : null, sede, ciudad, capacidad,
+                    Double.isNaN(latitud) ? null : latitud, Double.isNaN(longitud) ? null : longitud));
+            }
+            return new InstantaneaCatalogo(generada, marca, eventos, tipos);
+        } catch (RuntimeException e) {
+            // Índices o longitudes fuera de rango: archivo de otra versión del programa
+            return null;
+        }
+    }
+
+    private static void indice(String texto, Map<String, Integer> indices, List<byte[]> diccionario) {
+        if (texto != null && !indices.containsKey(texto)) {
+            indices.put(texto, diccionario.size());
+            diccionario.add(texto.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int indiceDe(String texto, Map<String, Integer> indices) {
+        return texto != null ? indices.get(texto) : -1;
+    }
+
+    private static String deDiccionario(String[] diccionario, int indice) {
+        return indice >= 0 ? diccionario[indice] : null;
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto != null ? texto.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int longitud(byte[] texto) {
+        return texto != null ? texto.length : 0;
+    }
+
+    private static void putTexto(ByteBuffer buffer, byte[] texto) {
+        if (texto == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(texto.length).put(texto);
+        }
+    }
+
+    private static String getTexto(ByteBuffer buffer, byte[] auxiliar) {
+        int longitud = buffer.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        buffer.get(auxiliar, 0, longitud);
+        return new String(auxiliar, 0, longitud, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Agranda el búfer auxiliar si el texto que viene a continuación no cabe
+     */
+    private static byte[] crecer(byte[] auxiliar, ByteBuffer buffer) {
+        int siguiente = buffer.remaining() >= 4 ? buffer.getInt(buffer.position()) : 0;
+        return siguiente > auxiliar.length ? new byte[Math.max(siguiente, auxiliar.length * 2)] : auxiliar;
+    }
+
+    private static int entero(Integer valor) {
+        return valor != null ? valor : Integer.MIN_VALUE;
+    }
+
+    private static Integer entero(int valor) {
+        return valor != Integer.MIN_VALUE ? valor : null;
+    }
+
+    private static long micros(LocalDateTime fecha) {
+        return fecha != null
+            ? fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fecha.getNano() / 1000
+            : Long.MIN_VALUE;
+    }
+
+    private static LocalDateTime fecha(long micros) {
+        return micros != Long.MIN_VALUE
+            ? LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC)
+            : null;
+    }
+
+    private static long crc(ByteBuffer buffer, int longitud) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(longitud));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,198 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.TipoEvento;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.FiltroEventos;
+import com.eventos.repositories.TipoEventoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mantiene la instantánea del catálogo en app.catalogo.instantanea para que las pantallas
+ * de eventos se pinten al abrirlas sin esperar a la base de datos.
+ *
+ * El refresco se hace en un hilo propio: la primera vez (o si la instantánea tiene más de
+ * app.catalogo.instantanea.maxHoras) se lee el catálogo entero; el resto solo lo que cambió
+ * desde la marca de la instantánea, con el mismo solape que la sincronización
+ * (app.sync.solapeSegundos), quitando los eventos borrados.
+ *
+ * Patrón Singleton: la instantánea en memoria se comparte entre pantallas.
+ */
+public class InstantaneaCatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstantaneaCatalogoService.class);
+
+    private static InstantaneaCatalogoService instance;
+
+    private final EventoRepository eventoRepo;
+    private final TipoEventoRepository tipoRepo;
+    private final Path archivo;
+    private final long solapeSegundos;
+    private final long maxHoras;
+    private final ExecutorService hilo;
+
+    private volatile InstantaneaCatalogo actual;
+    private volatile boolean leida;
+    private CompletableFuture<InstantaneaCatalogo> refresco;
+
+    private InstantaneaCatalogoService() {
+        this.eventoRepo = new EventoRepository();
+        this.tipoRepo = new TipoEventoRepository();
+        this.archivo = Paths.get(ConfigManager.get("app.catalogo.instantanea", "./cache/catalogo.bin"));
+        this.solapeSegundos = ConfigManager.getLong("app.sync.solapeSegundos", 60);
+        this.maxHoras = ConfigManager.getLong("app.catalogo.instantanea.maxHoras", 24);
+        this.hilo = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "instantanea-catalogo");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized InstantaneaCatalogoService getInstance() {
+        if (instance == null) {
+            instance = new InstantaneaCatalogoService();
+        }
+        return instance;
+    }
+
+    /**
+     * Instantánea más reciente, leída del disco la primera vez
+     * @return La instantánea, o null si todavía no se ha generado ninguna
+     */
+    public InstantaneaCatalogo getActual() {
+        if (!leida) {
+            synchronized (this) {
+                if (!leida) {
+                    actual = leerDisco();
+                    leida = true;
+                }
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Refresca la instantánea en segundo plano. Si ya hay un refresco en curso devuelve ese.
+     * @return Futuro con la instantánea refrescada (o la anterior si la base de datos falló)
+     */
+    public synchronized CompletableFuture<InstantaneaCatalogo> refrescar() {
+        if (refresco == null || refresco.isDone()) {
+            refresco = CompletableFuture.supplyAsync(this::refrescarAhora, hilo);
+        }
+        return refresco;
+    }
+
+    /**
+     * Pone al día en el hilo de refresco la instantánea de una copia en memoria (la del
+     * catálogo de EventoService), para no consultar la base de datos en el hilo que la usa.
+     * Si la copia no se puede poner al día solo con sus cambios se parte de la instantánea
+     * de este servicio, refrescándola entera si tampoco es vigente.
+     * @param base Instantánea de la copia (null si aún no hay copia)
+     * @return Futuro con la instantánea al día, o con null si no hay ninguna vigente
+     */
+    public CompletableFuture<InstantaneaCatalogo> actualizarEnSegundoPlano(InstantaneaCatalogo base) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (vigente(base)) {
+                return actualizar(base);
+            }
+            InstantaneaCatalogo propia = getActual();
+            InstantaneaCatalogo nueva = vigente(propia) ? actualizar(propia) : refrescarAhora();
+            return vigente(nueva) ? nueva : null;
+        }, hilo);
+    }
+
+    private InstantaneaCatalogo refrescarAhora() {
+        InstantaneaCatalogo anterior = getActual();
+        try {
+            long inicio = System.nanoTime();
+            InstantaneaCatalogo nueva = actualizar(anterior);
+            actual = nueva;
+            // Sin cambios solo avanza la marca en memoria; en disco vale la anterior (con más solape)
+            if (anterior == null || nueva.getEventos() != anterior.getEventos()) {
+                guardar(nueva);
+            }
+            logger.info("Instantánea del catálogo refrescada: {} eventos en {} ms",
+                nueva.getEventos().size(), (System.nanoTime() - inicio) / 1_000_000);
+            return nueva;
+
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo refrescar la instantánea del catálogo: {}", e.getMessage());
+            return anterior;
+        }
+    }
+
+    /**
+     * Indica si una instantánea se puede poner al día solo con sus cambios; si no (no hay
+     * o tiene más de app.catalogo.instantanea.maxHoras) {@link #actualizar} lee el catálogo entero
+     */
+    public boolean vigente(InstantaneaCatalogo instantanea) {
+        return instantanea != null
+            && !instantanea.getGenerada().isBefore(LocalDateTime.now().minusHours(maxHoras));
+    }
+
+    /**
+     * Lee de la base de datos lo que cambió desde la marca de una instantánea: el catálogo
+     * entero si no hay instantánea o ha caducado; si no, los cambios y bajas desde la marca.
+     * No modifica la instantánea de este servicio.
+     * @param base Instantánea de partida (puede ser null)
+     * @return Instantánea al día; si no hubo cambios comparte la lista de eventos con base
+     */
+    public InstantaneaCatalogo actualizar(InstantaneaCatalogo base) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (!vigente(base)) {
+            return new InstantaneaCatalogo(ahora, ahora, eventoRepo.findResumen(null), tiposEvento());
+        }
+
+        LocalDateTime desde = base.getMarca().minusSeconds(solapeSegundos);
+        // Bajas hasta ahora; los cambios sin límite superior (lo que entre de más se repite después)
+        List<Long> eliminados = eventoRepo.findIdsEliminados(desde, ahora);
+        FiltroEventos filtro = new FiltroEventos();
+        filtro.setModificadoDesde(desde);
+        List<EventoResumen> cambios = eventoRepo.findResumen(filtro);
+        if (eliminados.isEmpty() && cambios.isEmpty()) {
+            return base.conMarca(ahora);
+        }
+        return new InstantaneaCatalogo(base.getGenerada(), ahora, base.getEventos(), tiposEvento())
+            .conCambios(eliminados, cambios, ahora);
+    }
+
+    private List<String> tiposEvento() {
+        return tipoRepo.findAll().stream()
+            .map(TipoEvento::getNombre)
+            .sorted()
+            .toList();
+    }
+
+    private void guardar(InstantaneaCatalogo instantanea) {
+        try {
+            instantanea.guardar(archivo);
+        } catch (IOException e) {
+            // La de memoria sigue valiendo; el próximo arranque partirá de la anterior
+            logger.warn("No se pudo guardar la instantánea del catálogo: {}", e.getMessage());
+        }
+    }
+
+    private InstantaneaCatalogo leerDisco() {
+        try {
+            InstantaneaCatalogo leida = InstantaneaCatalogo.leer(archivo);
+            if (leida == null) {
+                logger.info("Sin instantánea del catálogo válida en {}", archivo);
+            }
+            return leida;
+        } catch (IOException e) {
+            logger.warn("No se pudo leer la instantánea del catálogo: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.config.Serializacion;
+import com.eventos.dto.vista.LineaVenta;
+import com.eventos.exceptions.EventosException;
+import com.eventos.repositories.CompraRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Libro de ventas para contabilidad: una línea por entrada vendida con su compra, evento
+ * y tipo de entrada, en NDJSON (un objeto JSON por línea) o CSV.
+ *
+ * Las líneas se leen con un cursor de solo avance y se escriben según llegan, así que la
+ * memoria no depende del número de ventas y sirve para decenas de millones de filas.
+ */
+public class LibroVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibroVentasService.class);
+
+    /**
+     * Formato del archivo
+     */
+    public enum Formato {
+        NDJSON, CSV
+    }
+
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * Cada cuántas líneas se anota el avance en el log
+     */
+    private static final long AVISO_PROGRESO = 1_000_000;
+
+    private final CompraRepository compraRepo;
+
+    public LibroVentasService() {
+        this(new CompraRepository());
+    }
+
+    LibroVentasService(CompraRepository compraRepo) {
+        this.compraRepo = compraRepo;
+    }
+
+    /**
+     * Exporta las ventas de un periodo a app.export.path/ventas/ventas-{desde}-{hasta}.{ndjson|csv}
+     * @param desde Fecha de compra inicial (incluida)
+     * @param hasta Fecha de compra final (incluida)
+     * @param formato NDJSON o CSV
+     * @param comprimir Si es true se escribe con gzip (y se añade .gz a la ruta)
+     * @return Líneas escritas, tiempo y SHA-256 del archivo
+     */
+    public ResultadoExportacion exportar(LocalDateTime desde, LocalDateTime hasta, Formato formato, boolean comprimir) {
+        String base = ConfigManager.getExportPath();
+        String nombre = "ventas-" + desde.format(FORMATO_ARCHIVO) + "-" + hasta.format(FORMATO_ARCHIVO)
+            + "." + formato.name().toLowerCase();
+        return exportar(Paths.get(base != null ? base : "exports", "ventas", nombre).toString(),
+            desde, hasta, formato, comprimir);
+    }
+
+    /**
+     * Igual que {@link #exportar(LocalDateTime, LocalDateTime, Formato, boolean)} pero en la ruta indicada
+     */
+    public ResultadoExportacion exportar(String rutaArchivo, LocalDateTime desde, LocalDateTime hasta,
+                                         Formato formato, boolean comprimir) {
+        try {
+            ResultadoExportacion resultado = ArchivosExportacion.escribir(rutaArchivo, comprimir,
+                salida -> formato == Formato.NDJSON
+                    ? escribirNdjson(salida, desde, hasta)
+                    : escribirCsv(salida, desde, hasta));
+            System.out.println("✓ Libro de ventas exportado a " + formato + ": " + resultado);
+            return resultado;
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new EventosException("Error al exportar el libro de ventas: " + e.getMessage(), e);
+        }
+    }
+
+    private long escribirNdjson(OutputStream salida, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        try (JsonGenerator generador = Serializacion.mapper().getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            // Cada objeto en su línea: el separador entre valores raíz pasa de espacio a salto de línea
+            generador.setRootValueSeparator(new SerializedString("\n"));
+            long filas = compraRepo.recorrerLibroVentas(desde, hasta, conProgreso(linea -> {
+                try {
+                    generador.writeObject(linea);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            if (filas > 0) {
+                generador.writeRaw('\n');
+            }
+            return filas;
+        }
+    }
+
+    private long escribirCsv(OutputStream salida, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write(String.join(",", LineaVenta.COLUMNAS));
+        escritor.write('\n');
+        StringBuilder fila = new StringBuilder(256);
+        long filas = compraRepo.recorrerLibroVentas(desde, hasta, conProgreso(linea -> {
+            String[] valores = linea.valores();
+            fila.setLength(0);
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    fila.append(',');
+                }
+                fila.append(ArchivosExportacion.csv(valores[i]));
+            }
+            fila.append('\n');
+            try {
+                escritor.append(fila);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        escritor.flush();
+        return filas;
+    }
+
+    /**
+     * Anota en el log el avance de las exportaciones largas
+     */
+    private static Consumer<LineaVenta> conProgreso(Consumer<LineaVenta> escritor) {
+        long[] escritas = {0};
+        return linea -> {
+            escritor.accept(linea);
+            if (++escritas[0] % AVISO_PROGRESO == 0) {
+                logger.info("Libro de ventas: {} líneas escritas", escritas[0]);
+            }
+        };
+    }
+}
@@ -0,0 +1,218 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.dto.vista.EntradaClave;
+import com.eventos.exceptions.EventosException;
+import com.eventos.repositories.EntradaRepository;
+import com.eventos.utils.MotorQR;
+import com.eventos.utils.OpcionesQR;
+import com.eventos.utils.QRService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+/**
+ * Reemisión masiva de las entradas de un evento: da un token QR nuevo a cada entrada
+ * sin validar (los QR anteriores dejan de valer) y deja el PNG de cada una en
+ * app.qr.path/evento-{id}/{numeroEntrada}.png, listo para enviar o imprimir.
+ *
+ * Las entradas se recorren por bloques (app.qr.reemision.lote) sin cargar el evento
+ * entero; las imágenes de cada bloque se generan en paralelo en un ForkJoinPool del
+ * tamaño de los núcleos y los tokens se guardan con un único lote JDBC por bloque.
+ * Tras cada bloque se guarda el punto de control, así que una reemisión cancelada
+ * o interrumpida continúa donde se quedó al volver a lanzarla.
+ */
+public class ReemisionQRService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReemisionQRService.class);
+
+    private static final String FICHERO_PROGRESO = ".progreso";
+
+    private final EntradaRepository entradaRepository;
+    private final Long eventoId;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final OpcionesQR opciones;
+    private volatile boolean cancelado;
+
+    /**
+     * @param eventoId Evento cuyas entradas se reemiten
+     */
+    public ReemisionQRService(Long eventoId) {
+        this.entradaRepository = new EntradaRepository();
+        this.eventoId = eventoId;
+        this.directorio = directorioEvento(eventoId);
+        this.tamanoLote = ConfigManager.getInt("app.qr.reemision.lote", 1000);
+        this.opciones = new OpcionesQR(QRService.TAMANO_DETALLE);
+    }
+
+    /**
+     * Resultado de una ejecución de la reemisión
+     */
+    public static class Resultado {
+        private final long procesadas;
+        private final long total;
+        private final boolean completada;
+        private final Path directorio;
+
+        Resultado(long procesadas, long total, boolean completada, Path directorio) {
+            this.procesadas = procesadas;
+            this.total = total;
+            this.completada = completada;
+            this.directorio = directorio;
+        }
+
+        public long getProcesadas() { return procesadas; }
+        public long getTotal() { return total; }
+
+        /**
+         * false si se canceló antes de acabar (se puede reanudar)
+         */
+        public boolean isCompletada() { return completada; }
+
+        /**
+         * Carpeta con los PNG de las entradas
+         */
+        public Path getDirectorio() { return directorio; }
+    }
+
+    /**
+     * Indica si un evento tiene una reemisión a medias que se reanudará al lanzarla
+     */
+    public static boolean hayReemisionPendiente(Long eventoId) {
+        return Files.exists(directorioEvento(eventoId).resolve(FICHERO_PROGRESO));
+    }
+
+    /**
+     * Pide que la reemisión se detenga al acabar el bloque en curso
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Ejecuta (o reanuda) la reemisión en el hilo que la llama; desde la interfaz
+     * debe lanzarse en segundo plano.
+     * @param progreso Recibe (procesadas, total) tras cada bloque; puede ser null
+     * @return Resultado de la ejecución
+     */
+    public Resultado ejecutar(BiConsumer<Long, Long> progreso) {
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new EventosException("No se pudo crear la carpeta " + directorio, e);
+        }
+
+        Properties puntoControl = leerProgreso();
+        Long ultimoId = puntoControl.containsKey("ultimoId") ? Long.valueOf(puntoControl.getProperty("ultimoId")) : null;
+        long procesadas = Long.parseLong(puntoControl.getProperty("procesadas", "0"));
+        long total = procesadas + entradaRepository.countPendientesPorEvento(eventoId, ultimoId);
+        if (ultimoId != null) {
+            logger.info("Reanudando la reemisión del evento {} tras la entrada {} ({} de {})",
+                eventoId, ultimoId, procesadas, total);
+        }
+        avisar(progreso, procesadas, total);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            while (!cancelado) {
+                List<EntradaClave> lote = entradaRepository.findPendientesPorEvento(eventoId, ultimoId, tamanoLote);
+                if (lote.isEmpty()) {
+                    Files.deleteIfExists(directorio.resolve(FICHERO_PROGRESO));
+                    logger.info("Reemisión del evento {} completada: {} entradas", eventoId, procesadas);
+                    return new Resultado(procesadas, total, true, directorio);
+                }
+
+                Map<Long, String> tokens = new LinkedHashMap<>();
+                for (EntradaClave entrada : lote) {
+                    tokens.put(entrada.getId(), QRService.generarToken());
+                }
+
+                // Primero las imágenes y luego la base de datos: si algo falla a mitad,
+                // al reanudar se repite el bloque con tokens nuevos y se sobrescriben
+                pool.submit(() -> lote.parallelStream().forEach(entrada ->
+                    escribirImagen(entrada, tokens.get(entrada.getId())))).get();
+                entradaRepository.actualizarCodigosQR(tokens);
+
+                ultimoId = lote.get(lote.size() - 1).getId();
+                procesadas += lote.size();
+                guardarProgreso(ultimoId, procesadas);
+                avisar(progreso, procesadas, total);
+            }
+            logger.info("Reemisión del evento {} cancelada tras {} de {} entradas", eventoId, procesadas, total);
+            return new Resultado(procesadas, total, false, directorio);
+        } catch (IOException e) {
+            throw new EventosException("Error al guardar el progreso de la reemisión", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventosException("Reemisión interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new EventosException("Error al generar las imágenes de las entradas", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void escribirImagen(EntradaClave entrada, String token) {
+        try {
+            Files.write(directorio.resolve(entrada.getNumeroEntrada() + ".png"), MotorQR.generarPng(token, opciones));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Properties leerProgreso() {
+        Properties propiedades = new Properties();
+        Path fichero = directorio.resolve(FICHERO_PROGRESO);
+        if (Files.exists(fichero)) {
+            try (InputStream in = Files.newInputStream(fichero)) {
+                propiedades.load(in);
+            } catch (IOException e) {
+                throw new EventosException("No se pudo leer el progreso de la reemisión", e);
+            }
+        }
+        return propiedades;
+    }
+
+    /**
+     * Escribe el punto de control en un temporal y lo renombra, para que nunca quede a medias
+     */
+    private void guardarProgreso(Long ultimoId, long procesadas) throws IOException {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("eventoId", String.valueOf(eventoId));
+        propiedades.setProperty("ultimoId", String.valueOf(ultimoId));
+        propiedades.setProperty("procesadas", String.valueOf(procesadas));
+        Path temporal = directorio.resolve(FICHERO_PROGRESO + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporal)) {
+            propiedades.store(out, "Reemisión de QR en curso");
+        }
+        Files.move(temporal, directorio.resolve(FICHERO_PROGRESO),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void avisar(BiConsumer<Long, Long> progreso, long procesadas, long total) {
+        if (progreso != null) {
+            progreso.accept(procesadas, total);
+        }
+    }
+
+    private static Path directorioEvento(Long eventoId) {
+        String base = ConfigManager.getQrPath();
+        return Paths.get(base != null ? base : "qr-codes", "evento-" + eventoId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.eventos.services;
+
+import java.nio.file.Path;
+
+/**
+ * Resultado de una exportación en streaming: filas escritas, tiempo y tamaño
+ */
+public class ResultadoExportacion {
+
+    private final Path archivo;
+    private final long filas;
+    private final long bytes;
+    private final long milisegundos;
+    private final String sha256;
+
+    public ResultadoExportacion(Path archivo, long filas, long bytes, long milisegundos, String sha256) {
+        this.archivo = archivo;
+        this.filas = filas;
+        this.bytes = bytes;
+        this.milisegundos = milisegundos;
+        this.sha256 = sha256;
+    }
+
+    public Path getArchivo() { return archivo; }
+    public long getFilas() { return filas; }
+
+    /**
+     * Tamaño del archivo escrito (comprimido si se pidió gzip)
+     */
+    public long getBytes() { return bytes; }
+    public long getMilisegundos() { return milisegundos; }
+
+    /**
+     * SHA-256 en hexadecimal del archivo tal como quedó en disco
+     */
+    public String getSha256() { return sha256; }
+
+    /**
+     * Velocidad de la exportación en filas por segundo
+     */
+    public long getFilasPorSegundo() {
+        return filas * 1000 / Math.max(1, milisegundos);
+    }
+
+    @Override
+    public String toString() {
+        return filas + " eventos en " + milisegundos + " ms (" + getFilasPorSegundo() + " filas/s, "
+            + bytes / 1024 + " KB) -> " + archivo;
+    }
+}
@@ -0,0 +1,106 @@
+package com.eventos.services;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de eventos: filas leídas, guardadas y rechazadas
+ */
+public class ResultadoImportacion {
+
+    /**
+     * Fila rechazada y el motivo
+     */
+    public static class ErrorImportacion {
+        private final long fila;
+        private final Long id;
+        private final String nombre;
+        private final String mensaje;
+
+        public ErrorImportacion(long fila, Long id, String nombre, String mensaje) {
+            this.fila = fila;
+            this.id = id;
+            this.nombre = nombre;
+            this.mensaje = mensaje;
+        }
+
+        /**
+         * Posición del evento en el archivo, empezando en 1
+         */
+        public long getFila() { return fila; }
+
+        /**
+         * Id que traía el evento en el archivo (puede ser null)
+         */
+        public Long getId() { return id; }
+        public String getNombre() { return nombre; }
+        public String getMensaje() { return mensaje; }
+
+        @Override
+        public String toString() {
+            return "Fila " + fila + " (" + nombre + "): " + mensaje;
+        }
+    }
+
+    private final Path archivo;
+    private final long leidas;
+    private final long insertadas;
+    private final long actualizadas;
+    private final long eliminadas;
+    private final long errores;
+    private final long milisegundos;
+    private final Path informe;
+    private final List<ErrorImportacion> primerosErrores;
+
+    public ResultadoImportacion(Path archivo, long leidas, long insertadas, long actualizadas, long eliminadas,
+                                long errores, long milisegundos, Path informe,
+                                List<ErrorImportacion> primerosErrores) {
+        this.archivo = archivo;
+        this.leidas = leidas;
+        this.insertadas = insertadas;
+        this.actualizadas = actualizadas;
+        this.eliminadas = eliminadas;
+        this.errores = errores;
+        this.milisegundos = milisegundos;
+        this.informe = informe;
+        this.primerosErrores = primerosErrores;
+    }
+
+    public Path getArchivo() { return archivo; }
+    public long getLeidas() { return leidas; }
+    public long getInsertadas() { return insertadas; }
+    public long getActualizadas() { return actualizadas; }
+
+    /**
+     * Bajas de una exportación de cambios aplicadas (eventos borrados, o cancelados si tenían entradas)
+     */
+    public long getEliminadas() { return eliminadas; }
+
+    public long getErrores() { return errores; }
+    public long getMilisegundos() { return milisegundos; }
+
+    /**
+     * CSV con todas las filas rechazadas, o null si no hubo ninguna
+     */
+    public Path getInforme() { return informe; }
+
+    /**
+     * Las primeras filas rechazadas, para mostrarlas sin abrir el informe
+     */
+    public List<ErrorImportacion> getPrimerosErrores() { return primerosErrores; }
+
+    /**
+     * Velocidad de la importación en filas por segundo
+     */
+    public long getFilasPorSegundo() {
+        return leidas * 1000 / Math.max(1, milisegundos);
+    }
+
+    @Override
+    public String toString() {
+        return leidas + " eventos leídos en " + milisegundos + " ms (" + getFilasPorSegundo() + " filas/s): "
+            + insertadas + " nuevos, " + actualizadas + " actualizados, " + eliminadas + " bajas, "
+            + errores + " con errores"
+            + (informe != null ? " -> " + informe : "");
+    }
+}
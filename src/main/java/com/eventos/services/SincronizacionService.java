@@ -0,0 +1,95 @@
+package com.eventos.services;
+
+import com.eventos.config.ConfigManager;
+import com.eventos.exceptions.EventosException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Properties;
+
+/**
+ * Exportación periódica de los cambios del catálogo para los sistemas que lo replican.
+ *
+ * Cada ejecución exporta lo que cambió desde la marca de la anterior (guardada en
+ * app.export.path/cambios/.marca) y, si termina bien, avanza la marca. La primera
+ * exporta el catálogo entero. Para no perder los cambios de transacciones que se
+ * confirmaron tarde, cada exportación se solapa app.sync.solapeSegundos con la anterior;
+ * al importar, un cambio repetido no tiene efecto.
+ */
+public class SincronizacionService {
+
+    private static final String FICHERO_MARCA = ".marca";
+
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final EventoJSONService jsonService;
+    private final Path carpeta;
+    private final long solapeSegundos;
+
+    public SincronizacionService() {
+        this.jsonService = new EventoJSONService();
+        String base = ConfigManager.getExportPath();
+        this.carpeta = Paths.get(base != null ? base : "exports", "cambios");
+        this.solapeSegundos = ConfigManager.getLong("app.sync.solapeSegundos", 60);
+    }
+
+    /**
+     * Exporta los cambios desde la última marca a cambios/eventos-cambios-{fecha}.json.gz
+     * y guarda la nueva marca
+     * @return Resultado de la exportación
+     */
+    public ResultadoExportacion exportarCambios() {
+        LocalDateTime marca = getUltimaMarca();
+        LocalDateTime hasta = LocalDateTime.now();
+        LocalDateTime desde = marca != null ? marca.minusSeconds(solapeSegundos) : null;
+
+        String archivo = carpeta.resolve("eventos-cambios-" + hasta.format(FORMATO_ARCHIVO) + ".json").toString();
+        ResultadoExportacion resultado = jsonService.exportarCambios(archivo, true, desde, hasta);
+        guardarMarca(hasta);
+        return resultado;
+    }
+
+    /**
+     * Instante hasta el que se exportó la última vez, o null si no se ha exportado nunca
+     */
+    public LocalDateTime getUltimaMarca() {
+        Path fichero = carpeta.resolve(FICHERO_MARCA);
+        if (!Files.exists(fichero)) {
+            return null;
+        }
+        Properties propiedades = new Properties();
+        try (InputStream in = Files.newInputStream(fichero)) {
+            propiedades.load(in);
+        } catch (IOException e) {
+            throw new EventosException("No se pudo leer la marca de sincronización", e);
+        }
+        String hasta = propiedades.getProperty("hasta");
+        return hasta != null ? LocalDateTime.parse(hasta) : null;
+    }
+
+    /**
+     * Escribe la marca en un temporal y lo renombra, para que nunca quede a medias
+     */
+    private void guardarMarca(LocalDateTime hasta) {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("hasta", hasta.toString());
+        try {
+            Files.createDirectories(carpeta);
+            Path temporal = carpeta.resolve(FICHERO_MARCA + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporal)) {
+                propiedades.store(out, "Última exportación de cambios");
+            }
+            Files.move(temporal, carpeta.resolve(FICHERO_MARCA),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new EventosException("No se pudo guardar la marca de sincronización", e);
+        }
+    }
+}
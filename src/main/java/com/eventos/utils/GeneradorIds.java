@@ -0,0 +1,186 @@
+package com.eventos.utils;
+
+import com.eventos.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de identificadores únicos y ordenados en el tiempo (estilo Snowflake)
+ * para los números de entrada y los códigos de confirmación de compra.
+ *
+ * Cada id es un long de 63 bits: milisegundos desde {@link #EPOCA} (41 bits),
+ * nodo (10 bits) y secuencia dentro del milisegundo (12 bits). No usa bloqueos:
+ * el último instante y la secuencia se avanzan juntos con una operación CAS.
+ * Si en un milisegundo se agota la secuencia o el reloj retrocede, se sigue con
+ * el milisegundo siguiente en lugar de esperar, así que nunca se repite un id.
+ *
+ * Los ids se codifican en Base32 de Crockford con ancho fijo (13 caracteres):
+ * el orden alfabético coincide con el de generación, lo que favorece los índices.
+ */
+public final class GeneradorIds {
+
+    /**
+     * Origen de las marcas de tiempo (2025-01-01T00:00:00Z); da margen hasta 2094
+     */
+    public static final long EPOCA = 1735689600000L;
+
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MAX_NODO = (1L << BITS_NODO) - 1;
+    private static final long MAX_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LONGITUD_CODIGO = 13;
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneradorIds.class);
+
+    private static final long NODO = calcularNodo();
+
+    /**
+     * (milisegundo << BITS_SECUENCIA) | secuencia del último id generado
+     */
+    private static final AtomicLong ESTADO = new AtomicLong();
+
+    private GeneradorIds() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Genera el siguiente id
+     * @return Id único y creciente en este nodo
+     */
+    public static long siguiente() {
+        while (true) {
+            long anterior = ESTADO.get();
+            long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+            // Mismo milisegundo (o reloj atrasado): siguiente secuencia; si se agota,
+            // el "+ 1" pasa al milisegundo siguiente
+            long nuevo = Math.max(ahora, anterior + 1);
+            if (ESTADO.compareAndSet(anterior, nuevo)) {
+                long milis = nuevo >>> BITS_SECUENCIA;
+                long secuencia = nuevo & MAX_SECUENCIA;
+                return (milis << (BITS_NODO + BITS_SECUENCIA)) | (NODO << BITS_SECUENCIA) | secuencia;
+            }
+        }
+    }
+
+    /**
+     * Genera el siguiente id ya codificado
+     * @return Código de 13 caracteres en Base32 de Crockford
+     */
+    public static String siguienteCodigo() {
+        return codificar(siguiente());
+    }
+
+    /**
+     * Número de entrada para una entrada nueva (p. ej. ENT-01JF3K8Q2M4ZX)
+     */
+    public static String numeroEntrada() {
+        return "ENT-" + siguienteCodigo();
+    }
+
+    /**
+     * Código de confirmación para una compra nueva (p. ej. COMP-01JF3K8Q2M4ZY)
+     */
+    public static String codigoConfirmacion() {
+        return "COMP-" + siguienteCodigo();
+    }
+
+    /**
+     * Codifica un id en Base32 de Crockford con ancho fijo
+     * @param id Id no negativo
+     * @return Código de 13 caracteres
+     */
+    public static String codificar(long id) {
+        char[] codigo = new char[LONGITUD_CODIGO];
+        for (int i = LONGITUD_CODIGO - 1; i >= 0; i--) {
+            codigo[i] = ALFABETO[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(codigo);
+    }
+
+    /**
+     * Decodifica un código generado por {@link #codificar(long)}
+     * @param codigo Código Base32 (sin prefijo)
+     * @return Id original
+     */
+    public static long decodificar(String codigo) {
+        long id = 0;
+        for (char c : codigo.toUpperCase().toCharArray()) {
+            int valor = indiceAlfabeto(c);
+            if (valor < 0) {
+                throw new IllegalArgumentException("Carácter no válido en el código: " + c);
+            }
+            id = (id << 5) | valor;
+        }
+        return id;
+    }
+
+    /**
+     * Instante en que se generó un id
+     */
+    public static Instant instante(long id) {
+        return Instant.ofEpochMilli((id >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA);
+    }
+
+    private static int indiceAlfabeto(char c) {
+        // Crockford admite O como 0 e I/L como 1
+        if (c == 'O') return 0;
+        if (c == 'I' || c == 'L') return 1;
+        for (int i = 0; i < ALFABETO.length; i++) {
+            if (ALFABETO[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Nodo de config.properties (app.nodoId) o, si no está, derivado del host y el proceso.
+     * El derivado son 10 bits de un hash: dos instancias pueden coincidir y repetir ids,
+     * así que se avisa para que se configure uno distinto en cada instancia.
+     */
+    private static long calcularNodo() {
+        long configurado = nodoConfigurado(ConfigManager.get("app.nodoId"));
+        if (configurado >= 0) {
+            return configurado;
+        }
+        String origen;
+        try {
+            origen = InetAddress.getLocalHost().getHostName() + "/" + ManagementFactory.getRuntimeMXBean().getName();
+        } catch (Exception e) {
+            origen = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        long nodo = origen.hashCode() & MAX_NODO;
+        logger.warn("app.nodoId no está configurado; se usa el nodo {} derivado de {}. Si varias instancias "
+            + "escriben en la misma base de datos, cada una necesita su propio app.nodoId o pueden repetir ids",
+            nodo, origen);
+        return nodo;
+    }
+
+    /**
+     * Valor de app.nodoId comprobado: fuera de 0-1023 no cabe en los bits del nodo y
+     * recortarlo podría hacerlo coincidir con el de otra instancia
+     * @return Nodo configurado, o -1 si no está configurado
+     */
+    static long nodoConfigurado(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return -1;
+        }
+        try {
+            long nodo = Long.parseLong(valor.trim());
+            if (nodo >= 0 && nodo <= MAX_NODO) {
+                return nodo;
+            }
+        } catch (NumberFormatException e) {
+            // Se informa igual que un valor fuera de rango
+        }
+        throw new RuntimeException("app.nodoId debe ser un número entre 0 y " + MAX_NODO + ": " + valor);
+    }
+}
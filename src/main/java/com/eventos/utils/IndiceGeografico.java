@@ -0,0 +1,263 @@
+package com.eventos.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Índice geográfico en memoria: rejilla de celdas de latitud/longitud para buscar los
+ * elementos a menos de un radio o los k más cercanos a un punto sin calcular la distancia
+ * a todos.
+ *
+ * Inmutable. Como {@link IndiceTrigramas}, sin objetos por entrada: las claves de las celdas
+ * no vacías van ordenadas en un long[] (fila en la parte alta, columna en la baja) y los
+ * elementos de cada celda seguidos en un int[]. Una consulta solo mira las celdas que toca
+ * y calcula la distancia (haversine) a los elementos de esas celdas.
+ *
+ * @param <T> Tipo de los elementos indexados
+ */
+public final class IndiceGeografico<T> {
+
+    /**
+     * Tamaño de celda por defecto, en grados (unos 11 km de latitud)
+     */
+    public static final double CELDA_GRADOS = 0.1;
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+    private static final double KM_POR_GRADO = Math.toRadians(RADIO_TIERRA_KM);
+
+    private final List<T> elementos;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double celda;
+    private final double anchoColumna;
+    private final int filas;
+    private final int columnas;
+    private final long[] celdas;
+    private final int[] inicios;
+    private final int[] documentos;
+
+    /**
+     * Elemento encontrado y su distancia al punto de la consulta
+     */
+    public static final class Cercano<T> {
+        private final T elemento;
+        private final double distanciaKm;
+
+        private Cercano(T elemento, double distanciaKm) {
+            this.elemento = elemento;
+            this.distanciaKm = distanciaKm;
+        }
+
+        public T getElemento() { return elemento; }
+        public double getDistanciaKm() { return distanciaKm; }
+    }
+
+    /**
+     * Índice con celdas de {@link #CELDA_GRADOS}
+     */
+    public IndiceGeografico(List<T> elementos, ToDoubleFunction<T> latitud, ToDoubleFunction<T> longitud) {
+        this(elementos, latitud, longitud, CELDA_GRADOS);
+    }
+
+    /**
+     * @param elementos Elementos a indexar, todos con coordenadas (la lista no se copia: no debe cambiar)
+     * @param celdaGrados Lado de cada celda en grados: del orden del radio que más se busque
+     */
+    public IndiceGeografico(List<T> elementos, ToDoubleFunction<T> latitud, ToDoubleFunction<T> longitud,
+                            double celdaGrados) {
+        this.elementos = elementos;
+        this.celda = celdaGrados;
+        this.filas = (int) Math.ceil(180 / celdaGrados) + 1;
+        // Las columnas dan la vuelta (la última linda con la primera por el antimeridiano) y
+        // reparten los 360 grados por igual, así que pueden ser algo más estrechas que la celda
+        this.columnas = (int) Math.ceil(360 / celdaGrados);
+        this.anchoColumna = 360.0 / columnas;
+        int n = elementos.size();
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+
+        // Elementos ordenados por celda: (clave de la celda, posición)
+        long[][] porCelda = new long[n][];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = latitud.applyAsDouble(elementos.get(i));
+            longitudes[i] = longitud.applyAsDouble(elementos.get(i));
+            porCelda[i] = new long[] {clave(fila(latitudes[i]), columna(longitudes[i])), i};
+        }
+        Arrays.sort(porCelda, Comparator.comparingLong((long[] c) -> c[0]).thenComparingLong(c -> c[1]));
+
+        this.documentos = new int[n];
+        long[] claves = new long[n];
+        int[] comienzos = new int[n + 1];
+        int distintas = 0;
+        for (int i = 0; i < n; i++) {
+            documentos[i] = (int) porCelda[i][1];
+            if (i == 0 || porCelda[i][0] != porCelda[i - 1][0]) {
+                claves[distintas] = porCelda[i][0];
+                comienzos[distintas++] = i;
+            }
+        }
+        comienzos[distintas] = n;
+        this.celdas = Arrays.copyOf(claves, distintas);
+        this.inicios = Arrays.copyOf(comienzos, distintas + 1);
+    }
+
+    public int size() {
+        return elementos.size();
+    }
+
+    /**
+     * Elementos a una distancia máxima del punto, del más al menos cercano
+     */
+    public List<Cercano<T>> enRadio(double latitud, double longitud, double radioKm) {
+        double margenLatitud = radioKm / KM_POR_GRADO;
+        double latitudExtrema = Math.min(90, Math.abs(latitud) + margenLatitud);
+        double margenLongitud = latitudExtrema >= 89.9 ? 360 : margenLatitud / Math.cos(Math.toRadians(latitudExtrema));
+
+        List<Cercano<T>> encontrados = new ArrayList<>();
+        int columnaDesde = margenLongitud >= 180 ? 0 : columna(longitud - margenLongitud);
+        int columnaHasta = margenLongitud >= 180 ? columnas - 1 : columna(longitud + margenLongitud);
+        for (int f = fila(latitud - margenLatitud); f <= fila(latitud + margenLatitud); f++) {
+            if (columnaDesde <= columnaHasta) {
+                recoger(f, columnaDesde, columnaHasta, latitud, longitud, radioKm, null, encontrados);
+            } else {
+                // El rango cruza el antimeridiano
+                recoger(f, columnaDesde, columnas - 1, latitud, longitud, radioKm, null, encontrados);
+                recoger(f, 0, columnaHasta, latitud, longitud, radioKm, null, encontrados);
+            }
+        }
+        encontrados.sort(Comparator.comparingDouble(Cercano::getDistanciaKm));
+        return encontrados;
+    }
+
+    /**
+     * Los k elementos más cercanos al punto que cumplen una condición, del más al menos
+     * cercano. Recorre anillos de celdas alrededor del punto (que dan la vuelta por el
+     * antimeridiano) hasta que ningún elemento fuera de ellos pueda estar más cerca que el
+     * k-ésimo encontrado.
+     * @param filtro Condición de los elementos (null para todos)
+     */
+    public List<Cercano<T>> masCercanos(double latitud, double longitud, int k, Predicate<T> filtro) {
+        List<Cercano<T>> encontrados = new ArrayList<>();
+        if (k <= 0 || elementos.isEmpty()) {
+            return encontrados;
+        }
+        int filaCentro = fila(latitud);
+        int columnaCentro = columna(longitud);
+        int celdasVistas = 0;
+        for (int r = 0; ; r++) {
+            for (int f = filaCentro - r; f <= filaCentro + r; f++) {
+                if (f < 0 || f >= filas) {
+                    continue;
+                }
+                if (f == filaCentro - r || f == filaCentro + r) {
+                    recogerConVuelta(f, columnaCentro - r, columnaCentro + r,
+                        latitud, longitud, filtro, encontrados);
+                    celdasVistas += Math.min(2 * r + 1, columnas);
+                } else if (2 * r <= columnas) {
+                    // Las columnas de los lados que no vieron los anillos anteriores: una sola si
+                    // se encuentran al otro lado del mundo
+                    recogerConVuelta(f, columnaCentro + r, columnaCentro + r, latitud, longitud, filtro, encontrados);
+                    if (2 * r < columnas) {
+                        recogerConVuelta(f, columnaCentro - r, columnaCentro - r, latitud, longitud, filtro, encontrados);
+                    }
+                    celdasVistas += 2;
+                }
+            }
+            encontrados.sort(Comparator.comparingDouble(Cercano::getDistanciaKm));
+
+            // Cualquier elemento fuera de los anillos vistos está al menos a r celdas del punto
+            double latitudExtrema = Math.min(90, Math.abs(latitud) + (r + 1) * celda);
+            double cota = r * anchoColumna * KM_POR_GRADO * Math.cos(Math.toRadians(latitudExtrema));
+            if (encontrados.size() >= k && encontrados.get(k - 1).getDistanciaKm() <= cota) {
+                return new ArrayList<>(encontrados.subList(0, k));
+            }
+            if (r >= filas && r >= columnas) {
+                break;
+            }
+            // Pocos elementos y lejos: sale más barato medirlos todos que seguir con anillos
+            if (celdasVistas > 4 * celdas.length + 64) {
+                return todosPorDistancia(latitud, longitud, k, filtro);
+            }
+        }
+        return encontrados.size() > k ? new ArrayList<>(encontrados.subList(0, k)) : encontrados;
+    }
+
+    private List<Cercano<T>> todosPorDistancia(double latitud, double longitud, int k, Predicate<T> filtro) {
+        List<Cercano<T>> todos = new ArrayList<>();
+        for (int i = 0; i < elementos.size(); i++) {
+            if (filtro == null || filtro.test(elementos.get(i))) {
+                todos.add(new Cercano<>(elementos.get(i), distanciaKm(latitud, longitud, latitudes[i], longitudes[i])));
+            }
+        }
+        todos.sort(Comparator.comparingDouble(Cercano::getDistanciaKm));
+        return todos.size() > k ? new ArrayList<>(todos.subList(0, k)) : todos;
+    }
+
+    /**
+     * Como recoger, sin límite de distancia, con columnas fuera de [0, columnas) que dan la
+     * vuelta por el antimeridiano; si el rango es más ancho que el mundo, cada columna una vez
+     */
+    private void recogerConVuelta(int fila, int columnaDesde, int columnaHasta, double latitud, double longitud,
+                                  Predicate<T> filtro, List<Cercano<T>> encontrados) {
+        if (columnaHasta - columnaDesde + 1 >= columnas) {
+            recoger(fila, 0, columnas - 1, latitud, longitud, Double.MAX_VALUE, filtro, encontrados);
+            return;
+        }
+        int desde = Math.floorMod(columnaDesde, columnas);
+        int hasta = Math.floorMod(columnaHasta, columnas);
+        if (desde <= hasta) {
+            recoger(fila, desde, hasta, latitud, longitud, Double.MAX_VALUE, filtro, encontrados);
+        } else {
+            recoger(fila, desde, columnas - 1, latitud, longitud, Double.MAX_VALUE, filtro, encontrados);
+            recoger(fila, 0, hasta, latitud, longitud, Double.MAX_VALUE, filtro, encontrados);
+        }
+    }
+
+    /**
+     * Añade los elementos de las celdas [columnaDesde, columnaHasta] de una fila que están
+     * a menos de radioKm y cumplen el filtro
+     */
+    private void recoger(int fila, int columnaDesde, int columnaHasta, double latitud, double longitud,
+                         double radioKm, Predicate<T> filtro, List<Cercano<T>> encontrados) {
+        long hasta = clave(fila, columnaHasta);
+        int c = Arrays.binarySearch(celdas, clave(fila, columnaDesde));
+        for (c = c >= 0 ? c : -c - 1; c < celdas.length && celdas[c] <= hasta; c++) {
+            for (int p = inicios[c]; p < inicios[c + 1]; p++) {
+                int i = documentos[p];
+                double distancia = distanciaKm(latitud, longitud, latitudes[i], longitudes[i]);
+                if (distancia <= radioKm && (filtro == null || filtro.test(elementos.get(i)))) {
+                    encontrados.add(new Cercano<>(elementos.get(i), distancia));
+                }
+            }
+        }
+    }
+
+    private int fila(double latitud) {
+        return Math.max(0, Math.min(filas - 1, (int) Math.floor((latitud + 90) / celda)));
+    }
+
+    private int columna(double longitud) {
+        double normalizada = ((longitud + 180) % 360 + 360) % 360;
+        return Math.min(columnas - 1, (int) Math.floor(normalizada / anchoColumna));
+    }
+
+    private static long clave(int fila, int columna) {
+        return (long) fila << 32 | columna;
+    }
+
+    /**
+     * Distancia en kilómetros sobre la esfera (fórmula del haversine)
+     */
+    public static double distanciaKm(double latitud1, double longitud1, double latitud2, double longitud2) {
+        double dLatitud = Math.toRadians(latitud2 - latitud1);
+        double dLongitud = Math.toRadians(longitud2 - longitud1);
+        double a = Math.sin(dLatitud / 2) * Math.sin(dLatitud / 2)
+            + Math.cos(Math.toRadians(latitud1)) * Math.cos(Math.toRadians(latitud2))
+            * Math.sin(dLongitud / 2) * Math.sin(dLongitud / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,245 @@
+package com.eventos.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda aproximada por trigramas (grupos de tres letras), tolerante a erratas:
+ * "Madird" encuentra "Madrid" y "Gonzales" encuentra "González".
+ *
+ * Cada texto se pasa a minúsculas, sin tildes, y cada palabra se rodea de espacios
+ * ("  madrid ") antes de partirla en trigramas. La similitud de un texto con la consulta
+ * es la fracción de trigramas de la consulta que contiene; a igualdad gana el texto más
+ * corto (el que tiene menos trigramas de sobra).
+ *
+ * Inmutable. Los trigramas se guardan ordenados en un long[] y sus listas de documentos
+ * van seguidas en un único int[] (offsets en otro int[]), sin objetos por entrada, así que
+ * una consulta solo recorre unas pocas listas de enteros.
+ *
+ * @param <T> Tipo de los elementos indexados
+ */
+public final class IndiceTrigramas<T> {
+
+    /**
+     * Similitud mínima por defecto para considerar que un texto coincide
+     */
+    public static final double SIMILITUD_MINIMA = 0.4;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private final List<T> elementos;
+    private final long[] trigramas;
+    private final int[] inicios;
+    private final int[] documentos;
+    private final int[] tamanos;
+
+    /**
+     * @param elementos Elementos a indexar (la lista no se copia: no debe cambiar)
+     * @param texto Texto de cada elemento por el que se busca (puede juntar varios campos)
+     */
+    public IndiceTrigramas(List<T> elementos, Function<T, String> texto) {
+        this.elementos = elementos;
+        this.tamanos = new int[elementos.size()];
+
+        // Primera pasada: trigramas distintos de cada elemento y cuántos elementos tiene cada trigrama
+        long[][] porElemento = new long[elementos.size()][];
+        Map<Long, int[]> cuentas = new HashMap<>();
+        for (int i = 0; i < elementos.size(); i++) {
+            long[] propios = trigramas(texto.apply(elementos.get(i)));
+            porElemento[i] = propios;
+            tamanos[i] = propios.length;
+            for (long trigrama : propios) {
+                cuentas.computeIfAbsent(trigrama, t -> new int[1])[0]++;
+            }
+        }
+
+        // Trigramas ordenados y offsets de sus listas en el array de documentos
+        this.trigramas = new long[cuentas.size()];
+        int k = 0;
+        for (Long trigrama : cuentas.keySet()) {
+            trigramas[k++] = trigrama;
+        }
+        Arrays.sort(trigramas);
+        this.inicios = new int[trigramas.length + 1];
+        for (int t = 0; t < trigramas.length; t++) {
+            inicios[t + 1] = inicios[t] + cuentas.get(trigramas[t])[0];
+        }
+
+        // Segunda pasada: cada elemento en las listas de sus trigramas (quedan en orden creciente)
+        this.documentos = new int[inicios[trigramas.length]];
+        int[] llenos = Arrays.copyOf(inicios, trigramas.length);
+        for (int i = 0; i < porElemento.length; i++) {
+            for (long trigrama : porElemento[i]) {
+                documentos[llenos[Arrays.binarySearch(trigramas, trigrama)]++] = i;
+            }
+        }
+    }
+
+    public int size() {
+        return elementos.size();
+    }
+
+    /**
+     * Elementos con similitud mínima {@link #SIMILITUD_MINIMA}, del más al menos parecido
+     * @param consulta Texto buscado
+     * @param maximo Número máximo de resultados
+     */
+    public List<T> buscar(String consulta, int maximo) {
+        return buscar(consulta, SIMILITUD_MINIMA, maximo);
+    }
+
+    /**
+     * Elementos cuya similitud con la consulta llega al mínimo, del más al menos parecido
+     * @param consulta Texto buscado
+     * @param similitudMinima Entre 0 y 1 (1 = contiene todos los trigramas de la consulta)
+     * @param maximo Número máximo de resultados
+     */
+    public List<T> buscar(String consulta, double similitudMinima, int maximo) {
+        long[] buscados = trigramas(consulta);
+        if (buscados.length == 0 || maximo <= 0) {
+            return new ArrayList<>();
+        }
+
+        int necesarios = Math.max(1, (int) Math.ceil(similitudMinima * buscados.length));
+
+        // Listas de los trigramas de la consulta que existen, de la más corta a la más larga
+        long[] listas = new long[buscados.length];
+        int presentes = 0;
+        for (long trigrama : buscados) {
+            int t = Arrays.binarySearch(trigramas, trigrama);
+            if (t >= 0) {
+                listas[presentes++] = (long) (inicios[t + 1] - inicios[t]) << 32 | t;
+            }
+        }
+        if (presentes < necesarios) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(listas, 0, presentes);
+
+        // Un elemento con "necesarios" trigramas comunes está por fuerza en alguna de las
+        // (presentes - necesarios + 1) listas más cortas: solo esas se recorren enteras
+        int[] comunes = new int[elementos.size()];
+        int[] tocados = new int[Math.min(elementos.size(), 1024)];
+        int numeroTocados = 0;
+        int generadoras = presentes - necesarios + 1;
+        for (int l = 0; l < generadoras; l++) {
+            int t = (int) listas[l];
+            for (int p = inicios[t]; p < inicios[t + 1]; p++) {
+                int documento = documentos[p];
+                if (comunes[documento]++ == 0) {
+                    if (numeroTocados == tocados.length) {
+                        tocados = Arrays.copyOf(tocados, Math.min(elementos.size(), tocados.length * 2));
+                    }
+                    tocados[numeroTocados++] = documento;
+                }
+            }
+        }
+        // En las listas largas solo se comprueban (por búsqueda binaria) los que aún pueden llegar
+        for (int l = generadoras; l < presentes && numeroTocados > 0; l++) {
+            int t = (int) listas[l];
+            int quedan = presentes - l;
+            int vivos = 0;
+            for (int i = 0; i < numeroTocados; i++) {
+                int documento = tocados[i];
+                if (comunes[documento] + quedan < necesarios) {
+                    continue;
+                }
+                if (Arrays.binarySearch(documentos, inicios[t], inicios[t + 1], documento) >= 0) {
+                    comunes[documento]++;
+                }
+                tocados[vivos++] = documento;
+            }
+            numeroTocados = vivos;
+        }
+
+        // Los mejores por número de trigramas comunes; solo se ordena el último grupo que entra
+        int[] porCuenta = new int[buscados.length + 1];
+        for (int i = 0; i < numeroTocados; i++) {
+            if (comunes[tocados[i]] >= necesarios) {
+                porCuenta[comunes[tocados[i]]]++;
+            }
+        }
+        int corte = buscados.length;
+        for (int acumulados = porCuenta[corte]; corte > necesarios && acumulados < maximo; ) {
+            acumulados += porCuenta[--corte];
+        }
+        long[] candidatos = new long[numeroTocados];
+        int numeroCandidatos = 0;
+        for (int i = 0; i < numeroTocados; i++) {
+            int documento = tocados[i];
+            if (comunes[documento] >= Math.max(corte, necesarios)) {
+                // Orden: más trigramas comunes, después menos trigramas de sobra, después posición
+                long sobrantes = tamanos[documento] - comunes[documento];
+                candidatos[numeroCandidatos++] = ((long) (buscados.length - comunes[documento]) << 52)
+                    | (Math.min(sobrantes, 0xFFFFF) << 32) | documento;
+            }
+        }
+        Arrays.sort(candidatos, 0, numeroCandidatos);
+
+        List<T> resultado = new ArrayList<>(Math.min(maximo, numeroCandidatos));
+        for (int i = 0; i < numeroCandidatos && resultado.size() < maximo; i++) {
+            resultado.add(elementos.get((int) candidatos[i]));
+        }
+        return resultado;
+    }
+
+    /**
+     * Trigramas distintos de un texto, ordenados. Cada uno son tres caracteres de 16 bits.
+     */
+    static long[] trigramas(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return new long[0];
+        }
+        String plegado = plegar(texto);
+        long[] resultado = new long[plegado.length() * 3 + 3];
+        int n = 0;
+        int inicio = -1;
+        for (int i = 0; i <= plegado.length(); i++) {
+            boolean valido = i < plegado.length() && Character.isLetterOrDigit(plegado.charAt(i));
+            if (valido && inicio < 0) {
+                inicio = i;
+            } else if (!valido && inicio >= 0) {
+                // "  palabra ": dos espacios delante y uno detrás, como pg_trgm
+                char a = ' ';
+                char b = ' ';
+                for (int j = inicio; j <= i; j++) {
+                    char c = j < i ? plegado.charAt(j) : ' ';
+                    resultado[n++] = (long) a << 32 | (long) b << 16 | c;
+                    a = b;
+                    b = c;
+                }
+                inicio = -1;
+            }
+        }
+        long[] distintos = Arrays.copyOf(resultado, n);
+        Arrays.sort(distintos);
+        int unicos = 0;
+        for (int i = 0; i < distintos.length; i++) {
+            if (i == 0 || distintos[i] != distintos[i - 1]) {
+                distintos[unicos++] = distintos[i];
+            }
+        }
+        return Arrays.copyOf(distintos, unicos);
+    }
+
+    /**
+     * Texto en minúsculas y sin tildes (la ñ queda como n), como compara MySQL con la
+     * intercalación por defecto
+     */
+    public static String plegar(String texto) {
+        String minusculas = texto.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < minusculas.length(); i++) {
+            if (minusculas.charAt(i) > 0x7F) {
+                return MARCAS.matcher(Normalizer.normalize(minusculas, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return minusculas;
+    }
+}
@@ -0,0 +1,365 @@
+package com.eventos.utils;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Generador de códigos QR sin pasar por imágenes AWT.
+ *
+ * ZXing solo se usa para calcular la matriz de módulos; el escalado y la salida
+ * se hacen aquí: PNG en escala de grises de 1 bit, mapa de bits empaquetado
+ * (1 bit por píxel) o ruta SVG. Los búferes y el compresor de cada hilo se
+ * reutilizan entre llamadas, así que cada código solo reserva el resultado.
+ *
+ * La disposición (escala entera y margen centrado) es la misma que la de
+ * QRCodeWriter, por lo que la imagen sale idéntica píxel a píxel.
+ */
+public final class MotorQR {
+
+    private static final byte[] FIRMA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final Map<EncodeHintType, Object> HINTS_UTF8 =
+        Map.of(EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name());
+
+    /**
+     * Búferes reutilizables de cada hilo
+     */
+    private static final ThreadLocal<Buferes> BUFERES = ThreadLocal.withInitial(Buferes::new);
+
+    private MotorQR() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Mapa de bits de 1 bit por píxel, por filas y con el bit más significativo a la
+     * izquierda. Un bit a 1 es un píxel oscuro.
+     */
+    public static final class MapaBits {
+
+        private final int lado;
+        private final int bytesPorFila;
+        private final byte[] datos;
+
+        MapaBits(int lado, int bytesPorFila, byte[] datos) {
+            this.lado = lado;
+            this.bytesPorFila = bytesPorFila;
+            this.datos = datos;
+        }
+
+        /**
+         * Ancho y alto en píxeles
+         */
+        public int getLado() {
+            return lado;
+        }
+
+        public int getBytesPorFila() {
+            return bytesPorFila;
+        }
+
+        public byte[] getDatos() {
+            return datos;
+        }
+
+        /**
+         * Indica si el píxel (x, y) es oscuro
+         */
+        public boolean get(int x, int y) {
+            return (datos[y * bytesPorFila + (x >> 3)] & (0x80 >>> (x & 7))) != 0;
+        }
+    }
+
+    /**
+     * Genera el PNG (escala de grises, 1 bit) de un texto
+     * @param texto Contenido a codificar
+     * @param opciones Tamaño, margen y corrección de errores
+     * @return Bytes del PNG
+     */
+    public static byte[] generarPng(String texto, OpcionesQR opciones) {
+        Disposicion d = disponer(texto, opciones);
+        Buferes b = BUFERES.get();
+        int bytesPorFila = (d.lado + 7) >> 3;
+
+        // Filas en crudo: byte de filtro (0 = ninguno) + píxeles. En PNG gris, 1 = blanco
+        int anchoFila = bytesPorFila + 1;
+        byte[] crudo = b.crudo(anchoFila * d.lado);
+        byte[] blanca = b.fila(bytesPorFila);
+        Arrays.fill(blanca, (byte) 0xFF);
+        for (int y = 0; y < d.lado; y++) {
+            int destino = y * anchoFila;
+            crudo[destino] = 0;
+            int my = d.moduloY(y);
+            if (my < 0) {
+                System.arraycopy(blanca, 0, crudo, destino + 1, bytesPorFila);
+            } else if (y > 0 && d.moduloY(y - 1) == my) {
+                // Misma fila de módulos que la anterior: se copia tal cual
+                System.arraycopy(crudo, destino - anchoFila, crudo, destino, anchoFila);
+            } else {
+                escribirFila(d, my, crudo, destino + 1, bytesPorFila, true);
+            }
+        }
+
+        Deflater deflater = b.deflater;
+        deflater.reset();
+        deflater.setInput(crudo, 0, anchoFila * d.lado);
+        deflater.finish();
+        byte[] comprimido = b.comprimido(anchoFila * d.lado / 4 + 64);
+        int longitud = 0;
+        while (!deflater.finished()) {
+            if (longitud == comprimido.length) {
+                comprimido = b.ampliarComprimido(comprimido.length * 2);
+            }
+            longitud += deflater.deflate(comprimido, longitud, comprimido.length - longitud);
+        }
+
+        byte[] png = new byte[FIRMA_PNG.length + 25 + 12 + longitud + 12];
+        System.arraycopy(FIRMA_PNG, 0, png, 0, FIRMA_PNG.length);
+        int pos = FIRMA_PNG.length;
+
+        // IHDR: ancho, alto, 1 bit, escala de grises, deflate, filtro estándar, sin entrelazado
+        byte[] ihdr = b.ihdr;
+        escribirEntero(ihdr, 0, d.lado);
+        escribirEntero(ihdr, 4, d.lado);
+        ihdr[8] = 1;
+        ihdr[9] = 0;
+        ihdr[10] = 0;
+        ihdr[11] = 0;
+        ihdr[12] = 0;
+        pos = escribirBloque(png, pos, "IHDR", ihdr, 13, b.crc);
+        pos = escribirBloque(png, pos, "IDAT", comprimido, longitud, b.crc);
+        escribirBloque(png, pos, "IEND", ihdr, 0, b.crc);
+        return png;
+    }
+
+    /**
+     * Genera el mapa de bits empaquetado de un texto
+     * @param texto Contenido a codificar
+     * @param opciones Tamaño, margen y corrección de errores
+     * @return Mapa de bits (1 = oscuro)
+     */
+    public static MapaBits generarMapaBits(String texto, OpcionesQR opciones) {
+        Disposicion d = disponer(texto, opciones);
+        int bytesPorFila = (d.lado + 7) >> 3;
+        byte[] datos = new byte[bytesPorFila * d.lado];
+        for (int y = 0; y < d.lado; y++) {
+            int my = d.moduloY(y);
+            if (my < 0) {
+                continue;
+            }
+            int destino = y * bytesPorFila;
+            if (y > 0 && d.moduloY(y - 1) == my) {
+                System.arraycopy(datos, destino - bytesPorFila, datos, destino, bytesPorFila);
+            } else {
+                escribirFila(d, my, datos, destino, bytesPorFila, false);
+            }
+        }
+        return new MapaBits(d.lado, bytesPorFila, datos);
+    }
+
+    /**
+     * Genera la ruta SVG (atributo d) de un texto, en unidades de módulo y con el margen
+     * incluido. Cada tramo horizontal de módulos oscuros es un rectángulo.
+     * @param texto Contenido a codificar
+     * @param opciones Margen y corrección de errores (el tamaño no se usa)
+     * @return Ruta SVG
+     */
+    public static String generarRutaSvg(String texto, OpcionesQR opciones) {
+        ByteMatrix modulos = codificar(texto, opciones);
+        int margen = Math.max(0, opciones.getMargen());
+        byte[][] filas = modulos.getArray();
+        StringBuilder ruta = new StringBuilder(filas.length * filas.length);
+        for (int y = 0; y < filas.length; y++) {
+            byte[] fila = filas[y];
+            int x = 0;
+            while (x < fila.length) {
+                if (fila[x] != 1) {
+                    x++;
+                    continue;
+                }
+                int inicio = x;
+                while (x < fila.length && fila[x] == 1) {
+                    x++;
+                }
+                int largo = x - inicio;
+                ruta.append('M').append(inicio + margen).append(' ').append(y + margen)
+                    .append('h').append(largo).append("v1h-").append(largo).append('z');
+            }
+        }
+        return ruta.toString();
+    }
+
+    /**
+     * Genera un documento SVG completo de un texto, escalable sin pérdida
+     * @param texto Contenido a codificar
+     * @param opciones Tamaño (ancho y alto del SVG), margen y corrección de errores
+     * @return Documento SVG
+     */
+    public static String generarSvg(String texto, OpcionesQR opciones) {
+        ByteMatrix modulos = codificar(texto, opciones);
+        int lado = modulos.getWidth() + 2 * Math.max(0, opciones.getMargen());
+        int tamano = Math.max(opciones.getTamano(), lado);
+        return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + tamano + "\" height=\"" + tamano
+            + "\" viewBox=\"0 0 " + lado + " " + lado + "\" shape-rendering=\"crispEdges\">"
+            + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+            + "<path fill=\"#000\" d=\"" + generarRutaSvg(texto, opciones) + "\"/></svg>";
+    }
+
+    private static ByteMatrix codificar(String texto, OpcionesQR opciones) {
+        if (texto == null || texto.isEmpty()) {
+            throw new IllegalArgumentException("El texto del QR no puede estar vacío");
+        }
+        try {
+            // Los tokens son ASCII: sin hints no se añade la cabecera ECI de UTF-8
+            Map<EncodeHintType, ?> hints = esAscii(texto) ? null : HINTS_UTF8;
+            return Encoder.encode(texto, opciones.getCorreccion(), hints).getMatrix();
+        } catch (WriterException e) {
+            throw new RuntimeException("No se pudo generar el código QR", e);
+        }
+    }
+
+    private static Disposicion disponer(String texto, OpcionesQR opciones) {
+        ByteMatrix modulos = codificar(texto, opciones);
+        int n = modulos.getWidth();
+        int conMargen = n + 2 * Math.max(0, opciones.getMargen());
+        int lado = Math.max(opciones.getTamano(), conMargen);
+        int escala = lado / conMargen;
+        int relleno = (lado - n * escala) / 2;
+        return new Disposicion(modulos.getArray(), n, lado, escala, relleno);
+    }
+
+    /**
+     * Empaqueta una fila de módulos en píxeles. Si invertir es true, 1 = blanco (PNG)
+     */
+    private static void escribirFila(Disposicion d, int my, byte[] destino, int inicio,
+                                     int bytesPorFila, boolean invertir) {
+        byte[] fila = d.modulos[my];
+        int acumulado = 0;
+        int bits = 0;
+        int pos = inicio;
+        for (int x = 0; x < d.lado; x++) {
+            int mx = d.moduloX(x);
+            boolean oscuro = mx >= 0 && fila[mx] == 1;
+            acumulado = (acumulado << 1) | (oscuro != invertir ? 1 : 0);
+            if (++bits == 8) {
+                destino[pos++] = (byte) acumulado;
+                acumulado = 0;
+                bits = 0;
+            }
+        }
+        if (bits > 0) {
+            // Relleno del último byte: blanco
+            int resto = 8 - bits;
+            destino[pos] = (byte) ((acumulado << resto) | (invertir ? (1 << resto) - 1 : 0));
+        }
+    }
+
+    private static int escribirBloque(byte[] png, int pos, String tipo, byte[] datos, int longitud, CRC32 crc) {
+        escribirEntero(png, pos, longitud);
+        pos += 4;
+        int inicioTipo = pos;
+        for (int i = 0; i < 4; i++) {
+            png[pos++] = (byte) tipo.charAt(i);
+        }
+        System.arraycopy(datos, 0, png, pos, longitud);
+        pos += longitud;
+        crc.reset();
+        crc.update(png, inicioTipo, 4 + longitud);
+        escribirEntero(png, pos, (int) crc.getValue());
+        return pos + 4;
+    }
+
+    private static void escribirEntero(byte[] destino, int pos, int valor) {
+        destino[pos] = (byte) (valor >>> 24);
+        destino[pos + 1] = (byte) (valor >>> 16);
+        destino[pos + 2] = (byte) (valor >>> 8);
+        destino[pos + 3] = (byte) valor;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matriz de módulos y su colocación en la imagen
+     */
+    private static final class Disposicion {
+        final byte[][] modulos;
+        final int n;
+        final int lado;
+        final int escala;
+        final int relleno;
+
+        Disposicion(byte[][] modulos, int n, int lado, int escala, int relleno) {
+            this.modulos = modulos;
+            this.n = n;
+            this.lado = lado;
+            this.escala = escala;
+            this.relleno = relleno;
+        }
+
+        /**
+         * Módulo que cae en la coordenada de píxel, o -1 si es margen
+         */
+        int moduloX(int x) {
+            int m = x - relleno;
+            return m < 0 || m >= n * escala ? -1 : m / escala;
+        }
+
+        int moduloY(int y) {
+            return moduloX(y);
+        }
+    }
+
+    private static final class Buferes {
+        // Con la máxima compresión el PNG ocupa un 30 % menos pero tarda el doble;
+        // las imágenes solo viven en la caché, así que prima la velocidad
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final CRC32 crc = new CRC32();
+        final byte[] ihdr = new byte[13];
+        private byte[] crudo = new byte[0];
+        private byte[] comprimido = new byte[0];
+        private byte[] fila = new byte[0];
+
+        byte[] crudo(int minimo) {
+            if (crudo.length < minimo) {
+                crudo = new byte[minimo];
+            }
+            return crudo;
+        }
+
+        byte[] comprimido(int minimo) {
+            if (comprimido.length < minimo) {
+                comprimido = new byte[minimo];
+            }
+            return comprimido;
+        }
+
+        /**
+         * Amplía el búfer de salida conservando lo ya comprimido
+         */
+        byte[] ampliarComprimido(int minimo) {
+            comprimido = Arrays.copyOf(comprimido, minimo);
+            return comprimido;
+        }
+
+        byte[] fila(int minimo) {
+            if (fila.length < minimo) {
+                fila = new byte[minimo];
+            }
+            return fila;
+        }
+    }
+}
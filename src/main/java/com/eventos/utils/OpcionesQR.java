@@ -0,0 +1,64 @@
+package com.eventos.utils;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * Parámetros con los que {@link MotorQR} genera un código QR.
+ */
+public class OpcionesQR {
+
+    /**
+     * Margen recomendado por la norma QR (en módulos)
+     */
+    public static final int MARGEN_POR_DEFECTO = 4;
+
+    private int tamano;
+    private int margen = MARGEN_POR_DEFECTO;
+    private ErrorCorrectionLevel correccion = ErrorCorrectionLevel.L;
+
+    public OpcionesQR() {
+    }
+
+    public OpcionesQR(int tamano) {
+        this.tamano = tamano;
+    }
+
+    public OpcionesQR(int tamano, int margen, ErrorCorrectionLevel correccion) {
+        this.tamano = tamano;
+        this.margen = margen;
+        this.correccion = correccion;
+    }
+
+    /**
+     * Lado de la imagen en píxeles. Si no caben los módulos se usa el mínimo necesario
+     */
+    public int getTamano() {
+        return tamano;
+    }
+
+    public void setTamano(int tamano) {
+        this.tamano = tamano;
+    }
+
+    /**
+     * Zona en blanco alrededor del código, en módulos
+     */
+    public int getMargen() {
+        return margen;
+    }
+
+    public void setMargen(int margen) {
+        this.margen = margen;
+    }
+
+    /**
+     * Nivel de corrección de errores (L, M, Q o H)
+     */
+    public ErrorCorrectionLevel getCorreccion() {
+        return correccion;
+    }
+
+    public void setCorreccion(ErrorCorrectionLevel correccion) {
+        this.correccion = correccion;
+    }
+}
@@ -1,19 +1,193 @@
 package com.eventos.utils;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.MultiFormatWriter;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
+import com.eventos.config.ConfigManager;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Servicio utilitario para generar códigos QR en Base64 (PNG).
+ * Servicio utilitario para generar códigos QR.
+ * Las entradas guardan solo un token corto (ver {@link #generarToken()}); la imagen
+ * se genera al mostrarla y se guarda en una caché LRU acotada (app.qr.cacheSize).
+ *
+ * La generación asíncrona usa un pool de hilos acotado (app.qr.hilos) con una cola
+ * limitada (app.qr.colaMax), de modo que ni las compras ni la interfaz esperan a ZXing.
+ * Las imágenes las dibuja {@link MotorQR}.
  */
 public class QRService {
 
+    /**
+     * Tamaño del QR en las tarjetas de "Mis entradas"
+     */
+    public static final int TAMANO_MINIATURA = 100;
+
+    /**
+     * Tamaño del QR en el diálogo de detalle de una entrada
+     */
+    public static final int TAMANO_DETALLE = 300;
+
+    /**
+     * Estado de la imagen de un QR
+     */
+    public enum EstadoQR {
+        /** Aún no se ha pedido */
+        PENDIENTE,
+        /** En cola o generándose */
+        GENERANDO,
+        /** En caché, se puede mostrar ya */
+        LISTO
+    }
+
+    /**
+     * Bytes aleatorios de cada token (16 bytes = 22 caracteres en Base64 URL)
+     */
+    private static final int BYTES_TOKEN = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final int MAX_CACHE = ConfigManager.getInt("app.qr.cacheSize", 256);
+
+    /**
+     * PNG ya generados por "texto|tamaño", en orden de último acceso
+     */
+    private static final Map<String, byte[]> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHE;
+        }
+    };
+
+    /**
+     * Generaciones en curso por clave, para no generar dos veces el mismo QR
+     */
+    private static final Map<String, CompletableFuture<byte[]>> EN_CURSO = new ConcurrentHashMap<>();
+
+    private static final int COLA_MAX = ConfigManager.getInt("app.qr.colaMax", 1000);
+
+    /**
+     * Huecos de la cola que se reservan para las peticiones de la interfaz:
+     * el precalentado no los ocupa
+     */
+    private static final int RESERVA_INTERFAZ = Math.max(1, COLA_MAX / 10);
+
+    private static final ThreadPoolExecutor POOL = crearPool();
+
+    /**
+     * Genera un token aleatorio e imposible de adivinar para el QR de una entrada.
+     * Es el único dato del QR que se guarda en la base de datos.
+     * @return Token de 22 caracteres en Base64 URL
+     */
+    public static String generarToken() {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        RANDOM.nextBytes(bytes);
+        return TOKEN_ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * Genera (o recupera de la caché) el PNG del QR de un texto.
+     * @param texto contenido a codificar (normalmente el token de la entrada)
+     * @param size tamaño del QR (px)
+     * @return bytes del PNG
+     */
+    public byte[] generarQRPng(String texto, int size) {
+        String clave = texto + "|" + size;
+        synchronized (CACHE) {
+            byte[] png = CACHE.get(clave);
+            if (png != null) {
+                return png;
+            }
+        }
+        byte[] png = renderizar(texto, size);
+        synchronized (CACHE) {
+            CACHE.put(clave, png);
+        }
+        return png;
+    }
+
+    /**
+     * Genera el PNG del QR en el pool de hilos, sin bloquear a quien lo pide.
+     * Si ya está en caché el futuro se devuelve completado; si ya se está generando
+     * se devuelve el mismo futuro.
+     * @param texto contenido a codificar
+     * @param size tamaño del QR (px)
+     * @return Futuro con los bytes del PNG (falla si la cola está llena)
+     */
+    public CompletableFuture<byte[]> generarQRPngAsync(String texto, int size) {
+        String clave = texto + "|" + size;
+        synchronized (CACHE) {
+            byte[] png = CACHE.get(clave);
+            if (png != null) {
+                return CompletableFuture.completedFuture(png);
+            }
+        }
+        // El futuro se crea fuera del mapa: quitarlo al terminar dentro de computeIfAbsent
+        // sería una modificación recursiva del mismo mapa
+        CompletableFuture<byte[]> futuro = new CompletableFuture<>();
+        CompletableFuture<byte[]> existente = EN_CURSO.putIfAbsent(clave, futuro);
+        if (existente != null) {
+            return existente;
+        }
+        try {
+            POOL.execute(() -> {
+                try {
+                    futuro.complete(generarQRPng(texto, size));
+                } catch (Throwable t) {
+                    futuro.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cola llena: no se deja en el mapa, la siguiente petición lo vuelve a intentar
+            EN_CURSO.remove(clave, futuro);
+            futuro.completeExceptionally(e);
+            return futuro;
+        }
+        futuro.whenComplete((png, error) -> EN_CURSO.remove(clave, futuro));
+        return futuro;
+    }
+
+    /**
+     * Encola la generación de los QR de unos tokens para que ya estén en caché
+     * cuando se muestren. Si la cola está casi llena no encola nada: el QR se
+     * generará igualmente al mostrarlo.
+     * @param tokens tokens de las entradas
+     * @param size tamaño del QR (px)
+     */
+    public void precalentar(Collection<String> tokens, int size) {
+        for (String token : tokens) {
+            if (token == null || estado(token, size) != EstadoQR.PENDIENTE) {
+                continue;
+            }
+            if (POOL.getQueue().remainingCapacity() <= RESERVA_INTERFAZ) {
+                return;
+            }
+            generarQRPngAsync(token, size);
+        }
+    }
+
+    /**
+     * Indica si la imagen de un QR ya está lista, se está generando o no se ha pedido
+     */
+    public EstadoQR estado(String texto, int size) {
+        String clave = texto + "|" + size;
+        synchronized (CACHE) {
+            if (CACHE.containsKey(clave)) {
+                return EstadoQR.LISTO;
+            }
+        }
+        return EN_CURSO.containsKey(clave) ? EstadoQR.GENERANDO : EstadoQR.PENDIENTE;
+    }
+
     /**
      * Genera un PNG en Base64 a partir de un texto.
      * @param texto contenido a codificar
@@ -21,18 +195,35 @@ public class QRService {
      * @return cadena Base64 (sin prefijo data:)
      */
     public String generarQRBase64(String texto, int size) {
-        try {
-            BitMatrix matrix = new MultiFormatWriter().encode(
-                    new String(texto.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
-                    BarcodeFormat.QR_CODE,
-                    size,
-                    size
-            );
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, "PNG", baos);
-            return Base64.getEncoder().encodeToString(baos.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("No se pudo generar el código QR", e);
-        }
+        return Base64.getEncoder().encodeToString(generarQRPng(texto, size));
+    }
+
+    /**
+     * Genera el QR de un texto como documento SVG (vectorial, sin caché)
+     * @param texto contenido a codificar
+     * @param size ancho y alto del SVG (px)
+     * @return documento SVG
+     */
+    public String generarQRSvg(String texto, int size) {
+        return MotorQR.generarSvg(texto, new OpcionesQR(size));
+    }
+
+    private static ThreadPoolExecutor crearPool() {
+        int hilos = ConfigManager.getInt("app.qr.hilos",
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(COLA_MAX), r -> {
+                Thread t = new Thread(r, "qr-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private byte[] renderizar(String texto, int size) {
+        return MotorQR.generarPng(texto, new OpcionesQR(size));
     }
 }
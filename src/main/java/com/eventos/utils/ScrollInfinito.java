@@ -0,0 +1,121 @@
+package com.eventos.utils;
+
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TableView;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Utilidad para cargar más filas cuando el usuario se acerca al final de una lista.
+ * Se usa junto con la paginación por clave de los repositorios: cada vez que el scroll
+ * pasa del umbral se pide la página siguiente en lugar de cargar la tabla entera.
+ * Mientras lo cargado no llene la vista (no hay scroll que mover) se siguen pidiendo páginas.
+ */
+public class ScrollInfinito {
+
+    /**
+     * Fracción del recorrido del scroll a partir de la cual se piden más filas
+     */
+    private static final double UMBRAL = 0.9;
+
+    private ScrollInfinito() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Llama a cargarMas cuando el ScrollPane se desplaza cerca del final o cuando
+     * su contenido no llega a llenarlo. El contenido tiene que estar ya puesto.
+     *
+     * @param scrollPane ScrollPane que contiene la lista
+     * @param hayMas Si quedan páginas por cargar
+     * @param cargarMas Acción que añade la página siguiente
+     */
+    public static void instalar(ScrollPane scrollPane, BooleanSupplier hayMas, Runnable cargarMas) {
+        scrollPane.vvalueProperty().addListener((obs, anterior, valor) -> {
+            if (valor.doubleValue() > anterior.doubleValue()
+                    && valor.doubleValue() >= scrollPane.getVmax() * UMBRAL
+                    && hayMas.getAsBoolean()) {
+                cargarMas.run();
+            }
+        });
+        
+        // Cada página añadida cambia el tamaño del contenido; si una carga falla no cambia y se para
+        ChangeListener<Bounds> rellenar = (obs, anterior, limites) -> Platform.runLater(() -> {
+            if (scrollPane.getContent().getLayoutBounds().getHeight() <= scrollPane.getViewportBounds().getHeight()
+                    && hayMas.getAsBoolean()) {
+                cargarMas.run();
+            }
+        });
+        scrollPane.getContent().layoutBoundsProperty().addListener(rellenar);
+        scrollPane.viewportBoundsProperty().addListener(rellenar);
+    }
+
+    /**
+     * Llama a cargarMas cuando la tabla se desplaza cerca de su última fila o cuando
+     * sus filas no llegan a llenarla. La barra de scroll solo existe cuando la tabla
+     * tiene skin, así que se engancha en cuanto esté disponible.
+     *
+     * @param tabla Tabla a vigilar
+     * @param hayMas Si quedan páginas por cargar
+     * @param cargarMas Acción que añade la página siguiente
+     */
+    public static void instalar(TableView<?> tabla, BooleanSupplier hayMas, Runnable cargarMas) {
+        if (tabla.getSkin() != null) {
+            Platform.runLater(() -> engancharBarra(tabla, hayMas, cargarMas));
+        } else {
+            tabla.skinProperty().addListener((obs, anterior, skin) -> {
+                if (skin != null) {
+                    Platform.runLater(() -> engancharBarra(tabla, hayMas, cargarMas));
+                }
+            });
+        }
+    }
+
+    private static void engancharBarra(TableView<?> tabla, BooleanSupplier hayMas, Runnable cargarMas) {
+        for (Node nodo : tabla.lookupAll(".scroll-bar")) {
+            if (nodo instanceof ScrollBar barra && barra.getOrientation() == Orientation.VERTICAL) {
+                barra.valueProperty().addListener((obs, anterior, valor) -> {
+                    if (valor.doubleValue() > anterior.doubleValue()
+                            && valor.doubleValue() >= barra.getMax() * UMBRAL
+                            && hayMas.getAsBoolean()) {
+                        cargarMas.run();
+                    }
+                });
+                
+                // La tabla oculta la barra mientras todas las filas caben; se mira tras cada cambio de filas
+                InvalidationListener rellenar = obs -> Platform.runLater(() -> rellenarTabla(tabla, barra, hayMas, cargarMas));
+                if (tabla.getItems() != null) {
+                    tabla.getItems().addListener(rellenar);
+                }
+                // Cada primera página llega como una lista nueva
+                tabla.itemsProperty().addListener((obs, anteriores, filas) -> {
+                    if (anteriores != null) {
+                        anteriores.removeListener(rellenar);
+                    }
+                    if (filas != null) {
+                        filas.addListener(rellenar);
+                    }
+                    rellenar.invalidated(obs);
+                });
+                barra.visibleProperty().addListener(rellenar);
+                rellenarTabla(tabla, barra, hayMas, cargarMas);
+                return;
+            }
+        }
+    }
+
+    private static void rellenarTabla(TableView<?> tabla, ScrollBar barra, BooleanSupplier hayMas, Runnable cargarMas) {
+        // Sin forzar la maquetación la barra todavía refleja las filas anteriores
+        tabla.layout();
+        if (!barra.isVisible() && hayMas.getAsBoolean()) {
+            cargarMas.run();
+        }
+    }
+}
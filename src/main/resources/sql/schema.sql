@@ -98,14 +98,32 @@ CREATE TABLE IF NOT EXISTS eventos (
     precio_base DECIMAL(10,2),
     imagen_url VARCHAR(500),
     fecha_creacion DATETIME,
+    fecha_modificacion DATETIME,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (tipo_evento_id) REFERENCES tipos_evento(id),
     FOREIGN KEY (sede_id) REFERENCES sedes(id),
     INDEX idx_fecha_inicio (fecha_inicio),
+    INDEX idx_fecha_modificacion (fecha_modificacion),
     INDEX idx_estado (estado),
     INDEX idx_tipo_evento (tipo_evento_id),
     INDEX idx_sede (sede_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================
+-- Tabla: eventos_eliminados
+-- Bajas que envía la exportación de cambios; sin clave foránea
+-- porque el evento ya no existe
+-- ============================================
+CREATE TABLE IF NOT EXISTS eventos_eliminados (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    evento_id BIGINT NOT NULL,
+    nombre VARCHAR(200) NOT NULL,
+    sede VARCHAR(200) NOT NULL,
+    fecha_inicio DATETIME NOT NULL,
+    fecha_eliminacion DATETIME NOT NULL,
+    INDEX idx_fecha_eliminacion (fecha_eliminacion)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ============================================
 -- Tabla: equipamiento
 -- ============================================
@@ -164,16 +182,38 @@ CREATE TABLE IF NOT EXISTS entradas (
     numero_entrada VARCHAR(50) UNIQUE NOT NULL,
     validada BOOLEAN NOT NULL DEFAULT FALSE,
     fecha_validacion DATETIME,
-    codigo_qr TEXT,
+    codigo_qr VARCHAR(32),
     FOREIGN KEY (tipo_entrada_id) REFERENCES tipos_entrada(id),
     FOREIGN KEY (evento_id) REFERENCES eventos(id),
     FOREIGN KEY (compra_id) REFERENCES compras(id) ON DELETE CASCADE,
     INDEX idx_numero_entrada (numero_entrada),
     INDEX idx_validada (validada),
     INDEX idx_evento_id (evento_id),
-    INDEX idx_compra_id (compra_id)
+    INDEX idx_compra_id (compra_id),
+    INDEX idx_evento_validada (evento_id, validada, tipo_entrada_id),
+    CONSTRAINT uk_entradas_codigo_qr UNIQUE (codigo_qr)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================
+-- Secuencias de ids de compras y entradas
+-- Hibernate reserva los ids en bloques de 50 (pooled-lo) para poder
+-- insertar las entradas de una compra en un único lote JDBC.
+-- next_val debe quedar por encima del mayor id existente.
+-- ============================================
+CREATE TABLE IF NOT EXISTS compras_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+INSERT INTO compras_seq (next_val)
+    SELECT COALESCE(MAX(id), 0) + 1 FROM compras
+    WHERE NOT EXISTS (SELECT 1 FROM compras_seq);
+
+CREATE TABLE IF NOT EXISTS entradas_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+INSERT INTO entradas_seq (next_val)
+    SELECT COALESCE(MAX(id), 0) + 1 FROM entradas
+    WHERE NOT EXISTS (SELECT 1 FROM entradas_seq);
+
 -- ============================================
 -- Tabla: registros_entrada
 -- ============================================
@@ -0,0 +1,64 @@
+package com.eventos.config;
+
+import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.xml.EventoXML;
+import com.eventos.dto.xml.EventosXML;
+import jakarta.xml.bind.Marshaller;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SerializacionTest {
+
+    private static EventoJSON eventoJson(long id) {
+        return new EventoJSON(id, "Evento " + id, "Descripción del evento " + id,
+            "2025-06-01 20:00:00", "2025-06-01 23:00:00", 500, 120, "PLANIFICADO", 25.0,
+            "Sede " + (id % 50), "Concierto");
+    }
+
+    private static EventoXML eventoXml(long id) {
+        return new EventoXML(id, "Evento " + id, "Descripción del evento " + id,
+            "2025-06-01 20:00:00", "2025-06-01 23:00:00", 500, 120, "PLANIFICADO", 25.0,
+            "Sede " + (id % 50), "Concierto");
+    }
+
+    @Test
+    void jsonIdaYVuelta() throws Exception {
+        byte[] bytes = Serializacion.escritorJsonLegible().writeValueAsBytes(new EventoJSON[]{eventoJson(7)});
+        EventoJSON[] leidos = Serializacion.lectorJson(EventoJSON[].class).readValue(bytes);
+
+        assertEquals(1, leidos.length);
+        assertEquals(7L, leidos[0].getId());
+        assertEquals("Descripción del evento 7", leidos[0].getDescripcion());
+        assertEquals("PLANIFICADO", leidos[0].getEstado());
+        assertSame(Serializacion.lectorJson(EventoJSON[].class), Serializacion.lectorJson(EventoJSON[].class));
+    }
+
+    @Test
+    void xmlIdaYVuelta() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Serializacion.marshaller().marshal(new EventosXML(List.of(eventoXml(1), eventoXml(2))), salida);
+        EventosXML leido = (EventosXML) Serializacion.unmarshaller()
+            .unmarshal(new ByteArrayInputStream(salida.toByteArray()));
+
+        assertEquals(2, leido.getEventos().size());
+        assertEquals("Evento 2", leido.getEventos().get(1).getNombre());
+        assertEquals("Sede 1", leido.getEventos().get(0).getSede());
+    }
+
+    @Test
+    void cadaHiloTieneSuMarshaller() throws Exception {
+        Marshaller propio = Serializacion.marshaller();
+        Marshaller otro = CompletableFuture.supplyAsync(Serializacion::marshaller).get();
+
+        assertSame(propio, Serializacion.marshaller());
+        assertNotSame(propio, otro);
+    }
+}
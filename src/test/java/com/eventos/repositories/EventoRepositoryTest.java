@@ -0,0 +1,54 @@
+package com.eventos.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventoRepositoryTest {
+
+    @Test
+    void filasSinInformacionSeCuentanConLaComprobacion() throws Exception {
+        Connection conexion = mock(Connection.class);
+        PreparedStatement comprobacion = mock(PreparedStatement.class);
+        ResultSet aplicada = mock(ResultSet.class);
+        ResultSet rechazada = mock(ResultSet.class);
+        when(conexion.prepareStatement(anyString())).thenReturn(comprobacion);
+        when(aplicada.next()).thenReturn(true);
+        when(aplicada.getInt(1)).thenReturn(1);
+        when(rechazada.next()).thenReturn(true);
+        when(rechazada.getInt(1)).thenReturn(0);
+        when(comprobacion.executeQuery()).thenReturn(aplicada, rechazada);
+
+        int[] filas = {1, Statement.SUCCESS_NO_INFO, 0, Statement.SUCCESS_NO_INFO};
+        int[] posiciones = new int[filas.length];
+        EventoRepository.filasConocidas(conexion, filas, "SELECT COUNT(*) ...",
+            (ps, i) -> posiciones[i]++);
+
+        // Una sin información que se aplicó y otra que la condición rechazó (no se da por aplicada)
+        assertArrayEquals(new int[] {1, 1, 0, 0}, filas);
+        assertArrayEquals(new int[] {0, 1, 0, 1}, posiciones);
+        verify(comprobacion, times(2)).executeQuery();
+        verify(comprobacion).close();
+    }
+
+    @Test
+    void conTodasLasFilasInformadasNoSeComprueba() throws Exception {
+        Connection conexion = mock(Connection.class);
+        int[] filas = {1, 0, 2};
+
+        assertArrayEquals(new int[] {1, 0, 2},
+            EventoRepository.filasConocidas(conexion, filas, "SELECT COUNT(*) ...", (ps, i) -> { }));
+        verify(conexion, never()).prepareStatement(anyString());
+    }
+}
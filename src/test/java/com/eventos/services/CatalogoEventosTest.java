@@ -0,0 +1,43 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogoEventosTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private static EventoResumen evento(long id, long sedeId, EstadoEvento estado, int aforoActual, long dias) {
+        LocalDateTime inicio = AHORA.plusDays(dias);
+        return new EventoResumen(id, "Evento " + id, null, "Concierto", inicio, inicio.plusHours(2), estado,
+            aforoActual, 100, new BigDecimal("30"), sedeId, "Sede " + sedeId, "Madrid", 100, null, null);
+    }
+
+    @Test
+    void proximosSonLosQueSiguenALaVentaComoEnReservarAforo() {
+        List<EventoResumen> eventos = new ArrayList<>(List.of(
+            evento(1, 1, EstadoEvento.PLANIFICADO, 10, 3),
+            evento(2, 1, EstadoEvento.ACTIVO, 10, 1),
+            evento(3, 1, EstadoEvento.CANCELADO, 10, 2),
+            evento(4, 1, EstadoEvento.FINALIZADO, 10, 4),
+            evento(5, 1, EstadoEvento.ACTIVO, 100, 5),
+            evento(6, 1, EstadoEvento.ACTIVO, 10, -1),
+            evento(7, 1, null, 10, 6),
+            evento(8, 2, EstadoEvento.PLANIFICADO, 10, 1)));
+        eventos.sort(InstantaneaCatalogo.ORDEN);
+        CatalogoEventos catalogo = new CatalogoEventos(new InstantaneaCatalogo(AHORA, AHORA, eventos, List.of()));
+
+        // Planificados y activos con aforo libre, por fecha; ni pasados, ni agotados, ni sin venta
+        assertEquals(List.of(2L, 1L), catalogo.proximos(1L, AHORA).stream().map(EventoResumen::getId).toList());
+        assertEquals(List.of(8L), catalogo.proximos(2L, AHORA).stream().map(EventoResumen::getId).toList());
+        assertEquals(List.of(), catalogo.proximos(3L, AHORA));
+    }
+}
@@ -0,0 +1,114 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoClave;
+import com.eventos.dto.vista.EventoExportacion;
+import com.eventos.dto.vista.SedeResumen;
+import com.eventos.models.EstadoEvento;
+import com.eventos.models.Evento;
+import com.eventos.models.TipoEvento;
+import com.eventos.repositories.EventoRepository;
+import com.eventos.repositories.SedeRepository;
+import com.eventos.repositories.TipoEventoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exportar e importar de nuevo un evento no le cambia el estado
+ */
+class ExportacionImportacionEstadoTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 6, 1, 20, 0);
+
+    @TempDir
+    Path carpeta;
+
+    private EventoRepository eventoRepo;
+    private ImportacionEventosService importacion;
+
+    @BeforeEach
+    void preparar() {
+        eventoRepo = mock(EventoRepository.class);
+        SedeRepository sedeRepo = mock(SedeRepository.class);
+        TipoEventoRepository tipoEventoRepo = mock(TipoEventoRepository.class);
+        when(sedeRepo.findAllResumen()).thenReturn(List.of(
+            new SedeResumen(10L, "Sede Norte", "Calle 1", "Madrid", 1000, true)));
+        TipoEvento concierto = new TipoEvento();
+        concierto.setId(20L);
+        concierto.setNombre("Concierto");
+        when(tipoEventoRepo.findAll()).thenReturn(List.of(concierto));
+        when(eventoRepo.guardarImportados(anyList(), anyList()))
+            .thenAnswer(invocacion -> unos(invocacion.<List<Evento>>getArgument(1).size()));
+        importacion = new ImportacionEventosService(eventoRepo, sedeRepo, tipoEventoRepo, new EventoService());
+    }
+
+    private static int[] unos(int n) {
+        int[] filas = new int[n];
+        Arrays.fill(filas, 1);
+        return filas;
+    }
+
+    private void guardado(String nombre, EstadoEvento estado) {
+        when(eventoRepo.findClavesPorNombre(anyCollection())).thenReturn(List.of(
+            new EventoClave(1L, nombre, 10L, INICIO, 40, estado)));
+    }
+
+    private Evento actualizado() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Evento>> existentes = ArgumentCaptor.forClass(List.class);
+        verify(eventoRepo).guardarImportados(anyList(), existentes.capture());
+        assertEquals(1, existentes.getValue().size());
+        return existentes.getValue().get(0);
+    }
+
+    @Test
+    void unEventoCanceladoSigueCanceladoTrasExportarEImportar() {
+        when(eventoRepo.recorrerParaExportar(isNull(), any())).thenAnswer(invocacion -> {
+            Consumer<EventoExportacion> consumidor = invocacion.getArgument(1);
+            consumidor.accept(new EventoExportacion(1L, "Gira", "Suspendido", INICIO, INICIO.plusHours(3),
+                500, 40, EstadoEvento.CANCELADO, new BigDecimal("25.00"), "Sede Norte", "Concierto"));
+            return 1L;
+        });
+        ResultadoExportacion exportado = new EventoJSONService(eventoRepo)
+            .exportarEventosStreaming(carpeta.resolve("eventos.json").toString(), false);
+        guardado("Gira", EstadoEvento.CANCELADO);
+
+        ResultadoImportacion resultado = importacion.importar(exportado.getArchivo().toString());
+
+        assertEquals(1, resultado.getActualizadas());
+        assertEquals(EstadoEvento.CANCELADO, actualizado().getEstado());
+    }
+
+    @Test
+    void elMarcadorProgramadoDeArchivosAntiguosConservaElEstadoGuardado() throws Exception {
+        Path archivo = carpeta.resolve("antiguo.json");
+        Files.writeString(archivo, """
+            [{"id":1,"nombre":"Gira","descripcion":"Suspendido","fechaInicio":"2025-06-01 20:00:00",
+              "fechaFin":"2025-06-01 23:00:00","aforoMaximo":500,"aforoActual":40,"estado":"PROGRAMADO",
+              "precioBase":25.0,"sede":"Sede Norte","tipoEvento":"Concierto"}]
+            """);
+        guardado("Gira", EstadoEvento.FINALIZADO);
+
+        importacion.importar(archivo.toString());
+
+        assertEquals(EstadoEvento.FINALIZADO, actualizado().getEstado());
+    }
+}
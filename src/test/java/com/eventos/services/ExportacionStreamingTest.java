@@ -0,0 +1,111 @@
+package com.eventos.services;
+
+import com.eventos.config.Serializacion;
+import com.eventos.dto.json.EventoJSON;
+import com.eventos.dto.vista.EventoExportacion;
+import com.eventos.models.EstadoEvento;
+import com.eventos.models.EventoEliminado;
+import com.eventos.repositories.EventoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportacionStreamingTest {
+
+    @TempDir
+    Path carpeta;
+
+    private static EventoRepository repositorioCon(int eventos) {
+        EventoRepository repo = mock(EventoRepository.class);
+        when(repo.recorrerParaExportar(isNull(), any())).thenAnswer(invocacion -> {
+            Consumer<EventoExportacion> consumidor = invocacion.getArgument(1);
+            LocalDateTime inicio = LocalDateTime.of(2025, 6, 1, 20, 0);
+            for (long id = 1; id <= eventos; id++) {
+                consumidor.accept(new EventoExportacion(id, "Evento " + id, "Descripción " + id, inicio,
+                    inicio.plusHours(3), 500, 120, EstadoEvento.ACTIVO, new BigDecimal("25.00"),
+                    "Sede " + id, "Concierto"));
+            }
+            return (long) eventos;
+        });
+        return repo;
+    }
+
+    private static String sha256(Path archivo) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(archivo)));
+    }
+
+    @Test
+    void jsonComprimidoConTamanoYDigestDelArchivoCerrado() throws Exception {
+        EventoJSONService servicio = new EventoJSONService(repositorioCon(3));
+
+        ResultadoExportacion resultado = servicio.exportarEventosStreaming(
+            carpeta.resolve("eventos.json").toString(), true);
+
+        Path archivo = carpeta.resolve("eventos.json.gz");
+        assertEquals(archivo, resultado.getArchivo());
+        assertEquals(3, resultado.getFilas());
+        assertEquals(Files.size(archivo), resultado.getBytes());
+        assertEquals(sha256(archivo), resultado.getSha256());
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            EventoJSON[] leidos = Serializacion.lectorJson(EventoJSON[].class).readValue(entrada);
+            assertEquals(3, leidos.length);
+            assertEquals("Evento 3", leidos[2].getNombre());
+        }
+    }
+
+    @Test
+    void cambiosComprimidosConTamanoYDigestDelArchivoCerrado() throws Exception {
+        EventoRepository repo = repositorioCon(2);
+        LocalDateTime hasta = LocalDateTime.of(2025, 6, 2, 0, 0);
+        EventoEliminado baja = new EventoEliminado(9L, "Evento 9", "Sede 9", hasta.minusDays(3));
+        baja.setFechaEliminacion(hasta.minusHours(1));
+        when(repo.findEliminados(null, hasta)).thenReturn(List.of(baja));
+        EventoJSONService servicio = new EventoJSONService(repo);
+
+        ResultadoExportacion resultado = servicio.exportarCambios(
+            carpeta.resolve("cambios.json").toString(), true, null, hasta);
+
+        Path archivo = resultado.getArchivo();
+        assertEquals(3, resultado.getFilas());
+        assertEquals(Files.size(archivo), resultado.getBytes());
+        assertEquals(sha256(archivo), resultado.getSha256());
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            JsonNode documento = Serializacion.mapper().readTree(entrada);
+            assertEquals(1, documento.get("eliminados").size());
+            assertEquals(2, documento.get("eventos").size());
+        }
+    }
+
+    @Test
+    void xmlConTamanoYDigestDelArchivoCerrado() throws Exception {
+        EventoXMLService servicio = new EventoXMLService(repositorioCon(3));
+
+        ResultadoExportacion resultado = servicio.exportarEventosStreaming(
+            carpeta.resolve("eventos.xml").toString(), false);
+
+        Path archivo = resultado.getArchivo();
+        assertEquals(Files.size(archivo), resultado.getBytes());
+        assertEquals(sha256(archivo), resultado.getSha256());
+        String xml = Files.readString(archivo);
+        assertTrue(xml.trim().endsWith("</eventos>"));
+        assertEquals(3, servicio.importarEventos(archivo.toString()).size());
+    }
+}
@@ -0,0 +1,230 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import com.eventos.repositories.Pagina;
+import com.eventos.services.FacetasEventos.Faceta;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetasEventosTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 10, 1);
+
+    private static final String[] TIPOS = {"Concierto", "Teatro", "Danza", "Conferencia"};
+    private static final String[] CIUDADES = {"Madrid", "Sevilla", "Bilbao", "Valencia", "León"};
+    private static final String[] PRECIOS = {"0", "15", "20", "35", "50", "80", "100", "250"};
+    private static final EstadoEvento[] ESTADOS = EstadoEvento.values();
+
+    private static EventoResumen evento(long id, EstadoEvento estado, int aforoActual) {
+        LocalDateTime inicio = HOY.plusDays(id).atTime(20, 0);
+        return new EventoResumen(id, "Evento " + id, null, "Concierto", inicio, inicio.plusHours(2), estado,
+            aforoActual, 100, new BigDecimal("30"), 1L, "Sala Sol", "Madrid", 100, null, null);
+    }
+
+    /**
+     * Eventos al azar en el orden del catálogo; algunos sin tipo, ciudad, precio o fecha
+     */
+    private static List<EventoResumen> catalogo(int n, Random azar) {
+        List<EventoResumen> eventos = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            LocalDateTime inicio = azar.nextInt(20) == 0 ? null
+                : HOY.atTime(10, 0).plusDays(azar.nextInt(60) - 10).plusHours(azar.nextInt(12));
+            int aforoMaximo = 50 + azar.nextInt(50);
+            eventos.add(new EventoResumen((long) i, "Evento " + i, null,
+                azar.nextInt(20) == 0 ? null : TIPOS[azar.nextInt(TIPOS.length)],
+                inicio, inicio == null ? null : inicio.plusHours(2),
+                ESTADOS[azar.nextInt(ESTADOS.length)],
+                azar.nextBoolean() ? aforoMaximo : azar.nextInt(aforoMaximo), aforoMaximo,
+                azar.nextInt(20) == 0 ? null : new BigDecimal(PRECIOS[azar.nextInt(PRECIOS.length)]),
+                1L, "Sala", azar.nextInt(20) == 0 ? null : CIUDADES[azar.nextInt(CIUDADES.length)],
+                100, null, null));
+        }
+        eventos.sort(InstantaneaCatalogo.ORDEN);
+        return eventos;
+    }
+
+    /**
+     * Valor de un evento en una faceta calculado aparte, con las reglas que se muestran al usuario
+     */
+    private static String valor(EventoResumen evento, Faceta faceta) {
+        switch (faceta) {
+            case TIPO:
+                return evento.getTipoEvento();
+            case CIUDAD:
+                return evento.getCiudad();
+            case PRECIO:
+                BigDecimal precio = evento.getPrecioBase();
+                if (precio == null) {
+                    return null;
+                }
+                return precio.signum() == 0 ? "Gratis"
+                    : precio.compareTo(new BigDecimal("20")) <= 0 ? "Hasta $20"
+                    : precio.compareTo(new BigDecimal("50")) <= 0 ? "$20 - $50"
+                    : precio.compareTo(new BigDecimal("100")) <= 0 ? "$50 - $100"
+                    : "Más de $100";
+            case FECHA:
+                if (evento.getFechaInicio() == null) {
+                    return null;
+                }
+                LocalDate dia = evento.getFechaInicio().toLocalDate();
+                return dia.isBefore(HOY) ? "Ya celebrados"
+                    : dia.equals(HOY) ? "Hoy"
+                    : !dia.isAfter(HOY.plusDays(7)) ? "Próximos 7 días"
+                    : !dia.isAfter(HOY.plusDays(30)) ? "Próximos 30 días"
+                    : "Más adelante";
+            default:
+                EstadoEvento estado = evento.getEstado();
+                if (estado == null || estado == EstadoEvento.CANCELADO || estado == EstadoEvento.FINALIZADO) {
+                    return "Sin venta";
+                }
+                return evento.getAforoActual() >= evento.getAforoMaximo() ? "Agotados" : "Con entradas";
+        }
+    }
+
+    /**
+     * Cumple la selección en todas las facetas salvo una (null para todas)
+     */
+    private static boolean cumple(EventoResumen evento, Map<Faceta, Set<String>> seleccion, Faceta excepto) {
+        for (Map.Entry<Faceta, Set<String>> elegidos : seleccion.entrySet()) {
+            if (elegidos.getKey() != excepto && !elegidos.getValue().isEmpty()
+                    && !elegidos.getValue().contains(valor(evento, elegidos.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Todos los eventos de un resultado, página a página desde el último de la anterior
+     */
+    private static List<EventoResumen> recorrer(FacetasEventos.Resultado resultado, int tamano) {
+        List<EventoResumen> todos = new ArrayList<>();
+        EventoResumen ultimo = null;
+        while (true) {
+            Pagina<EventoResumen> pagina = resultado.pagina(ultimo, tamano);
+            assertTrue(pagina.getElementos().size() <= tamano);
+            todos.addAll(pagina.getElementos());
+            if (!pagina.hayMas()) {
+                return todos;
+            }
+            assertFalse(pagina.isEmpty());
+            ultimo = pagina.getUltimo();
+        }
+    }
+
+    @Test
+    void coincideConFiltrarEventoAEvento() {
+        Random azar = new Random(42);
+        // Más de dos palabras de 64 bits, con una incompleta al final
+        List<EventoResumen> eventos = catalogo(300, azar);
+        FacetasEventos facetas = new FacetasEventos(eventos, HOY);
+
+        for (int vuelta = 0; vuelta < 300; vuelta++) {
+            // De cero a dos valores por faceta: dentro de una faceta se suman, entre facetas se cruzan
+            Map<Faceta, Set<String>> seleccion = new EnumMap<>(Faceta.class);
+            for (Faceta faceta : Faceta.values()) {
+                List<String> valores = facetas.getValores(faceta);
+                Set<String> elegidos = new HashSet<>();
+                for (int k = azar.nextInt(3); k > 0; k--) {
+                    elegidos.add(valores.get(azar.nextInt(valores.size())));
+                }
+                seleccion.put(faceta, elegidos);
+            }
+
+            FacetasEventos.Resultado resultado = facetas.filtrar(seleccion);
+            List<EventoResumen> esperados = eventos.stream().filter(e -> cumple(e, seleccion, null)).toList();
+            assertEquals(esperados.size(), resultado.getTotal(), seleccion.toString());
+            assertEquals(esperados, recorrer(resultado, 1 + azar.nextInt(70)), seleccion.toString());
+
+            // La cuenta de cada valor no tiene en cuenta lo elegido en su propia faceta
+            for (Faceta faceta : Faceta.values()) {
+                for (String valor : facetas.getValores(faceta)) {
+                    long esperada = eventos.stream()
+                        .filter(e -> cumple(e, seleccion, faceta) && valor.equals(valor(e, faceta)))
+                        .count();
+                    assertEquals(esperada, resultado.getCuenta(faceta, valor), faceta + " = " + valor);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sinSeleccionEstanTodosYCadaEventoCuentaUnaVezPorFaceta() {
+        List<EventoResumen> eventos = catalogo(130, new Random(7));
+        FacetasEventos facetas = new FacetasEventos(eventos, HOY);
+        FacetasEventos.Resultado resultado = facetas.filtrar(Map.of());
+
+        assertEquals(eventos.size(), resultado.getTotal());
+        assertEquals(eventos, recorrer(resultado, 64));
+        for (Faceta faceta : Faceta.values()) {
+            int suma = facetas.getValores(faceta).stream().mapToInt(v -> resultado.getCuenta(faceta, v)).sum();
+            long conValor = eventos.stream().filter(e -> valor(e, faceta) != null).count();
+            assertEquals(conValor, suma, faceta.toString());
+        }
+        // Tipos y ciudades por orden alfabético; los tramos en su orden fijo
+        assertEquals(List.of("Concierto", "Conferencia", "Danza", "Teatro"), facetas.getValores(Faceta.TIPO));
+        assertEquals(List.of("Ya celebrados", "Hoy", "Próximos 7 días", "Próximos 30 días", "Más adelante"),
+            facetas.getValores(Faceta.FECHA));
+    }
+
+    @Test
+    void laPaginaSigueDesdeElUltimoAunqueEsteNoCumplaElFiltro() {
+        List<EventoResumen> eventos = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            eventos.add(evento(i, i % 3 == 0 ? EstadoEvento.CANCELADO : EstadoEvento.ACTIVO, 10));
+        }
+        eventos.sort(InstantaneaCatalogo.ORDEN);
+        FacetasEventos.Resultado sinVenta = new FacetasEventos(eventos, HOY)
+            .filtrar(Map.of(Faceta.DISPONIBILIDAD, Set.of("Sin venta")));
+
+        // Último de la primera palabra (id 137, no cancelado): los siguientes están en la segunda
+        EventoResumen ultimo = eventos.get(63);
+        assertEquals(137L, ultimo.getId());
+        Pagina<EventoResumen> pagina = sinVenta.pagina(ultimo, 3);
+        assertEquals(List.of(135L, 132L, 129L), pagina.getElementos().stream().map(EventoResumen::getId).toList());
+        assertTrue(pagina.hayMas());
+
+        // Un último que ya no está en el catálogo sigue por su posición en el orden
+        EventoResumen desaparecido = evento(500, EstadoEvento.CANCELADO, 10);
+        assertEquals(List.of(198L, 195L), sinVenta.pagina(desaparecido, 2).getElementos().stream()
+            .map(EventoResumen::getId).toList());
+        assertTrue(sinVenta.pagina(eventos.get(eventos.size() - 1), 5).isEmpty());
+    }
+
+    @Test
+    void disponibilidadSigueLaReglaDeReservarAforo() {
+        FacetasEventos facetas = new FacetasEventos(List.of(
+            evento(1, EstadoEvento.PLANIFICADO, 10),
+            evento(2, EstadoEvento.ACTIVO, 10),
+            evento(3, EstadoEvento.ACTIVO, 100),
+            evento(4, EstadoEvento.PLANIFICADO, 100),
+            evento(5, EstadoEvento.CANCELADO, 10),
+            evento(6, EstadoEvento.FINALIZADO, 10),
+            evento(7, null, 10)), HOY);
+
+        // Los planificados se pueden comprar igual que los activos
+        assertEquals(List.of(1L, 2L), ids(facetas, "Con entradas"));
+        assertEquals(List.of(3L, 4L), ids(facetas, "Agotados"));
+        assertEquals(List.of(5L, 6L, 7L), ids(facetas, "Sin venta"));
+    }
+
+    private static List<Long> ids(FacetasEventos facetas, String disponibilidad) {
+        return facetas.filtrar(Map.of(Faceta.DISPONIBILIDAD, Set.of(disponibilidad)))
+            .pagina(null, 50).getElementos().stream().map(EventoResumen::getId).toList();
+    }
+}
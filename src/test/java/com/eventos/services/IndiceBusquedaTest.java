@@ -0,0 +1,130 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceBusquedaTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 1, 20, 0);
+
+    private static EventoResumen evento(long id, String nombre, String descripcion, String tipo,
+                                        String sede, String ciudad) {
+        return new EventoResumen(id, nombre, descripcion, tipo, BASE.plusHours(id), BASE.plusHours(id + 2),
+            EstadoEvento.ACTIVO, 0, 100, BigDecimal.TEN, id, sede, ciudad, 100, null, null);
+    }
+
+    /**
+     * Puntos por id de una búsqueda, en orden de id
+     */
+    private static Map<Long, Integer> buscar(IndiceBusqueda indice, String consulta) {
+        IndiceBusqueda.Resultado resultado = indice.buscar(consulta);
+        Map<Long, Integer> puntos = new LinkedHashMap<>();
+        for (int i = 0; i < resultado.size(); i++) {
+            puntos.put(resultado.getId(i), resultado.getPuntos(i));
+        }
+        return puntos;
+    }
+
+    @Test
+    void noDistingueMayusculasNiTildes() {
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(
+            evento(1, "Ópera de verano", null, "Lírica", "Teatro Cervantes", "Málaga"),
+            evento(2, "Noche de jazz", null, "Concierto", "Sala Sol", "Madrid")));
+
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "opera malaga").keySet()));
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "ÓPERA").keySet()));
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "MáLaGa").keySet()));
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "lirica").keySet()));
+    }
+
+    @Test
+    void cadaPalabraPuedeSerElPrincipioDeUnTerminoYTodasDebenAparecer() {
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(
+            evento(1, "Orquesta sinfónica", null, "Concierto", "Auditorio", "Valencia"),
+            evento(2, "Sinfonía de otoño", null, "Concierto", "Palau", "Barcelona"),
+            evento(3, "Rock en el parque", null, "Festival", "Parque", "Valencia")));
+
+        assertEquals(List.of(1L, 2L), List.copyOf(buscar(indice, "sinf").keySet()));
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "sinf valencia").keySet()));
+        assertEquals(List.of(1L, 3L), List.copyOf(buscar(indice, "valen").keySet()));
+        assertTrue(buscar(indice, "sinfonia rock").isEmpty());
+    }
+
+    @Test
+    void puntuaPorCampoYDobleLaCoincidenciaExacta() {
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(
+            evento(1, "Jazz", null, "Concierto", "Sala", "Madrid"),
+            evento(2, "Noche", "Una noche de jazz", "Concierto", "Sala", "Madrid"),
+            evento(3, "Jazzística", null, "Concierto", "Sala", "Madrid"),
+            evento(4, "Gira", null, "Jazz", "Sala", "Madrid")));
+
+        // Nombre 8, tipo 4, descripción 1; la palabra completa cuenta el doble que el prefijo
+        assertEquals(Map.of(1L, 16, 2L, 2, 3L, 8, 4L, 8), buscar(indice, "jazz"));
+        assertEquals(Map.of(1L, 8, 2L, 1, 3L, 8, 4L, 4), buscar(indice, "jaz"));
+        // Las palabras de la consulta suman; "de" es vacía y no cuenta
+        assertEquals(Map.of(1L, 16 + 6, 2L, 2 + 6, 3L, 8 + 6, 4L, 8 + 6), buscar(indice, "jazz de madrid"));
+    }
+
+    @Test
+    void toleraErratasConLosTerminosMasParecidos() {
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(
+            evento(1, "Festival de verano", null, "Festival", "Recinto", "Bilbao"),
+            evento(2, "Teatro infantil", null, "Teatro", "Arriaga", "Bilbao")));
+
+        assertEquals(List.of(1L), List.copyOf(buscar(indice, "festivla").keySet()));
+        assertEquals(List.of(2L), List.copyOf(buscar(indice, "infantl bilbao").keySet()));
+    }
+
+    @Test
+    void lasErratasDeTerminosNuevosLleganAlRehacerElVocabulario() throws Exception {
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(
+            evento(1, "Concierto de jazz", null, "Concierto", "Sala Sol", "Madrid")));
+        indice.actualizar(null, evento(2, "Recital de saxofón", null, "Concierto", "Sala Sol", "Madrid"));
+
+        // La búsqueda exacta no espera; las erratas usan el vocabulario anterior mientras se rehace
+        assertEquals(List.of(2L), List.copyOf(buscar(indice, "saxofon").keySet()));
+        assertEquals(List.of(1L, 2L), List.copyOf(buscar(indice, "conciertp").keySet()));
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (buscar(indice, "saxofom").isEmpty() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(2L), List.copyOf(buscar(indice, "saxofom").keySet()));
+    }
+
+    @Test
+    void actualizarRenombraAgregaYBorra() {
+        EventoResumen jazz = evento(1, "Noche de jazz", null, "Concierto", "Sala Sol", "Madrid");
+        EventoResumen teatro = evento(2, "Hamlet", "Teatro clásico", "Teatro", "Español", "Madrid");
+        IndiceBusqueda indice = new IndiceBusqueda(List.of(jazz, teatro));
+
+        EventoResumen renombrado = evento(1, "Noche de blues", null, "Concierto", "Sala Sol", "Madrid");
+        indice.actualizar(jazz, renombrado);
+        assertTrue(buscar(indice, "jazz").isEmpty());
+        assertEquals(Map.of(1L, 16), buscar(indice, "blues"));
+        assertEquals(Map.of(1L, 16), buscar(indice, "noche"));
+
+        EventoResumen nuevo = evento(3, "Blues en la playa", null, "Festival", "Playa", "Cádiz");
+        indice.actualizar(null, nuevo);
+        assertEquals(List.of(1L, 3L), List.copyOf(buscar(indice, "blues").keySet()));
+        assertEquals(List.of(3L), List.copyOf(buscar(indice, "cadiz").keySet()));
+
+        // La misma palabra pasa de la descripción al nombre: cambia el peso sin repetir el id
+        EventoResumen clasico = evento(2, "Hamlet clásico", "Teatro clásico", "Teatro", "Español", "Madrid");
+        indice.actualizar(teatro, clasico);
+        assertEquals(Map.of(2L, 16), buscar(indice, "clasico"));
+
+        indice.actualizar(renombrado, null);
+        assertEquals(List.of(3L), List.copyOf(buscar(indice, "blues").keySet()));
+        assertEquals(List.of(2L), List.copyOf(buscar(indice, "madrid").keySet()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.EventoResumen;
+import com.eventos.models.EstadoEvento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InstantaneaCatalogoTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 1, 20, 0, 0, 123_456_000);
+
+    @TempDir
+    Path carpeta;
+
+    private static List<EventoResumen> eventos(int n) {
+        List<EventoResumen> eventos = new ArrayList<>(n);
+        for (int i = n; i > 0; i--) {
+            eventos.add(new EventoResumen((long) i, "Evento " + i + " ñandú", "Descripción del evento número " + i,
+                "Concierto", BASE.plusHours(i), BASE.plusHours(i + 3), EstadoEvento.PLANIFICADO, i % 500, 500,
+                new BigDecimal("25.50"), (long) (i % 50), "Sede " + (i % 50), "Ciudad " + (i % 10), 5000, 40.4, -3.7));
+        }
+        return eventos;
+    }
+
+    private static void assertMismoEvento(EventoResumen esperado, EventoResumen leido) {
+        assertEquals(esperado.getId(), leido.getId());
+        assertEquals(esperado.getNombre(), leido.getNombre());
+        assertEquals(esperado.getDescripcionCorta(), leido.getDescripcionCorta());
+        assertEquals(esperado.getTipoEvento(), leido.getTipoEvento());
+        assertEquals(esperado.getFechaInicio(), leido.getFechaInicio());
+        assertEquals(esperado.getFechaFin(), leido.getFechaFin());
+        assertEquals(esperado.getEstado(), leido.getEstado());
+        assertEquals(esperado.getAforoActual(), leido.getAforoActual());
+        assertEquals(esperado.getAforoMaximo(), leido.getAforoMaximo());
+        assertEquals(esperado.getPrecioBase(), leido.getPrecioBase());
+        assertEquals(esperado.getSedeId(), leido.getSedeId());
+        assertEquals(esperado.getSede(), leido.getSede());
+        assertEquals(esperado.getCiudad(), leido.getCiudad());
+        assertEquals(esperado.getCapacidadSede(), leido.getCapacidadSede());
+        assertEquals(esperado.getLatitud(), leido.getLatitud());
+        assertEquals(esperado.getLongitud(), leido.getLongitud());
+    }
+
+    @Test
+    void idaYVueltaConValoresNulos() throws Exception {
+        List<EventoResumen> eventos = new ArrayList<>(eventos(3));
+        eventos.add(new EventoResumen(99L, null, null, null, null, null, null,
+            null, null, null, null, null, null, null, null, null));
+        InstantaneaCatalogo original = new InstantaneaCatalogo(BASE, BASE.plusMinutes(5), eventos, List.of("Concierto"));
+        Path archivo = carpeta.resolve("catalogo.bin");
+
+        original.guardar(archivo);
+        InstantaneaCatalogo leida = InstantaneaCatalogo.leer(archivo);
+
+        assertEquals(BASE, leida.getGenerada());
+        assertEquals(BASE.plusMinutes(5), leida.getMarca());
+        assertEquals(List.of("Concierto"), leida.getTiposEvento());
+        assertEquals(eventos.size(), leida.getEventos().size());
+        for (int i = 0; i < eventos.size(); i++) {
+            assertMismoEvento(eventos.get(i), leida.getEventos().get(i));
+        }
+    }
+
+    @Test
+    void guardarSobreUnaInstantaneaYaLeidaLaReemplaza() throws Exception {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        new InstantaneaCatalogo(BASE, BASE, eventos(10), List.of()).guardar(archivo);
+        assertEquals(10, InstantaneaCatalogo.leer(archivo).getEventos().size());
+
+        new InstantaneaCatalogo(BASE, BASE, eventos(4), List.of()).guardar(archivo);
+
+        assertEquals(4, InstantaneaCatalogo.leer(archivo).getEventos().size());
+        assertFalse(Files.exists(carpeta.resolve("catalogo.bin.tmp")));
+    }
+
+    @Test
+    void unArchivoDanadoOAusenteNoSeLee() throws Exception {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        assertNull(InstantaneaCatalogo.leer(archivo));
+
+        new InstantaneaCatalogo(BASE, BASE, eventos(5), List.of()).guardar(archivo);
+        byte[] bytes = Files.readAllBytes(archivo);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(archivo, bytes);
+        assertNull(InstantaneaCatalogo.leer(archivo));
+
+        Files.write(archivo, new byte[] {1, 2, 3});
+        assertNull(InstantaneaCatalogo.leer(archivo));
+    }
+
+    @Test
+    void losCambiosSeMezclanEnOrden() {
+        InstantaneaCatalogo base = new InstantaneaCatalogo(BASE, BASE, eventos(5), List.of());
+        EventoResumen movido = new EventoResumen(2L, "Evento 2 movido", null, "Concierto", BASE.plusHours(10),
+            BASE.plusHours(12), EstadoEvento.ACTIVO, 0, 100, null, null, null, null, null, null, null);
+        EventoResumen nuevo = new EventoResumen(6L, "Evento 6", null, "Concierto", BASE.plusHours(4).plusMinutes(30),
+            BASE.plusHours(6), EstadoEvento.ACTIVO, 0, 100, null, null, null, null, null, null, null);
+
+        InstantaneaCatalogo cambiada = base.conCambios(List.of(3L), List.of(movido, nuevo), BASE.plusDays(1));
+
+        assertEquals(List.of(2L, 5L, 6L, 4L, 1L), cambiada.getEventos().stream().map(EventoResumen::getId).toList());
+        assertEquals(BASE.plusDays(1), cambiada.getMarca());
+    }
+}
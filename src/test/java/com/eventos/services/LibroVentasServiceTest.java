@@ -0,0 +1,81 @@
+package com.eventos.services;
+
+import com.eventos.dto.vista.LineaVenta;
+import com.eventos.models.EstadoCompra;
+import com.eventos.repositories.CompraRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LibroVentasServiceTest {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2025, 1, 31, 23, 59);
+
+    @TempDir
+    Path carpeta;
+
+    private static LibroVentasService servicioCon(int lineas) {
+        CompraRepository repo = mock(CompraRepository.class);
+        when(repo.recorrerLibroVentas(any(), any(), any())).thenAnswer(invocacion -> {
+            Consumer<LineaVenta> consumidor = invocacion.getArgument(2);
+            for (long i = 1; i <= lineas; i++) {
+                consumidor.accept(new LineaVenta(i, DESDE.plusDays(i), "CONF-" + i, EstadoCompra.COMPLETADA,
+                    "TARJETA", new BigDecimal("50.00"), 7L, 100 + i, "E-" + i, false, null,
+                    3L, "Concierto, \"gira\"", 1L, "General", new BigDecimal("25.00")));
+            }
+            return (long) lineas;
+        });
+        return new LibroVentasService(repo);
+    }
+
+    private static String sha256(Path archivo) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(archivo)));
+    }
+
+    @Test
+    void csvComprimidoConTamanoYDigestDelArchivoCerrado() throws Exception {
+        ResultadoExportacion resultado = servicioCon(3).exportar(carpeta.resolve("ventas.csv").toString(),
+            DESDE, HASTA, LibroVentasService.Formato.CSV, true);
+
+        Path archivo = resultado.getArchivo();
+        assertEquals(3, resultado.getFilas());
+        assertEquals(Files.size(archivo), resultado.getBytes());
+        assertEquals(sha256(archivo), resultado.getSha256());
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            String[] lineas = new String(entrada.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals(4, lineas.length);
+            assertEquals(String.join(",", LineaVenta.COLUMNAS), lineas[0]);
+            assertTrue(lineas[1].contains("\"Concierto, \"\"gira\"\"\""));
+        }
+    }
+
+    @Test
+    void ndjsonConUnaLineaPorVenta() throws Exception {
+        ResultadoExportacion resultado = servicioCon(2).exportar(carpeta.resolve("ventas.ndjson").toString(),
+            DESDE, HASTA, LibroVentasService.Formato.NDJSON, false);
+
+        Path archivo = resultado.getArchivo();
+        assertEquals(Files.size(archivo), resultado.getBytes());
+        assertEquals(sha256(archivo), resultado.getSha256());
+        String contenido = Files.readString(archivo);
+        assertTrue(contenido.endsWith("}\n"));
+        assertEquals(2, contenido.lines().count());
+    }
+}
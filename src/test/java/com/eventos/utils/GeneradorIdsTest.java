@@ -0,0 +1,90 @@
+package com.eventos.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneradorIdsTest {
+
+    @Test
+    void idsUnicosYCrecientesDesdeVariosHilos() throws InterruptedException {
+        int hilos = 16;
+        int porHilo = 50_000;
+        Set<Long> vistos = ConcurrentHashMap.newKeySet(hilos * porHilo);
+        AtomicLong repetidos = new AtomicLong();
+        AtomicLong desordenados = new AtomicLong();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+
+        for (int h = 0; h < hilos; h++) {
+            pool.execute(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long anterior = -1;
+                for (int i = 0; i < porHilo; i++) {
+                    long id = GeneradorIds.siguiente();
+                    if (!vistos.add(id)) {
+                        repetidos.incrementAndGet();
+                    }
+                    // Dentro de un mismo hilo los ids deben ser crecientes
+                    if (id <= anterior) {
+                        desordenados.incrementAndGet();
+                    }
+                    anterior = id;
+                }
+            });
+        }
+        salida.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertEquals(0, repetidos.get(), "ids repetidos");
+        assertEquals(0, desordenados.get(), "ids no crecientes en un hilo");
+        assertEquals((long) hilos * porHilo, vistos.size());
+    }
+
+    @Test
+    void codificarYDecodificarConservanElIdYElOrden() {
+        long primero = GeneradorIds.siguiente();
+        long segundo = GeneradorIds.siguiente();
+        String codigoPrimero = GeneradorIds.codificar(primero);
+        String codigoSegundo = GeneradorIds.codificar(segundo);
+
+        assertEquals(13, codigoPrimero.length());
+        assertEquals(primero, GeneradorIds.decodificar(codigoPrimero));
+        assertEquals(primero, GeneradorIds.decodificar(codigoPrimero.toLowerCase()));
+        assertTrue(codigoPrimero.compareTo(codigoSegundo) < 0);
+    }
+
+    @Test
+    void prefijosDeEntradaYCompra() {
+        assertTrue(GeneradorIds.numeroEntrada().startsWith("ENT-"));
+        assertTrue(GeneradorIds.codigoConfirmacion().startsWith("COMP-"));
+    }
+
+    @Test
+    void nodoConfiguradoFueraDeRangoEsUnError() {
+        assertEquals(-1, GeneradorIds.nodoConfigurado(null));
+        assertEquals(-1, GeneradorIds.nodoConfigurado(" "));
+        assertEquals(0, GeneradorIds.nodoConfigurado("0"));
+        assertEquals(1023, GeneradorIds.nodoConfigurado(" 1023 "));
+        // 1024 no se recorta a 0: chocaría con la instancia que tiene el nodo 0
+        assertThrows(RuntimeException.class, () -> GeneradorIds.nodoConfigurado("1024"));
+        assertThrows(RuntimeException.class, () -> GeneradorIds.nodoConfigurado("-1"));
+        assertThrows(RuntimeException.class, () -> GeneradorIds.nodoConfigurado("uno"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.eventos.utils;
+
+import com.eventos.utils.IndiceGeografico.Cercano;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceGeograficoTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Puntos al azar sobre la península
+     */
+    private static List<double[]> peninsula(int n, Random azar) {
+        List<double[]> puntos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            puntos.add(new double[] {36 + azar.nextDouble() * 7.5, -9 + azar.nextDouble() * 12});
+        }
+        return puntos;
+    }
+
+    private static IndiceGeografico<double[]> indice(List<double[]> puntos, double celda) {
+        return new IndiceGeografico<>(puntos, p -> p[0], p -> p[1], celda);
+    }
+
+    /**
+     * Distancias de todos los puntos que cumplen el filtro, de menor a mayor
+     */
+    private static List<Double> fuerzaBruta(List<double[]> puntos, double latitud, double longitud,
+                                            Predicate<double[]> filtro) {
+        return puntos.stream()
+            .filter(p -> filtro == null || filtro.test(p))
+            .map(p -> IndiceGeografico.distanciaKm(latitud, longitud, p[0], p[1]))
+            .sorted()
+            .toList();
+    }
+
+    /**
+     * Mismas distancias en el mismo orden, y cada una es la de su elemento
+     */
+    private static void comprobar(List<Double> esperadas, List<Cercano<double[]>> encontrados,
+                                  double latitud, double longitud, String caso) {
+        assertEquals(esperadas.size(), encontrados.size(), caso);
+        for (int i = 0; i < esperadas.size(); i++) {
+            Cercano<double[]> cercano = encontrados.get(i);
+            double[] p = cercano.getElemento();
+            assertEquals(esperadas.get(i), cercano.getDistanciaKm(), EPSILON, caso + " #" + i);
+            assertEquals(IndiceGeografico.distanciaKm(latitud, longitud, p[0], p[1]), cercano.getDistanciaKm(),
+                EPSILON, caso + " #" + i);
+        }
+    }
+
+    @Test
+    void distanciaEntreCiudadesConocidas() {
+        // Madrid - Barcelona, unos 505 km en línea recta
+        assertEquals(505, IndiceGeografico.distanciaKm(40.4168, -3.7038, 41.3874, 2.1686), 5);
+        assertEquals(0, IndiceGeografico.distanciaKm(40.4168, -3.7038, 40.4168, -3.7038), EPSILON);
+    }
+
+    @Test
+    void enRadioCoincideConMedirTodos() {
+        Random azar = new Random(42);
+        List<double[]> puntos = peninsula(5_000, azar);
+        for (double celda : new double[] {IndiceGeografico.CELDA_GRADOS, 0.5}) {
+            IndiceGeografico<double[]> indice = indice(puntos, celda);
+            for (int q = 0; q < 50; q++) {
+                double latitud = 35 + azar.nextDouble() * 9.5;
+                double longitud = -10 + azar.nextDouble() * 14;
+                for (double radio : new double[] {1, 5, 25, 100, 400}) {
+                    List<Double> esperadas = fuerzaBruta(puntos, latitud, longitud, null).stream()
+                        .filter(d -> d <= radio).toList();
+                    comprobar(esperadas, indice.enRadio(latitud, longitud, radio),
+                        latitud, longitud, "celda " + celda + ", radio " + radio + " en " + latitud + "," + longitud);
+                }
+            }
+        }
+    }
+
+    @Test
+    void masCercanosCoincideConMedirTodos() {
+        Random azar = new Random(7);
+        List<double[]> puntos = peninsula(5_000, azar);
+        Predicate<double[]> alNorte = p -> p[0] > 41;
+        for (double celda : new double[] {IndiceGeografico.CELDA_GRADOS, 0.5}) {
+            IndiceGeografico<double[]> indice = indice(puntos, celda);
+            for (int q = 0; q < 50; q++) {
+                // También puntos fuera de la península, lejos de todos
+                double latitud = 30 + azar.nextDouble() * 20;
+                double longitud = -15 + azar.nextDouble() * 25;
+                for (int k : new int[] {1, 10, 100}) {
+                    for (Predicate<double[]> filtro : List.<Predicate<double[]>>of(p -> true, alNorte)) {
+                        List<Double> esperadas = fuerzaBruta(puntos, latitud, longitud, filtro).stream()
+                            .limit(k).toList();
+                        comprobar(esperadas, indice.masCercanos(latitud, longitud, k, filtro),
+                            latitud, longitud, "celda " + celda + ", k " + k + " en " + latitud + "," + longitud);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void enRadioCruzaElAntimeridiano() {
+        List<double[]> puntos = List.of(
+            new double[] {-17.8, 179.9}, new double[] {-17.8, -179.9}, new double[] {-17.8, 170});
+        IndiceGeografico<double[]> indice = indice(puntos, IndiceGeografico.CELDA_GRADOS);
+
+        comprobar(fuerzaBruta(puntos, -17.8, 180, null).stream().filter(d -> d <= 50).toList(),
+            indice.enRadio(-17.8, 180, 50), -17.8, 180, "antimeridiano");
+        assertEquals(2, indice.enRadio(-17.8, 180, 50).size());
+    }
+
+    @Test
+    void masCercanosCruzaElAntimeridiano() {
+        List<double[]> puntos = List.of(
+            new double[] {-17.8, -179.95}, new double[] {-17.8, 179.0}, new double[] {-17.8, 178.0});
+        IndiceGeografico<double[]> indice = indice(puntos, IndiceGeografico.CELDA_GRADOS);
+
+        // El más cercano está al otro lado: unos 10 km frente a unos 100
+        List<Cercano<double[]>> cercanos = indice.masCercanos(-17.8, 179.95, 1, null);
+        assertEquals(-179.95, cercanos.get(0).getElemento()[1]);
+        comprobar(fuerzaBruta(puntos, -17.8, 179.95, null), indice.masCercanos(-17.8, 179.95, 3, null),
+            -17.8, 179.95, "antimeridiano");
+
+        // Muchos puntos a ambos lados, con celdas pequeñas y grandes
+        Random azar = new Random(3);
+        List<double[]> islas = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            double longitud = 170 + azar.nextDouble() * 20;
+            islas.add(new double[] {-30 + azar.nextDouble() * 20, longitud >= 180 ? longitud - 360 : longitud});
+        }
+        for (double celda : new double[] {IndiceGeografico.CELDA_GRADOS, 0.7}) {
+            IndiceGeografico<double[]> deIslas = indice(islas, celda);
+            for (int q = 0; q < 50; q++) {
+                double latitud = -32 + azar.nextDouble() * 24;
+                double longitud = q % 2 == 0 ? 179 + azar.nextDouble() : -180 + azar.nextDouble();
+                for (int k : new int[] {1, 10, 100}) {
+                    comprobar(fuerzaBruta(islas, latitud, longitud, null).stream().limit(k).toList(),
+                        deIslas.masCercanos(latitud, longitud, k, null),
+                        latitud, longitud, "celda " + celda + ", k " + k + " en " + latitud + "," + longitud);
+                }
+            }
+        }
+    }
+
+    @Test
+    void casosLimite() {
+        IndiceGeografico<double[]> vacio = indice(List.of(), IndiceGeografico.CELDA_GRADOS);
+        assertTrue(vacio.masCercanos(40, -3, 5, null).isEmpty());
+        assertTrue(vacio.enRadio(40, -3, 100).isEmpty());
+
+        List<double[]> puntos = peninsula(20, new Random(1));
+        IndiceGeografico<double[]> indice = indice(puntos, IndiceGeografico.CELDA_GRADOS);
+        assertTrue(indice.masCercanos(40, -3, 0, null).isEmpty());
+        // Más de los que hay: todos, ordenados
+        comprobar(fuerzaBruta(puntos, 40, -3, null), indice.masCercanos(40, -3, 50, null), 40, -3, "k > n");
+        assertTrue(indice.masCercanos(40, -3, 5, p -> false).isEmpty());
+    }
+}
@@ -0,0 +1,110 @@
+package com.eventos.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTrigramasTest {
+
+    private static final List<String> CIUDADES = List.of("Valladolid", "Madridejos", "Málaga", "Madrid", "Mérida");
+
+    @Test
+    void unaErrataEncuentraElTextoMasParecidoPrimero() {
+        IndiceTrigramas<String> indice = new IndiceTrigramas<>(CIUDADES, Function.identity());
+
+        // "madird" comparte 3 de sus 7 trigramas con Madrid y con Madridejos; gana el más corto
+        assertEquals(List.of("Madrid", "Madridejos"), indice.buscar("Madird", 10));
+        assertEquals(List.of("González"),
+            new IndiceTrigramas<>(List.of("Gómez", "González", "Gonzalo"), Function.<String>identity())
+                .buscar("gonzales", 1));
+    }
+
+    @Test
+    void laSimilitudMinimaDejaFueraLosPocoParecidos() {
+        IndiceTrigramas<String> indice = new IndiceTrigramas<>(CIUDADES, Function.identity());
+
+        // Málaga solo comparte "  m" y " ma" (2 de 7): no llega al 0,4 por defecto, sí al 0,2.
+        // Mérida solo comparte "  m" y se queda fuera de ambos
+        assertEquals(List.of("Madrid", "Madridejos", "Málaga"), indice.buscar("Madird", 0.2, 10));
+        // Con 1,0 hacen falta todos: a Madridejos le falta "id " (fin de palabra)
+        assertEquals(List.of("Madrid"), indice.buscar("madrid", 1.0, 10));
+        assertTrue(indice.buscar("Madird", 1.0, 10).isEmpty());
+        assertTrue(indice.buscar("xyzzy", 10).isEmpty());
+        assertTrue(indice.buscar("   ", 10).isEmpty());
+        assertEquals(List.of("Madrid"), indice.buscar("Madird", 1));
+    }
+
+    @Test
+    void aIgualdadGanaElDeMenosTrigramasDeSobraYDespuesElPrimero() {
+        List<Integer> ids = List.of(10, 20, 30, 40);
+        List<String> textos = List.of("Sala Sol grande", "Sala Sol", "Sala Sol", "Sala");
+        IndiceTrigramas<Integer> indice = new IndiceTrigramas<>(ids, id -> textos.get(id / 10 - 1));
+
+        // Los tres primeros los contienen todos; "Sala" solo una parte y va el último
+        assertEquals(List.of(20, 30, 10, 40), indice.buscar("sala sol", 10));
+    }
+
+    @Test
+    void coincideConRecorrerTodosLosTextos() {
+        List<String> nombres = nombres(5_000, new Random(7));
+        IndiceTrigramas<String> indice = new IndiceTrigramas<>(nombres, Function.identity());
+        Random azar = new Random(11);
+        for (int q = 0; q < 200; q++) {
+            String muestra = nombres.get(azar.nextInt(nombres.size()));
+            int corte = 1 + azar.nextInt(muestra.length() - 1);
+            // Consultas con una letra de menos, o solo una parte del nombre
+            String consulta = q % 2 == 0
+                ? muestra.substring(0, corte) + muestra.substring(corte + 1)
+                : muestra.split(" ")[q % 3];
+            for (double minima : new double[] {IndiceTrigramas.SIMILITUD_MINIMA, 0.7}) {
+                assertEquals(fuerzaBruta(nombres, consulta, minima, 20), indice.buscar(consulta, minima, 20),
+                    consulta + " / " + minima);
+            }
+        }
+    }
+
+    /**
+     * Mismo orden que el índice: más trigramas comunes, menos de sobra y posición
+     */
+    private static List<String> fuerzaBruta(List<String> textos, String consulta, double minima, int maximo) {
+        long[] buscados = IndiceTrigramas.trigramas(consulta);
+        int necesarios = Math.max(1, (int) Math.ceil(minima * buscados.length));
+        List<int[]> candidatos = new ArrayList<>();
+        for (int i = 0; i < textos.size(); i++) {
+            long[] propios = IndiceTrigramas.trigramas(textos.get(i));
+            int comunes = (int) Arrays.stream(buscados).filter(t -> Arrays.binarySearch(propios, t) >= 0).count();
+            if (comunes >= necesarios) {
+                candidatos.add(new int[] {comunes, propios.length - comunes, i});
+            }
+        }
+        candidatos.sort(Comparator.<int[]>comparingInt(c -> -c[0]).thenComparingInt(c -> c[1]).thenComparingInt(c -> c[2]));
+        return candidatos.stream().limit(maximo).map(c -> textos.get(c[2])).toList();
+    }
+
+    /**
+     * Nombres inventados con sílabas al azar, para que haya variedad
+     */
+    private static List<String> nombres(int n, Random azar) {
+        String[] silabas = {"ma", "ri", "jo", "se", "lu", "ci", "al", "va", "ro", "go", "mez", "nan", "dez",
+            "gon", "za", "lez", "pe", "rez", "san", "chez", "mu", "ñoz", "tí", "ne", "ba", "ca", "rra", "quel"};
+        Function<Integer, String> palabra = silabasPorPalabra -> {
+            StringBuilder sb = new StringBuilder();
+            for (int s = 0; s < silabasPorPalabra; s++) {
+                sb.append(silabas[azar.nextInt(silabas.length)]);
+            }
+            return Character.toUpperCase(sb.charAt(0)) + sb.substring(1);
+        };
+        return IntStream.range(0, n)
+            .mapToObj(i -> palabra.apply(2) + " " + palabra.apply(3) + " " + palabra.apply(3))
+            .toList();
+    }
+}
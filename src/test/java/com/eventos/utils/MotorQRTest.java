@@ -0,0 +1,60 @@
+package com.eventos.utils;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class MotorQRTest {
+
+    private static String[] tokens(int cuantos) {
+        String[] tokens = new String[cuantos];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = QRService.generarToken();
+        }
+        return tokens;
+    }
+
+    @Test
+    void mismoDibujoQueZxing() throws Exception {
+        for (int tamano : new int[] {QRService.TAMANO_MINIATURA, QRService.TAMANO_DETALLE}) {
+            OpcionesQR opciones = new OpcionesQR(tamano);
+            for (String token : tokens(32)) {
+                BitMatrix esperado = new MultiFormatWriter().encode(token, BarcodeFormat.QR_CODE, tamano, tamano);
+                MotorQR.MapaBits obtenido = MotorQR.generarMapaBits(token, opciones);
+                assertEquals(esperado.getWidth(), obtenido.getLado());
+                for (int y = 0; y < obtenido.getLado(); y++) {
+                    for (int x = 0; x < obtenido.getLado(); x++) {
+                        assertEquals(esperado.get(x, y), obtenido.get(x, y), "Píxel distinto en (" + x + ", " + y + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void elPngSeLeeConUnLector() throws Exception {
+        OpcionesQR opciones = new OpcionesQR(QRService.TAMANO_DETALLE);
+        for (String token : tokens(32)) {
+            BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(MotorQR.generarPng(token, opciones)));
+            assertNotNull(imagen);
+            String leido = new MultiFormatReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(imagen))),
+                Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE)).getText();
+            assertEquals(token, leido);
+        }
+    }
+}
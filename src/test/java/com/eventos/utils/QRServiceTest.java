@@ -0,0 +1,29 @@
+package com.eventos.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QRServiceTest {
+
+    private final QRService qr = new QRService();
+
+    @Test
+    void peticionesIgualesCompartenLaGeneracionYLaSueltanAlTerminar() throws Exception {
+        String token = QRService.generarToken();
+        CompletableFuture<byte[]> primero = qr.generarQRPngAsync(token, QRService.TAMANO_MINIATURA);
+        CompletableFuture<byte[]> segundo = qr.generarQRPngAsync(token, QRService.TAMANO_MINIATURA);
+        if (!primero.isDone()) {
+            assertSame(primero, segundo);
+        }
+
+        byte[] png = primero.get(10, TimeUnit.SECONDS);
+        assertArrayEquals(png, segundo.get(10, TimeUnit.SECONDS));
+        assertEquals(QRService.EstadoQR.LISTO, qr.estado(token, QRService.TAMANO_MINIATURA));
+    }
+}